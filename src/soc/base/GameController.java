@@ -1,5 +1,8 @@
 package soc.base;
 
+import soc.base.ai.OpeningEvaluator;
+import soc.base.ai.RobberAdvisor;
+import soc.base.ai.TradePlanner;
 import soc.base.gui.*;
 import soc.base.model.*;
 
@@ -12,6 +15,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * Represents the controller for Settlers of Catan. Enables the players to play
@@ -26,7 +30,9 @@ public class GameController {
     public static final String WOOL = "Wool";
     public static final String[] RESOURCE_TYPES = {BRICK, GRAIN, LUMBER, ORE, WOOL};
     public static final String HARBOR_TYPE_ANY = "Any";
+    public static final String[] PLAYER_COLORS = {"Blue", "Orange", "Red", "White"};//Does not support 5-6 player expansion
     private final int WIN_LIMIT = 10;
+    private final int NUM_SETUP_HINTS = 3;
 
     //Model variables
     private Player[] players;
@@ -34,17 +40,22 @@ public class GameController {
     private Iterator<Player> turnIterator;
     private Player currentPlayer, longestRoadPlayer, largestArmyPlayer;
     private Board gameBoard;
-    private Deque<DevelopmentCard> devCardDeck;
-    private ArrayList<DevelopmentCard> devCardsBuiltThisTurn;
+    private DevCardDeck devCardDeck;
+    private TradePlanner tradePlanner;
+    private RobberAdvisor robberAdvisor;
+    private GameEngine engine;//Runs all the game logic, so the model is only changed by the engine's thread
+    private volatile int turnNumber;//Changed by the engine when a turn starts, so buttons pressed during an earlier turn are ignored
     //GUI variables
+    private UiUpdateQueue uiQueue;
     private GameIcons icons;
     private JFrame mainFrame;
     private BoardPane boardPane;
     private HashMap<Player, PlayerInfoPanel> playerInfoPanelMap;
     private PlayerPanel playerPanel;
-    private CardsFrame cardsFrame;
+    private CardsFrame cardsFrame;//Only used on the event dispatch thread
     //Setup variables
     private ArrayList<Integer> validSetupSettlementLocs;
+    private OpeningEvaluator openingEvaluator;
     private int[] secondSettlementLocs;
     private int playerIndex;
 
@@ -57,9 +68,11 @@ public class GameController {
     //TODO: Add option to save/load games
 
     public GameController() {
+        engine = new GameEngine("Game Engine");
+        uiQueue = new UiUpdateQueue();
         icons = new GameIcons();
-        devCardDeck = generateShuffledDevCards();
-        devCardsBuiltThisTurn = new ArrayList<DevelopmentCard>();
+        devCardDeck = new DevCardDeck();
+        tradePlanner = new TradePlanner();
         //Create the players and gameBoard
         String[] playerColors = {"Blue", "Orange", "Red", "White"};//Does not support 5-6 player expansion
         players = PlayerConstructor.constructPlayers(playerColors);
@@ -91,47 +104,24 @@ public class GameController {
         for (int i = 0; i < gameBoard.getNumCorners(); i++) {
             validSetupSettlementLocs.add(i);
         }
+        openingEvaluator = new OpeningEvaluator(gameBoard);
+        robberAdvisor = new RobberAdvisor(gameBoard, players);
         Player[] setupQueue = Arrays.copyOf(players, players.length * 2);
         for (int i = 0; i < players.length; i++) {
             setupQueue[setupQueue.length - 1 - i] = players[i];
         }
         turnIterator = Arrays.asList(setupQueue).iterator();
         currentPlayer = turnIterator.next();
-        playerPanel.updatePlayer(currentPlayer);
+        displayCurrentPlayer();
 
         //Show the frame and let the first player place their first settlement
         mainFrame.pack();
         mainFrame.setLocationRelativeTo(null);
         mainFrame.setVisible(true);
-        boardPane.showValidLocs(validSetupSettlementLocs, new SetUpSettlementListener(), BoardPane.LOC_TYPE_SETTLEMENT, false);
-        JOptionPane.showMessageDialog(mainFrame, currentPlayer.getColoredName() + ", please place a settlement and a road next to the new settlement", "Setup", JOptionPane.INFORMATION_MESSAGE);
-    }
-
-    /**
-     * Constructs and returns a Deque of all the development cards in a game of
-     * Settlers of Catan. The order of the cards is random.
-     * @return A shuffled Deque of all the development cards in a game of
-     * Settlers of Catan
-     */
-    private Deque<DevelopmentCard> generateShuffledDevCards() {
-        final int NUM_KNIGHT_CARDS = 14;
-        final int NUM_PROGRESS_CARDS = 2;
-        //Construct all the development cards
-        ArrayList<DevelopmentCard> devCards = new ArrayList<DevelopmentCard>();
-        for (int i = 0; i < NUM_PROGRESS_CARDS; i++) {
-            for (String progressCard : DevelopmentCard.PROGRESS_CARDS) {
-                devCards.add(new DevelopmentCard(progressCard));
-            }
-        }
-        for (int i = 0; i < NUM_KNIGHT_CARDS - 2; i++) {//Add 12 Knight cards because 2 were already added
-            devCards.add(new DevelopmentCard(DevelopmentCard.KNIGHT));
-        }
-        for (String victoryPointCard : DevelopmentCard.VICTORY_POINT_CARDS) {
-            devCards.add(new DevelopmentCard(victoryPointCard));
-        }
-        //Shuffle the cards
-        Collections.shuffle(devCards);
-        return new ArrayDeque<DevelopmentCard>(devCards);
+        engine.start();
+        showValidLocs(validSetupSettlementLocs, new SetUpSettlementListener(), BoardPane.LOC_TYPE_SETTLEMENT, false);
+        showSetupHints();
+        showMessageDialog(mainFrame, currentPlayer.getColoredName() + ", please place a settlement and a road next to the new settlement", "Setup", JOptionPane.INFORMATION_MESSAGE);
     }
 
     /**
@@ -170,7 +160,7 @@ public class GameController {
         JPanel message = new JPanel(new BorderLayout());
         message.add(new JLabel("<html><center>Turn Order:<br>(determined randomly)</center></html>)", JLabel.CENTER), BorderLayout.NORTH);
         message.add(playerOrder);
-        JOptionPane.showMessageDialog(null, message, "Setup", JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
+        showMessageDialog(null, message, "Setup", JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
     }
 
     /**
@@ -185,11 +175,11 @@ public class GameController {
         //Create the BoardPane
         while (true) {
             Board tempBoard = new Board();
-            BoardPane tempPane = new BoardPane(icons, tempBoard.getTiles());
+            BoardPane tempPane = new BoardPane(icons, tempBoard);
             JPanel message = new JPanel(new BorderLayout());
             message.add(new JLabel("Would you like to use this board?", JLabel.CENTER), BorderLayout.NORTH);
             message.add(tempPane, BorderLayout.CENTER);
-            int response = JOptionPane.showOptionDialog(null, message, "Choose Board", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE, new ImageIcon(), new Object[]{"Use this board", "Use a different board"}, "Use this board");
+            int response = showOptionDialog(null, message, "Choose Board", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE, new ImageIcon(), new Object[]{"Use this board", "Use a different board"}, "Use this board");
             if (response == JOptionPane.YES_OPTION) {
                 gameBoard = tempBoard;
                 boardPane = tempPane;
@@ -234,32 +224,23 @@ public class GameController {
      */
     private void startNextTurn() {
         //Close any frames (other than mainFrame) that may be open
-        if (cardsFrame != null) {
-            cardsFrame.dispose();
-            cardsFrame = null;
-        }
+        closeCardsFrame();
         if (!turnIterator.hasNext()) {
             turnIterator = Arrays.asList(players).iterator();
         }
         currentPlayer = turnIterator.next();
-        playerPanel.updatePlayer(currentPlayer);
-        JOptionPane.showMessageDialog(mainFrame, currentPlayer.getColoredName() + ", it is now your turn", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+        turnNumber++;
+        displayCurrentPlayer();
+        showMessageDialog(mainFrame, currentPlayer.getColoredName() + ", it is now your turn", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
         //Roll the dice
         int redDie = (int) (Math.random() * 6 + 1);
         int yellowDie = (int) (Math.random() * 6 + 1);
-        //Show the user what they rolled
-        JPanel dicePanel = new JPanel();
-        dicePanel.add(new JLabel(icons.getRedDieIcon(redDie)));
-        dicePanel.add(new JLabel(icons.getYellowDieIcon(yellowDie)));
-        JPanel diceMessage = new JPanel(new BorderLayout());
-        diceMessage.add(new JLabel("You rolled:", JLabel.CENTER), BorderLayout.NORTH);
-        diceMessage.add(dicePanel, BorderLayout.CENTER);
-        JOptionPane.showMessageDialog(mainFrame, diceMessage, mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
+        showDiceRoll(redDie, yellowDie);
         int numRolled = redDie + yellowDie;
         if (numRolled == 7) {//Force players with more than 7 resource cards to discard half of them and then move the robber
             for (Player player : players) {
                 if (player.getSumResourceCards() > 7) {
-                    int[] discardedResources = DiscardResources.discardResources(icons, player);
+                    int[] discardedResources = discardResources(player);
                     //Discard the cards the player selected
                     for (int i = 0; i < RESOURCE_TYPES.length; i++) {
                         player.takeResource(RESOURCE_TYPES[i], discardedResources[i]);
@@ -268,54 +249,32 @@ public class GameController {
             }
             moveRobber();
         } else {//Distribute the appropriate resources
-            HashMap<String, CardPane> paneMap = new HashMap<String, CardPane>();//Key is player color, value is CardPane of their resources
+            HashMap<String, int[]> receivedMap = new HashMap<String, int[]>();//Key is player color, value is the number of each type of resource card they received
             for (Tile tile : gameBoard.getNumberTokenTiles(numRolled)) {
                 if (!tile.hasRobber()) {
                     for (int settlementLoc : tile.getSettlementLocs()) {
-                        if (gameBoard.getCorner(settlementLoc).hasCity()) {
-                            playerColorMap.get(gameBoard.getCorner(settlementLoc).getSettlementColor()).giveResource(tile.getResourceProduced(), 2);
-                        } else {
-                            playerColorMap.get(gameBoard.getCorner(settlementLoc).getSettlementColor()).giveResource(tile.getResourceProduced(), 1);
-                        }
+                        String settlementColor = gameBoard.getCorner(settlementLoc).getSettlementColor();
+                        int amount = gameBoard.getCorner(settlementLoc).hasCity() ? 2 : 1;
+                        playerColorMap.get(settlementColor).giveResource(tile.getResourceProduced(), amount);
 
-                        //Update cardsFrame if necessary
-                        if (cardsFrame != null && gameBoard.getCorner(settlementLoc).getSettlementColor().equals(currentPlayer.getColor())) {
-                            cardsFrame.addResourceCard(tile.getResourceProduced());
-                        }
-                        if (paneMap.get(gameBoard.getCorner(settlementLoc).getSettlementColor()) == null) {
-                            paneMap.put(gameBoard.getCorner(settlementLoc).getSettlementColor(), new CardPane(GameIcons.CARD_WIDTH * 5, GameIcons.CARD_HEIGHT));
+                        if (receivedMap.get(settlementColor) == null) {
+                            receivedMap.put(settlementColor, new int[RESOURCE_TYPES.length]);
                         }
-                        JLabel tempLabel = new JLabel(icons.getResourceIcon(tile.getResourceProduced()));
-                        tempLabel.setName(tile.getResourceProduced());//Set the name of the label so the CardPane will sort it correctly
-                        paneMap.get(gameBoard.getCorner(settlementLoc).getSettlementColor()).addCard(tempLabel);
+                        receivedMap.get(settlementColor)[Arrays.asList(RESOURCE_TYPES).indexOf(tile.getResourceProduced())] += amount;
                     }
                 }
             }
+            updateCardsFrame();
             //Show the resources that each player received
-            JPanel resourcePanel = new JPanel();
-            if (paneMap.isEmpty()) {//No one received any resources
-                resourcePanel.add(new JLabel("None"));
-            } else {
-                resourcePanel.setLayout(new GridLayout(paneMap.size(), 2, -1, -1));
-                JPanel resourcesPanel;
-                for (Player player : players) {//Displays players in order
-                    if (paneMap.keySet().contains(player.getColor())) {
-                        JLabel tempLabel = new JLabel(player.getColoredName(), JLabel.CENTER);
-                        tempLabel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
-                        resourcesPanel = new JPanel();
-                        resourcesPanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
-                        resourcesPanel.add(paneMap.get(player.getColor()));
-                        resourcePanel.add(tempLabel);
-                        resourcePanel.add(resourcesPanel);
-                    }
-                }
+            String[] names = new String[players.length];
+            int[][] numReceived = new int[players.length][];
+            for (int i = 0; i < players.length; i++) {//Displays players in order
+                names[i] = players[i].getColoredName();
+                numReceived[i] = receivedMap.get(players[i].getColor());
             }
-            JPanel resourceMessage = new JPanel(new BorderLayout());
-            resourceMessage.add(new JLabel("Resources Received:", JLabel.CENTER), BorderLayout.NORTH);
-            resourceMessage.add(resourcePanel, BorderLayout.CENTER);
-            JOptionPane.showMessageDialog(mainFrame, resourceMessage, mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
-            playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-            playerPanel.setButtonsEnabled(true);
+            showResourcesDialog(mainFrame.getTitle(), "Resources Received:", names, numReceived, GameIcons.CARD_WIDTH * 5, "None");
+            updatePlayerInfo(currentPlayer);
+            setButtonsEnabled(true);
         }
     }
 
@@ -328,8 +287,8 @@ public class GameController {
             validRobberLocs.add(i);
         }
         validRobberLocs.remove(gameBoard.getRobberLoc());
-        JOptionPane.showMessageDialog(mainFrame, currentPlayer.getColoredName() + ", please move the robber", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
-        boardPane.showValidLocs(validRobberLocs, new MoveRobberListener(), BoardPane.LOC_TYPE_ROBBER, false);
+        showMessageDialog(mainFrame, currentPlayer.getColoredName() + ", please move the robber", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+        showValidLocs(validRobberLocs, new MoveRobberListener(), BoardPane.LOC_TYPE_ROBBER, false);
     }
 
     /**
@@ -337,7 +296,7 @@ public class GameController {
      */
     private void checkVictoryPoints() {
         if (currentPlayer.getNumVictoryPoints() >= WIN_LIMIT) {
-            JOptionPane.showMessageDialog(mainFrame, currentPlayer.getColoredName() + " wins!", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+            showMessageDialog(mainFrame, currentPlayer.getColoredName() + " wins!", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
             System.exit(0);
         }
     }
@@ -355,8 +314,8 @@ public class GameController {
                 }
                 longestRoadPlayer = currentPlayer;
                 currentPlayer.setLongestRoadStatus(true);
-                playerInfoPanelMap.get(currentPlayer).setLongestRoad(true);
-                JOptionPane.showMessageDialog(mainFrame, "You earned Longest Road!", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+                displayLongestRoad(currentPlayer);
+                showMessageDialog(mainFrame, "You earned Longest Road!", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
                 checkVictoryPoints();
             }
         }
@@ -388,18 +347,220 @@ public class GameController {
     }
 
     /**
-     * ActionListener that is added to every button in the PlayerPanel.
+     * Shows a star at every location in the specified list. The location the
+     * user selects is handed to the specified LocationListener on the
+     * engine's thread.
+     * @param validLocs    the locations to show
+     * @param locListener  the listener to notify when a location is selected
+     * @param locType      the type of locations in the list (see BoardPane)
+     * @param cancelOption true if the user can cancel instead of selecting a
+     *                     location
      */
-    private class PlayerPanelListener implements ActionListener {
-        @Override
-        public void actionPerformed(ActionEvent actionEvent) {
-            if (actionEvent.getActionCommand().equals(PlayerPanel.VIEW_CARDS)) {
+    private void showValidLocs(Collection<Integer> validLocs, final BoardPane.LocationListener locListener, final int locType, final boolean cancelOption) {
+        final ArrayList<Integer> locs = new ArrayList<Integer>(validLocs);//Copied because the engine may change the original before it is shown
+        final BoardPane.LocationListener engineListener = new BoardPane.LocationListener() {
+            @Override
+            public void locationSelected(final int location) {
+                engine.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        locListener.locationSelected(location);
+                    }
+                });
+            }
+        };
+        uiQueue.post(boardPane, "validLocs", new Runnable() {
+            @Override
+            public void run() {
+                boardPane.showValidLocs(locs, engineListener, locType, cancelOption);
+            }
+        });
+    }
+
+    /**
+     * Marks the best places for the current player to put their next setup
+     * settlement.
+     */
+    private void showSetupHints() {
+        List<Integer> ownedLocs = gameBoard.getSettlementLocs(currentPlayer.getColor());
+        if (ownedLocs == null) {//The player has not placed a settlement yet
+            ownedLocs = new ArrayList<Integer>();
+        }
+        List<OpeningEvaluator.Opening> ranking = openingEvaluator.rankCorners(validSetupSettlementLocs, ownedLocs);
+        final int[] hintLocs = new int[Math.min(NUM_SETUP_HINTS, ranking.size())];
+        for (int i = 0; i < hintLocs.length; i++) {
+            hintLocs[i] = ranking.get(i).getFirstLoc();
+        }
+        uiQueue.post(boardPane, "hints", new Runnable() {
+            @Override
+            public void run() {
+                boardPane.showHints(hintLocs);
+            }
+        });
+    }
+
+    /**
+     * Removes the marks shown by showSetupHints().
+     */
+    private void removeSetupHints() {
+        uiQueue.post(boardPane, "hints", new Runnable() {
+            @Override
+            public void run() {
+                boardPane.removeHints();
+            }
+        });
+    }
+
+    /**
+     * Displays a road of the specified color at the specified location.
+     * @param roadLoc the location of the road
+     * @param color   the color of the road
+     */
+    private void displayRoad(final int roadLoc, final String color) {
+        uiQueue.post(boardPane, "road " + roadLoc, new Runnable() {
+            @Override
+            public void run() {
+                boardPane.addRoad(roadLoc, color);
+            }
+        });
+    }
+
+    /**
+     * Displays a settlement of the specified color at the specified location.
+     * @param cornerLoc the location of the settlement
+     * @param color     the color of the settlement
+     */
+    private void displaySettlement(final int cornerLoc, final String color) {
+        uiQueue.post(boardPane, "corner " + cornerLoc, new Runnable() {
+            @Override
+            public void run() {
+                boardPane.addSettlement(cornerLoc, color);
+            }
+        });
+    }
+
+    /**
+     * Replaces the settlement displayed at the specified location with a city.
+     * @param cornerLoc the location of the settlement
+     */
+    private void displayCity(final int cornerLoc) {
+        uiQueue.post(boardPane, "city " + cornerLoc, new Runnable() {
+            @Override
+            public void run() {
+                boardPane.addCity(cornerLoc);
+            }
+        });
+    }
+
+    /**
+     * Displays the robber at the specified location.
+     * @param tileLoc the location of the robber
+     */
+    private void displayRobber(final int tileLoc) {
+        uiQueue.post(boardPane, "robber", new Runnable() {
+            @Override
+            public void run() {
+                boardPane.moveRobber(tileLoc);
+            }
+        });
+    }
+
+    /**
+     * Displays the current number of tokens and cards (and the expected
+     * income) of the specified player in their PlayerInfoPanel.
+     * @param player the player whose PlayerInfoPanel to update
+     */
+    private void updatePlayerInfo(Player player) {
+        final PlayerInfoPanel panel = playerInfoPanelMap.get(player);
+        final int numRoads = player.getNumRemainingRoads();
+        final int numSettlements = player.getNumRemainingSettlements();
+        final int numCities = player.getNumRemainingCities();
+        final int numResourceCards = player.getSumResourceCards();
+        final int numDevCards = player.getSumDevCards();
+        final int numKnightCardsPlayed = player.getNumKnightCardsPlayed();
+        uiQueue.post(panel, "counts", new Runnable() {
+            @Override
+            public void run() {
+                panel.setCounts(numRoads, numSettlements, numCities, numResourceCards, numDevCards, numKnightCardsPlayed);
+            }
+        });
+        IncomeTracker.Income income = gameBoard.getIncomeTracker().getIncome(player.getColor());
+        final float[] expectedIncome = new float[IncomeTracker.NUM_RESOURCES];
+        for (int resource = 0; resource < expectedIncome.length; resource++) {
+            expectedIncome[resource] = income.getExpected(resource);
+        }
+        uiQueue.post(panel, "income", new Runnable() {
+            @Override
+            public void run() {
+                panel.setIncome(expectedIncome);
+            }
+        });
+    }
+
+    /**
+     * Displays the Longest Road icon in the PlayerInfoPanel of the specified
+     * player.
+     * @param player the player who earned Longest Road
+     */
+    private void displayLongestRoad(Player player) {
+        final PlayerInfoPanel panel = playerInfoPanelMap.get(player);
+        uiQueue.post(panel, "longestRoad", new Runnable() {
+            @Override
+            public void run() {
+                panel.setLongestRoad(true);
+            }
+        });
+    }
+
+    /**
+     * Displays the Largest Army icon in the PlayerInfoPanel of the specified
+     * player.
+     * @param player the player who earned Largest Army
+     */
+    private void displayLargestArmy(Player player) {
+        final PlayerInfoPanel panel = playerInfoPanelMap.get(player);
+        uiQueue.post(panel, "largestArmy", new Runnable() {
+            @Override
+            public void run() {
+                panel.setLargestArmy(true);
+            }
+        });
+    }
+
+    /**
+     * Updates the cards shown in cardsFrame (if it is open) to match the
+     * current player's hand.
+     */
+    private void updateCardsFrame() {
+        final int[] numResourceCards = new int[RESOURCE_TYPES.length];
+        for (int i = 0; i < RESOURCE_TYPES.length; i++) {
+            numResourceCards[i] = currentPlayer.getNumResourceCards(RESOURCE_TYPES[i]);
+        }
+        final ArrayList<DevelopmentCard> devCards = currentPlayer.getDevCards();
+        uiQueue.post(CardsFrame.class, "cards", new Runnable() {
+            @Override
+            public void run() {
+                if (cardsFrame != null) {
+                    cardsFrame.setCards(numResourceCards, devCards);
+                }
+            }
+        });
+    }
+
+    /**
+     * Shows the current player's cards in cardsFrame, opening it if it is not
+     * already open.
+     */
+    private void showCardsFrame() {
+        uiQueue.callAndWait(new Callable<Void>() {
+            @Override
+            public Void call() {
                 if (cardsFrame != null) {
                     cardsFrame.setVisible(true);
                     cardsFrame.toFront();
                     cardsFrame.requestFocus();
                 } else {
-                    cardsFrame = new CardsFrame(icons, currentPlayer);
+                    cardsFrame = new CardsFrame(icons, currentPlayer);//Safe to read the model because the engine is waiting
                     cardsFrame.addWindowListener(new WindowAdapter() {
                         @Override
                         public void windowClosed(WindowEvent e) {
@@ -407,118 +568,582 @@ public class GameController {
                         }
                     });
                 }
-            } else if (actionEvent.getActionCommand().equals(PlayerPanel.END_TURN)) {
-                playerPanel.setButtonsEnabled(false);
-                //Give the current player all the development cards that they built this turn
-                if (!devCardsBuiltThisTurn.isEmpty()) {
-                    for (DevelopmentCard devCard : devCardsBuiltThisTurn) {
-                        currentPlayer.giveDevCard(devCard);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Closes cardsFrame (if it is open).
+     */
+    private void closeCardsFrame() {
+        uiQueue.post(CardsFrame.class, "close", new Runnable() {
+            @Override
+            public void run() {
+                if (cardsFrame != null) {
+                    cardsFrame.dispose();
+                    cardsFrame = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Enables or disables the buttons in the PlayerPanel.
+     * @param enabled true to enable the buttons; false to disable them
+     */
+    private void setButtonsEnabled(final boolean enabled) {
+        uiQueue.post(playerPanel, "buttonsEnabled", new Runnable() {
+            @Override
+            public void run() {
+                playerPanel.setButtonsEnabled(enabled);
+            }
+        });
+    }
+
+    /**
+     * Displays the current player in the PlayerPanel.
+     */
+    private void displayCurrentPlayer() {
+        final Player player = currentPlayer;
+        uiQueue.post(playerPanel, "player", new Runnable() {
+            @Override
+            public void run() {
+                playerPanel.updatePlayer(player);
+            }
+        });
+    }
+
+    /**
+     * Brings mainFrame to the front and gives it focus.
+     */
+    private void focusMainFrame() {
+        uiQueue.post(mainFrame, "focus", new Runnable() {
+            @Override
+            public void run() {
+                mainFrame.toFront();
+                mainFrame.requestFocus();
+            }
+        });
+    }
+
+    /**
+     * Shows a message dialog on the event dispatch thread and waits for the
+     * user to close it.
+     * @param parentComponent the component the dialog is shown over
+     * @param message         the message to display
+     */
+    private void showMessageDialog(final Component parentComponent, final Object message) {
+        uiQueue.callAndWait(new Callable<Void>() {
+            @Override
+            public Void call() {
+                JOptionPane.showMessageDialog(parentComponent, message);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Shows a message dialog on the event dispatch thread and waits for the
+     * user to close it.
+     * @param parentComponent the component the dialog is shown over
+     * @param message         the message to display
+     * @param title           the title of the dialog
+     * @param messageType     the type of message (see JOptionPane)
+     */
+    private void showMessageDialog(Component parentComponent, Object message, String title, int messageType) {
+        showMessageDialog(parentComponent, message, title, messageType, null);
+    }
+
+    /**
+     * Shows a message dialog on the event dispatch thread and waits for the
+     * user to close it.
+     * @param parentComponent the component the dialog is shown over
+     * @param message         the message to display
+     * @param title           the title of the dialog
+     * @param messageType     the type of message (see JOptionPane)
+     * @param icon            the icon to display (or null to use the default
+     *                        icon of the message type)
+     */
+    private void showMessageDialog(final Component parentComponent, final Object message, final String title, final int messageType, final Icon icon) {
+        uiQueue.callAndWait(new Callable<Void>() {
+            @Override
+            public Void call() {
+                JOptionPane.showMessageDialog(parentComponent, message, title, messageType, icon);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Shows an option dialog on the event dispatch thread and waits for the
+     * user to choose an option.
+     * @param parentComponent the component the dialog is shown over
+     * @param message         the message to display
+     * @param title           the title of the dialog
+     * @param optionType      the options to show (see JOptionPane)
+     * @param messageType     the type of message (see JOptionPane)
+     * @param icon            the icon to display
+     * @param options         the choices the user can make
+     * @param initialValue    the default choice
+     * @return the index of the option chosen by the user (or
+     * JOptionPane.CLOSED_OPTION if the dialog was closed)
+     */
+    private int showOptionDialog(final Component parentComponent, final Object message, final String title, final int optionType,
+                                 final int messageType, final Icon icon, final Object[] options, final Object initialValue) {
+        return uiQueue.callAndWait(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return JOptionPane.showOptionDialog(parentComponent, message, title, optionType, messageType, icon, options, initialValue);
+            }
+        });
+    }
+
+    /**
+     * Shows a confirm dialog on the event dispatch thread and waits for the
+     * user to answer it.
+     * @param parentComponent the component the dialog is shown over
+     * @param message         the message to display
+     * @param title           the title of the dialog
+     * @param optionType      the options to show (see JOptionPane)
+     * @param messageType     the type of message (see JOptionPane)
+     * @return the option chosen by the user
+     */
+    private int showConfirmDialog(final Component parentComponent, final Object message, final String title, final int optionType, final int messageType) {
+        return uiQueue.callAndWait(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return JOptionPane.showConfirmDialog(parentComponent, message, title, optionType, messageType);
+            }
+        });
+    }
+
+    /**
+     * Asks the specified player to discard half of their resource cards (see
+     * DiscardResources) and waits for their answer.
+     * @param player the player who must discard
+     * @return the number of each type of resource card discarded
+     */
+    private int[] discardResources(final Player player) {
+        return uiQueue.callAndWait(new Callable<int[]>() {
+            @Override
+            public int[] call() {
+                return DiscardResources.discardResources(icons, player);
+            }
+        });
+    }
+
+    /**
+     * Lets the specified player create a trade (see CreateTrade) and waits for
+     * them to finish.
+     * @param player the player creating the trade
+     * @return the trade that was created (or null if the player canceled)
+     */
+    private Trade createTrade(final Player player) {
+        return uiQueue.callAndWait(new Callable<Trade>() {
+            @Override
+            public Trade call() {
+                return CreateTrade.createTrade(icons, player);
+            }
+        });
+    }
+
+    /**
+     * Offers the specified trade to the specified recipient (see OfferTrade)
+     * and waits for their answer.
+     * @param trade     the trade being offered
+     * @param offerer   the player offering the trade
+     * @param recipient the player the trade is offered to
+     * @return true if the recipient accepted the trade; otherwise false
+     */
+    private boolean offerTrade(final Trade trade, final Player offerer, final Player recipient) {
+        return uiQueue.callAndWait(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return OfferTrade.offerTrade(icons, trade, offerer, recipient);
+            }
+        });
+    }
+
+    /**
+     * Lets the specified player trade resource cards in to the bank (see
+     * TradeInResourceCards) and waits for them to finish.
+     * @param player the player trading in resource cards
+     * @return the type of resource card given and the type received (or null
+     * if the player canceled)
+     */
+    private String[] tradeInResourceCards(final Player player) {
+        return uiQueue.callAndWait(new Callable<String[]>() {
+            @Override
+            public String[] call() {
+                return TradeInResourceCards.tradeInResourceCards(icons, player);
+            }
+        });
+    }
+
+    /**
+     * Lets the current player choose one of the specified development cards
+     * (see ChooseDevCard) and waits for them to choose.
+     * @param devCards the development cards to choose from
+     * @return the chosen development card (or null if the player canceled)
+     */
+    private DevelopmentCard chooseDevCard(final DevelopmentCard[] devCards) {
+        return uiQueue.callAndWait(new Callable<DevelopmentCard>() {
+            @Override
+            public DevelopmentCard call() {
+                return ChooseDevCard.chooseDevCard(icons, devCards);
+            }
+        });
+    }
+
+    /**
+     * Lets the current player choose the resources to take with a Year of
+     * Plenty card (see PlayYearOfPlenty) and waits for them to choose.
+     * @return the resources chosen (or null if the player canceled)
+     */
+    private String[] selectResources() {
+        return uiQueue.callAndWait(new Callable<String[]>() {
+            @Override
+            public String[] call() {
+                return PlayYearOfPlenty.selectResources(icons);
+            }
+        });
+    }
+
+    /**
+     * Lets the current player steal a resource card from one of the specified
+     * players (see StealResourceCard) and waits for them to choose.
+     * @param potentialVictims the players who can be stolen from
+     * @return the player who was stolen from and the resource that was stolen
+     */
+    private Object[] stealResourceCard(final Player[] potentialVictims) {
+        return uiQueue.callAndWait(new Callable<Object[]>() {
+            @Override
+            public Object[] call() {
+                return StealResourceCard.stealResourceCard(icons, potentialVictims);
+            }
+        });
+    }
+
+    /**
+     * Shows the current player what they rolled and waits for them to close
+     * the dialog.
+     * @param redDie    the number rolled on the red die
+     * @param yellowDie the number rolled on the yellow die
+     */
+    private void showDiceRoll(final int redDie, final int yellowDie) {
+        uiQueue.callAndWait(new Callable<Void>() {
+            @Override
+            public Void call() {
+                JPanel dicePanel = new JPanel();
+                dicePanel.add(new JLabel(icons.getRedDieIcon(redDie)));
+                dicePanel.add(new JLabel(icons.getYellowDieIcon(yellowDie)));
+                JPanel diceMessage = new JPanel(new BorderLayout());
+                diceMessage.add(new JLabel("You rolled:", JLabel.CENTER), BorderLayout.NORTH);
+                diceMessage.add(dicePanel, BorderLayout.CENTER);
+                JOptionPane.showMessageDialog(mainFrame, diceMessage, mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Shows the resource cards that each of the specified players received
+     * (or lost), one row per player, and waits for the user to close the
+     * dialog.
+     * @param title            the title of the dialog
+     * @param heading          the text shown above the rows
+     * @param names            the name shown in each player's row
+     * @param numResourceCards the number of each type of resource card (see
+     *                         RESOURCE_TYPES) shown in each player's row (or
+     *                         null to leave the player out)
+     * @param handWidth        the maximum width of the cards in a row
+     * @param emptyMessage     the text shown if every player is left out
+     */
+    private void showResourcesDialog(final String title, final String heading, final String[] names, final int[][] numResourceCards,
+                                     final int handWidth, final String emptyMessage) {
+        uiQueue.callAndWait(new Callable<Void>() {
+            @Override
+            public Void call() {
+                int numRows = 0;
+                for (int[] row : numResourceCards) {
+                    numRows += row == null ? 0 : 1;
+                }
+                JPanel resourcePanel = new JPanel();
+                if (numRows == 0) {
+                    resourcePanel.add(new JLabel(emptyMessage, JLabel.CENTER));
+                } else {
+                    resourcePanel.setLayout(new GridLayout(numRows, 2, -1, -1));
+                    for (int i = 0; i < names.length; i++) {//Displays players in order
+                        if (numResourceCards[i] != null) {
+                            JLabel nameLabel = new JLabel(names[i], JLabel.CENTER);
+                            nameLabel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+                            CardHandPane handPane = CardsFrame.createResourceHandPane(icons, handWidth);
+                            for (int j = 0; j < RESOURCE_TYPES.length; j++) {
+                                handPane.addCards(RESOURCE_TYPES[j], numResourceCards[i][j]);
+                            }
+                            JPanel handPanel = new JPanel();
+                            handPanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+                            handPanel.add(handPane);
+                            resourcePanel.add(nameLabel);
+                            resourcePanel.add(handPanel);
+                        }
+                    }
+                }
+                JPanel message = new JPanel(new BorderLayout());
+                message.add(new JLabel(heading, JLabel.CENTER), BorderLayout.NORTH);
+                message.add(resourcePanel, BorderLayout.CENTER);
+                JOptionPane.showMessageDialog(mainFrame, message, title, JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asks the current player which of the other players to offer their trade
+     * to and waits for them to answer.
+     * @param names  the names of the other players
+     * @param colors the colors of the other players
+     * @return the colors of the players chosen, in the same order
+     */
+    private List<String> chooseTradeRecipients(final String[] names, final String[] colors) {
+        return uiQueue.callAndWait(new Callable<List<String>>() {
+            @Override
+            public List<String> call() {
+                Checkbox[] checkboxes = new Checkbox[names.length];
+                JPanel checkBoxPanel = new JPanel(new GridLayout(1, names.length));
+                for (int i = 0; i < names.length; i++) {
+                    checkboxes[i] = new Checkbox(names[i], true);
+                    JPanel tempPanel = new JPanel(new BorderLayout());
+                    tempPanel.add(new JLabel(icons.getSettlementIcon(colors[i]), JLabel.CENTER), BorderLayout.NORTH);
+                    tempPanel.add(checkboxes[i], BorderLayout.CENTER);
+                    checkBoxPanel.add(tempPanel);
+                }
+                JPanel message = new JPanel(new BorderLayout());
+                message.add(new JLabel("To whom do you want to offer this trade?", JLabel.CENTER), BorderLayout.NORTH);
+                message.add(checkBoxPanel, BorderLayout.CENTER);
+                JOptionPane.showMessageDialog(mainFrame, message, "Offer Trade", JOptionPane.QUESTION_MESSAGE, new ImageIcon());
+                List<String> recipients = new ArrayList<String>(names.length);
+                for (int i = 0; i < checkboxes.length; i++) {
+                    if (checkboxes[i].getState()) {
+                        recipients.add(colors[i]);
+                    }
+                }
+                return recipients;
+            }
+        });
+    }
+
+    /**
+     * Shows the current player the development card they just built and
+     * waits for them to close the dialog.
+     * @param title       the title of the development card
+     * @param description the description of the development card
+     */
+    private void showNewDevCard(final String title, final String description) {
+        uiQueue.callAndWait(new Callable<Void>() {
+            @Override
+            public Void call() {
+                JLabel cardLabel = new JLabel(icons.getDevCardIcon(title), JLabel.CENTER);
+                cardLabel.setToolTipText(title + ": " + description);
+                JPanel message = new JPanel(new BorderLayout());
+                message.add(new JLabel("Your new Development Card:", JLabel.CENTER), BorderLayout.NORTH);
+                message.add(cardLabel, BorderLayout.CENTER);
+                message.add(new JLabel("You will receive this card after your turn is over", JLabel.CENTER), BorderLayout.SOUTH);
+                JOptionPane.showMessageDialog(mainFrame, message, mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asks the current player to announce a resource type for a Monopoly card
+     * and waits for them to choose.
+     * @return the index of the resource type announced (see RESOURCE_TYPES)
+     */
+    private int announceResource() {
+        return uiQueue.callAndWait(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                ImageIcon[] resourceIcons = new ImageIcon[RESOURCE_TYPES.length];
+                for (int i = 0; i < resourceIcons.length; i++) {
+                    resourceIcons[i] = icons.getResourceIcon(RESOURCE_TYPES[i]);
+                }
+                return JOptionPane.showOptionDialog(null, new JLabel("Select a resource type to announce", JLabel.CENTER), DevelopmentCard.MONOPOLY,
+                        JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, new ImageIcon(), resourceIcons, resourceIcons[0]);
+            }
+        });
+    }
+
+    /**
+     * Shows the current player the resource card they stole and waits for
+     * them to close the dialog.
+     * @param resource the type of resource card stolen
+     */
+    private void showStolenResource(final String resource) {
+        uiQueue.callAndWait(new Callable<Void>() {
+            @Override
+            public Void call() {
+                JPanel message = new JPanel(new BorderLayout());
+                message.add(new JLabel("You stole:", JLabel.CENTER), BorderLayout.NORTH);
+                message.add(new JLabel(icons.getResourceIcon(resource)), BorderLayout.CENTER);
+                JOptionPane.showMessageDialog(null, message, mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Offers to make the trades with the bank (and the current player's
+     * harbors) that let the current player afford the specified cost, and
+     * makes them if the player accepts.
+     * @param cost  the number of cards of each resource needed
+     * @param build the name of what the player is trying to build
+     * @return true if the trades were made (so the player can now afford the
+     * cost), false if no trades can make the cost affordable or the player
+     * declined
+     */
+    private boolean tradeToAfford(int[] cost, String build) {
+        int[] hand = new int[RESOURCE_TYPES.length];
+        for (int i = 0; i < hand.length; i++) {
+            hand[i] = currentPlayer.getNumResourceCards(RESOURCE_TYPES[i]);
+        }
+        long plan = tradePlanner.plan(hand, cost, currentPlayer.getHarborMask());
+        if (TradePlanner.getNumTrades(plan) < 1) {
+            return false;
+        }
+        StringBuilder give = new StringBuilder(), take = new StringBuilder();
+        for (int i = 0; i < RESOURCE_TYPES.length; i++) {
+            int numGiven = TradePlanner.getNumTradesFrom(plan, i) * currentPlayer.getTradeRate(RESOURCE_TYPES[i]);
+            if (numGiven > 0) {
+                give.append(give.length() == 0 ? "" : ", ").append(numGiven).append(" ").append(RESOURCE_TYPES[i]);
+            }
+            if (TradePlanner.getNumTradesFor(plan, i) > 0) {
+                take.append(take.length() == 0 ? "" : ", ").append(TradePlanner.getNumTradesFor(plan, i)).append(" ").append(RESOURCE_TYPES[i]);
+            }
+        }
+        int response = showConfirmDialog(mainFrame, "You can afford " + build + " by trading in " + give + " for " + take + ". Trade now?",
+                "Trade to Afford", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (response != JOptionPane.YES_OPTION) {
+            return false;
+        }
+        for (int i = 0; i < RESOURCE_TYPES.length; i++) {
+            currentPlayer.takeResource(RESOURCE_TYPES[i], TradePlanner.getNumTradesFrom(plan, i) * currentPlayer.getTradeRate(RESOURCE_TYPES[i]));
+            currentPlayer.giveResource(RESOURCE_TYPES[i], TradePlanner.getNumTradesFor(plan, i));
+        }
+        updateCardsFrame();
+        updatePlayerInfo(currentPlayer);
+        return true;
+    }
+
+    /**
+     * ActionListener that is added to every button in the PlayerPanel. Each
+     * button press is handed to the engine as an action, tagged with the turn
+     * it was pressed in. The buttons are disabled as soon as one is pressed
+     * (before the action is handed to the engine), so pressing a button twice
+     * cannot hand the engine the same action twice, and the engine ignores an
+     * action from a turn that has already ended.
+     */
+    private class PlayerPanelListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent actionEvent) {
+            final String command = actionEvent.getActionCommand();
+            final int turn = turnNumber;
+            playerPanel.setButtonsEnabled(false);//Right away, since the engine may not get to the action for a while
+            setButtonsEnabled(false);//Drops any waiting update that would enable the buttons again
+            engine.submit(new Runnable() {
+                @Override
+                public void run() {
+                    if (turn == turnNumber) {//Otherwise the button was pressed during a turn that has since ended
+                        performAction(command);
                     }
-                    devCardsBuiltThisTurn = new ArrayList<DevelopmentCard>();
                 }
+            });
+        }
+
+        /**
+         * Carries out the action of the button with the specified command.
+         * Runs on the engine's thread, with the buttons disabled; they are
+         * enabled again once the action (or the location or card it asks
+         * for) is finished.
+         * @param command the action command of the button that was pressed
+         */
+        private void performAction(String command) {
+            if (command.equals(PlayerPanel.VIEW_CARDS)) {
+                showCardsFrame();
+                setButtonsEnabled(true);
+            } else if (command.equals(PlayerPanel.END_TURN)) {
+                //Let the current player play the development cards that they built this turn
+                currentPlayer.releaseDevCards();
                 startNextTurn();
-            } else if (actionEvent.getActionCommand().equals(PlayerPanel.OFFER_TRADE)) {
-                playerPanel.setButtonsEnabled(false);
-                Trade trade = CreateTrade.createTrade(icons, currentPlayer);
+            } else if (command.equals(PlayerPanel.OFFER_TRADE)) {
+                Trade trade = createTrade(currentPlayer);
                 if (trade != null) {
-                    ArrayList<Checkbox> recipients = new ArrayList<Checkbox>(players.length - 1);
-                    JPanel checkBoxPanel = new JPanel(new GridLayout(1, players.length - 1));
+                    String[] names = new String[players.length - 1];
+                    String[] colors = new String[players.length - 1];
+                    int numOthers = 0;
                     for (Player player : players) {
                         if (!player.getColor().equals(currentPlayer.getColor())) {
-                            recipients.add(new Checkbox(player.getName(), true));
-                            recipients.get(recipients.size() - 1).setName(player.getColor());
-                            JPanel tempPanel = new JPanel(new BorderLayout());
-                            tempPanel.add(new JLabel(icons.getSettlementIcon(player.getColor()), JLabel.CENTER), BorderLayout.NORTH);
-                            tempPanel.add(recipients.get(recipients.size() - 1), BorderLayout.CENTER);
-                            checkBoxPanel.add(tempPanel);
+                            names[numOthers] = player.getName();
+                            colors[numOthers] = player.getColor();
+                            numOthers++;
                         }
                     }
-                    JPanel message = new JPanel(new BorderLayout());
-                    message.add(new JLabel("To whom do you want to offer this trade?", JLabel.CENTER), BorderLayout.NORTH);
-                    message.add(checkBoxPanel, BorderLayout.CENTER);
-                    JOptionPane.showMessageDialog(mainFrame, message, "Offer Trade", JOptionPane.QUESTION_MESSAGE, new ImageIcon());
-                    for (Checkbox checkbox : recipients) {
-                        if (checkbox.getState()) {
-                            if (OfferTrade.offerTrade(icons, trade, currentPlayer, playerColorMap.get(checkbox.getName()))) {//Asks the recipient if they would like to accept the offer
-                                for (int i = 0; i < trade.giveCards.length; i++) {
-                                    currentPlayer.takeResource(RESOURCE_TYPES[i], trade.giveCards[i]);
-                                    playerColorMap.get(checkbox.getName()).giveResource(RESOURCE_TYPES[i], trade.giveCards[i]);
-                                    if (cardsFrame != null) {
-                                        for (int j = 0; j < trade.giveCards[i]; j++) {
-                                            cardsFrame.removeResourceCard(RESOURCE_TYPES[i]);
-                                        }
-                                    }
-                                }
-                                for (int i = 0; i < trade.takeCards.length; i++) {
-                                    currentPlayer.giveResource(RESOURCE_TYPES[i], trade.takeCards[i]);
-                                    playerColorMap.get(checkbox.getName()).takeResource(RESOURCE_TYPES[i], trade.takeCards[i]);
-                                    if (cardsFrame != null) {
-                                        for (int j = 0; j < trade.takeCards[i]; j++) {
-                                            cardsFrame.addResourceCard(RESOURCE_TYPES[i]);
-                                        }
-                                    }
-                                }
-                                playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-                                JOptionPane.showMessageDialog(mainFrame, "Trade Completed");
-                                break;
+                    for (String recipientColor : chooseTradeRecipients(names, colors)) {
+                        if (offerTrade(trade, currentPlayer, playerColorMap.get(recipientColor))) {//Asks the recipient if they would like to accept the offer
+                            for (int i = 0; i < trade.giveCards.length; i++) {
+                                currentPlayer.takeResource(RESOURCE_TYPES[i], trade.giveCards[i]);
+                                playerColorMap.get(recipientColor).giveResource(RESOURCE_TYPES[i], trade.giveCards[i]);
                             }
+                            for (int i = 0; i < trade.takeCards.length; i++) {
+                                currentPlayer.giveResource(RESOURCE_TYPES[i], trade.takeCards[i]);
+                                playerColorMap.get(recipientColor).takeResource(RESOURCE_TYPES[i], trade.takeCards[i]);
+                            }
+                            updateCardsFrame();
+                            updatePlayerInfo(currentPlayer);
+                            showMessageDialog(mainFrame, "Trade Completed");
+                            break;
                         }
                     }
                 }
-                playerPanel.setButtonsEnabled(true);
-                mainFrame.toFront();
-                mainFrame.requestFocus();
-            } else if (actionEvent.getActionCommand().equals(PlayerPanel.TRADE_IN_RESOURCE_CARDS)) {
-                playerPanel.setButtonsEnabled(false);
-                String[] cardsTraded = TradeInResourceCards.tradeInResourceCards(icons, currentPlayer);
+                setButtonsEnabled(true);
+                focusMainFrame();
+            } else if (command.equals(PlayerPanel.TRADE_IN_RESOURCE_CARDS)) {
+                String[] cardsTraded = tradeInResourceCards(currentPlayer);
                 if (cardsTraded != null) {
-                    //Determine the number of cards to discard
-                    int discardAmount = 4;
-                    if (currentPlayer.getHarbors().contains(cardsTraded[0])) {
-                        discardAmount = 2;
-                    } else if (currentPlayer.getHarbors().contains(HARBOR_TYPE_ANY)) {
-                        discardAmount = 3;
-                    }
-                    currentPlayer.takeResource(cardsTraded[0], discardAmount);
+                    currentPlayer.takeResource(cardsTraded[0], currentPlayer.getTradeRate(cardsTraded[0]));
                     currentPlayer.giveResource(cardsTraded[1], 1);
-                    if (cardsFrame != null) {//Update cardsFrame if necessary
-                        for (int i = 0; i < discardAmount; i++) {
-                            cardsFrame.removeResourceCard(cardsTraded[0]);
-                        }
-                        cardsFrame.addResourceCard(cardsTraded[1]);
-                    }
-                    playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-                    JOptionPane.showMessageDialog(mainFrame, "Trade completed");
+                    updateCardsFrame();
+                    updatePlayerInfo(currentPlayer);
+                    showMessageDialog(mainFrame, "Trade completed");
                 }
-                playerPanel.setButtonsEnabled(true);
-                mainFrame.toFront();
-                mainFrame.requestFocus();
-            } else if (actionEvent.getActionCommand().equals(PlayerPanel.BUILD_ROAD)) {
+                setButtonsEnabled(true);
+                focusMainFrame();
+            } else if (command.equals(PlayerPanel.BUILD_ROAD)) {
                 //Make sure the current player has the required resource cards and at least one road token
                 if (currentPlayer.getNumRemainingRoads() < 1) {//Probably the least common case, but I don't want someone to save up for a road only to find that they can't build one
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have any remaining road tokens", "Error", JOptionPane.ERROR_MESSAGE);
-                } else if (currentPlayer.getNumResourceCards(BRICK) < 1 || currentPlayer.getNumResourceCards(LUMBER) < 1) {
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have the resources to build a road", "Error", JOptionPane.ERROR_MESSAGE);
+                    showMessageDialog(mainFrame, "You do not have any remaining road tokens", "Error", JOptionPane.ERROR_MESSAGE);
+                    setButtonsEnabled(true);
                 } else {
-                    HashSet<Integer> validRoadLocs = getValidRoadLocs();
+                    HashSet<Integer> validRoadLocs = getValidRoadLocs();//Checked before trading so the player does not trade for a road they cannot place
                     if (validRoadLocs.isEmpty()) {
-                        JOptionPane.showMessageDialog(mainFrame, "There are no valid locations at which you can place a road", "Error", JOptionPane.INFORMATION_MESSAGE);
+                        showMessageDialog(mainFrame, "There are no valid locations at which you can place a road", "Error", JOptionPane.INFORMATION_MESSAGE);
+                        setButtonsEnabled(true);
+                    } else if ((currentPlayer.getNumResourceCards(BRICK) < 1 || currentPlayer.getNumResourceCards(LUMBER) < 1)
+                            && !tradeToAfford(TradePlanner.ROAD_COST, "a road")) {
+                        showMessageDialog(mainFrame, "You do not have the resources to build a road", "Error", JOptionPane.ERROR_MESSAGE);
+                        setButtonsEnabled(true);
                     } else {
-                        playerPanel.setButtonsEnabled(false);
-                        boardPane.showValidLocs(validRoadLocs, new RoadListener(), BoardPane.LOC_TYPE_ROAD, true);
-                        JOptionPane.showMessageDialog(mainFrame, "Please select the location at which to place the new road", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+                        showValidLocs(validRoadLocs, new RoadListener(), BoardPane.LOC_TYPE_ROAD, true);
+                        showMessageDialog(mainFrame, "Please select the location at which to place the new road", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
                     }
                 }
-            } else if (actionEvent.getActionCommand().equals(PlayerPanel.BUILD_SETTLEMENT)) {
+            } else if (command.equals(PlayerPanel.BUILD_SETTLEMENT)) {
                 if (currentPlayer.getNumRemainingSettlements() < 1) {
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have any remaining settlement tokens", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
-                } else if (currentPlayer.getNumResourceCards(BRICK) < 1
-                        || currentPlayer.getNumResourceCards(GRAIN) < 1
-                        || currentPlayer.getNumResourceCards(LUMBER) < 1
-                        || currentPlayer.getNumResourceCards(WOOL) < 1) {
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have the resources required to build a settlement", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                    showMessageDialog(mainFrame, "You do not have any remaining settlement tokens", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                    setButtonsEnabled(true);
                 } else {
-                    //Construct a list of all the valid locations at which the current player can place a settlement
+                    //Construct a list of all the valid locations at which the current player can place a settlement (before trading, so the player does not trade for a settlement they cannot place)
                     ArrayList<Integer> validCornerLocs = new ArrayList<Integer>();
                     for (int roadLoc : gameBoard.getRoadLocs(currentPlayer.getColor())) {
                         for (int cornerLoc : gameBoard.getRoad(roadLoc).getAdjacentCornerLocs()) {
@@ -537,20 +1162,30 @@ public class GameController {
                         }
                     }
                     if (validCornerLocs.isEmpty()) {
-                        JOptionPane.showMessageDialog(mainFrame, "There are no locations at which you can build a settlement", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                        showMessageDialog(mainFrame, "There are no locations at which you can build a settlement", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                        setButtonsEnabled(true);
+                    } else if ((currentPlayer.getNumResourceCards(BRICK) < 1
+                            || currentPlayer.getNumResourceCards(GRAIN) < 1
+                            || currentPlayer.getNumResourceCards(LUMBER) < 1
+                            || currentPlayer.getNumResourceCards(WOOL) < 1) && !tradeToAfford(TradePlanner.SETTLEMENT_COST, "a settlement")) {
+                        showMessageDialog(mainFrame, "You do not have the resources required to build a settlement", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                        setButtonsEnabled(true);
                     } else {
-                        playerPanel.setButtonsEnabled(false);
-                        boardPane.showValidLocs(validCornerLocs, new SettlementListener(), BoardPane.LOC_TYPE_SETTLEMENT, true);
-                        JOptionPane.showMessageDialog(mainFrame, "Please select the location at which to place the new settlement", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+                        showValidLocs(validCornerLocs, new SettlementListener(), BoardPane.LOC_TYPE_SETTLEMENT, true);
+                        showMessageDialog(mainFrame, "Please select the location at which to place the new settlement", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
                     }
                 }
-            } else if (actionEvent.getActionCommand().equals(PlayerPanel.BUILD_CITY)) {
+            } else if (command.equals(PlayerPanel.BUILD_CITY)) {
                 if (currentPlayer.getNumRemainingCities() < 1) {
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have any remaining city tokens", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
-                } else if (currentPlayer.getNumResourceCards(GRAIN) < 2 || currentPlayer.getNumResourceCards(ORE) < 3) {
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have the resources to build a city", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                    showMessageDialog(mainFrame, "You do not have any remaining city tokens", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                    setButtonsEnabled(true);
                 } else if (currentPlayer.getNumRemainingSettlements() == 5) {
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have any upgradable settlements on the board", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                    showMessageDialog(mainFrame, "You do not have any upgradable settlements on the board", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                    setButtonsEnabled(true);
+                } else if ((currentPlayer.getNumResourceCards(GRAIN) < 2 || currentPlayer.getNumResourceCards(ORE) < 3)
+                        && !tradeToAfford(TradePlanner.CITY_COST, "a city")) {//Checked last so the player does not trade for a city they cannot place
+                    showMessageDialog(mainFrame, "You do not have the resources to build a city", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                    setButtonsEnabled(true);
                 } else {
                     //Construct a list of the locations at which the current player has an upgradable settlement
                     ArrayList<Integer> validCityLocs = new ArrayList<Integer>();
@@ -559,65 +1194,45 @@ public class GameController {
                             validCityLocs.add(cornerLoc);
                         }
                     }
-                    playerPanel.setButtonsEnabled(false);
-                    boardPane.showValidLocs(validCityLocs, new CityListener(), BoardPane.LOC_TYPE_SETTLEMENT, true);
-                    JOptionPane.showMessageDialog(mainFrame, "Please select the location at which to place the new city", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+                    showValidLocs(validCityLocs, new CityListener(), BoardPane.LOC_TYPE_SETTLEMENT, true);
+                    showMessageDialog(mainFrame, "Please select the location at which to place the new city", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
                 }
-            } else if (actionEvent.getActionCommand().equals(PlayerPanel.BUILD_DEV_CARD)) {
+            } else if (command.equals(PlayerPanel.BUILD_DEV_CARD)) {
                 if (devCardDeck.isEmpty()) {
-                    JOptionPane.showMessageDialog(mainFrame, "There are no more development cards in the deck", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
-                } else if (currentPlayer.getNumResourceCards(WOOL) < 1
+                    showMessageDialog(mainFrame, "There are no more development cards in the deck", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+                } else if ((currentPlayer.getNumResourceCards(WOOL) < 1
                         || currentPlayer.getNumResourceCards(GRAIN) < 1
-                        || currentPlayer.getNumResourceCards(ORE) < 1) {
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have the resources to build a development card", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                        || currentPlayer.getNumResourceCards(ORE) < 1) && !tradeToAfford(TradePlanner.DEV_CARD_COST, "a development card")) {
+                    showMessageDialog(mainFrame, "You do not have the resources to build a development card", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
                 } else {
                     currentPlayer.takeResource(GRAIN, 1);
                     currentPlayer.takeResource(ORE, 1);
                     currentPlayer.takeResource(WOOL, 1);
-                    JLabel cardLabel = new JLabel(icons.getDevCardIcon(devCardDeck.peek().getTitle()), JLabel.CENTER);
-                    cardLabel.setToolTipText(devCardDeck.peek().getTitle() + ": " + devCardDeck.peek().getDescription());
-                    JPanel message = new JPanel(new BorderLayout());
-                    message.add(new JLabel("Your new Development Card:", JLabel.CENTER), BorderLayout.NORTH);
-                    message.add(cardLabel, BorderLayout.CENTER);
-                    message.add(new JLabel("You will receive this card after your turn is over", JLabel.CENTER), BorderLayout.SOUTH);
-                    JOptionPane.showMessageDialog(mainFrame, message, mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
-                    devCardsBuiltThisTurn.add(devCardDeck.pop());
-                    if (cardsFrame != null) {
-                        cardsFrame.removeResourceCard(GRAIN);
-                        cardsFrame.removeResourceCard(ORE);
-                        cardsFrame.removeResourceCard(WOOL);
-                    }
-                    playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-                }
-            } else {//actionEvent.getActionCommand().equals(PlayerPanel.PLAY_DEV_CARD)
-                //Construct a list of the current player's playable development cards (remove any victory point cards)
-                ArrayList<DevelopmentCard> playableDevCards = currentPlayer.getDevCards();
-                Iterator<DevelopmentCard> devCardsIterator = playableDevCards.iterator();
-                List<String> victoryPointCards = Arrays.asList(DevelopmentCard.VICTORY_POINT_CARDS);
-                while (devCardsIterator.hasNext()) {
-                    if (victoryPointCards.contains(devCardsIterator.next().getTitle())) {
-                        devCardsIterator.remove();
-                    }
+                    int devCardType = devCardDeck.draw();
+                    currentPlayer.buyDevCard(devCardType);
+                    DevelopmentCard devCard = new DevelopmentCard(DevCardDeck.getTitle(devCardType));
+                    showNewDevCard(devCard.getTitle(), devCard.getDescription());
+                    updateCardsFrame();
+                    updatePlayerInfo(currentPlayer);
                 }
-                if (playableDevCards.isEmpty()) {
-                    JOptionPane.showMessageDialog(mainFrame, "You do not have any playable development cards", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                setButtonsEnabled(true);
+            } else {//command.equals(PlayerPanel.PLAY_DEV_CARD)
+                if (currentPlayer.getNumPlayableDevCards() == 0) {
+                    showMessageDialog(mainFrame, "You do not have any playable development cards", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                    setButtonsEnabled(true);
                 } else {
-                    playerPanel.setButtonsEnabled(false);
-                    DevelopmentCard chosenDevCard = ChooseDevCard.chooseDevCard(icons, currentPlayer.getDevCards().toArray(new DevelopmentCard[currentPlayer.getSumDevCards()]));
+                    ArrayList<DevelopmentCard> playableDevCards = currentPlayer.getPlayableDevCards();
+                    DevelopmentCard chosenDevCard = chooseDevCard(playableDevCards.toArray(new DevelopmentCard[playableDevCards.size()]));
                     if (chosenDevCard == null) {
-                        playerPanel.setButtonsEnabled(true);
-                        mainFrame.toFront();
-                        mainFrame.requestFocus();
+                        setButtonsEnabled(true);
+                        focusMainFrame();
                     } else {
                         currentPlayer.playDevCard(chosenDevCard.getTitle());
-                        if (cardsFrame != null) {
-                            cardsFrame.removeDevCard(String.valueOf(CardsFrame.getDevCardOrderIndex(actionEvent.getActionCommand())));
-                        }
-                        playerInfoPanelMap.get(currentPlayer).setNumDevCards(currentPlayer.getSumDevCards());
-                        mainFrame.toFront();
-                        mainFrame.requestFocus();
+                        updateCardsFrame();
+                        updatePlayerInfo(currentPlayer);
+                        focusMainFrame();
                         if (chosenDevCard.getTitle().equals(DevelopmentCard.KNIGHT)) {
-                            playerInfoPanelMap.get(currentPlayer).setNumKnightCardsPlayed(currentPlayer.getNumKnightCardsPlayed());
+                            updatePlayerInfo(currentPlayer);
                             //Check to see if the current player just earned Largest Army
                             if (currentPlayer.getNumKnightCardsPlayed() >= 3) {
                                 if (largestArmyPlayer == null || currentPlayer.getNumKnightCardsPlayed() > largestArmyPlayer.getNumKnightCardsPlayed()) {
@@ -626,109 +1241,68 @@ public class GameController {
                                     }
                                     largestArmyPlayer = currentPlayer;
                                     currentPlayer.setLargestArmyStatus(true);
-                                    playerInfoPanelMap.get(currentPlayer).setLargestArmy(true);
-                                    JOptionPane.showMessageDialog(mainFrame, "You earned Largest Army!", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+                                    displayLargestArmy(currentPlayer);
+                                    showMessageDialog(mainFrame, "You earned Largest Army!", mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE);
                                     checkVictoryPoints();
                                 }
                             }
                             moveRobber();
                         } else if (chosenDevCard.getTitle().equals(DevelopmentCard.MONOPOLY)) {
                             //Ask the current player to announce a resource type to steal from everyone
-                            ImageIcon[] resourceIcons = new ImageIcon[RESOURCE_TYPES.length];
-                            for (int i = 0; i < resourceIcons.length; i++) {
-                                resourceIcons[i] = icons.getResourceIcon(RESOURCE_TYPES[i]);
-                            }
-                            int index = JOptionPane.showOptionDialog(null, new JLabel("Select a resource type to announce", JLabel.CENTER), DevelopmentCard.MONOPOLY, JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, new ImageIcon(), resourceIcons, resourceIcons[0]);
+                            int index = announceResource();
                             //Take every resource card of the type announced from each player and give it to the current player
-                            HashMap<String, CardPane> paneMap = new HashMap<String, CardPane>();//Key is player color, value is CardPane of the resources stolen from them
-                            for (Player player : players) {
-                                if (!player.getColor().equals(currentPlayer.getColor()) && player.getNumResourceCards(RESOURCE_TYPES[index]) > 0) {
-                                    paneMap.put(player.getColor(), new CardPane(GameIcons.CARD_WIDTH * 3, GameIcons.CARD_HEIGHT));
-                                    for (int i = 0; i < player.getNumResourceCards(RESOURCE_TYPES[index]); i++) {
-                                        JLabel resourceCard = new JLabel(icons.getResourceIcon(RESOURCE_TYPES[index]));
-                                        resourceCard.setName(RESOURCE_TYPES[i]);//Set the name of the label so the CardPane will sort it correctly
-                                        paneMap.get(player.getColor()).addCard(resourceCard);
-                                        if (cardsFrame != null) {
-                                            cardsFrame.addResourceCard(RESOURCE_TYPES[index]);
-                                        }
-                                    }
-                                    currentPlayer.giveResource(RESOURCE_TYPES[index], player.getNumResourceCards(RESOURCE_TYPES[index]));
-                                    player.takeResource(RESOURCE_TYPES[index], player.getNumResourceCards(RESOURCE_TYPES[index]));
+                            String[] names = new String[players.length];
+                            int[][] numStolen = new int[players.length][];//Index is the player's index in players, value is the number of each type of resource card stolen from them (or null)
+                            for (int i = 0; i < players.length; i++) {
+                                int amount = players[i].getNumResourceCards(RESOURCE_TYPES[index]);
+                                names[i] = players[i].getColoredName();
+                                if (players[i] != currentPlayer && amount > 0) {
+                                    numStolen[i] = new int[RESOURCE_TYPES.length];
+                                    numStolen[i][index] = amount;
+                                    currentPlayer.giveResource(RESOURCE_TYPES[index], amount);
+                                    players[i].takeResource(RESOURCE_TYPES[index], amount);
                                 }
                             }
+                            updateCardsFrame();
                             //Show what was stolen from each player
-                            JPanel cardPanel = new JPanel();
-                            if (paneMap.isEmpty()) {//No one had any resource cards of the type announced
-                                cardPanel.add(new JLabel("No resource cards were stolen", JLabel.CENTER));
-                            } else {
-                                cardPanel.setLayout(new GridLayout(paneMap.size(), 2, -1, -1));
-                                for (Player player : players) {//Displays players in order
-                                    if (paneMap.keySet().contains(player.getColor())) {
-                                        JLabel resourceCard = new JLabel(player.getColoredName());
-                                        resourceCard.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
-                                        resourceCard.setHorizontalAlignment(JLabel.CENTER);
-                                        resourceCard.setVerticalAlignment(JLabel.CENTER);
-                                        JPanel resourcesPanel = new JPanel();
-                                        resourcesPanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
-                                        resourcesPanel.add(paneMap.get(player.getColor()));
-                                        cardPanel.add(resourceCard);
-                                        cardPanel.add(resourcesPanel);
-                                    }
-                                }
-                            }
-                            JPanel message = new JPanel(new BorderLayout());
-                            message.add(new JLabel("Resources Stolen:", JLabel.CENTER), BorderLayout.NORTH);
-                            message.add(cardPanel, BorderLayout.CENTER);
-                            JOptionPane.showMessageDialog(mainFrame, message, mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
-                            playerPanel.setButtonsEnabled(true);
-                            mainFrame.toFront();
-                            mainFrame.requestFocus();
+                            showResourcesDialog(mainFrame.getTitle(), "Resources Stolen:", names, numStolen, GameIcons.CARD_WIDTH * 3, "No resource cards were stolen");
+                            setButtonsEnabled(true);
+                            focusMainFrame();
                         } else if (chosenDevCard.getTitle().equals(DevelopmentCard.ROAD_BUILDING)) {
                             if (currentPlayer.getNumRemainingRoads() == 0) {
-                                JPanel message = new JPanel(new BorderLayout());
-                                message.add(new JLabel("You do not have any road tokens to place.", JLabel.CENTER), BorderLayout.NORTH);
-                                message.add(new JLabel("This card will now be removed from your hand.", JLabel.CENTER), BorderLayout.CENTER);
-                                playerPanel.setButtonsEnabled(true);
-                                mainFrame.toFront();
-                                mainFrame.requestFocus();
+                                String[] message = {"You do not have any road tokens to place.", "This card will now be removed from your hand."};
+                                showMessageDialog(mainFrame, message, DevelopmentCard.ROAD_BUILDING, JOptionPane.INFORMATION_MESSAGE);
+                                setButtonsEnabled(true);
+                                focusMainFrame();
                             } else {
                                 HashSet<Integer> validRoadLocs = getValidRoadLocs();
                                 if (validRoadLocs.isEmpty()) {
-                                    JOptionPane.showMessageDialog(mainFrame, "There are no locations at which you can build a settlement", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
+                                    showMessageDialog(mainFrame, "There are no locations at which you can build a settlement", mainFrame.getTitle(), JOptionPane.ERROR_MESSAGE);
                                     currentPlayer.giveDevCard(new DevelopmentCard(DevelopmentCard.ROAD_BUILDING));
-                                    if (cardsFrame != null) {
-                                        cardsFrame.addDevCard(new DevelopmentCard(DevelopmentCard.ROAD_BUILDING));
-                                    }
-                                    playerPanel.setButtonsEnabled(true);
-                                    mainFrame.toFront();
-                                    mainFrame.requestFocus();
+                                    updateCardsFrame();
+                                    setButtonsEnabled(true);
+                                    focusMainFrame();
                                 } else {
-                                    //playerPanel.setButtonsEnabled(false);
-                                    boardPane.showValidLocs(validRoadLocs, new RoadBuildingListener(), BoardPane.LOC_TYPE_ROAD, true);
-                                    JOptionPane.showMessageDialog(mainFrame, currentPlayer.getName() + ", please place your two roads", DevelopmentCard.ROAD_BUILDING, JOptionPane.INFORMATION_MESSAGE);
+                                    //setButtonsEnabled(false);
+                                    showValidLocs(validRoadLocs, new RoadBuildingListener(), BoardPane.LOC_TYPE_ROAD, true);
+                                    showMessageDialog(mainFrame, currentPlayer.getName() + ", please place your two roads", DevelopmentCard.ROAD_BUILDING, JOptionPane.INFORMATION_MESSAGE);
                                 }
                             }
                         } else {//chosenDevCard.getTitle().equals(DevelopmentCard.YEAR_OF_PLENTY)
-                            String[] selectedResources = PlayYearOfPlenty.selectResources(icons);
+                            String[] selectedResources = selectResources();
                             if (selectedResources == null) {
                                 currentPlayer.giveDevCard(chosenDevCard);
-                                if (cardsFrame != null) {
-                                    cardsFrame.addDevCard(new DevelopmentCard(DevelopmentCard.YEAR_OF_PLENTY));
-                                }
+                                updateCardsFrame();
+                                setButtonsEnabled(true);
                             } else {
                                 for (String resource : selectedResources) {
                                     currentPlayer.giveResource(resource, 1);
                                 }
-                                if (cardsFrame != null) {
-                                    for (String resource : selectedResources) {
-                                        cardsFrame.addResourceCard(resource);
-                                    }
-                                }
-                                playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-                                playerPanel.setButtonsEnabled(true);
+                                updateCardsFrame();
+                                updatePlayerInfo(currentPlayer);
+                                setButtonsEnabled(true);
                             }
-                            mainFrame.toFront();
-                            mainFrame.requestFocus();
+                            focusMainFrame();
                         }
                     }
                 }
@@ -754,15 +1328,16 @@ public class GameController {
             if (gameBoard.getCorner(settlementLoc).hasHarbor()) {
                 currentPlayer.addHarbor(gameBoard.getCorner(settlementLoc).getHarbor());
             }
-            boardPane.addSettlement(settlementLoc, currentPlayer.getColor());
-            playerInfoPanelMap.get(currentPlayer).setNumSettlements(currentPlayer.getNumRemainingSettlements());
+            displaySettlement(settlementLoc, currentPlayer.getColor());
+            updatePlayerInfo(currentPlayer);
+            removeSetupHints();
             //Update validSetupSettlementLocs
             validSetupSettlementLocs.remove(new Integer(settlementLoc));
             for (Integer adjacentSettlementLoc : gameBoard.getCorner(settlementLoc).getAdjacentCornerLocs()) {
                 validSetupSettlementLocs.remove(adjacentSettlementLoc);
             }
             //Let the player place a road adjacent to the settlement they just placed
-            boardPane.showValidLocs(gameBoard.getCorner(settlementLoc).getAdjacentRoadLocs(), new SetUpRoadListener(), BoardPane.LOC_TYPE_ROAD, false);
+            showValidLocs(gameBoard.getCorner(settlementLoc).getAdjacentRoadLocs(), new SetUpRoadListener(), BoardPane.LOC_TYPE_ROAD, false);
         }
     }
 
@@ -778,47 +1353,30 @@ public class GameController {
             //Add the road to the board
             gameBoard.addRoad(roadLoc, currentPlayer.getColor());
             currentPlayer.placeRoad();
-            boardPane.addRoad(roadLoc, currentPlayer.getColor());
-            playerInfoPanelMap.get(currentPlayer).setNumRoads(currentPlayer.getNumRemainingRoads());
+            displayRoad(roadLoc, currentPlayer.getColor());
+            updatePlayerInfo(currentPlayer);
             //Let the next player take their turn
-            if (cardsFrame != null) {
-                cardsFrame.dispose();
-                cardsFrame = null;
-            }
+            closeCardsFrame();
             if (turnIterator.hasNext()) {
                 currentPlayer = turnIterator.next();
-                playerPanel.updatePlayer(currentPlayer);
-                boardPane.showValidLocs(validSetupSettlementLocs, new SetUpSettlementListener(), BoardPane.LOC_TYPE_SETTLEMENT, false);
-                JOptionPane.showMessageDialog(mainFrame, currentPlayer.getColoredName() + ", please place a settlement and a road next to the new settlement", "Setup", JOptionPane.INFORMATION_MESSAGE);
+                displayCurrentPlayer();
+                showValidLocs(validSetupSettlementLocs, new SetUpSettlementListener(), BoardPane.LOC_TYPE_SETTLEMENT, false);
+                showSetupHints();
+                showMessageDialog(mainFrame, currentPlayer.getColoredName() + ", please place a settlement and a road next to the new settlement", "Setup", JOptionPane.INFORMATION_MESSAGE);
             } else {//Every player has placed their first two settlements and roads
                 //Distribute resources from second settlements
-                JPanel resourceTable = new JPanel(new GridLayout(players.length, 2, -1, -1));
-
+                String[] names = new String[players.length];
+                int[][] initialResources = new int[players.length][RESOURCE_TYPES.length];
                 for (int i = 0; i < players.length; i++) {
-                    JLabel playerName = new JLabel(players[i].getColoredName() + ":");
-                    playerName.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
-                    playerName.setHorizontalAlignment(JLabel.CENTER);
-                    playerName.setVerticalAlignment(JLabel.CENTER);
-
-                    CardPane initialResources = new CardPane(GameIcons.CARD_WIDTH * 3, GameIcons.CARD_HEIGHT);
+                    names[i] = players[i].getColoredName() + ":";
                     for (int tileLoc : gameBoard.getCorner(secondSettlementLocs[i]).getAdjacentTileLocs()) {
                         if (!gameBoard.getTile(tileLoc).getTerrain().equals(Tile.DESERT)) {
                             players[i].giveResource(gameBoard.getTile(tileLoc).getResourceProduced(), 1);
-                            JLabel tempLabel = new JLabel(icons.getResourceIcon(gameBoard.getTile(tileLoc).getResourceProduced()));
-                            tempLabel.setName(gameBoard.getTile(tileLoc).getResourceProduced());
-                            initialResources.addCard(tempLabel);
+                            initialResources[i][Arrays.asList(RESOURCE_TYPES).indexOf(gameBoard.getTile(tileLoc).getResourceProduced())]++;
                         }
                     }
-                    JPanel resourcePanel = new JPanel();
-                    resourcePanel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
-                    resourcePanel.add(initialResources);
-                    resourceTable.add(playerName);
-                    resourceTable.add(resourcePanel);
                 }
-                JPanel message = new JPanel(new BorderLayout());
-                message.add(new JLabel("Resources received from second settlement", JLabel.CENTER), BorderLayout.NORTH);
-                message.add(resourceTable, BorderLayout.CENTER);
-                JOptionPane.showMessageDialog(mainFrame, message, "Setup", JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
+                showResourcesDialog("Setup", "Resources received from second settlement", names, initialResources, GameIcons.CARD_WIDTH * 3, null);
                 //Clean up variables that are no longer needed
                 validSetupSettlementLocs = null;
                 secondSettlementLocs = null;
@@ -837,19 +1395,19 @@ public class GameController {
         public void locationSelected(int tileLoc) {
             //Move the robber to the specified location
             gameBoard.moveRobber(tileLoc);
-            boardPane.moveRobber(tileLoc);
-            //Construct a list of players who have a settlement adjacent to the specified tile
-            HashSet<Player> victims = new HashSet<Player>();
-            for (int settlementLoc : gameBoard.getTile(tileLoc).getSettlementLocs()) {
-                for (Player player : players) {
-                    if (player.getColor().equals(gameBoard.getCorner(settlementLoc).getSettlementColor())) {
-                        victims.add(player);
-                    }
+            displayRobber(tileLoc);
+            for (Player player : players) {//The robber changes the income of everyone next to the tiles it left and moved to
+                updatePlayerInfo(player);
+            }
+            //Construct a list of the other players who have a settlement adjacent to the specified tile
+            ArrayList<Player> victims = new ArrayList<Player>(players.length);
+            for (int i = 0; i < players.length; i++) {
+                if (players[i] != currentPlayer && robberAdvisor.isAdjacent(i, tileLoc)) {
+                    victims.add(players[i]);
                 }
             }
-            victims.remove(currentPlayer);
             if (victims.isEmpty()) {//No players have a settlement adjacent to the selected tile
-                playerPanel.setButtonsEnabled(true);
+                setButtonsEnabled(true);
             } else {
                 Iterator<Player> victimsIterator = victims.iterator();
                 while (victimsIterator.hasNext()) {
@@ -858,23 +1416,17 @@ public class GameController {
                     }
                 }
                 if (victims.isEmpty()) {
-                    JOptionPane.showMessageDialog(mainFrame, "None of the players adjacent to this tile have any resource cards");
-                    playerPanel.setButtonsEnabled(true);
+                    showMessageDialog(mainFrame, "None of the players adjacent to this tile have any resource cards");
+                    setButtonsEnabled(true);
                 } else {
                     //Let the current player steal from one of these players
-                    Object[] playerAndCard = StealResourceCard.stealResourceCard(icons, victims.toArray(new Player[victims.size()]));
+                    Object[] playerAndCard = stealResourceCard(victims.toArray(new Player[victims.size()]));
                     playerColorMap.get(((Player) playerAndCard[0]).getColor()).takeResource((String) playerAndCard[1], 1);
                     currentPlayer.giveResource((String) playerAndCard[1], 1);
-                    //Show the current player what they stole
-                    JPanel message = new JPanel(new BorderLayout());
-                    message.add(new JLabel("You stole:", JLabel.CENTER), BorderLayout.NORTH);
-                    message.add(new JLabel(icons.getResourceIcon((String) playerAndCard[1])), BorderLayout.CENTER);
-                    JOptionPane.showMessageDialog(null, message, mainFrame.getTitle(), JOptionPane.INFORMATION_MESSAGE, new ImageIcon());
-                    if (cardsFrame != null) {
-                        cardsFrame.addResourceCard((String) playerAndCard[1]);
-                    }
-                    playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-                    playerPanel.setButtonsEnabled(true);
+                    showStolenResource((String) playerAndCard[1]);
+                    updateCardsFrame();
+                    updatePlayerInfo(currentPlayer);
+                    setButtonsEnabled(true);
                 }
             }
         }
@@ -896,16 +1448,12 @@ public class GameController {
                 currentPlayer.placeRoad();
                 currentPlayer.setLongestRoadLength(gameBoard.calcLongestRoadLength(currentPlayer.getColor()));
                 //Update the view
-                boardPane.addRoad(roadLoc, currentPlayer.getColor());
-                playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-                playerInfoPanelMap.get(currentPlayer).setNumRoads(currentPlayer.getNumRemainingRoads());
-                if (cardsFrame != null) {
-                    cardsFrame.removeResourceCard(BRICK);
-                    cardsFrame.removeResourceCard(LUMBER);
-                }
+                displayRoad(roadLoc, currentPlayer.getColor());
+                updatePlayerInfo(currentPlayer);
+                updateCardsFrame();
                 checkLongestRoad();
             }
-            playerPanel.setButtonsEnabled(true);
+            setButtonsEnabled(true);
         }
     }
 
@@ -941,18 +1489,12 @@ public class GameController {
                     }
                 }
                 //Update the view
-                boardPane.addSettlement(settlementLoc, currentPlayer.getColor());
-                playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-                playerInfoPanelMap.get(currentPlayer).setNumSettlements(currentPlayer.getNumRemainingSettlements());
-                if (cardsFrame != null) {
-                    cardsFrame.removeResourceCard(BRICK);
-                    cardsFrame.removeResourceCard(GRAIN);
-                    cardsFrame.removeResourceCard(LUMBER);
-                    cardsFrame.removeResourceCard(WOOL);
-                }
+                displaySettlement(settlementLoc, currentPlayer.getColor());
+                updatePlayerInfo(currentPlayer);
+                updateCardsFrame();
                 checkVictoryPoints();
             }
-            playerPanel.setButtonsEnabled(true);
+            setButtonsEnabled(true);
         }
     }
 
@@ -971,22 +1513,14 @@ public class GameController {
                 gameBoard.upgradeSettlement(settlementLoc);
                 currentPlayer.placeCity();
                 //Update the view
-                boardPane.addCity(settlementLoc);
-                playerInfoPanelMap.get(currentPlayer).setNumResourceCards(currentPlayer.getSumResourceCards());
-                playerInfoPanelMap.get(currentPlayer).setNumCities(currentPlayer.getNumRemainingCities());
-                playerInfoPanelMap.get(currentPlayer).setNumSettlements(currentPlayer.getNumRemainingSettlements());
-                if (cardsFrame != null) {
-                    cardsFrame.removeResourceCard(GRAIN);
-                    cardsFrame.removeResourceCard(GRAIN);
-                    cardsFrame.removeResourceCard(ORE);
-                    cardsFrame.removeResourceCard(ORE);
-                    cardsFrame.removeResourceCard(ORE);
-                }
+                displayCity(settlementLoc);
+                updatePlayerInfo(currentPlayer);
+                updateCardsFrame();
                 checkVictoryPoints();
             } catch (NumberFormatException formatException) {
                 //Cancel was clicked, so do nothing
             }
-            playerPanel.setButtonsEnabled(true);
+            setButtonsEnabled(true);
         }
     }
 
@@ -1007,37 +1541,33 @@ public class GameController {
                 currentPlayer.placeRoad();
                 checkLongestRoad();
                 //Update the view
-                boardPane.addRoad(roadLoc, currentPlayer.getColor());
-                playerInfoPanelMap.get(currentPlayer).setNumRoads(currentPlayer.getNumRemainingRoads());
+                displayRoad(roadLoc, currentPlayer.getColor());
+                updatePlayerInfo(currentPlayer);
                 if (first) {//First road was just placed
                     first = false;
                     HashSet<Integer> validRoadLocs = getValidRoadLocs();
                     if (validRoadLocs.isEmpty()) {
-                        JOptionPane.showMessageDialog(mainFrame, "There are no more locations at which you can place a road", DevelopmentCard.ROAD_BUILDING, JOptionPane.ERROR_MESSAGE);
-                        playerPanel.setButtonsEnabled(true);
+                        showMessageDialog(mainFrame, "There are no more locations at which you can place a road", DevelopmentCard.ROAD_BUILDING, JOptionPane.ERROR_MESSAGE);
+                        setButtonsEnabled(true);
                     } else {
-                        boardPane.showValidLocs(validRoadLocs, this, BoardPane.LOC_TYPE_ROAD, true);
+                        showValidLocs(validRoadLocs, this, BoardPane.LOC_TYPE_ROAD, true);
                     }
                 } else {//Second road was just placed
-                    playerPanel.setButtonsEnabled(true);
+                    setButtonsEnabled(true);
                 }
             } else {//User canceled
                 if (first) {//No roads were placed
                     currentPlayer.giveDevCard(new DevelopmentCard(DevelopmentCard.ROAD_BUILDING));
-                    if (cardsFrame != null) {
-                        cardsFrame.addDevCard(new DevelopmentCard(DevelopmentCard.ROAD_BUILDING));
-                    }
-                    playerInfoPanelMap.get(currentPlayer).setNumDevCards(currentPlayer.getSumDevCards());
-                    JOptionPane.showMessageDialog(mainFrame, "The Road Building card has been returned to your hand");
-                    playerPanel.setButtonsEnabled(true);
+                    updateCardsFrame();
+                    updatePlayerInfo(currentPlayer);
+                    showMessageDialog(mainFrame, "The Road Building card has been returned to your hand");
+                    setButtonsEnabled(true);
                 } else {//One road has already been placed
-                    JPanel message = new JPanel(new BorderLayout());
-                    message.add(new JLabel("You are about to forfeit your second road.", JLabel.CENTER), BorderLayout.NORTH);
-                    message.add(new JLabel("Are you sure you want to do this?", JLabel.CENTER), BorderLayout.CENTER);
-                    if (JOptionPane.showConfirmDialog(mainFrame, message, "Warning", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE) == JOptionPane.YES_OPTION) {
-                        playerPanel.setButtonsEnabled(true);
+                    String[] message = {"You are about to forfeit your second road.", "Are you sure you want to do this?"};
+                    if (showConfirmDialog(mainFrame, message, "Warning", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE) == JOptionPane.YES_OPTION) {
+                        setButtonsEnabled(true);
                     } else {
-                        boardPane.showValidLocs(getValidRoadLocs(), this, BoardPane.LOC_TYPE_ROAD, true);
+                        showValidLocs(getValidRoadLocs(), this, BoardPane.LOC_TYPE_ROAD, true);
                     }
                 }
             }
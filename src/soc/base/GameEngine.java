@@ -0,0 +1,95 @@
+package soc.base;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The thread that runs the game logic. Input from the GUI (button presses,
+ * selected locations, etc.) is submitted to the engine as actions, which are
+ * run one at a time in the order they were submitted. Because the model is
+ * only ever changed by this thread, a slow computation (such as finding the
+ * longest road or waiting for a bot to move) never blocks the event dispatch
+ * thread, and the GUI keeps painting while the engine works.
+ * @author Connor Barnes
+ */
+public class GameEngine implements Runnable {
+    private final String name;
+    private final BlockingQueue<Runnable> actions;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Constructs an engine whose thread has the specified name. The engine
+     * does not run any actions until start() is called.
+     * @param name the name of the engine's thread
+     */
+    public GameEngine(String name) {
+        this.name = name;
+        actions = new LinkedBlockingQueue<Runnable>();
+        running = false;
+    }
+
+    /**
+     * Starts the engine's thread. Does nothing if the engine is already
+     * running.
+     */
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            thread = new Thread(this, name);
+            thread.setDaemon(true);//The GUI decides when the program exits
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the engine's thread once it finishes the action it is currently
+     * running. Actions that have not been run yet are discarded.
+     */
+    public synchronized void shutdown() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Submits the specified action to be run by the engine's thread. Can be
+     * called from any thread.
+     * @param action the action to run
+     */
+    public void submit(Runnable action) {
+        actions.add(action);
+    }
+
+    /**
+     * Returns true if the calling thread is the engine's thread; otherwise
+     * false.
+     * @return true if the calling thread is the engine's thread
+     */
+    public boolean inEngine() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Runs actions until the engine is shut down, waiting when there are no
+     * actions to run.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            Runnable action;
+            try {
+                action = actions.take();
+            } catch (InterruptedException e) {
+                continue;//Shut down (or spuriously interrupted), so check whether the engine is still running
+            }
+            try {
+                action.run();
+            } catch (RuntimeException exception) {//Print (rather than propagate) so one broken action does not stop the game
+                System.err.println(name + ": " + exception);
+                exception.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package soc.base.ai;
+
+import soc.base.model.Board;
+import soc.base.model.DevCardDeck;
+import soc.base.model.IncomeTracker;
+import soc.base.model.Player;
+import soc.base.model.Tile;
+import soc.base.sim.Bot;
+import soc.base.sim.HeadlessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bot that always takes the build worth the most victory points right now.
+ * It places its setup settlements with the OpeningEvaluator, moves the robber
+ * with the RobberAdvisor, and trades with the bank using the TradePlanner
+ * when a trade lets it build a city or a settlement. When it has nowhere to
+ * build a settlement, it builds roads towards the best corner it can reach.
+ * @author Connor Barnes
+ */
+public class GreedyBot implements Bot {
+    public static final Bot.Factory FACTORY = new Bot.Factory() {
+        @Override
+        public Bot createBot() {
+            return new GreedyBot();
+        }
+    };
+    private static final int NUM_RESOURCES = HeadlessGame.NUM_RESOURCES;
+    private static final int BOT_BYTES = 656;    //The bot and its reused arrays (measured with tests/FootprintReport)
+    private static final int HELPER_BYTES = 2672;//The helpers created for a game (measured with tests/FootprintReport)
+    //A plan only depends on the hand, cost and harbors, so every bot on a thread shares one planner (and its cache)
+    private static final ThreadLocal<TradePlanner> TRADE_PLANNERS = new ThreadLocal<TradePlanner>() {
+        @Override
+        protected TradePlanner initialValue() {
+            return new TradePlanner();
+        }
+    };
+
+    private final int[] locs, hand, publicVictoryPoints, handSizes, tileVictims;//Reused
+    private final float[] tileScores;
+    private HeadlessGame game;//The game the helpers below were created for
+    private OpeningEvaluator openingEvaluator;
+    private RobberAdvisor robberAdvisor;
+    private IncomeTracker.Income[] incomes;//Index is the player
+    private int[] cornerPips;              //Index is the corner location
+
+    /**
+     * Constructs a greedy bot.
+     */
+    public GreedyBot() {
+        locs = new int[Math.max(HeadlessGame.NUM_CORNERS, HeadlessGame.NUM_ROADS)];
+        hand = new int[NUM_RESOURCES];
+        publicVictoryPoints = new int[HeadlessGame.NUM_PLAYERS];
+        handSizes = new int[HeadlessGame.NUM_PLAYERS];
+        tileVictims = new int[HeadlessGame.NUM_TILES];
+        tileScores = new float[HeadlessGame.NUM_TILES];
+    }
+
+    @Override
+    public int placeSetupSettlement(HeadlessGame game, int player) {
+        init(game);
+        int numLocs = game.getValidSettlementLocs(player, true, locs);
+        ArrayList<Integer> validLocs = new ArrayList<Integer>(numLocs);
+        for (int i = 0; i < numLocs; i++) {
+            validLocs.add(locs[i]);
+        }
+        List<Integer> ownedLocs = game.getBoard().getSettlementLocs(game.getPlayer(player).getColor());
+        if (ownedLocs == null) {//The player has not placed a settlement yet
+            ownedLocs = new ArrayList<Integer>();
+        }
+        return openingEvaluator.rankCorners(validLocs, ownedLocs).get(0).getFirstLoc();
+    }
+
+    @Override
+    public int placeSetupRoad(HeadlessGame game, int player, int settlementLoc) {
+        int bestLoc = -1, bestPips = -1;
+        for (int roadLoc : HeadlessGame.getAdjacentRoadLocs(settlementLoc)) {
+            if (game.getRoadOwner(roadLoc) < 0) {
+                int pips = getReachablePips(game, player, getOtherEnd(roadLoc, settlementLoc));
+                if (pips > bestPips) {
+                    bestLoc = roadLoc;
+                    bestPips = pips;
+                }
+            }
+        }
+        return bestLoc;
+    }
+
+    @Override
+    public void discard(HeadlessGame game, int player, int numCards, int[] discarded) {
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            hand[resource] = game.getNumCards(player, resource);
+        }
+        //Discard from whichever resource the player has the most of, keeping what a city needs when there is a tie
+        for (int i = 0; i < numCards; i++) {
+            int most = 0;
+            for (int resource = 1; resource < NUM_RESOURCES; resource++) {
+                if (hand[resource] - TradePlanner.CITY_COST[resource] > hand[most] - TradePlanner.CITY_COST[most]
+                        || (hand[most] == 0 && hand[resource] > 0)) {
+                    most = resource;
+                }
+            }
+            hand[most]--;
+            discarded[most]++;
+        }
+    }
+
+    @Override
+    public int moveRobber(HeadlessGame game, int player) {
+        init(game);
+        for (int i = 0; i < HeadlessGame.NUM_PLAYERS; i++) {
+            publicVictoryPoints[i] = game.getPublicVictoryPoints(i);
+            handSizes[i] = game.getPlayer(i).getSumResourceCards();
+        }
+        return robberAdvisor.rankTiles(player, publicVictoryPoints, handSizes, tileScores, tileVictims);
+    }
+
+    @Override
+    public int chooseVictim(HeadlessGame game, int player, int tileLoc) {
+        return tileVictims[tileLoc];
+    }
+
+    @Override
+    public void playTurn(HeadlessGame game, int player) {
+        init(game);
+        playDevCard(game, player);
+        boolean built = true;
+        while (built && !game.isOver()) {
+            built = buildCity(game, player) || buildSettlement(game, player) || buildRoad(game, player)
+                    || game.buyDevCard();
+        }
+    }
+
+    @Override
+    public int getEstimatedBytes() {
+        return game == null ? BOT_BYTES : BOT_BYTES + HELPER_BYTES;
+    }
+
+    /**
+     * Creates the helpers for the specified game the first time the bot is
+     * asked to make a decision in it.
+     * @param game the game being played
+     */
+    private void init(HeadlessGame game) {
+        if (this.game == game) {
+            return;
+        }
+        this.game = game;
+        Board board = game.getBoard();
+        openingEvaluator = new OpeningEvaluator(board);
+        Player[] players = new Player[HeadlessGame.NUM_PLAYERS];
+        incomes = new IncomeTracker.Income[players.length];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = game.getPlayer(i);
+            incomes[i] = board.getIncomeTracker().getIncome(players[i].getColor());
+        }
+        robberAdvisor = new RobberAdvisor(board, players);
+        cornerPips = new int[HeadlessGame.NUM_CORNERS];
+        for (int cornerLoc = 0; cornerLoc < cornerPips.length; cornerLoc++) {
+            for (int tileLoc : board.getCorner(cornerLoc).getAdjacentTileLocs()) {
+                Tile tile = board.getTile(tileLoc);
+                if (!tile.getTerrain().equals(Tile.DESERT)) {
+                    cornerPips[cornerLoc] += IncomeTracker.getPips(tile.getNumberToken());
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays a development card if one is worth playing: a Knight when the
+     * robber is blocking the player or would earn them Largest Army, Road
+     * Building when there is nowhere to build a settlement, Year of Plenty
+     * for what a city or settlement is missing, and Monopoly on the resource
+     * the other players produce the most of.
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     */
+    private void playDevCard(HeadlessGame game, int player) {
+        int robberLoc = game.getBoard().getRobberLoc();
+        if (game.canPlayDevCard(DevCardDeck.KNIGHT) && (incomes[player].getTileCards(robberLoc) > 0
+                || game.getPlayer(player).getNumKnightCardsPlayed() >= 2)) {
+            game.playKnight();
+        } else if (game.canPlayDevCard(DevCardDeck.ROAD_BUILDING) && game.getValidSettlementLocs(player, false, locs) == 0) {
+            game.playRoadBuilding();
+        } else if (game.canPlayDevCard(DevCardDeck.YEAR_OF_PLENTY)) {
+            int[] cost = game.getValidCityLocs(player, locs) > 0 ? TradePlanner.CITY_COST : TradePlanner.SETTLEMENT_COST;
+            int first = getMostMissing(game, player, cost, -1);
+            game.playYearOfPlenty(first, getMostMissing(game, player, cost, first));
+        } else if (game.canPlayDevCard(DevCardDeck.MONOPOLY)) {
+            int best = 0;
+            float bestIncome = -1;
+            for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                float income = 0;
+                for (int i = 0; i < incomes.length; i++) {
+                    income += i == player ? 0 : incomes[i].getExpected(resource);
+                }
+                if (income > bestIncome) {
+                    best = resource;
+                    bestIncome = income;
+                }
+            }
+            game.playMonopoly(best);
+        }
+    }
+
+    /**
+     * Upgrades the settlement on the most pips to a city, trading with the
+     * bank first if that is what it takes.
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     * @return true if a city was built
+     */
+    private boolean buildCity(HeadlessGame game, int player) {
+        if (game.getPlayer(player).getNumRemainingCities() == 0) {
+            return false;
+        }
+        int numLocs = game.getValidCityLocs(player, locs);
+        int bestLoc = getMostPips(numLocs);
+        return bestLoc >= 0 && tradeToAfford(game, player, TradePlanner.CITY_COST) && game.buildCity(bestLoc);
+    }
+
+    /**
+     * Builds a settlement on the valid corner with the most pips, trading
+     * with the bank first if that is what it takes.
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     * @return true if a settlement was built
+     */
+    private boolean buildSettlement(HeadlessGame game, int player) {
+        if (game.getPlayer(player).getNumRemainingSettlements() == 0) {
+            return false;
+        }
+        int numLocs = game.getValidSettlementLocs(player, false, locs);
+        int bestLoc = getMostPips(numLocs);
+        return bestLoc >= 0 && tradeToAfford(game, player, TradePlanner.SETTLEMENT_COST) && game.buildSettlement(bestLoc);
+    }
+
+    /**
+     * Builds a road towards the best corner the player could settle if they
+     * have nowhere to build a settlement (or a free road to place).
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     * @return true if a road was built
+     */
+    private boolean buildRoad(HeadlessGame game, int player) {
+        if (game.getPlayer(player).getNumRemainingRoads() == 0 || (game.getNumFreeRoads() == 0
+                && (game.getValidSettlementLocs(player, false, locs) > 0 || !game.canAfford(player, TradePlanner.ROAD_COST)))) {
+            return false;
+        }
+        int numLocs = game.getValidRoadLocs(player, locs);
+        int bestLoc = -1, bestPips = -1;
+        for (int i = 0; i < numLocs; i++) {
+            for (int cornerLoc : HeadlessGame.getRoadCornerLocs(locs[i])) {
+                int pips = getReachablePips(game, player, cornerLoc);
+                if (pips > bestPips) {
+                    bestLoc = locs[i];
+                    bestPips = pips;
+                }
+            }
+        }
+        return bestLoc >= 0 && game.buildRoad(bestLoc);
+    }
+
+    /**
+     * Makes the trades with the bank that let the player afford the specified
+     * cost (if there are any).
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     * @param cost   the number of cards of each resource needed
+     * @return true if the player can now afford the cost
+     */
+    private boolean tradeToAfford(HeadlessGame game, int player, int[] cost) {
+        if (game.canAfford(player, cost)) {
+            return true;
+        }
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            hand[resource] = game.getNumCards(player, resource);
+        }
+        long plan = TRADE_PLANNERS.get().plan(hand, cost, game.getPlayer(player).getHarborMask());
+        if (plan == TradePlanner.NO_PLAN) {
+            return false;
+        }
+        for (int give = 0; give < NUM_RESOURCES; give++) {
+            for (int i = TradePlanner.getNumTradesFrom(plan, give); i > 0; i--) {
+                for (int take = 0; take < NUM_RESOURCES; take++) {
+                    if (game.getNumCards(player, take) < cost[take]) {
+                        game.tradeWithBank(give, take);
+                        break;
+                    }
+                }
+            }
+        }
+        return game.canAfford(player, cost);
+    }
+
+    /**
+     * Returns the resource the player is missing the most cards of for the
+     * specified cost (after the specified resource has been received).
+     * @param game     the game being played
+     * @param player   the index of the bot's player
+     * @param cost     the number of cards of each resource needed
+     * @param received the index of a resource already chosen (or -1)
+     * @return the index of the resource missing the most cards
+     */
+    private int getMostMissing(HeadlessGame game, int player, int[] cost, int received) {
+        int most = 0, mostMissing = Integer.MIN_VALUE;
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            int missing = cost[resource] - game.getNumCards(player, resource) - (resource == received ? 1 : 0);
+            if (missing > mostMissing) {
+                most = resource;
+                mostMissing = missing;
+            }
+        }
+        return most;
+    }
+
+    /**
+     * Returns the corner with the most pips out of the first locations in
+     * locs.
+     * @param numLocs the number of locations to consider
+     * @return the location of the corner with the most pips (or -1 if there
+     * are no locations)
+     */
+    private int getMostPips(int numLocs) {
+        int bestLoc = -1;
+        for (int i = 0; i < numLocs; i++) {
+            if (bestLoc < 0 || cornerPips[locs[i]] > cornerPips[bestLoc]) {
+                bestLoc = locs[i];
+            }
+        }
+        return bestLoc;
+    }
+
+    /**
+     * Returns the most pips of a corner the player could settle at (or one
+     * corner beyond) the specified corner.
+     * @param game      the game being played
+     * @param player    the index of the bot's player
+     * @param cornerLoc the location of the corner
+     * @return the most pips of a corner the player could reach
+     */
+    private int getReachablePips(HeadlessGame game, int player, int cornerLoc) {
+        int pips = game.isValidSettlementLoc(player, cornerLoc, true) ? cornerPips[cornerLoc] : 0;
+        for (int adjacentCornerLoc : HeadlessGame.getAdjacentCornerLocs(cornerLoc)) {
+            if (game.isValidSettlementLoc(player, adjacentCornerLoc, true)) {
+                pips = Math.max(pips, cornerPips[adjacentCornerLoc] - 1);//Slightly prefer corners that are closer
+            }
+        }
+        return pips;
+    }
+
+    /**
+     * Returns the corner at the other end of the specified road.
+     * @param roadLoc   the location of the road
+     * @param cornerLoc the location of the corner at one end
+     * @return the location of the corner at the other end
+     */
+    private static int getOtherEnd(int roadLoc, int cornerLoc) {
+        int[] cornerLocs = HeadlessGame.getRoadCornerLocs(roadLoc);
+        return cornerLocs[0] == cornerLoc ? cornerLocs[1] : cornerLocs[0];
+    }
+}
@@ -0,0 +1,473 @@
+package soc.base.ai;
+
+import soc.base.GameController;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the hands the other players could be holding, using only
+ * what every player at the table can see. Production, builds, bank and harbor
+ * trades, trades between players, Year of Plenty and Monopoly all change a
+ * hand by a known amount. Steals and discards do not, so after one of those a
+ * player could be holding one of several hands.
+ * <p>
+ * For each player the tracker keeps every hand they could be holding along
+ * with how likely it is. A hand is packed into an int (6 bits per resource),
+ * and equal hands are merged, so the set stays small. If it grows past the
+ * maximum number of hands, the least likely hands are dropped. The chance
+ * that a player holds at least some number of cards of each resource is
+ * worked out after every event, so asking for it takes constant time.
+ * <p>
+ * Players are identified by their index and resources by their index in
+ * GameController.RESOURCE_TYPES. A tracker is not thread-safe.
+ * @author Connor Barnes
+ */
+public class HandTracker {
+    public static final int DEFAULT_MAX_HANDS = 2048;
+    private static final int NUM_RESOURCES = GameController.RESOURCE_TYPES.length;
+    private static final int MAX_COUNT = 19;//Number of cards of each resource in the game
+    private static final int FIELD_BITS = 6;//Enough to hold MAX_COUNT
+    private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+
+    private final PossibleHands[] possibleHands;//Index is the player
+    private final int maxHands;
+    //Reused by every event
+    private final int[] nextHands;
+    private final double[] nextWeights;
+    private int numNext;
+    private final int[] slots;     //Hash table of indexes into nextHands
+    private final int[] slotStamps;//The stamp of the event that last filled each slot
+    private int stamp;
+    private final double[] selectBuffer;
+    private final double[] stealOdds;//Index is the resource
+
+    /**
+     * Constructs a tracker for the specified number of players, all of whom
+     * start with no cards, that keeps at most DEFAULT_MAX_HANDS possible
+     * hands per player.
+     * @param numPlayers the number of players in the game
+     */
+    public HandTracker(int numPlayers) {
+        this(numPlayers, DEFAULT_MAX_HANDS);
+    }
+
+    /**
+     * Constructs a tracker for the specified number of players, all of whom
+     * start with no cards, that keeps at most the specified number of
+     * possible hands per player.
+     * @param numPlayers the number of players in the game
+     * @param maxHands   the largest number of possible hands to keep for
+     *                   each player
+     * @throws IllegalArgumentException if either number is not positive
+     */
+    public HandTracker(int numPlayers, int maxHands) {
+        if (numPlayers < 1 || maxHands < 1) {
+            throw new IllegalArgumentException("The number of players and hands must be positive");
+        }
+        this.maxHands = maxHands;
+        possibleHands = new PossibleHands[numPlayers];
+        for (int player = 0; player < numPlayers; player++) {
+            possibleHands[player] = new PossibleHands(maxHands);
+        }
+        int capacity = maxHands * NUM_RESOURCES;//One event can turn each hand into at most one hand per resource
+        nextHands = new int[capacity];
+        nextWeights = new double[capacity];
+        slots = new int[Integer.highestOneBit(capacity) << 2];
+        slotStamps = new int[slots.length];
+        stamp = 0;
+        selectBuffer = new double[capacity];
+        stealOdds = new double[NUM_RESOURCES];
+    }
+
+    /**
+     * Records that the specified player received the specified number of
+     * cards of the specified resource (from production, a trade, Year of
+     * Plenty, etc.).
+     * @param player   the index of the player
+     * @param resource the index of the resource
+     * @param amount   the number of cards received
+     */
+    public void gain(int player, int resource, int amount) {
+        if (amount == 0) {
+            return;
+        }
+        PossibleHands hands = possibleHands[player];
+        int delta = amount << (resource * FIELD_BITS);
+        for (int i = 0; i < hands.size; i++) {
+            hands.hands[i] += delta;//Adding the same cards to distinct hands keeps them distinct
+        }
+        hands.numCards += amount;
+        hands.update();
+    }
+
+    /**
+     * Records that the specified player gave up the specified number of cards
+     * of the specified resource (to build, to trade, etc.). Hands that did not
+     * have enough of the resource are dropped.
+     * @param player   the index of the player
+     * @param resource the index of the resource
+     * @param amount   the number of cards given up
+     */
+    public void spend(int player, int resource, int amount) {
+        if (amount == 0) {
+            return;
+        }
+        PossibleHands hands = possibleHands[player];
+        int shift = resource * FIELD_BITS;
+        beginEvent();
+        for (int i = 0; i < hands.size; i++) {
+            if (((hands.hands[i] >>> shift) & FIELD_MASK) >= amount) {
+                addNext(hands.hands[i] - (amount << shift), hands.weights[i]);
+            }
+        }
+        if (numNext == 0) {//The player's real hand was dropped, so keep the closest hands instead
+            for (int i = 0; i < hands.size; i++) {
+                int count = (hands.hands[i] >>> shift) & FIELD_MASK;
+                addNext(hands.hands[i] - (Math.min(count, amount) << shift), hands.weights[i]);
+            }
+        }
+        hands.numCards = Math.max(0, hands.numCards - amount);
+        endEvent(hands);
+    }
+
+    /**
+     * Records that the specified player gave up the specified number of cards
+     * of each resource.
+     * @param player the index of the player
+     * @param cards  the number of cards of each resource given up
+     */
+    public void spend(int player, int[] cards) {
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            spend(player, resource, cards[resource]);
+        }
+    }
+
+    /**
+     * Records that one player stole a card from another and that the
+     * resource stolen was seen (i.e. the tracker belongs to one of them).
+     * @param thief    the index of the player who stole the card
+     * @param victim   the index of the player the card was stolen from
+     * @param resource the index of the resource stolen
+     */
+    public void stealKnown(int thief, int victim, int resource) {
+        spend(victim, resource, 1);
+        gain(thief, resource, 1);
+    }
+
+    /**
+     * Records that one player stole a card from another without the resource
+     * being seen. Every card in the victim's hand is equally likely to have
+     * been stolen.
+     * @param thief  the index of the player who stole the card
+     * @param victim the index of the player the card was stolen from
+     * @throws IllegalArgumentException if the thief is the victim or the
+     *                                  victim has no cards
+     */
+    public void stealUnknown(int thief, int victim) {
+        if (thief == victim) {
+            throw new IllegalArgumentException("A player cannot steal from themselves");
+        }
+        loseUnknown(possibleHands[victim], stealOdds);
+        PossibleHands hands = possibleHands[thief];
+        beginEvent();
+        for (int i = 0; i < hands.size; i++) {
+            for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                if (stealOdds[resource] > 0) {
+                    addNext(hands.hands[i] + (1 << (resource * FIELD_BITS)), hands.weights[i] * stealOdds[resource]);
+                }
+            }
+        }
+        hands.numCards++;
+        endEvent(hands);
+    }
+
+    /**
+     * Records that the specified player discarded the specified number of
+     * cards without the resources being seen. Every card in the player's
+     * hand is treated as equally likely to have been discarded.
+     * @param player   the index of the player
+     * @param numCards the number of cards discarded
+     * @throws IllegalArgumentException if the player does not have that many
+     *                                  cards
+     */
+    public void discardUnknown(int player, int numCards) {
+        if (numCards > possibleHands[player].numCards) {
+            throw new IllegalArgumentException("The player does not have " + numCards + " cards to discard");
+        }
+        for (int i = 0; i < numCards; i++) {
+            loseUnknown(possibleHands[player], stealOdds);
+        }
+    }
+
+    /**
+     * Records that the specified player played a Monopoly card and took the
+     * specified number of cards of the specified resource from each player.
+     * Since the number taken from each player is seen, hands that held a
+     * different number are dropped.
+     * @param player   the index of the player who played the card
+     * @param resource the index of the resource
+     * @param numTaken the number of cards taken from each player (the entry
+     *                 for the player who played the card is ignored)
+     */
+    public void monopoly(int player, int resource, int[] numTaken) {
+        int shift = resource * FIELD_BITS;
+        int total = 0;
+        for (int victim = 0; victim < possibleHands.length; victim++) {
+            if (victim == player) {
+                continue;
+            }
+            PossibleHands hands = possibleHands[victim];
+            beginEvent();
+            for (int i = 0; i < hands.size; i++) {
+                if (((hands.hands[i] >>> shift) & FIELD_MASK) == numTaken[victim]) {
+                    addNext(hands.hands[i] & ~(FIELD_MASK << shift), hands.weights[i]);
+                }
+            }
+            if (numNext == 0) {//The player's real hand was dropped, so keep the closest hands instead
+                for (int i = 0; i < hands.size; i++) {
+                    addNext(hands.hands[i] & ~(FIELD_MASK << shift), hands.weights[i]);
+                }
+            }
+            hands.numCards = Math.max(0, hands.numCards - numTaken[victim]);
+            endEvent(hands);
+            total += numTaken[victim];
+        }
+        gain(player, resource, total);
+    }
+
+    /**
+     * Returns the probability that the specified player has at least the
+     * specified number of cards of the specified resource.
+     * @param player   the index of the player
+     * @param resource the index of the resource
+     * @param atLeast  the smallest number of cards
+     * @return the probability that the player has at least that many cards
+     */
+    public float getProbability(int player, int resource, int atLeast) {
+        if (atLeast <= 0) {
+            return 1;
+        } else if (atLeast > MAX_COUNT) {
+            return 0;
+        }
+        return possibleHands[player].atLeast[resource * (MAX_COUNT + 1) + atLeast];
+    }
+
+    /**
+     * Returns the expected number of cards of the specified resource the
+     * specified player has.
+     * @param player   the index of the player
+     * @param resource the index of the resource
+     * @return the expected number of cards of the resource
+     */
+    public float getExpected(int player, int resource) {
+        return possibleHands[player].expected[resource];
+    }
+
+    /**
+     * Returns the number of resource cards the specified player has (which
+     * every player can see).
+     * @param player the index of the player
+     * @return the number of resource cards the player has
+     */
+    public int getNumCards(int player) {
+        return possibleHands[player].numCards;
+    }
+
+    /**
+     * Returns the number of hands the specified player could be holding.
+     * @param player the index of the player
+     * @return the number of possible hands
+     */
+    public int getNumPossibleHands(int player) {
+        return possibleHands[player].size;
+    }
+
+    /**
+     * Removes one card, chosen uniformly from the cards in each possible
+     * hand, from the specified hands.
+     * @param hands the possible hands of a player
+     * @param odds  filled with the probability that each resource was
+     *              removed
+     * @throws IllegalArgumentException if the player has no cards
+     */
+    private void loseUnknown(PossibleHands hands, double[] odds) {
+        if (hands.numCards == 0) {
+            throw new IllegalArgumentException("The player has no cards");
+        }
+        Arrays.fill(odds, 0);
+        beginEvent();
+        for (int i = 0; i < hands.size; i++) {
+            for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                int count = (hands.hands[i] >>> (resource * FIELD_BITS)) & FIELD_MASK;
+                if (count > 0) {
+                    double weight = hands.weights[i] * count / hands.numCards;
+                    addNext(hands.hands[i] - (1 << (resource * FIELD_BITS)), weight);
+                    odds[resource] += weight;
+                }
+            }
+        }
+        hands.numCards--;
+        endEvent(hands);
+    }
+
+    /**
+     * Starts collecting the hands that result from an event.
+     */
+    private void beginEvent() {
+        numNext = 0;
+        stamp++;
+        if (stamp == 0) {//The stamps wrapped around, so old slots could look filled
+            Arrays.fill(slotStamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Adds the specified hand to the hands that result from an event, merging
+     * it with an equal hand if there is one.
+     * @param hand   the packed hand
+     * @param weight the probability of the hand
+     */
+    private void addNext(int hand, double weight) {
+        int mask = slots.length - 1;
+        int slot = (hand * 0x9E3779B9) >>> 7 & mask;
+        while (slotStamps[slot] == stamp) {
+            if (nextHands[slots[slot]] == hand) {
+                nextWeights[slots[slot]] += weight;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slotStamps[slot] = stamp;
+        slots[slot] = numNext;
+        nextHands[numNext] = hand;
+        nextWeights[numNext] = weight;
+        numNext++;
+    }
+
+    /**
+     * Replaces the specified hands with the hands that resulted from an event,
+     * dropping the least likely hands if there are too many.
+     * @param hands the possible hands of a player
+     */
+    private void endEvent(PossibleHands hands) {
+        double minWeight = -1;
+        int numTies = maxHands;//Number of hands with exactly the smallest weight that can be kept
+        if (numNext > maxHands) {
+            System.arraycopy(nextWeights, 0, selectBuffer, 0, numNext);
+            minWeight = select(selectBuffer, numNext, maxHands - 1);
+            for (int i = 0; i < numNext; i++) {
+                if (nextWeights[i] > minWeight) {
+                    numTies--;
+                }
+            }
+        }
+        hands.size = 0;
+        for (int i = 0; i < numNext; i++) {
+            if (nextWeights[i] > minWeight || (nextWeights[i] == minWeight && numTies-- > 0)) {
+                hands.hands[hands.size] = nextHands[i];
+                hands.weights[hands.size] = nextWeights[i];
+                hands.size++;
+            }
+        }
+        hands.update();
+    }
+
+    /**
+     * Returns the value that would be at the specified index if the first
+     * values in the specified array were sorted from largest to smallest.
+     * The order of the values is changed.
+     * @param values the values
+     * @param length the number of values to consider
+     * @param rank   the index in the sorted order
+     * @return the value with the specified rank
+     */
+    private static double select(double[] values, int length, int rank) {
+        int low = 0, high = length - 1;
+        while (low < high) {
+            double pivot = values[(low + high) >>> 1];
+            int i = low, j = high;
+            while (i <= j) {
+                while (values[i] > pivot) {
+                    i++;
+                }
+                while (values[j] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double temp = values[i];
+                    values[i] = values[j];
+                    values[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+            if (rank <= j) {
+                high = j;
+            } else if (rank >= i) {
+                low = i;
+            } else {
+                return values[rank];
+            }
+        }
+        return values[rank];
+    }
+
+    /**
+     * The hands one player could be holding, along with the answers to the
+     * questions asked about them.
+     */
+    private static class PossibleHands {
+        private final int[] hands;
+        private final double[] weights;
+        private int size;
+        private int numCards;
+        private final float[] atLeast; //Index is resource * (MAX_COUNT + 1) + number of cards
+        private final float[] expected;//Index is the resource
+        private final double[] counts; //Reused by update(), same index as atLeast
+
+        /**
+         * Constructs the possible hands of a player with no cards.
+         * @param maxHands the largest number of possible hands to keep
+         */
+        private PossibleHands(int maxHands) {
+            hands = new int[maxHands];
+            weights = new double[maxHands];
+            size = 1;
+            weights[0] = 1;
+            numCards = 0;
+            atLeast = new float[NUM_RESOURCES * (MAX_COUNT + 1)];
+            expected = new float[NUM_RESOURCES];
+            counts = new double[atLeast.length];
+            update();
+        }
+
+        /**
+         * Scales the weights of the hands so that they add up to one and
+         * works out the answers to the questions asked about them.
+         */
+        private void update() {
+            double total = 0;
+            for (int i = 0; i < size; i++) {
+                total += weights[i];
+            }
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                weights[i] /= total;
+                for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                    counts[resource * (MAX_COUNT + 1) + ((hands[i] >>> (resource * FIELD_BITS)) & FIELD_MASK)] += weights[i];
+                }
+            }
+            for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                double sum = 0, expectedCount = 0;
+                for (int count = MAX_COUNT; count >= 0; count--) {
+                    int index = resource * (MAX_COUNT + 1) + count;
+                    sum += counts[index];
+                    expectedCount += count * counts[index];
+                    atLeast[index] = (float) Math.min(1, sum);
+                }
+                expected[resource] = (float) expectedCount;
+            }
+        }
+    }
+}
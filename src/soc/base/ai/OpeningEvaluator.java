@@ -0,0 +1,289 @@
+package soc.base.ai;
+
+import soc.base.GameController;
+import soc.base.model.Board;
+import soc.base.model.Corner;
+import soc.base.model.Tile;
+
+import java.util.*;
+
+/**
+ * Scores the corners where a settlement can be placed during setup. The score
+ * of a corner is the sum of the pips (number of ways to roll each number) of
+ * the tiles around it, plus a bonus for each resource the player does not
+ * already produce, a bonus for a harbor that matches what the player
+ * produces, and a small bonus for the production the settlement denies to
+ * other players by blocking the corners next to it.
+ * <p>
+ * The tiles and number tokens do not change during setup, so the pips of each
+ * resource around each corner are added up once when the evaluator is
+ * created and kept in flat arrays. Ranking the corners (or every pair of
+ * corners) only reads those arrays, and takes a few microseconds.
+ * @author Connor Barnes
+ */
+public class OpeningEvaluator {
+    private static final float DIVERSITY_WEIGHT = 1.5f;//Per resource the player did not already produce
+    private static final float HARBOR_WEIGHT = 0.5f;   //Per pip of a resource the player can trade at a 2:1 harbor
+    private static final float ANY_HARBOR_WEIGHT = 1f; //For the player's first 3:1 harbor
+    private static final float BLOCKING_WEIGHT = 0.25f;//Per pip of the best corner that is blocked
+    private static final int NUM_RESOURCES = GameController.RESOURCE_TYPES.length;
+    private static final int ANY_HARBOR = NUM_RESOURCES;//Bit of a 3:1 harbor in a harbor mask
+    private static final int MAX_ADJACENT_CORNERS = 3;
+
+    private final int numCorners;
+    private final int[] resourcePips;   //Index is cornerLoc * NUM_RESOURCES + resource
+    private final int[] totalPips;      //Index is the corner location
+    private final int[] harborMasks;    //Index is the corner location, bit resource (or ANY_HARBOR) is set if the corner has that harbor
+    private final int[] adjacentCorners;//Index is cornerLoc * MAX_ADJACENT_CORNERS + i, -1 if the corner has fewer adjacent corners
+
+    /**
+     * Constructs an evaluator for the specified board.
+     * @param board the board the settlements are placed on
+     */
+    public OpeningEvaluator(Board board) {
+        numCorners = board.getNumCorners();
+        resourcePips = new int[numCorners * NUM_RESOURCES];
+        totalPips = new int[numCorners];
+        harborMasks = new int[numCorners];
+        adjacentCorners = new int[numCorners * MAX_ADJACENT_CORNERS];
+        Arrays.fill(adjacentCorners, -1);
+        List<String> resourceTypes = Arrays.asList(GameController.RESOURCE_TYPES);
+        for (int cornerLoc = 0; cornerLoc < numCorners; cornerLoc++) {
+            Corner corner = board.getCorner(cornerLoc);
+            for (int tileLoc : corner.getAdjacentTileLocs()) {
+                Tile tile = board.getTile(tileLoc);
+                if (!tile.getTerrain().equals(Tile.DESERT)) {
+                    int pips = getPips(tile.getNumberToken());
+                    resourcePips[cornerLoc * NUM_RESOURCES + resourceTypes.indexOf(tile.getResourceProduced())] += pips;
+                    totalPips[cornerLoc] += pips;
+                }
+            }
+            if (corner.hasHarbor()) {
+                int harbor = corner.getHarbor().equals(GameController.HARBOR_TYPE_ANY) ? ANY_HARBOR : resourceTypes.indexOf(corner.getHarbor());
+                harborMasks[cornerLoc] = 1 << harbor;
+            }
+            int[] adjacentCornerLocs = corner.getAdjacentCornerLocs();
+            System.arraycopy(adjacentCornerLocs, 0, adjacentCorners, cornerLoc * MAX_ADJACENT_CORNERS, adjacentCornerLocs.length);
+        }
+    }
+
+    /**
+     * Returns the specified valid corners ranked by how good a settlement
+     * would be there for a player who already has settlements at the
+     * specified corners (best first).
+     * @param validLocs the corners where the settlement can be placed
+     * @param ownedLocs the corners of the player's settlements (may be empty)
+     * @return the valid corners ranked from best to worst
+     */
+    public List<Opening> rankCorners(Collection<Integer> validLocs, Collection<Integer> ownedLocs) {
+        boolean[] valid = toArray(validLocs);
+        int[] ownedPips = new int[NUM_RESOURCES];
+        int ownedHarbors = 0;
+        for (int cornerLoc : ownedLocs) {
+            ownedHarbors |= addPips(cornerLoc, ownedPips);
+        }
+        ArrayList<Opening> ranking = new ArrayList<Opening>(validLocs.size());
+        for (int cornerLoc = 0; cornerLoc < numCorners; cornerLoc++) {
+            if (valid[cornerLoc]) {
+                ranking.add(new Opening(cornerLoc, -1, scoreCorner(cornerLoc, ownedPips, ownedHarbors, valid)));
+            }
+        }
+        Collections.sort(ranking);
+        return ranking;
+    }
+
+    /**
+     * Returns the best pairs of the specified valid corners for a player to
+     * place both of their setup settlements on (best first). The corners in a
+     * pair are never next to each other.
+     * @param validLocs the corners where the settlements can be placed
+     * @param count     the largest number of pairs to return
+     * @return the best pairs of valid corners, ranked from best to worst
+     * @throws IllegalArgumentException if the count is not positive
+     */
+    public List<Opening> rankPairs(Collection<Integer> validLocs, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("The count must be positive");
+        }
+        boolean[] valid = toArray(validLocs);
+        int[] noPips = new int[NUM_RESOURCES], firstPips = new int[NUM_RESOURCES];
+        //The best pairs found so far, kept sorted from best to worst
+        int[] bestFirst = new int[count], bestSecond = new int[count];
+        float[] bestScores = new float[count];
+        int numBest = 0;
+        boolean[] blocked = new boolean[MAX_ADJACENT_CORNERS];
+        for (int first = 0; first < numCorners; first++) {
+            if (!valid[first]) {
+                continue;
+            }
+            float firstScore = scoreCorner(first, noPips, 0, valid);
+            Arrays.fill(firstPips, 0);
+            int firstHarbors = addPips(first, firstPips);
+            valid[first] = false;//The second settlement cannot go on or next to the first
+            for (int i = 0; i < MAX_ADJACENT_CORNERS; i++) {
+                int adjacentLoc = adjacentCorners[first * MAX_ADJACENT_CORNERS + i];
+                blocked[i] = adjacentLoc >= 0 && valid[adjacentLoc];
+                if (blocked[i]) {
+                    valid[adjacentLoc] = false;
+                }
+            }
+            for (int second = first + 1; second < numCorners; second++) {
+                if (valid[second]) {
+                    float score = firstScore + scoreCorner(second, firstPips, firstHarbors, valid);
+                    if (numBest < count || score > bestScores[numBest - 1]) {
+                        //Insert the pair, dropping the worst pair if there are too many
+                        int i = Math.min(numBest, count - 1);
+                        while (i > 0 && bestScores[i - 1] < score) {
+                            bestFirst[i] = bestFirst[i - 1];
+                            bestSecond[i] = bestSecond[i - 1];
+                            bestScores[i] = bestScores[i - 1];
+                            i--;
+                        }
+                        bestFirst[i] = first;
+                        bestSecond[i] = second;
+                        bestScores[i] = score;
+                        numBest = Math.min(numBest + 1, count);
+                    }
+                }
+            }
+            valid[first] = true;
+            for (int i = 0; i < MAX_ADJACENT_CORNERS; i++) {
+                if (blocked[i]) {
+                    valid[adjacentCorners[first * MAX_ADJACENT_CORNERS + i]] = true;
+                }
+            }
+        }
+        ArrayList<Opening> ranking = new ArrayList<Opening>(numBest);
+        for (int i = 0; i < numBest; i++) {
+            ranking.add(new Opening(bestFirst[i], bestSecond[i], bestScores[i]));
+        }
+        return ranking;
+    }
+
+    /**
+     * Returns the score of a settlement at the specified corner.
+     * @param cornerLoc    the location of the corner
+     * @param ownedPips    the pips of each resource the player already
+     *                     produces
+     * @param ownedHarbors the harbors the player already has (bit resource or
+     *                     ANY_HARBOR)
+     * @param valid        true for every corner that is still a valid
+     *                     location for a settlement
+     * @return the score of a settlement at the specified corner
+     */
+    private float scoreCorner(int cornerLoc, int[] ownedPips, int ownedHarbors, boolean[] valid) {
+        int harbors = ownedHarbors | harborMasks[cornerLoc];
+        int offset = cornerLoc * NUM_RESOURCES;
+        int numNewResources = 0, harborPips = 0;
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            int pips = resourcePips[offset + resource];
+            numNewResources += (pips > 0 && ownedPips[resource] == 0) ? 1 : 0;
+            //Pips of the resource that are gained (or become tradeable) at a 2:1 harbor
+            harborPips += ((harbors >> resource) & 1) * (ownedPips[resource] + pips) - ((ownedHarbors >> resource) & 1) * ownedPips[resource];
+        }
+        float score = totalPips[cornerLoc] + DIVERSITY_WEIGHT * numNewResources + HARBOR_WEIGHT * harborPips;
+        if (((harbors & ~ownedHarbors) >> ANY_HARBOR & 1) != 0) {
+            score += ANY_HARBOR_WEIGHT;
+        }
+        int blockedPips = 0;
+        for (int i = cornerLoc * MAX_ADJACENT_CORNERS; i < (cornerLoc + 1) * MAX_ADJACENT_CORNERS; i++) {
+            int adjacentLoc = adjacentCorners[i];
+            if (adjacentLoc >= 0 && valid[adjacentLoc]) {
+                blockedPips = Math.max(blockedPips, totalPips[adjacentLoc]);
+            }
+        }
+        return score + BLOCKING_WEIGHT * blockedPips;
+    }
+
+    /**
+     * Adds the pips of each resource around the specified corner to the
+     * specified array.
+     * @param cornerLoc the location of the corner
+     * @param pips      the pips of each resource
+     * @return the harbors at the corner (bit resource or ANY_HARBOR)
+     */
+    private int addPips(int cornerLoc, int[] pips) {
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            pips[resource] += resourcePips[cornerLoc * NUM_RESOURCES + resource];
+        }
+        return harborMasks[cornerLoc];
+    }
+
+    /**
+     * Returns an array in which the specified corners are true.
+     * @param cornerLocs the corners to set
+     * @return an array in which the specified corners are true
+     */
+    private boolean[] toArray(Collection<Integer> cornerLocs) {
+        boolean[] array = new boolean[numCorners];
+        for (int cornerLoc : cornerLocs) {
+            array[cornerLoc] = true;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the number of ways to roll the specified number with two dice.
+     * @param number the number on a number token
+     * @return the number of ways to roll the number
+     */
+    public static int getPips(int number) {
+        return number < 2 || number > 12 ? 0 : 6 - Math.abs(7 - number);
+    }
+
+    /**
+     * A corner (or a pair of corners) and its score.
+     */
+    public static class Opening implements Comparable<Opening> {
+        private final int firstLoc, secondLoc;
+        private final float score;
+
+        /**
+         * Constructs an opening with the specified corners and score.
+         * @param firstLoc  the location of the first corner
+         * @param secondLoc the location of the second corner (-1 if the
+         *                  opening is a single corner)
+         * @param score     the score of the opening
+         */
+        private Opening(int firstLoc, int secondLoc, float score) {
+            this.firstLoc = firstLoc;
+            this.secondLoc = secondLoc;
+            this.score = score;
+        }
+
+        /**
+         * Returns the location of the first (or only) corner.
+         * @return the location of the first corner
+         */
+        public int getFirstLoc() {
+            return firstLoc;
+        }
+
+        /**
+         * Returns the location of the second corner (or -1 if the opening is
+         * a single corner).
+         * @return the location of the second corner
+         */
+        public int getSecondLoc() {
+            return secondLoc;
+        }
+
+        /**
+         * Returns the score of this opening (higher is better).
+         * @return the score of this opening
+         */
+        public float getScore() {
+            return score;
+        }
+
+        /**
+         * Orders openings from best to worst.
+         * @param opening the opening to compare to
+         * @return a negative number if this opening is better
+         */
+        @Override
+        public int compareTo(Opening opening) {
+            return Float.compare(opening.score, score);
+        }
+    }
+}
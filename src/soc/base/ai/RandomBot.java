@@ -0,0 +1,111 @@
+package soc.base.ai;
+
+import soc.base.sim.Bot;
+import soc.base.sim.HeadlessGame;
+
+import java.util.Random;
+
+/**
+ * A bot that makes every decision at random. Each turn it keeps trying a
+ * random build (or trading in four of a kind when it has too many cards)
+ * until none of them work. It is the baseline the other bots are rated
+ * against.
+ * @author Connor Barnes
+ */
+public class RandomBot implements Bot {
+    public static final Bot.Factory FACTORY = new Bot.Factory() {
+        @Override
+        public Bot createBot() {
+            return new RandomBot();
+        }
+    };
+    private static final int NUM_ACTIONS = 6;
+    private static final int ESTIMATED_BYTES = 320;//The bot and its reused array (measured with tests/FootprintReport)
+
+    private final int[] locs;//Reused
+
+    /**
+     * Constructs a random bot.
+     */
+    public RandomBot() {
+        locs = new int[Math.max(HeadlessGame.NUM_CORNERS, HeadlessGame.NUM_ROADS)];
+    }
+
+    @Override
+    public int placeSetupSettlement(HeadlessGame game, int player) {
+        return locs[game.getRandom().nextInt(game.getValidSettlementLocs(player, true, locs))];
+    }
+
+    @Override
+    public int placeSetupRoad(HeadlessGame game, int player, int settlementLoc) {
+        int[] roadLocs = HeadlessGame.getAdjacentRoadLocs(settlementLoc);
+        return roadLocs[game.getRandom().nextInt(roadLocs.length)];//Taken roads are replaced by the game
+    }
+
+    @Override
+    public void discard(HeadlessGame game, int player, int numCards, int[] discarded) {
+        //Leaving the array empty makes the game discard random cards
+    }
+
+    @Override
+    public int moveRobber(HeadlessGame game, int player) {
+        return game.getRandom().nextInt(HeadlessGame.NUM_TILES);//The tile the robber is on is replaced by the game
+    }
+
+    @Override
+    public int chooseVictim(HeadlessGame game, int player, int tileLoc) {
+        return game.getRandom().nextInt(HeadlessGame.NUM_PLAYERS);//Invalid victims are replaced by the game
+    }
+
+    @Override
+    public void playTurn(HeadlessGame game, int player) {
+        Random random = game.getRandom();
+        boolean acted = true;
+        while (acted && !game.isOver()) {
+            acted = false;
+            int first = random.nextInt(NUM_ACTIONS);
+            for (int i = 0; i < NUM_ACTIONS && !acted; i++) {
+                acted = tryAction(game, player, (first + i) % NUM_ACTIONS, random);
+            }
+        }
+    }
+
+    @Override
+    public int getEstimatedBytes() {
+        return ESTIMATED_BYTES;
+    }
+
+    /**
+     * Tries the specified action with random choices.
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     * @param action the action to try
+     * @param random the random number generator to choose with
+     * @return true if the action was taken
+     */
+    private boolean tryAction(HeadlessGame game, int player, int action, Random random) {
+        int numLocs;
+        switch (action) {
+            case 0:
+                numLocs = game.getValidCityLocs(player, locs);
+                return numLocs > 0 && game.buildCity(locs[random.nextInt(numLocs)]);
+            case 1:
+                numLocs = game.getValidSettlementLocs(player, false, locs);
+                return numLocs > 0 && game.buildSettlement(locs[random.nextInt(numLocs)]);
+            case 2:
+                numLocs = game.getValidRoadLocs(player, locs);
+                return numLocs > 0 && game.buildRoad(locs[random.nextInt(numLocs)]);
+            case 3:
+                return game.buyDevCard();
+            case 4:
+                return game.playKnight() || game.playRoadBuilding()
+                        || game.playYearOfPlenty(random.nextInt(HeadlessGame.NUM_RESOURCES), random.nextInt(HeadlessGame.NUM_RESOURCES))
+                        || game.playMonopoly(random.nextInt(HeadlessGame.NUM_RESOURCES));
+            default:
+                if (game.getPlayer(player).getSumResourceCards() <= 7) {
+                    return false;
+                }
+                return game.tradeWithBank(random.nextInt(HeadlessGame.NUM_RESOURCES), random.nextInt(HeadlessGame.NUM_RESOURCES));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package soc.base.ai;
+
+import soc.base.model.Board;
+import soc.base.model.IncomeTracker;
+import soc.base.model.Player;
+import soc.base.model.Tile;
+
+/**
+ * Ranks the tiles the robber can be moved to and picks who to steal from.
+ * The score of a tile is the production the robber denies each opponent
+ * while it sits there (weighted by how close the opponent is to winning),
+ * minus the production it denies the player moving it, plus the value of the
+ * best card the player can steal there.
+ * <p>
+ * The production of each player around each tile is read from the Board's
+ * IncomeTracker, which is kept up to date as settlements and cities are
+ * built, so ranking every tile only visits each tile once per player and
+ * never allocates memory. Bots can afford to rank the tiles on every 7 and
+ * every Knight card.
+ * <p>
+ * Victory points and hand sizes are passed in by the caller so that the
+ * advisor only uses what the player moving the robber could know (i.e. not
+ * the victory point cards in the other players' hands).
+ * @author Connor Barnes
+ */
+public class RobberAdvisor {
+    private static final float ROLLS_BLOCKED = 6f;//How many rolls the robber is expected to stay on a tile
+    private static final float VP_WEIGHT = 0.25f; //Extra weight per victory point of an opponent
+    private static final float SELF_WEIGHT = 1.5f;//Blocking yourself hurts more than blocking one opponent helps
+    private static final float STEAL_WEIGHT = 1f; //Value of stealing one card
+    private static final float HAND_WEIGHT = 0.05f;//Per card in the victim's hand (a larger hand is more likely to have what the player needs)
+    private static final int NUM_OUTCOMES = 36;   //Number of ways two dice can land
+
+    private final Board board;
+    private final IncomeTracker.Income[] incomes;//Index matches the players
+    private final int[] tilePips;                //Index is the tile location, 0 for the desert
+
+    /**
+     * Constructs an advisor for the specified board and players.
+     * @param board   the board the robber is on
+     * @param players the players in the game
+     */
+    public RobberAdvisor(Board board, Player[] players) {
+        this.board = board;
+        incomes = new IncomeTracker.Income[players.length];
+        for (int i = 0; i < players.length; i++) {
+            incomes[i] = board.getIncomeTracker().getIncome(players[i].getColor());
+        }
+        tilePips = new int[board.getNumTiles()];
+        for (int tileLoc = 0; tileLoc < tilePips.length; tileLoc++) {
+            Tile tile = board.getTile(tileLoc);
+            if (!tile.getTerrain().equals(Tile.DESERT)) {
+                tilePips[tileLoc] = IncomeTracker.getPips(tile.getNumberToken());
+            }
+        }
+    }
+
+    /**
+     * Scores every tile the specified player can move the robber to and
+     * returns the best one. The tile the robber is already on cannot be
+     * chosen, so its score is negative infinity.
+     * @param robberIndex   the index of the player moving the robber
+     * @param victoryPoints the public victory points of each player
+     * @param handSizes     the number of resource cards in each player's hand
+     * @param tileScores    filled with the score of each tile (higher is
+     *                      better)
+     * @param tileVictims   filled with the index of the player to steal from
+     *                      on each tile (or -1 if there is no one to steal
+     *                      from)
+     * @return the location of the tile with the best score
+     * @throws IllegalArgumentException if the arrays are too small
+     */
+    public int rankTiles(int robberIndex, int[] victoryPoints, int[] handSizes, float[] tileScores, int[] tileVictims) {
+        if (victoryPoints.length < incomes.length || handSizes.length < incomes.length
+                || tileScores.length < tilePips.length || tileVictims.length < tilePips.length) {
+            throw new IllegalArgumentException("The arrays are too small for this board and these players");
+        }
+        int robberLoc = board.getRobberLoc();
+        int bestLoc = -1;
+        for (int tileLoc = 0; tileLoc < tilePips.length; tileLoc++) {
+            tileVictims[tileLoc] = -1;
+            if (tileLoc == robberLoc) {
+                tileScores[tileLoc] = Float.NEGATIVE_INFINITY;
+                continue;
+            }
+            float deniedPerCard = ROLLS_BLOCKED * tilePips[tileLoc] / NUM_OUTCOMES;
+            float score = 0, bestSteal = 0;
+            for (int player = 0; player < incomes.length; player++) {
+                int numCards = incomes[player].getTileCards(tileLoc);
+                if (numCards == 0) {
+                    continue;
+                }
+                if (player == robberIndex) {
+                    score -= SELF_WEIGHT * deniedPerCard * numCards;
+                } else {
+                    float weight = 1 + VP_WEIGHT * victoryPoints[player];
+                    score += weight * deniedPerCard * numCards;
+                    if (handSizes[player] > 0) {
+                        float steal = weight * STEAL_WEIGHT + HAND_WEIGHT * handSizes[player];
+                        if (steal > bestSteal) {
+                            bestSteal = steal;
+                            tileVictims[tileLoc] = player;
+                        }
+                    }
+                }
+            }
+            tileScores[tileLoc] = score + bestSteal;
+            if (bestLoc < 0 || tileScores[tileLoc] > tileScores[bestLoc]) {
+                bestLoc = tileLoc;
+            }
+        }
+        return bestLoc;
+    }
+
+    /**
+     * Returns true if the specified player has a settlement or city next to
+     * the tile at the specified location.
+     * @param playerIndex the index of the player
+     * @param tileLoc     the location of the tile
+     * @return true if the player has a settlement or city next to the tile
+     */
+    public boolean isAdjacent(int playerIndex, int tileLoc) {
+        return incomes[playerIndex].getTileCards(tileLoc) > 0;
+    }
+}
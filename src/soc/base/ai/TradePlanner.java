@@ -0,0 +1,216 @@
+package soc.base.ai;
+
+import soc.base.GameController;
+
+/**
+ * Plans the bank and harbor trades a player needs to make to afford a build.
+ * Every trade gives the player exactly one card, so the fewest trades needed
+ * is the number of cards the player is missing. Of the plans with that many
+ * trades, the planner picks the one that trades in the fewest cards (using
+ * the player's best rates first), leaving the player with as large a hand as
+ * possible.
+ * <p>
+ * A plan is packed into a long so that planning never allocates memory, and
+ * plans are cached by hand, cost and harbors in a fixed-size table (bots plan
+ * the same few builds from the same hand many times per decision). A planner
+ * is not thread-safe; each thread that plans trades needs its own planner.
+ * <p>
+ * Resources are identified by their index in GameController.RESOURCE_TYPES,
+ * and harbors by a bitmask (see Player.getHarborMask()).
+ * @author Connor Barnes
+ */
+public class TradePlanner {
+    //The cost of each build (index matches GameController.RESOURCE_TYPES)
+    public static final int[] ROAD_COST = {1, 0, 1, 0, 0};
+    public static final int[] SETTLEMENT_COST = {1, 1, 1, 0, 1};
+    public static final int[] CITY_COST = {0, 2, 0, 3, 0};
+    public static final int[] DEV_CARD_COST = {0, 1, 0, 1, 1};
+    public static final long NO_PLAN = -1;//Returned when the build cannot be afforded by trading with the bank
+    private static final int NUM_RESOURCES = GameController.RESOURCE_TYPES.length;
+    private static final int ANY_HARBOR = NUM_RESOURCES;//Bit of a 3:1 harbor in a harbor mask
+    private static final int FIELD_BITS = 4;        //Bits per resource in a packed hand, cost or plan
+    private static final int MAX_FIELD = (1 << FIELD_BITS) - 1;
+    private static final int TAKE_SHIFT = NUM_RESOURCES * FIELD_BITS;
+    private static final int CACHE_SIZE = 4096;     //Must be a power of two
+
+    private final long[] cacheKeys;//Key + 1 (so that 0 is an empty slot)
+    private final long[] cachePlans;
+    private final int[] rates, surplus;//Reused by every plan
+    private long numHits, numMisses;
+
+    /**
+     * Constructs a planner with an empty cache.
+     */
+    public TradePlanner() {
+        cacheKeys = new long[CACHE_SIZE];
+        cachePlans = new long[CACHE_SIZE];
+        rates = new int[NUM_RESOURCES];
+        surplus = new int[NUM_RESOURCES];
+        numHits = 0;
+        numMisses = 0;
+    }
+
+    /**
+     * Returns the sum of the specified costs (e.g. a road and a settlement).
+     * @param costs the costs to add up
+     * @return the sum of the costs
+     */
+    public static int[] combineCosts(int[]... costs) {
+        int[] sum = new int[NUM_RESOURCES];
+        for (int[] cost : costs) {
+            for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                sum[resource] += cost[resource];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the plan with the fewest trades that lets a player with the
+     * specified hand and harbors afford the specified cost, or NO_PLAN if the
+     * player cannot afford it even after trading. A plan with zero trades is
+     * returned if the player can already afford the cost.
+     * @param hand       the number of cards of each resource the player has
+     * @param cost       the number of cards of each resource needed
+     * @param harborMask the harbors the player can access
+     * @return the packed plan (see getNumTradesFrom() and getNumTradesFor())
+     * or NO_PLAN
+     */
+    public long plan(int[] hand, int[] cost, int harborMask) {
+        long key = 0;
+        boolean cacheable = true;
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            cacheable &= hand[resource] <= MAX_FIELD && cost[resource] <= MAX_FIELD;
+            key |= (long) hand[resource] << (resource * FIELD_BITS);
+            key |= (long) cost[resource] << (TAKE_SHIFT + resource * FIELD_BITS);
+        }
+        key |= (long) harborMask << (2 * TAKE_SHIFT);
+        if (!cacheable) {
+            numMisses++;
+            return computePlan(hand, cost, harborMask);
+        }
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 52) & (CACHE_SIZE - 1);
+        if (cacheKeys[slot] == key + 1) {
+            numHits++;
+            return cachePlans[slot];
+        }
+        numMisses++;
+        long plan = computePlan(hand, cost, harborMask);
+        cacheKeys[slot] = key + 1;
+        cachePlans[slot] = plan;
+        return plan;
+    }
+
+    /**
+     * Returns the number of trades in the specified plan.
+     * @param plan the packed plan
+     * @return the number of trades in the plan (or -1 for NO_PLAN)
+     */
+    public static int getNumTrades(long plan) {
+        if (plan == NO_PLAN) {
+            return -1;
+        }
+        int numTrades = 0;
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            numTrades += getNumTradesFor(plan, resource);
+        }
+        return numTrades;
+    }
+
+    /**
+     * Returns the number of trades in the specified plan that trade in the
+     * specified resource.
+     * @param plan     the packed plan
+     * @param resource the index of the resource
+     * @return the number of trades that trade in the resource
+     */
+    public static int getNumTradesFrom(long plan, int resource) {
+        return (int) (plan >>> (resource * FIELD_BITS)) & MAX_FIELD;
+    }
+
+    /**
+     * Returns the number of trades in the specified plan that receive the
+     * specified resource.
+     * @param plan     the packed plan
+     * @param resource the index of the resource
+     * @return the number of trades that receive the resource
+     */
+    public static int getNumTradesFor(long plan, int resource) {
+        return (int) (plan >>> (TAKE_SHIFT + resource * FIELD_BITS)) & MAX_FIELD;
+    }
+
+    /**
+     * Returns the number of cards of the specified resource a player with the
+     * specified harbors trades in per trade.
+     * @param resource   the index of the resource
+     * @param harborMask the harbors the player can access
+     * @return the number of cards traded in per trade
+     */
+    public static int getRate(int resource, int harborMask) {
+        if ((harborMask & (1 << resource)) != 0) {
+            return 2;
+        } else if ((harborMask & (1 << ANY_HARBOR)) != 0) {
+            return 3;
+        } else {
+            return 4;
+        }
+    }
+
+    /**
+     * Returns the number of plans that were found in the cache.
+     * @return the number of plans that were found in the cache
+     */
+    public long getNumHits() {
+        return numHits;
+    }
+
+    /**
+     * Returns the number of plans that had to be computed.
+     * @return the number of plans that had to be computed
+     */
+    public long getNumMisses() {
+        return numMisses;
+    }
+
+    /**
+     * Computes the plan with the fewest trades (and, of those, the fewest
+     * cards traded in) that lets a player afford the specified cost.
+     * @param hand       the number of cards of each resource the player has
+     * @param cost       the number of cards of each resource needed
+     * @param harborMask the harbors the player can access
+     * @return the packed plan or NO_PLAN
+     */
+    private long computePlan(int[] hand, int[] cost, int harborMask) {
+        long plan = 0;
+        int numMissing = 0;
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            rates[resource] = getRate(resource, harborMask);
+            surplus[resource] = Math.max(0, hand[resource] - cost[resource]);
+            int missing = Math.max(0, cost[resource] - hand[resource]);
+            if (missing > MAX_FIELD) {
+                return NO_PLAN;
+            }
+            plan |= (long) missing << (TAKE_SHIFT + resource * FIELD_BITS);
+            numMissing += missing;
+        }
+        if (numMissing > MAX_FIELD) {
+            return NO_PLAN;//More trades than a plan can hold (and far more than anyone would make)
+        }
+        //Trade in the resource with the best rate each time (the one with the most spare cards if there is a tie)
+        for (int trade = 0; trade < numMissing; trade++) {
+            int best = -1;
+            for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                if (surplus[resource] >= rates[resource] && (best < 0 || rates[resource] < rates[best]
+                        || (rates[resource] == rates[best] && surplus[resource] > surplus[best]))) {
+                    best = resource;
+                }
+            }
+            if (best < 0) {
+                return NO_PLAN;
+            }
+            surplus[best] -= rates[best];
+            plan += 1L << (best * FIELD_BITS);
+        }
+        return plan;
+    }
+}
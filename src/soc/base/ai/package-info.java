@@ -0,0 +1,6 @@
+/**
+ * soc.base.ai contains the classes that analyze a game of the base version of
+ * Settlers of Catan in order to advise players or make decisions for bots.
+ * @author Connor Barnes
+ */
+package soc.base.ai;
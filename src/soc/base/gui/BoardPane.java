@@ -1,6 +1,5 @@
 package soc.base.gui;
 
-import soc.base.GameController;
 import soc.base.model.Board;
 import soc.base.model.Tile;
 
@@ -8,39 +7,51 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
+import java.awt.image.BufferedImage;
 import java.util.Collection;
 import java.util.EventListener;
-import java.util.HashMap;
-import java.util.LinkedList;
 
 /**
  * Represents the visual representation of the game board. Shows all the tiles,
  * number tokens, harbors, and player tokens on the board. Can also show all the
  * valid locations to place something (i.e. a new road, a new settlement, the
  * robber, etc.)
+ * <p>
+ * The board is painted directly rather than being built out of one component
+ * per icon. The frame, tiles, and number tokens never change, so they are
+ * drawn once into cached images when the pane is created. Player tokens and
+ * the robber are drawn from tables that record what is at each location, and
+ * only the area covered by a token is repainted when it changes. This keeps
+ * the number of components (and the time it takes to paint the board) the same
+ * no matter how many tokens have been placed.
+ * <p>
+ * Valid locations are painted the same way, by a ValidLocOverlay that is
+ * created with the pane and reused every time locations are shown. A single
+ * mouse listener resolves each click to the nearest shown location, so
+ * showing or hiding valid locations never adds or removes a component.
  * @author Connor Barnes
  */
 public class BoardPane extends JLayeredPane {
     public static final int LOC_TYPE_ROAD = 0;
     public static final int LOC_TYPE_SETTLEMENT = 1;
     public static final int LOC_TYPE_ROBBER = 2;
-
-    private final Integer BACKGROUND_LAYER = 0; //Surrounding board (i.e. the ocean)
-    private final Integer TILE_LAYER = 1;       //Terrain hexes (i.e. Mountain, Pasture, etc.)
-    private final Integer ROBBER_STAR_LAYER = 2;//Stars for displaying where the robber can go
-    private final Integer TOKEN_LAYER = 3;      //Number tokens, roads, settlements, and cities
-    private final Integer TOP_LAYER = 4;        //Stars, cancel button, and the robber
+    private static final int HINT_SIZE = 16;//Diameter of the badges that mark suggested locations
 
     private GameIcons icons;
     private LocationConverter locConverter;
-    private JLabel robberLabel;
-    private MouseListener starListener;
+    private BufferedImage terrainLayer;    //The frame and every tile
+    private BufferedImage numberTokenLayer;//Every number token (drawn above the robber stars)
+    private String[] roadColors;           //Index is the road location, null if there is no road
+    private Rectangle[] roadBounds;
+    private String[] settlementColors;     //Index is the corner location, null if there is no settlement or city
+    private boolean[] cities;
+    private Rectangle[] settlementBounds;
+    private int robberLoc;
+    private Rectangle robberBounds;
+    private ValidLocOverlay overlay;
+    private Rectangle overlayDirtyBounds;//Reused every time the overlay changes
     private LocationListener locListener;
-    private LinkedList<JLabel> stars;
-    private HashMap<Integer, String> settlementLabelColors;
-    private HashMap<Integer, JLabel> settlementLabels;//Keys are the corner locations of the settlements that have been added
-    //Values are the indexes of the settlement panel in the layered pane
+    private Rectangle[] hintBounds;//Badges of the suggested settlement locations, best first
 
     /**
      * Creates a new layered pane that displays the specified Board.
@@ -52,131 +63,96 @@ public class BoardPane extends JLayeredPane {
         this.icons = icons;
         locConverter = new LocationConverter();
         setPreferredSize(new Dimension(this.icons.getBoardIcon().getIconWidth(), this.icons.getBoardIcon().getIconHeight()));
-        settlementLabelColors = new HashMap<Integer, String>();
-        settlementLabels = new HashMap<Integer, JLabel>();
-        robberLabel = new JLabel(icons.getRobberIcon());
-        stars = new LinkedList<JLabel>();
-        starListener = new StarListener();
-        Tile[] tiles = board.getTiles();
-
-        //Populate tileLabels and numberTokenLabels
-        JLabel[] tileLabels = buildTileLabels(tiles);
-        JLabel[] numberTokenLabels = buildNumberTokenLabels(tiles);
-
-        //Set the location and size of the base label and each tile and number token panel
-        JLabel baseLabel = new JLabel(this.icons.getBoardIcon());
-        baseLabel.setBounds(0, 0, this.icons.getBoardIcon().getIconWidth(), this.icons.getBoardIcon().getIconHeight());
-        setTileLabelBounds(tileLabels);
-        setNumberTokenLabelBounds(numberTokenLabels);
+        overlay = new ValidLocOverlay(icons, locConverter);
+        overlayDirtyBounds = new Rectangle();
+        hintBounds = new Rectangle[0];
+        addMouseListener(new StarListener());
 
-        //Add boardPanel to the layered pane
-        add(baseLabel, BACKGROUND_LAYER);
-
-        //Add the tile panels to the board
-        for (JLabel label : tileLabels) {
-            add(label, TILE_LAYER);
-        }
+        //Draw everything that never changes
+        Tile[] tiles = board.getTiles();
+        terrainLayer = buildTerrainLayer(tiles);
+        numberTokenLayer = buildNumberTokenLayer(tiles);
 
-        //Add the number token panels to the board
-        for (JLabel label : numberTokenLabels) {
-            add(label, TOKEN_LAYER);
+        //Record the robber and every player token that is already on the board
+        robberLoc = board.getRobberLoc();
+        robberBounds = getIconBounds(icons.getRobberIcon(), locConverter.getRobberPoint(robberLoc));
+        roadColors = new String[board.getNumRoadLocs()];
+        roadBounds = new Rectangle[roadColors.length];
+        for (int roadLoc = 0; roadLoc < roadColors.length; roadLoc++) {
+            String color = board.getRoad(roadLoc).getColor();
+            if (color != null) {
+                setRoad(roadLoc, color);
+            }
         }
-
-        //Add the robber to the board
-        robberLabel.setLocation(locConverter.getRobberPoint(board.getRobberLoc()));
-        robberLabel.setSize(robberLabel.getIcon().getIconWidth(), robberLabel.getIcon().getIconHeight());
-
-        //Add the player tokens to the board
-        for (String playerColor : GameController.PLAYER_COLORS) {
-            try {
-                for (int roadLoc : board.getRoadLocs(playerColor)) {//Road tokens
-                    JLabel tempLabel = new JLabel(icons.getRoadIcon(playerColor, locConverter.getRoadIconType(roadLoc)));
-                    tempLabel.setLocation(locConverter.getRoadPoint(roadLoc));
-                    tempLabel.setSize(tempLabel.getIcon().getIconWidth(), tempLabel.getIcon().getIconHeight());
-                    add(tempLabel, TOKEN_LAYER);
-                }
-                for (int settlementLoc : board.getSettlementLocs(playerColor)) {//Settlement and city tokens
-                    JLabel tempLabel;
-                    if (board.getCorner(settlementLoc).hasCity()) {//City token
-                        tempLabel = new JLabel(icons.getCityIcon(playerColor));
-                        tempLabel.setLocation(locConverter.getCityPoint(settlementLoc));
-                    } else {//Settlement token
-                        tempLabel = new JLabel(icons.getSettlementIcon(playerColor));
-                        tempLabel.setLocation(locConverter.getSettlementPoint(settlementLoc));
-                        settlementLabelColors.put(settlementLoc, playerColor);
-                        settlementLabels.put(settlementLoc, tempLabel);
-                    }
-                    tempLabel.setSize(tempLabel.getIcon().getIconWidth(), tempLabel.getIcon().getIconHeight());
-                    add(tempLabel, TOKEN_LAYER);
-                }
-            } catch (NullPointerException e) {
-                //There is no player of this color, so move on to the next color
+        settlementColors = new String[board.getNumCorners()];
+        cities = new boolean[settlementColors.length];
+        settlementBounds = new Rectangle[settlementColors.length];
+        for (int cornerLoc = 0; cornerLoc < settlementColors.length; cornerLoc++) {
+            String color = board.getCorner(cornerLoc).getSettlementColor();
+            if (color != null) {
+                setSettlement(cornerLoc, color, board.getCorner(cornerLoc).hasCity());
             }
         }
     }
 
     /**
-     * Displays a star at every location in the specified list of locations. The
-     * specified ActionListener is added to a button, and when a star is
-     * clicked, the button's ActionCommand is set so the star's corresponding
-     * location.
-     * @param validLocs   the list of locations to display a star at
-     * @param locListener the EventListener that listens for when the player
-     *                    selects a location (or cancels)
-     * @param locType     the type of locations in the specified list (see
-     *                    static variables)
+     * Displays a star at every location in the specified list of locations.
+     * When the user clicks on one of the stars (or the cancel button), the
+     * stars are removed and the specified LocationListener is notified. Any
+     * stars that are already shown are replaced.
+     * @param validLocs    the list of locations to display a star at
+     * @param locListener  the EventListener that listens for when the player
+     *                     selects a location (or cancels)
+     * @param locType      the type of locations in the specified list (see
+     *                     static variables)
+     * @param cancelOption true if the user can cancel instead of selecting a
+     *                     location
      */
     public void showValidLocs(Collection<Integer> validLocs, LocationListener locListener, int locType, boolean cancelOption) {
         this.locListener = locListener;
-        if (cancelOption) {
-            //Create and add the cancel option
-            JLabel cancelLabel = new JLabel(icons.getCancelIcon());
-            cancelLabel.setName(String.valueOf(-1));
-            cancelLabel.addMouseListener(starListener);
-            cancelLabel.setSize(cancelLabel.getPreferredSize());
-            cancelLabel.setLocation(((GameIcons.BOARD_WIDTH / 2) - (cancelLabel.getWidth() / 2)), GameIcons.BOARD_HEIGHT - cancelLabel.getHeight() - 10);
-            add(cancelLabel, TOP_LAYER);
-            stars.add(cancelLabel);
-        }
-        //Put a star on every valid roadLoc
-        for (int loc : validLocs) {
-            JLabel starLabel = new JLabel();
-            if (locType == LOC_TYPE_ROAD) {
-                starLabel.setIcon(icons.getStarIcon(GameIcons.PLAYER_TOKEN_STAR));
-                starLabel.setLocation(locConverter.getRoadPoint(loc));
-            } else if (locType == LOC_TYPE_SETTLEMENT) {
-                starLabel.setIcon(icons.getStarIcon(GameIcons.PLAYER_TOKEN_STAR));
-                starLabel.setLocation(locConverter.getSettlementPoint(loc));
-            } else { //locType == LOC_TYPE_ROBBER
-                starLabel.setIcon(icons.getStarIcon(GameIcons.ROBBER_STAR));
-                Point tempPoint = locConverter.getRobberPoint(loc);
-                tempPoint.translate((GameIcons.NUMBER_TOKEN_WIDTH - starLabel.getIcon().getIconWidth()) / 2,
-                        (GameIcons.NUMBER_TOKEN_WIDTH - starLabel.getIcon().getIconWidth()) / 2 - 3);
-                starLabel.setLocation(tempPoint);
-            }
-            starLabel.setSize(starLabel.getIcon().getIconWidth(), starLabel.getIcon().getIconHeight());
-            starLabel.setName(String.valueOf(loc));
-            starLabel.addMouseListener(starListener);
-            if (locType == LOC_TYPE_ROBBER) {
-                add(starLabel, ROBBER_STAR_LAYER);
-            } else {
-                add(starLabel, TOP_LAYER);
-            }
-            stars.add(starLabel);
+        overlay.show(locType, validLocs, cancelOption, overlayDirtyBounds);
+        if (!overlayDirtyBounds.isEmpty()) {
+            repaint(overlayDirtyBounds);
         }
-        repaint();
     }
 
     /**
      * Removes all the star icons that show a valid location.
      */
     public void removeStars() {
-        for (JLabel star : stars) {
-            remove(getIndexOf(star));
+        if (overlay.isVisible()) {
+            overlay.hide(overlayDirtyBounds);
+            if (!overlayDirtyBounds.isEmpty()) {
+                repaint(overlayDirtyBounds);
+            }
         }
-        stars = new LinkedList<JLabel>();
-        revalidate();
-        repaint();
+    }
+
+    /**
+     * Marks each of the specified corners with a numbered badge (1 for the
+     * first corner, 2 for the second, etc.) to suggest where a settlement
+     * should be placed. Any badges that are already shown are replaced.
+     * @param cornerLocs the suggested corner locations, best first
+     */
+    public void showHints(int[] cornerLocs) {
+        removeHints();
+        hintBounds = new Rectangle[cornerLocs.length];
+        for (int i = 0; i < cornerLocs.length; i++) {
+            int centerX = locConverter.getSettlementX(cornerLocs[i]) + GameIcons.PLAYER_TOKEN_WIDTH / 2;
+            int centerY = locConverter.getSettlementY(cornerLocs[i]) + GameIcons.PLAYER_TOKEN_HEIGHT / 2;
+            hintBounds[i] = new Rectangle(centerX + HINT_SIZE / 4, centerY - HINT_SIZE * 5 / 4, HINT_SIZE + 1, HINT_SIZE + 1);//Above and to the right of the star
+            repaint(hintBounds[i]);
+        }
+    }
+
+    /**
+     * Removes every badge shown by showHints().
+     */
+    public void removeHints() {
+        for (Rectangle bounds : hintBounds) {
+            repaint(bounds);
+        }
+        hintBounds = new Rectangle[0];
     }
 
     /**
@@ -199,13 +175,8 @@ public class BoardPane extends JLayeredPane {
      * @param color   the color of the road
      */
     public void addRoad(int roadLoc, String color) {
-        JLabel tempLabel = new JLabel(icons.getRoadIcon(color, locConverter.getRoadIconType(roadLoc)));
-        //Set the location and the size of the label
-        tempLabel.setLocation(locConverter.getRoadPoint(roadLoc));
-        tempLabel.setSize(tempLabel.getIcon().getIconWidth(), tempLabel.getIcon().getIconHeight());
-        //Add the road to the board
-        add(tempLabel, TOKEN_LAYER);
-        repaint();
+        setRoad(roadLoc, color);
+        repaint(roadBounds[roadLoc]);
     }
 
     /**
@@ -214,14 +185,8 @@ public class BoardPane extends JLayeredPane {
      * @param color     the color of the settlement
      */
     public void addSettlement(int cornerLoc, String color) {
-        JLabel tempLabel = new JLabel(icons.getSettlementIcon(color));
-        settlementLabelColors.put(cornerLoc, color);
-        //Add the correct icon to the panel and set the panel bounds
-        tempLabel.setLocation(locConverter.getSettlementPoint(cornerLoc));
-        tempLabel.setSize(tempLabel.getIcon().getIconWidth(), tempLabel.getIcon().getIconHeight());
-        add(tempLabel, TOKEN_LAYER);
-        settlementLabels.put(cornerLoc, tempLabel);
-        repaint();
+        setSettlement(cornerLoc, color, false);
+        repaint(settlementBounds[cornerLoc]);
     }
 
     /**
@@ -230,15 +195,10 @@ public class BoardPane extends JLayeredPane {
      * @param cornerLoc the location of the settlement to replace with a city
      */
     public void addCity(int cornerLoc) {
-        //Remove the label containing the settlement icon at this cornerLoc and update settlementLabelIndexes
-        remove(getIndexOf(settlementLabels.remove(Integer.valueOf(cornerLoc))));
-        //Add the correct icon to a label and set the panel bounds
-        JLabel tempLabel = new JLabel(icons.getCityIcon(settlementLabelColors.get(cornerLoc)));
-        tempLabel.setLocation(locConverter.getCityPoint(cornerLoc));
-        tempLabel.setSize(tempLabel.getIcon().getIconWidth(), tempLabel.getIcon().getIconHeight());
-        //Add the city to the board
-        add(tempLabel, TOKEN_LAYER);
-        repaint();
+        Rectangle dirtyBounds = new Rectangle(settlementBounds[cornerLoc]);
+        setSettlement(cornerLoc, settlementColors[cornerLoc], true);
+        dirtyBounds.add(settlementBounds[cornerLoc]);
+        repaint(dirtyBounds);
     }
 
     /**
@@ -246,85 +206,171 @@ public class BoardPane extends JLayeredPane {
      * @param tileLoc the new location of the robber
      */
     public void moveRobber(int tileLoc) {
-        robberLabel.setLocation(locConverter.getRobberPoint(tileLoc));
-        revalidate();
-        repaint();
+        Rectangle dirtyBounds = new Rectangle(robberBounds);
+        robberLoc = tileLoc;
+        robberBounds = getIconBounds(icons.getRobberIcon(), locConverter.getRobberPoint(robberLoc));
+        repaint(dirtyBounds);
+        repaint(robberBounds);
     }
 
     /**
-     * Creates and returns an array of JPanels, each of which contain the
-     * ImageIcon of the terrain of the terrain hex in the corresponding index in
-     * the tiles argument.
-     * @param tiles the terrain hexes on the board
-     * @return an array of JPanels that contain the terrain hex images
+     * Paints the cached images of the board, then every player token and the
+     * robber. Tokens that lie outside of the area being repainted are
+     * skipped.
+     * @param g the Graphics to paint with
      */
-    private JLabel[] buildTileLabels(Tile[] tiles) {
-        JLabel[] tileLabels = new JLabel[tiles.length];
-        JLabel tempLabel;
-        int index = 0;
-        for (Tile tile : tiles) {
-            tempLabel = new JLabel(icons.getTileIcon(tile.getTerrain()));
-            tileLabels[index] = tempLabel;
-            index++;
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.drawImage(terrainLayer, 0, 0, null);
+        if (overlay.getLocType() == LOC_TYPE_ROBBER) {//Robber stars are covered by the number tokens
+            overlay.paintStars(this, g, clip);
+        }
+        g.drawImage(numberTokenLayer, 0, 0, null);
+        for (int roadLoc = 0; roadLoc < roadColors.length; roadLoc++) {
+            if (roadColors[roadLoc] != null && clip.intersects(roadBounds[roadLoc])) {
+                icons.getRoadIcon(roadColors[roadLoc], locConverter.getRoadIconType(roadLoc)).paintIcon(this, g, roadBounds[roadLoc].x, roadBounds[roadLoc].y);
+            }
+        }
+        for (int cornerLoc = 0; cornerLoc < settlementColors.length; cornerLoc++) {
+            if (settlementColors[cornerLoc] != null && clip.intersects(settlementBounds[cornerLoc])) {
+                ImageIcon tokenIcon = cities[cornerLoc] ? icons.getCityIcon(settlementColors[cornerLoc]) : icons.getSettlementIcon(settlementColors[cornerLoc]);
+                tokenIcon.paintIcon(this, g, settlementBounds[cornerLoc].x, settlementBounds[cornerLoc].y);
+            }
+        }
+        if (clip.intersects(robberBounds)) {
+            icons.getRobberIcon().paintIcon(this, g, robberBounds.x, robberBounds.y);
         }
-        return tileLabels;
+        if (overlay.getLocType() != LOC_TYPE_ROBBER) {
+            overlay.paintStars(this, g, clip);
+        }
+        paintHints(g, clip);
+        overlay.paintCancel(this, g, clip);
     }
 
     /**
-     * Creates and returns an array of JPanels, each of which contain the
-     * ImageIcon of the number token specified by the number in the
-     * corresponding index of the numberTokenOrder argument. Does not put
-     * a number token on the Desert tile.
-     * @param tiles the terrain hexes on the board
-     * @return an array of JPanels that contain the images of the number tokens
-     * that go on each tile
+     * Paints the numbered badge of every suggested location that lies inside
+     * of the area being repainted.
+     * @param g    the Graphics to paint with
+     * @param clip the area being repainted
      */
-    private JLabel[] buildNumberTokenLabels(Tile[] tiles) {
-        JLabel[] numberTokenLabels = new JLabel[tiles.length];
-        for (int i = 0; i < tiles.length; i++) {
-            //If the current tile is the desert tile, create and put the robber there
-            if (tiles[i].getTerrain().equals(Tile.DESERT)) {
-                numberTokenLabels[i] = robberLabel;
-            } else {
-                numberTokenLabels[i] = new JLabel(icons.getNumberTokenIcon(tiles[i].getNumberTokenLetter()));
+    private void paintHints(Graphics g, Rectangle clip) {
+        for (int i = 0; i < hintBounds.length; i++) {
+            Rectangle bounds = hintBounds[i];
+            if (clip.intersects(bounds)) {
+                g.setColor(Color.YELLOW);
+                g.fillOval(bounds.x, bounds.y, HINT_SIZE, HINT_SIZE);
+                g.setColor(Color.BLACK);
+                g.drawOval(bounds.x, bounds.y, HINT_SIZE, HINT_SIZE);
+                String rank = String.valueOf(i + 1);
+                FontMetrics metrics = g.getFontMetrics();
+                g.drawString(rank, bounds.x + (HINT_SIZE - metrics.stringWidth(rank)) / 2 + 1,
+                        bounds.y + (HINT_SIZE + metrics.getAscent() - metrics.getDescent()) / 2 + 1);
             }
         }
-        return numberTokenLabels;
     }
 
     /**
-     * Moves and re-sizes each tile label so that they are in the correct
-     * location and the correct size.
-     * @param tileLabels the JLabels of each terrain hex
+     * Records a road of the specified color at the specified location without
+     * repainting anything.
+     * @param roadLoc the location of the road
+     * @param color   the color of the road
+     */
+    private void setRoad(int roadLoc, String color) {
+        roadColors[roadLoc] = color;
+        roadBounds[roadLoc] = getIconBounds(icons.getRoadIcon(color, locConverter.getRoadIconType(roadLoc)), locConverter.getRoadPoint(roadLoc));
+    }
+
+    /**
+     * Records a settlement (or city) of the specified color at the specified
+     * location without repainting anything.
+     * @param cornerLoc the location of the settlement
+     * @param color     the color of the settlement
+     * @param city      true if the settlement has been upgraded to a city
+     */
+    private void setSettlement(int cornerLoc, String color, boolean city) {
+        settlementColors[cornerLoc] = color;
+        cities[cornerLoc] = city;
+        if (city) {
+            settlementBounds[cornerLoc] = getIconBounds(icons.getCityIcon(color), locConverter.getCityPoint(cornerLoc));
+        } else {
+            settlementBounds[cornerLoc] = getIconBounds(icons.getSettlementIcon(color), locConverter.getSettlementPoint(cornerLoc));
+        }
+    }
+
+    /**
+     * Returns the area covered by the specified icon when it is painted at the
+     * specified point.
+     * @param icon  the icon to paint
+     * @param point the top left corner of the icon
+     * @return the area covered by the specified icon
+     */
+    private Rectangle getIconBounds(Icon icon, Point point) {
+        return new Rectangle(point.x, point.y, icon.getIconWidth(), icon.getIconHeight());
+    }
+
+    /**
+     * Draws the frame of the board and every tile into a new image.
+     * @param tiles the terrain hexes on the board
+     * @return an image of the frame of the board and every tile
      */
-    private void setTileLabelBounds(JLabel[] tileLabels) {
-        for (int i = 0; i < tileLabels.length; i++) {
-            tileLabels[i].setLocation(locConverter.getTilePoint(i));
-            tileLabels[i].setSize(tileLabels[i].getIcon().getIconWidth(), tileLabels[i].getIcon().getIconHeight());
+    private BufferedImage buildTerrainLayer(Tile[] tiles) {
+        BufferedImage layer = createLayer();
+        Graphics2D g = layer.createGraphics();
+        icons.getBoardIcon().paintIcon(this, g, 0, 0);
+        for (int i = 0; i < tiles.length; i++) {
+            Point tilePoint = locConverter.getTilePoint(i);
+            icons.getTileIcon(tiles[i].getTerrain()).paintIcon(this, g, tilePoint.x, tilePoint.y);
         }
+        g.dispose();
+        return layer;
     }
 
     /**
-     * Moves and re-sizes each number token label so that they are in the
-     * correct location and the correct size.
-     * @param numberTokenLabels the JLabels of each number token
+     * Draws the number token of every tile into a new, otherwise transparent,
+     * image. Does not put a number token on the Desert tile.
+     * @param tiles the terrain hexes on the board
+     * @return an image of every number token
      */
-    private void setNumberTokenLabelBounds(JLabel[] numberTokenLabels) {
-        for (int i = 0; i < numberTokenLabels.length; i++) {
-            numberTokenLabels[i].setLocation(locConverter.getNumberTokenPoint(i));
-            numberTokenLabels[i].setSize(numberTokenLabels[i].getIcon().getIconWidth(), numberTokenLabels[i].getIcon().getIconHeight());
+    private BufferedImage buildNumberTokenLayer(Tile[] tiles) {
+        BufferedImage layer = createLayer();
+        Graphics2D g = layer.createGraphics();
+        for (int i = 0; i < tiles.length; i++) {
+            if (!tiles[i].getTerrain().equals(Tile.DESERT)) {
+                Point tokenPoint = locConverter.getNumberTokenPoint(i);
+                icons.getNumberTokenIcon(tiles[i].getNumberTokenLetter()).paintIcon(this, g, tokenPoint.x, tokenPoint.y);
+            }
         }
+        g.dispose();
+        return layer;
     }
 
     /**
-     * MouseListener that is added to each star icon when displaying valid
-     * locations. When a star is clicked, the stars are removed and the
-     * LocationListener is notified.
+     * Creates a transparent image the size of the board.
+     * @return a transparent image the size of the board
+     */
+    private BufferedImage createLayer() {
+        return new BufferedImage(icons.getBoardIcon().getIconWidth(), icons.getBoardIcon().getIconHeight(), BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * MouseListener that is added to the board. When valid locations are
+     * shown and the user clicks on one of them (or the cancel button), the
+     * stars are removed and the LocationListener is notified. Clicks anywhere
+     * else are ignored.
      */
     private class StarListener extends MouseAdapter {
         public void mouseReleased(MouseEvent e) {
+            int loc = overlay.getLocAt(e.getX(), e.getY());
+            if (loc == ValidLocOverlay.NO_LOC) {//Nothing is shown at the point that was clicked
+                return;
+            }
+            LocationListener listener = locListener;//The listener may show new valid locations
             removeStars();
-            locListener.locationSelected(Integer.parseInt(e.getComponent().getName()));
+            listener.locationSelected(loc);
         }
     }
 }
@@ -0,0 +1,223 @@
+package soc.base.gui;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Displays a hand of cards in a row such that they are all spaced evenly. The
+ * hand is stored as the number of cards of each type, and the cards are painted
+ * directly from one icon per type, so adding or removing a card never creates
+ * or removes a component. Cards are grouped by type in the order the types
+ * were given to the constructor. Assumes that every icon is the same size.
+ * @author Connor Barnes
+ */
+public class CardHandPane extends JComponent {
+    private final String[] types;
+    private final ImageIcon[] cardIcons;//Index matches types
+    private final int[] counts;         //Index matches types
+    private final int maxWidth, height;
+    private int numCards;
+    private String emptyMessage;
+
+    /**
+     * Constructs an empty hand that can hold cards of the specified types.
+     * @param types     the types of cards, in the order they are displayed
+     * @param cardIcons the icon of each type of card (index matches types)
+     * @param maxWidth  the maximum width of the pane
+     * @param height    the height of the pane
+     * @throws IllegalArgumentException if the number of types and icons differ
+     */
+    public CardHandPane(String[] types, ImageIcon[] cardIcons, int maxWidth, int height) {
+        super();
+        if (types.length != cardIcons.length) {
+            throw new IllegalArgumentException("Every type of card must have exactly one icon");
+        }
+        this.types = types.clone();
+        this.cardIcons = cardIcons.clone();
+        counts = new int[types.length];
+        this.maxWidth = maxWidth;
+        this.height = height;
+        numCards = 0;
+        emptyMessage = null;
+        setFont(UIManager.getFont("Label.font"));//Matches the empty messages shown by JLabels elsewhere
+        setForeground(UIManager.getColor("Label.foreground"));
+        setPreferredSize(new Dimension(0, height));
+    }
+
+    /**
+     * Sets the message that is displayed when the hand is empty.
+     * @param emptyMessage the message to display when the hand is empty (or
+     *                     null to display nothing)
+     */
+    public void setEmptyMessage(String emptyMessage) {
+        this.emptyMessage = emptyMessage;
+        update();
+    }
+
+    /**
+     * Adds the specified number of cards of the specified type to the hand.
+     * @param type   the type of card to add
+     * @param amount the number of cards to add
+     * @throws IllegalArgumentException if the specified type is not in this
+     *                                  hand or the amount is negative
+     */
+    public void addCards(String type, int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot add a negative number of cards");
+        }
+        counts[getTypeIndex(type)] += amount;
+        numCards += amount;
+        update();
+    }
+
+    /**
+     * Adds a card of the specified type to the hand.
+     * @param type the type of card to add
+     * @throws IllegalArgumentException if the specified type is not in this
+     *                                  hand
+     */
+    public void addCard(String type) {
+        addCards(type, 1);
+    }
+
+    /**
+     * Removes a card of the specified type from the hand (if one exists).
+     * @param type the type of card to remove
+     * @return true if a card was removed; otherwise false
+     * @throws IllegalArgumentException if the specified type is not in this
+     *                                  hand
+     */
+    public boolean removeCard(String type) {
+        int index = getTypeIndex(type);
+        if (counts[index] == 0) {
+            return false;
+        }
+        counts[index]--;
+        numCards--;
+        update();
+        return true;
+    }
+
+    /**
+     * Sets the number of cards of the specified type in the hand.
+     * @param type   the type of card
+     * @param amount the number of cards of the specified type
+     * @throws IllegalArgumentException if the specified type is not in this
+     *                                  hand or the amount is negative
+     */
+    public void setNumCards(String type, int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot hold a negative number of cards");
+        }
+        int index = getTypeIndex(type);
+        if (counts[index] != amount) {
+            numCards += amount - counts[index];
+            counts[index] = amount;
+            update();
+        }
+    }
+
+    /**
+     * Returns the number of cards of the specified type in the hand.
+     * @param type the type of card
+     * @return the number of cards of the specified type in the hand
+     * @throws IllegalArgumentException if the specified type is not in this
+     *                                  hand
+     */
+    public int getNumCards(String type) {
+        return counts[getTypeIndex(type)];
+    }
+
+    /**
+     * Returns the total number of cards in the hand.
+     * @return the total number of cards in the hand
+     */
+    public int getNumCards() {
+        return numCards;
+    }
+
+    /**
+     * Paints the cards that lie inside of the area being repainted. Cards on
+     * the right overlap the cards on their left.
+     * @param g the Graphics to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (numCards == 0) {
+            if (emptyMessage != null) {
+                FontMetrics metrics = g.getFontMetrics(getFont());
+                g.setFont(getFont());
+                g.setColor(getForeground());
+                g.drawString(emptyMessage, 0, (getHeight() + metrics.getAscent() - metrics.getDescent()) / 2);
+            }
+            return;
+        }
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int cardWidth = cardIcons[0].getIconWidth();
+        int offset = getOffset();
+        //Only the cards from firstCard to lastCard overlap the clip
+        int firstCard = Math.max(0, (clip.x - cardWidth) / Math.max(offset, 1));
+        int lastCard = Math.min(numCards - 1, (clip.x + clip.width) / Math.max(offset, 1));
+        int card = 0;
+        for (int type = 0; type < types.length && card <= lastCard; type++) {
+            if (card + counts[type] <= firstCard) {//Every card of this type lies to the left of the clip
+                card += counts[type];
+                continue;
+            }
+            for (int i = 0; i < counts[type] && card <= lastCard; i++, card++) {
+                if (card >= firstCard) {
+                    cardIcons[type].paintIcon(this, g, offset * card, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the distance between the left edges of two neighboring cards.
+     * @return the distance between the left edges of two neighboring cards
+     */
+    private int getOffset() {
+        int cardWidth = cardIcons[0].getIconWidth();
+        if (numCards > 1 && numCards * cardWidth > maxWidth) {
+            return (maxWidth - cardWidth) / (numCards - 1);
+        }
+        return cardWidth;
+    }
+
+    /**
+     * Updates the preferred size of the pane (re-validating it only if the
+     * size changed) and repaints it.
+     */
+    private void update() {
+        int width;
+        if (numCards == 0) {
+            width = emptyMessage == null ? 0 : getFontMetrics(getFont()).stringWidth(emptyMessage);
+        } else {
+            width = Math.min(numCards * cardIcons[0].getIconWidth(), maxWidth);
+        }
+        if (getPreferredSize().width != width) {
+            setPreferredSize(new Dimension(width, height));
+            revalidate();
+        }
+        repaint();
+    }
+
+    /**
+     * Returns the index of the specified type of card.
+     * @param type the type of card
+     * @return the index of the specified type of card
+     * @throws IllegalArgumentException if the specified type is not in this
+     *                                  hand
+     */
+    private int getTypeIndex(String type) {
+        for (int i = 0; i < types.length; i++) {
+            if (types[i].equals(type)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(type + " is not a type of card in this hand");
+    }
+}
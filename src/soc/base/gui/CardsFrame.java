@@ -1,178 +1,234 @@
-package soc.base.gui;
-
-import soc.base.GameController;
-import soc.base.model.DevelopmentCard;
-import soc.base.model.Player;
-
-import javax.swing.*;
-import java.awt.*;
-import java.util.ArrayList;
-import java.util.Collection;
-
-/**
- * Represents the frame that shows a player's resource and development cards.
- * Also contains static methods for creating just a CardPane of resource or
- * development cards (for situations in which only one or the other is needed).
- * @author Connor Barnes
- */
-public class CardsFrame extends JFrame {
-    private static final String EMPTY = "Empty";
-
-    private GameIcons icons;
-    private CardPane resourceCardsPane, devCardsPane;
-
-    /**
-     * Constructs a new CardsFrame that shows what the specified player has.
-     * @param icons  the icons to use
-     * @param player the information to display
-     */
-    public CardsFrame(GameIcons icons, Player player) {
-        super(player.getName() + "'s Resource and DevelopmentCards");
-        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        this.icons = icons;
-        setIconImage(this.icons.getWindowIcon().getImage());
-        //Create the contents of the frame
-        resourceCardsPane = buildResourceCardsPane(icons, player);
-        JPanel resourceCardsPanel = new JPanel();
-        resourceCardsPanel.setBorder(BorderFactory.createTitledBorder("Resource Cards"));
-        resourceCardsPanel.add(resourceCardsPane);
-        devCardsPane = buildDevCardsPane(icons, player.getDevCards());
-        JPanel devCardsPanel = new JPanel();
-        devCardsPanel.setBorder(BorderFactory.createTitledBorder("DevelopmentCards"));
-        devCardsPanel.add(devCardsPane);
-        //Add the contents to the frame
-        setLayout(new BorderLayout());
-        add(resourceCardsPanel, BorderLayout.NORTH);
-        add(devCardsPanel, BorderLayout.CENTER);
-        //Display the frame
-        pack();
-        setLocationRelativeTo(null);
-        setVisible(true);
-    }
-
-    /**
-     * Adds a resource card of the specified type to the resource card panel.
-     * @param resource the type of resource card to add
-     */
-    public void addResourceCard(String resource) {
-        resourceCardsPane.removeCard(EMPTY);
-        JLabel tempLabel = new JLabel(icons.getResourceIcon(resource));
-        tempLabel.setName(resource);
-        resourceCardsPane.addCard(tempLabel);
-        pack();
-    }
-
-    /**
-     * Removes a resource card of the specified type from the resource card
-     * panel (if one exists).
-     * @param resource the type of resource card to remove
-     */
-    public void removeResourceCard(String resource) {
-        resourceCardsPane.removeCard(resource);
-        if (resourceCardsPane.getComponentCount() == 0) {
-            JLabel tempLabel = new JLabel("You do not have any resource cards");
-            tempLabel.setName(EMPTY);
-            resourceCardsPane.addCard(tempLabel);
-        }
-        pack();
-    }
-
-    /**
-     * Adds the specified development card to the development card panel.
-     * @param devCard the development card to add
-     */
-    public void addDevCard(DevelopmentCard devCard) {
-        devCardsPane.removeCard(EMPTY);
-        JLabel tempLabel = new JLabel(icons.getDevCardIcon(devCard.getTitle()));
-        tempLabel.setName(String.valueOf(getDevCardOrderIndex(devCard.getTitle())));
-        devCardsPane.add(tempLabel);
-        pack();
-    }
-
-    /**
-     * Removes a development card with the specified title from the development
-     * card panel (if one exists).
-     * @param devCardTitle the title of the DevelopmentCard to remove
-     */
-    public void removeDevCard(String devCardTitle) {
-        devCardsPane.removeCard(devCardTitle);
-        if (devCardsPane.getComponentCount() == 0) {
-            JLabel tempLabel = new JLabel("You do not have any development cards");
-            tempLabel.setName(EMPTY);
-            devCardsPane.addCard(tempLabel);
-        }
-        pack();
-    }
-
-    /**
-     * Creates and returns a CardPane containing the specified player's resource
-     * cards.
-     * @param icons  the icons to use to display the resource cards
-     * @param player the player whose resource cards are to be displayed
-     * @return a CardPane containing a CardPane of the specified player's
-     * resource cards
-     */
-    public static CardPane buildResourceCardsPane(GameIcons icons, Player player) {
-        ArrayList<JLabel> cards = new ArrayList<JLabel>(player.getSumResourceCards());
-        if (player.getSumResourceCards() == 0) {
-            JLabel tempLabel = new JLabel("You do not have any resource cards");
-            tempLabel.setName(EMPTY);
-            cards.add(tempLabel);
-        } else {
-            for (String resource : GameController.RESOURCE_TYPES) {
-                for (int j = 0; j < player.getNumResourceCards(resource); j++) {
-                    JLabel tempLabel = new JLabel(icons.getResourceIcon(resource));
-                    tempLabel.setName(resource);
-                    cards.add(tempLabel);
-                }
-            }
-        }
-        return new CardPane(cards, GameIcons.BOARD_WIDTH, GameIcons.CARD_HEIGHT);
-    }
-
-    /**
-     * Creates and returns a CardPane containing the specified
-     * DevelopmentCards.
-     * @param icons    the icons to use to display the DevelopmentCards
-     * @param devCards the DevelopmentCards to display
-     * @return a CardPane containing the specified DevelopmentCards
-     */
-    public static CardPane buildDevCardsPane(GameIcons icons, Collection<DevelopmentCard> devCards) {
-        ArrayList<JLabel> devCardLabels = new ArrayList<JLabel>(devCards.size());
-        if (devCards.isEmpty()) {
-            JLabel tempLabel = new JLabel("You do not have any development cards");
-            tempLabel.setName(EMPTY);
-            devCardLabels.add(tempLabel);
-        } else {
-            for (DevelopmentCard card : devCards) {
-                JLabel tempLabel = new JLabel(icons.getDevCardIcon(card.getTitle()));
-                tempLabel.setName(String.valueOf(getDevCardOrderIndex(card.getTitle())));
-                devCardLabels.add(tempLabel);
-            }
-        }
-        return new CardPane(devCardLabels, GameIcons.BOARD_WIDTH, GameIcons.CARD_HEIGHT);
-    }
-
-    /**
-     * Returns the position of the DevelopmentCard with the specified title in a
-     * list of all DevelopmentCards that is sorted by type (i.e. victory point
-     * card or progress card) and then title. DevelopmentCards with invalid
-     * names come before ones with valid names.
-     * @param devCardTitle the title of the DevelopmentCard
-     * @return the position of the DevelopmentCard with the specified title in
-     * the list described above
-     */
-    public static int getDevCardOrderIndex(String devCardTitle) {
-        for (int i = 0; i < DevelopmentCard.VICTORY_POINT_CARDS.length; i++) {
-            if (devCardTitle.equals(DevelopmentCard.VICTORY_POINT_CARDS[i])) {
-                return i;
-            }
-        }
-        for (int i = 0; i < DevelopmentCard.PROGRESS_CARDS.length; i++) {
-            if (devCardTitle.equals(DevelopmentCard.PROGRESS_CARDS[i])) {
-                return i + DevelopmentCard.VICTORY_POINT_CARDS.length;
-            }
-        }
-        return -1;
-    }
+package soc.base.gui;
+
+import soc.base.GameController;
+import soc.base.model.DevelopmentCard;
+import soc.base.model.Player;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Collection;
+
+/**
+ * Represents the frame that shows a player's resource and development cards.
+ * Also contains static methods for creating just a CardHandPane of resource or
+ * development cards (for situations in which only one or the other is needed).
+ * @author Connor Barnes
+ */
+public class CardsFrame extends JFrame {
+    private static final String NO_RESOURCE_CARDS = "You do not have any resource cards";
+    private static final String NO_DEV_CARDS = "You do not have any development cards";
+
+    private CardHandPane resourceCardsPane, devCardsPane;
+
+    /**
+     * Constructs a new CardsFrame that shows what the specified player has.
+     * @param icons  the icons to use
+     * @param player the information to display
+     */
+    public CardsFrame(GameIcons icons, Player player) {
+        super(player.getName() + "'s Resource and DevelopmentCards");
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setIconImage(icons.getWindowIcon().getImage());
+        //Create the contents of the frame
+        resourceCardsPane = buildResourceCardsPane(icons, player);
+        JPanel resourceCardsPanel = new JPanel();
+        resourceCardsPanel.setBorder(BorderFactory.createTitledBorder("Resource Cards"));
+        resourceCardsPanel.add(resourceCardsPane);
+        devCardsPane = buildDevCardsPane(icons, player.getDevCards());
+        JPanel devCardsPanel = new JPanel();
+        devCardsPanel.setBorder(BorderFactory.createTitledBorder("DevelopmentCards"));
+        devCardsPanel.add(devCardsPane);
+        //Add the contents to the frame
+        setLayout(new BorderLayout());
+        add(resourceCardsPanel, BorderLayout.NORTH);
+        add(devCardsPanel, BorderLayout.CENTER);
+        //Display the frame
+        pack();
+        setLocationRelativeTo(null);
+        setVisible(true);
+    }
+
+    /**
+     * Adds a resource card of the specified type to the resource card panel.
+     * @param resource the type of resource card to add
+     */
+    public void addResourceCard(String resource) {
+        addResourceCards(resource, 1);
+    }
+
+    /**
+     * Adds the specified number of resource cards of the specified type to
+     * the resource card panel.
+     * @param resource the type of resource card to add
+     * @param amount   the number of resource cards to add
+     */
+    public void addResourceCards(String resource, int amount) {
+        Dimension oldSize = resourceCardsPane.getPreferredSize();
+        resourceCardsPane.addCards(resource, amount);
+        packIfResized(resourceCardsPane, oldSize);
+    }
+
+    /**
+     * Removes a resource card of the specified type from the resource card
+     * panel (if one exists).
+     * @param resource the type of resource card to remove
+     */
+    public void removeResourceCard(String resource) {
+        Dimension oldSize = resourceCardsPane.getPreferredSize();
+        resourceCardsPane.removeCard(resource);
+        packIfResized(resourceCardsPane, oldSize);
+    }
+
+    /**
+     * Adds the specified development card to the development card panel.
+     * @param devCard the development card to add
+     */
+    public void addDevCard(DevelopmentCard devCard) {
+        Dimension oldSize = devCardsPane.getPreferredSize();
+        devCardsPane.addCard(devCard.getTitle());
+        packIfResized(devCardsPane, oldSize);
+    }
+
+    /**
+     * Removes a development card with the specified title from the development
+     * card panel (if one exists).
+     * @param devCardTitle the title of the DevelopmentCard to remove
+     */
+    public void removeDevCard(String devCardTitle) {
+        Dimension oldSize = devCardsPane.getPreferredSize();
+        devCardsPane.removeCard(devCardTitle);
+        packIfResized(devCardsPane, oldSize);
+    }
+
+    /**
+     * Replaces every card shown with the specified cards. Re-sizes the frame
+     * at most once.
+     * @param numResourceCards the number of resource cards of each type (index
+     *                         matches GameController.RESOURCE_TYPES)
+     * @param devCards         the DevelopmentCards to show
+     */
+    public void setCards(int[] numResourceCards, Collection<DevelopmentCard> devCards) {
+        Dimension oldResourceSize = resourceCardsPane.getPreferredSize(), oldDevCardSize = devCardsPane.getPreferredSize();
+        for (int i = 0; i < GameController.RESOURCE_TYPES.length; i++) {
+            resourceCardsPane.setNumCards(GameController.RESOURCE_TYPES[i], numResourceCards[i]);
+        }
+        int[] numDevCards = new int[DevelopmentCard.VICTORY_POINT_CARDS.length + DevelopmentCard.PROGRESS_CARDS.length];
+        for (DevelopmentCard devCard : devCards) {
+            numDevCards[getDevCardOrderIndex(devCard.getTitle())]++;
+        }
+        for (String title : DevelopmentCard.VICTORY_POINT_CARDS) {
+            devCardsPane.setNumCards(title, numDevCards[getDevCardOrderIndex(title)]);
+        }
+        for (String title : DevelopmentCard.PROGRESS_CARDS) {
+            devCardsPane.setNumCards(title, numDevCards[getDevCardOrderIndex(title)]);
+        }
+        if (!resourceCardsPane.getPreferredSize().equals(oldResourceSize) || !devCardsPane.getPreferredSize().equals(oldDevCardSize)) {
+            pack();
+        }
+    }
+
+    /**
+     * Re-sizes the frame if the preferred size of the specified pane has
+     * changed. Adding a card to a full hand does not change its size, so the
+     * frame is not laid out again.
+     * @param pane    the pane that was changed
+     * @param oldSize the preferred size of the pane before it was changed
+     */
+    private void packIfResized(CardHandPane pane, Dimension oldSize) {
+        if (!pane.getPreferredSize().equals(oldSize)) {
+            pack();
+        }
+    }
+
+    /**
+     * Creates and returns an empty CardHandPane that can hold resource cards.
+     * @param icons    the icons to use to display the resource cards
+     * @param maxWidth the maximum width of the pane
+     * @return an empty CardHandPane that can hold resource cards
+     */
+    public static CardHandPane createResourceHandPane(GameIcons icons, int maxWidth) {
+        ImageIcon[] cardIcons = new ImageIcon[GameController.RESOURCE_TYPES.length];
+        for (int i = 0; i < cardIcons.length; i++) {
+            cardIcons[i] = icons.getResourceIcon(GameController.RESOURCE_TYPES[i]);
+        }
+        return new CardHandPane(GameController.RESOURCE_TYPES, cardIcons, maxWidth, GameIcons.CARD_HEIGHT);
+    }
+
+    /**
+     * Creates and returns an empty CardHandPane that can hold development
+     * cards. The cards are displayed in the order described by
+     * getDevCardOrderIndex().
+     * @param icons    the icons to use to display the development cards
+     * @param maxWidth the maximum width of the pane
+     * @return an empty CardHandPane that can hold development cards
+     */
+    public static CardHandPane createDevCardHandPane(GameIcons icons, int maxWidth) {
+        String[] titles = new String[DevelopmentCard.VICTORY_POINT_CARDS.length + DevelopmentCard.PROGRESS_CARDS.length];
+        for (String title : DevelopmentCard.VICTORY_POINT_CARDS) {
+            titles[getDevCardOrderIndex(title)] = title;
+        }
+        for (String title : DevelopmentCard.PROGRESS_CARDS) {
+            titles[getDevCardOrderIndex(title)] = title;
+        }
+        ImageIcon[] cardIcons = new ImageIcon[titles.length];
+        for (int i = 0; i < cardIcons.length; i++) {
+            cardIcons[i] = icons.getDevCardIcon(titles[i]);
+        }
+        return new CardHandPane(titles, cardIcons, maxWidth, GameIcons.CARD_HEIGHT);
+    }
+
+    /**
+     * Creates and returns a CardHandPane containing the specified player's
+     * resource cards.
+     * @param icons  the icons to use to display the resource cards
+     * @param player the player whose resource cards are to be displayed
+     * @return a CardHandPane of the specified player's resource cards
+     */
+    public static CardHandPane buildResourceCardsPane(GameIcons icons, Player player) {
+        CardHandPane pane = createResourceHandPane(icons, GameIcons.BOARD_WIDTH);
+        for (String resource : GameController.RESOURCE_TYPES) {
+            pane.addCards(resource, player.getNumResourceCards(resource));
+        }
+        pane.setEmptyMessage(NO_RESOURCE_CARDS);
+        return pane;
+    }
+
+    /**
+     * Creates and returns a CardHandPane containing the specified
+     * DevelopmentCards.
+     * @param icons    the icons to use to display the DevelopmentCards
+     * @param devCards the DevelopmentCards to display
+     * @return a CardHandPane containing the specified DevelopmentCards
+     */
+    public static CardHandPane buildDevCardsPane(GameIcons icons, Collection<DevelopmentCard> devCards) {
+        CardHandPane pane = createDevCardHandPane(icons, GameIcons.BOARD_WIDTH);
+        for (DevelopmentCard card : devCards) {
+            pane.addCard(card.getTitle());
+        }
+        pane.setEmptyMessage(NO_DEV_CARDS);
+        return pane;
+    }
+
+    /**
+     * Returns the position of the DevelopmentCard with the specified title in a
+     * list of all DevelopmentCards that is sorted by type (i.e. victory point
+     * card or progress card) and then title. DevelopmentCards with invalid
+     * names come before ones with valid names.
+     * @param devCardTitle the title of the DevelopmentCard
+     * @return the position of the DevelopmentCard with the specified title in
+     * the list described above
+     */
+    public static int getDevCardOrderIndex(String devCardTitle) {
+        for (int i = 0; i < DevelopmentCard.VICTORY_POINT_CARDS.length; i++) {
+            if (devCardTitle.equals(DevelopmentCard.VICTORY_POINT_CARDS[i])) {
+                return i;
+            }
+        }
+        for (int i = 0; i < DevelopmentCard.PROGRESS_CARDS.length; i++) {
+            if (devCardTitle.equals(DevelopmentCard.PROGRESS_CARDS[i])) {
+                return i + DevelopmentCard.VICTORY_POINT_CARDS.length;
+            }
+        }
+        return -1;
+    }
 }
\ No newline at end of file
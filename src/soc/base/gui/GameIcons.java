@@ -1,336 +1,522 @@
-package soc.base.gui;
-
-import soc.base.GameController;
-import soc.base.model.DevelopmentCard;
-import soc.base.model.Tile;
-
-import javax.swing.*;
-import java.util.HashMap;
-
-/**
- * Contains all the ImageIcons used in the game. Every ImageIcon is retrieved by
- * calling the appropriate method and passing the ImageIcon's description in the
- * method parameters (e.g. getResourceIcon("Brick") will return the ImageIcon
- * for the brick resource card).
- * @author Connor Barnes
- */
-public class GameIcons {
-    public static final int BOARD_WIDTH = 632;
-    public static final int BOARD_HEIGHT = 550;
-    public static final int TILE_WIDTH = 94;
-    public static final int TILE_HEIGHT = 109;
-    public static final int NUMBER_TOKEN_WIDTH = 40;
-    public static final int NUMBER_TOKEN_HEIGHT = 40;
-    public static final int PLAYER_TOKEN_WIDTH = 30;
-    public static final int PLAYER_TOKEN_HEIGHT = 30;
-    public static final int CARD_WIDTH = 90;
-    public static final int CARD_HEIGHT = 135;
-    public static final int COSTS_CARD_WIDTH = 650;
-    public static final int COSTS_CARD_HEIGHT = 795;
-    public static final boolean PLAYER_TOKEN_STAR = true;
-    public static final boolean ROBBER_STAR = false;
-    public static final String CARD_BACK = "Back";
-    public static final int VERTICAL = 0;
-    public static final int POSITIVE_SLOPE = 1;
-    public static final int NEGATIVE_SLOPE = 2;
-
-    private HashMap<String, ImageIcon> tileIcons;//Key is name of terrain
-    private HashMap<Character, ImageIcon> numberTokenIcons;//Key is the number of the token
-    private HashMap<String, ImageIcon> settlementIcons;//Key is the color of the settlement
-    private HashMap<String, ImageIcon> cityIcons;//Key is the color of the city
-    private HashMap<String, ImageIcon> verticalRoadIcons;//Key is the color of the road
-    private HashMap<String, ImageIcon> negativeSlopeRoadIcons;//Left end of road is higher than right end
-    private HashMap<String, ImageIcon> positiveSlopeRoadIcons;//Right end of road is higher than left end
-    private HashMap<String, ImageIcon> resourceIcons;//Key is the type of resource
-    private HashMap<String, ImageIcon> devCardIcons;//Key is the title of the development card
-    private HashMap<String, ImageIcon> costsCardIcons;//Key is the color of the card
-    private HashMap<String, ImageIcon> harborIcons;//Key is the type of resource
-    private HashMap<Integer, ImageIcon> redDieIcons;//Key is the number of dots
-    private HashMap<Integer, ImageIcon> yellowDieIcons;//Key is the number of dots
-    private ImageIcon boardIcon, robberIcon, longestRoadIcon, largestArmyIcon;
-    private ImageIcon tokenStarIcon, robberStarIcon, cancelIcon, windowIcon;
-
-    public GameIcons() {
-        tileIcons = new HashMap<String, ImageIcon>();
-        numberTokenIcons = new HashMap<Character, ImageIcon>();
-        settlementIcons = new HashMap<String, ImageIcon>();
-        cityIcons = new HashMap<String, ImageIcon>();
-        verticalRoadIcons = new HashMap<String, ImageIcon>();
-        negativeSlopeRoadIcons = new HashMap<String, ImageIcon>();
-        positiveSlopeRoadIcons = new HashMap<String, ImageIcon>();
-        resourceIcons = new HashMap<String, ImageIcon>();
-        devCardIcons = new HashMap<String, ImageIcon>();
-        costsCardIcons = new HashMap<String, ImageIcon>();
-        harborIcons = new HashMap<String, ImageIcon>();
-        redDieIcons = new HashMap<Integer, ImageIcon>();
-        yellowDieIcons = new HashMap<Integer, ImageIcon>();
-        String filePath;
-
-        //Populate tileIcons
-        filePath = "Images/Tiles/";
-        for (int terrain = 0; terrain < Tile.TERRAIN_TYPES.length; terrain++) {
-            tileIcons.put(Tile.TERRAIN_TYPES[terrain], createImageIcon(filePath + Tile.TERRAIN_TYPES[terrain] + " Tile.png", Tile.TERRAIN_TYPES[terrain]));
-        }
-
-        //Populate numberTokenIcons
-        filePath = "Images/Number Tokens/";
-        for (int i = 'A'; i < 'S'; i++) {
-            numberTokenIcons.put((char) i, createImageIcon(filePath + Character.toString((char) i) + ".png", Character.toString((char) i)));
-        }
-
-        //Populate the map for each player token
-        filePath = "Images/Player Tokens/";
-        String[] playerColors = {"Blue", "Orange", "Red", "White"};
-        for (String color : playerColors) {
-            settlementIcons.put(color, createImageIcon(filePath + "Settlements/" + color + " Settlement.png", color));
-            cityIcons.put(color, createImageIcon(filePath + "Cities/" + color + " City.png", color));
-            verticalRoadIcons.put(color, createImageIcon(filePath + "Vertical Roads/" + color + " Vertical Road.png", color));
-            negativeSlopeRoadIcons.put(color, createImageIcon(filePath + "Negative Slope Roads/" + color + " Negative Slope Road.png", color));
-            positiveSlopeRoadIcons.put(color, createImageIcon(filePath + "Positive Slope Roads/" + color + " Positive Slope Road.png", color));
-        }
-
-        //Populate costsCardIcons
-        filePath = "Images/Building Costs Cards/";
-        for (String color : playerColors) {
-            costsCardIcons.put(color, createImageIcon(filePath + color + " Building Costs Card.png", "Building Costs"));
-        }
-
-        //Populate resourceIcons
-        filePath = "Images/Resource Cards/";
-        for (String resource : GameController.RESOURCE_TYPES) {
-            resourceIcons.put(resource, createImageIcon(filePath + resource + ".png", resource));
-        }
-        resourceIcons.put(CARD_BACK, createImageIcon(filePath + "Resource Card Back.png", "Resource Cards"));
-
-        //Populate devCardIcons
-        filePath = "Images/Development Cards/";
-        String[] devCards = new String[DevelopmentCard.PROGRESS_CARDS.length + DevelopmentCard.VICTORY_POINT_CARDS.length];
-        System.arraycopy(DevelopmentCard.PROGRESS_CARDS, 0, devCards, 0, DevelopmentCard.PROGRESS_CARDS.length);
-        System.arraycopy(DevelopmentCard.VICTORY_POINT_CARDS, 0, devCards, DevelopmentCard.PROGRESS_CARDS.length, DevelopmentCard.VICTORY_POINT_CARDS.length);
-        for (String devCard : devCards) {
-            devCardIcons.put(devCard, createImageIcon(filePath + devCard + ".png", devCard));
-        }
-        devCardIcons.put(CARD_BACK, createImageIcon(filePath + "Development Card Back.png", "Development Cards"));
-
-        //Populate harborIcons
-        filePath = "Images/Harbors/";
-        for (String resource : GameController.RESOURCE_TYPES) {
-            harborIcons.put(resource, createImageIcon(filePath + resource + ".png", resource));
-        }
-        harborIcons.put(GameController.HARBOR_TYPE_ANY, createImageIcon(filePath + "Any.png", "Any"));
-
-        //Populate redDieIcons and yellowDieIcons
-        filePath = "Images/Dice/";
-        for (int i = 1; i < 7; i++) {
-            redDieIcons.put(i, createImageIcon(filePath + "Red Die/" + i + ".png", String.valueOf(i)));
-            yellowDieIcons.put(i, createImageIcon(filePath + "Yellow Die/" + i + ".png", String.valueOf(i)));
-        }
-
-        //Last miscellaneous icons
-        filePath = "Images/";
-        boardIcon = createImageIcon(filePath + "Board Frame.png", "");
-        robberIcon = createImageIcon(filePath + "Robber.png", "Robber");
-        longestRoadIcon = createImageIcon(filePath + "Longest Road.png", "Longest Road");
-        largestArmyIcon = createImageIcon(filePath + "Largest Army.png", "Largest Army");
-        tokenStarIcon = createImageIcon(filePath + "Star (Token).png", "Click to select this location");
-        robberStarIcon = createImageIcon(filePath + "Star (Robber).png", "Click to select this location");
-        cancelIcon = createImageIcon(filePath + "Cancel.png", "Click to cancel");
-        windowIcon = createImageIcon(filePath + "Window Icon.png", "Settlers of Catan");
-    }
-
-    /**
-     * Creates and returns an ImageIcon with the image at the specified path and
-     * the specified description. If the image cannot be found, an error message
-     * is printed out and null is returned.
-     * @param path        the file path to the image
-     * @param description the description of the image
-     * @return an ImageIcon with the image at the specified file path and the
-     * specified description
-     */
-    protected ImageIcon createImageIcon(String path, String description) {
-        java.net.URL imgURL = getClass().getResource(path);
-        if (imgURL != null) {
-            return new ImageIcon(imgURL, description);
-        } else {
-            System.err.println("Couldn't find file: " + path);
-            return null;
-        }
-    }
-
-    //TODO: Should the "get" methods return a copy of the ImageIcon instead of the ImageIcon itself?
-
-    /**
-     * Returns the ImageIcon of a tile with the specified terrain.
-     * @param terrain the terrain of the tile
-     * @return the ImageIcon of a tile with the specified terrain
-     */
-    public ImageIcon getTileIcon(String terrain) {
-        return tileIcons.get(terrain);
-    }
-
-    /**
-     * Returns the ImageIcon of the number token with the specified letter.
-     * @param letter the letter on the number token
-     * @return the ImageIcon of the number token with the specified letter
-     */
-    public ImageIcon getNumberTokenIcon(char letter) {
-        return numberTokenIcons.get(letter);
-    }
-
-    /**
-     * Returns the ImageIcon of a settlement token of the specified color.
-     * @param color the color of the settlement
-     * @return the ImageIcon of a settlement token of the specified color
-     */
-    public ImageIcon getSettlementIcon(String color) {
-        return settlementIcons.get(color);
-    }
-
-    /**
-     * Returns the ImageIcon of a city token of the specified color.
-     * @param color the color of the city
-     * @return the ImageIcon of a city token of the specified color
-     */
-    public ImageIcon getCityIcon(String color) {
-        return cityIcons.get(color);
-    }
-
-    /**
-     * Returns the ImageIcon of a road of the specified color and the specified
-     * orientation.
-     * @param color       The color of the road
-     * @param orientation The orientation of the road (i.e. VERTICAL,
-     *                    POSITIVE_SLOPE, or NEGATIVE_SLOPE)
-     * @return the ImageIcon of a road of the specified color and the specified
-     * orientation
-     */
-    public ImageIcon getRoadIcon(String color, int orientation) {
-        if (orientation == VERTICAL) {
-            return verticalRoadIcons.get(color);
-        } else if (orientation == POSITIVE_SLOPE) {
-            return positiveSlopeRoadIcons.get(color);
-        } else if (orientation == NEGATIVE_SLOPE) {
-            return negativeSlopeRoadIcons.get(color);
-        } else {
-            throw new IllegalArgumentException("The orientation argument must be GameIcons.VERTICAL, GameIcons.POSITIVE_SLOPE, or GameIcons.NEGATIVE_SLOPE");
-        }
-    }
-
-    /**
-     * Returns the ImageIcon of a resource card of the specified type.
-     * @param resource the type of resource
-     * @return the ImageIcon of a resource card of the specified type
-     */
-    public ImageIcon getResourceIcon(String resource) {
-        return resourceIcons.get(resource);
-    }
-
-    /**
-     * Returns the ImageIcon of a development card with the specified title.
-     * @param title the title of the development card
-     * @return the ImageIcon of a development card with the specified title
-     */
-    public ImageIcon getDevCardIcon(String title) {
-        return devCardIcons.get(title);
-    }
-
-    /**
-     * Returns the ImageIcon of a building costs card of the specified color.
-     * @param color the color of the building costs card
-     * @return the ImageIcon of a building costs card of the specified color
-     */
-    public ImageIcon getCostsCardIcon(String color) {
-        return costsCardIcons.get(color);
-    }
-
-    /**
-     * Returns the ImageIcon of the specified harbor (or null if no such harbor
-     * exists).
-     * @param type the type of resource that the harbor affects
-     * @return the ImageIcon of the specified harbor
-     */
-    public ImageIcon getHarborIcon(String type) {
-        return harborIcons.get(type);
-    }
-
-    /**
-     * Returns the ImageIcon of the red die with the specified number of dots.
-     * @param dots the number of dots on the die
-     * @return the ImageIcon of the red die with the specified number of dots
-     */
-    public ImageIcon getRedDieIcon(int dots) {
-        return redDieIcons.get(dots);
-    }
-
-    /**
-     * Returns the ImageIcon of the yellow die with the specified number of
-     * dots.
-     * @param dots the number of dots on the die
-     * @return the ImageIcon of the yellow die with the specified number of dots
-     */
-    public ImageIcon getYellowDieIcon(int dots) {
-        return yellowDieIcons.get(dots);
-    }
-
-    /**
-     * Returns the ImageIcon of the frame of the game board.
-     * @return the ImageIcon of the frame of the game board
-     */
-    public ImageIcon getBoardIcon() {
-        return boardIcon;
-    }
-
-    /**
-     * Returns the ImageIcon of the robber token.
-     * @return the ImageIcon of the robber token
-     */
-    public ImageIcon getRobberIcon() {
-        return robberIcon;
-    }
-
-    /**
-     * Returns the ImageIcon of the Longest Road card.
-     * @return the ImageIcon of the Longest Road card
-     */
-    public ImageIcon getLongestRoadIcon() {
-        return longestRoadIcon;
-    }
-
-    /**
-     * Returns the ImageIcon of the Largest Army card.
-     * @return the ImageIcon of the Largest Army card
-     */
-    public ImageIcon getLargestArmyIcon() {
-        return largestArmyIcon;
-    }
-
-    /**
-     * Returns the ImageIcon of a star that is the same size as a number token.
-     * @return the ImageIcon of a star that is the same size as a number token
-     */
-    public ImageIcon getStarIcon(boolean type) {
-        if (type) { //type == PLAYER_TOKEN_STAR
-            return tokenStarIcon;
-        } else { //type == ROBBER_STAR
-            return robberStarIcon;
-        }
-    }
-
-    /**
-     * Returns an ImageIcon of the word "Cancel".
-     * @return an ImageIcon of the word "Cancel"
-     */
-    public ImageIcon getCancelIcon() {
-        return cancelIcon;
-    }
-
-    /**
-     * Returns an ImageIcon containing the Image used for the IconImage of the
-     * main window.
-     * @return an ImageIcon containing the Image used for the IconImage of the
-     * main window
-     */
-    public ImageIcon getWindowIcon() {
-        return windowIcon;
-    }
-}
+package soc.base.gui;
+
+import soc.base.GameController;
+import soc.base.model.DevelopmentCard;
+import soc.base.model.Tile;
+
+import javax.swing.*;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Contains all the ImageIcons used in the game. Every ImageIcon is retrieved by
+ * calling the appropriate method and passing the ImageIcon's description in the
+ * method parameters (e.g. getResourceIcon("Brick") will return the ImageIcon
+ * for the brick resource card).
+ * <p>
+ * Icons are loaded in the background by a small pool of threads so that
+ * constructing a GameIcons does not hold up the first window. Icons that are
+ * rarely shown (development cards, harbors, dice, and building costs cards)
+ * are kept in a cache with a fixed memory budget. When the cache is full, the
+ * least recently used icon is evicted and loaded again the next time it is
+ * requested.
+ * <p>
+ * Images are cut out of the decoded pages of the sprite atlas (built by
+ * SpriteAtlasBuilder and checked in under resources/Images/Atlas) instead of
+ * being read one file at a time. The rarely shown icons are left out of the
+ * atlas, since a page stays decoded as long as any of its images is in use,
+ * so they are read from their own files and evicting one frees its pixels.
+ * @author Connor Barnes
+ */
+public class GameIcons {
+    public static final int BOARD_WIDTH = 632;
+    public static final int BOARD_HEIGHT = 550;
+    public static final int TILE_WIDTH = 94;
+    public static final int TILE_HEIGHT = 109;
+    public static final int NUMBER_TOKEN_WIDTH = 40;
+    public static final int NUMBER_TOKEN_HEIGHT = 40;
+    public static final int PLAYER_TOKEN_WIDTH = 30;
+    public static final int PLAYER_TOKEN_HEIGHT = 30;
+    public static final int CARD_WIDTH = 90;
+    public static final int CARD_HEIGHT = 135;
+    public static final int COSTS_CARD_WIDTH = 650;
+    public static final int COSTS_CARD_HEIGHT = 795;
+    public static final boolean PLAYER_TOKEN_STAR = true;
+    public static final boolean ROBBER_STAR = false;
+    public static final String CARD_BACK = "Back";
+    public static final int VERTICAL = 0;
+    public static final int POSITIVE_SLOPE = 1;
+    public static final int NEGATIVE_SLOPE = 2;
+
+    private static final int NUM_LOADER_THREADS = 2;
+    private static final long RARE_ICON_BUDGET_BYTES = 4L * 1024 * 1024;//Decoded size (about two building costs cards)
+
+    private static final String IMAGES_PATH = "Images/";
+
+    private ExecutorService loader;
+    private SpriteAtlas atlas;//Null if the images have not been packed into an atlas
+    private HashMap<String, FutureTask<ImageIcon>> tileIcons;//Key is name of terrain
+    private HashMap<Character, FutureTask<ImageIcon>> numberTokenIcons;//Key is the number of the token
+    private HashMap<String, FutureTask<ImageIcon>> settlementIcons;//Key is the color of the settlement
+    private HashMap<String, FutureTask<ImageIcon>> cityIcons;//Key is the color of the city
+    private HashMap<String, FutureTask<ImageIcon>> verticalRoadIcons;//Key is the color of the road
+    private HashMap<String, FutureTask<ImageIcon>> negativeSlopeRoadIcons;//Left end of road is higher than right end
+    private HashMap<String, FutureTask<ImageIcon>> positiveSlopeRoadIcons;//Right end of road is higher than left end
+    private HashMap<String, FutureTask<ImageIcon>> resourceIcons;//Key is the type of resource
+    private FutureTask<ImageIcon> boardIcon, robberIcon, longestRoadIcon, largestArmyIcon;
+    private FutureTask<ImageIcon> tokenStarIcon, robberStarIcon, cancelIcon, windowIcon;
+    //Icons that are rarely shown (or only shown once and then scaled) are kept in a cache that can evict them
+    private HashMap<String, String[]> rareIconSources;//Key is the cache key, value is the file path and description
+    private final LinkedHashMap<String, ImageIcon> rareIcons;//Least recently used first, guarded by itself
+    private final HashMap<String, FutureTask<ImageIcon>> rareIconLoads;//Loads in progress, guarded by rareIcons
+    private long rareIconBytes;//Guarded by rareIcons
+
+    /**
+     * Starts loading every icon in the background and returns right away. The
+     * icons needed to display the board are loaded first and the rest are
+     * prefetched after them. If an icon is requested before it has been
+     * loaded, the calling thread loads it (or waits for the loader that is
+     * already doing so).
+     */
+    public GameIcons() {
+        atlas = SpriteAtlas.load(getClass(), IMAGES_PATH);
+        loader = Executors.newFixedThreadPool(NUM_LOADER_THREADS, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "Icon Loader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        tileIcons = new HashMap<String, FutureTask<ImageIcon>>();
+        numberTokenIcons = new HashMap<Character, FutureTask<ImageIcon>>();
+        settlementIcons = new HashMap<String, FutureTask<ImageIcon>>();
+        cityIcons = new HashMap<String, FutureTask<ImageIcon>>();
+        verticalRoadIcons = new HashMap<String, FutureTask<ImageIcon>>();
+        negativeSlopeRoadIcons = new HashMap<String, FutureTask<ImageIcon>>();
+        positiveSlopeRoadIcons = new HashMap<String, FutureTask<ImageIcon>>();
+        resourceIcons = new HashMap<String, FutureTask<ImageIcon>>();
+        rareIconSources = new HashMap<String, String[]>();
+        rareIcons = new LinkedHashMap<String, ImageIcon>(16, 0.75f, true);
+        rareIconLoads = new HashMap<String, FutureTask<ImageIcon>>();
+        rareIconBytes = 0;
+        String filePath;
+
+        //The board and everything on it are needed for the first frame, so they are loaded first
+        filePath = "Images/";
+        boardIcon = loadIcon(filePath + "Board Frame.png", "");
+        robberIcon = loadIcon(filePath + "Robber.png", "Robber");
+
+        //Populate tileIcons
+        filePath = "Images/Tiles/";
+        for (int terrain = 0; terrain < Tile.TERRAIN_TYPES.length; terrain++) {
+            tileIcons.put(Tile.TERRAIN_TYPES[terrain], loadIcon(filePath + Tile.TERRAIN_TYPES[terrain] + " Tile.png", Tile.TERRAIN_TYPES[terrain]));
+        }
+
+        //Populate numberTokenIcons
+        filePath = "Images/Number Tokens/";
+        for (int i = 'A'; i < 'S'; i++) {
+            numberTokenIcons.put((char) i, loadIcon(filePath + Character.toString((char) i) + ".png", Character.toString((char) i)));
+        }
+
+        //Populate the map for each player token
+        filePath = "Images/Player Tokens/";
+        String[] playerColors = {"Blue", "Orange", "Red", "White"};
+        for (String color : playerColors) {
+            settlementIcons.put(color, loadIcon(filePath + "Settlements/" + color + " Settlement.png", color));
+            cityIcons.put(color, loadIcon(filePath + "Cities/" + color + " City.png", color));
+            verticalRoadIcons.put(color, loadIcon(filePath + "Vertical Roads/" + color + " Vertical Road.png", color));
+            negativeSlopeRoadIcons.put(color, loadIcon(filePath + "Negative Slope Roads/" + color + " Negative Slope Road.png", color));
+            positiveSlopeRoadIcons.put(color, loadIcon(filePath + "Positive Slope Roads/" + color + " Positive Slope Road.png", color));
+        }
+        filePath = "Images/";
+        tokenStarIcon = loadIcon(filePath + "Star (Token).png", "Click to select this location");
+        robberStarIcon = loadIcon(filePath + "Star (Robber).png", "Click to select this location");
+
+        //Populate resourceIcons
+        filePath = "Images/Resource Cards/";
+        for (String resource : GameController.RESOURCE_TYPES) {
+            resourceIcons.put(resource, loadIcon(filePath + resource + ".png", resource));
+        }
+        resourceIcons.put(CARD_BACK, loadIcon(filePath + "Resource Card Back.png", "Resource Cards"));
+
+        //Last miscellaneous icons
+        filePath = "Images/";
+        longestRoadIcon = loadIcon(filePath + "Longest Road.png", "Longest Road");
+        largestArmyIcon = loadIcon(filePath + "Largest Army.png", "Largest Army");
+        cancelIcon = loadIcon(filePath + "Cancel.png", "Click to cancel");
+        windowIcon = loadIcon(filePath + "Window Icon.png", "Settlers of Catan");
+
+        //Register the building costs cards (they are large and each player only needs one, so they are not prefetched)
+        filePath = "Images/Building Costs Cards/";
+        for (String color : playerColors) {
+            rareIconSources.put("Costs Card:" + color, new String[]{filePath + color + " Building Costs Card.png", "Building Costs"});
+        }
+
+        //Register and prefetch the development cards
+        filePath = "Images/Development Cards/";
+        String[] devCards = new String[DevelopmentCard.PROGRESS_CARDS.length + DevelopmentCard.VICTORY_POINT_CARDS.length];
+        System.arraycopy(DevelopmentCard.PROGRESS_CARDS, 0, devCards, 0, DevelopmentCard.PROGRESS_CARDS.length);
+        System.arraycopy(DevelopmentCard.VICTORY_POINT_CARDS, 0, devCards, DevelopmentCard.PROGRESS_CARDS.length, DevelopmentCard.VICTORY_POINT_CARDS.length);
+        for (String devCard : devCards) {
+            prefetchRareIcon("Dev Card:" + devCard, filePath + devCard + ".png", devCard);
+        }
+        prefetchRareIcon("Dev Card:" + CARD_BACK, filePath + "Development Card Back.png", "Development Cards");
+
+        //Register and prefetch the harbors
+        filePath = "Images/Harbors/";
+        for (String resource : GameController.RESOURCE_TYPES) {
+            prefetchRareIcon("Harbor:" + resource, filePath + resource + ".png", resource);
+        }
+        prefetchRareIcon("Harbor:" + GameController.HARBOR_TYPE_ANY, filePath + "Any.png", "Any");
+
+        //Register and prefetch the dice
+        filePath = "Images/Dice/";
+        for (int i = 1; i < 7; i++) {
+            prefetchRareIcon("Red Die:" + i, filePath + "Red Die/" + i + ".png", String.valueOf(i));
+            prefetchRareIcon("Yellow Die:" + i, filePath + "Yellow Die/" + i + ".png", String.valueOf(i));
+        }
+
+        //The loader threads exit once everything above has been loaded
+        loader.shutdown();
+    }
+
+    /**
+     * Creates and returns an ImageIcon with the image at the specified path and
+     * the specified description. The image is taken from the sprite atlas if
+     * it was packed into it. If the image cannot be found, an error message
+     * is printed out and null is returned.
+     * @param path        the file path to the image
+     * @param description the description of the image
+     * @return an ImageIcon with the image at the specified file path and the
+     * specified description
+     */
+    protected ImageIcon createImageIcon(String path, String description) {
+        if (atlas != null && path.startsWith(IMAGES_PATH) && atlas.contains(path.substring(IMAGES_PATH.length()))) {
+            ImageIcon icon = atlas.getIcon(path.substring(IMAGES_PATH.length()), description);
+            if (icon != null) {
+                return icon;
+            }
+        }
+        java.net.URL imgURL = getClass().getResource(path);
+        if (imgURL != null) {
+            return new ImageIcon(imgURL, description);
+        } else {
+            System.err.println("Couldn't find file: " + path);
+            return null;
+        }
+    }
+
+    /**
+     * Creates a task that loads the image at the specified path and submits it
+     * to the loader threads. Tasks are started in the order they are
+     * submitted.
+     * @param path        the file path to the image
+     * @param description the description of the image
+     * @return the task that loads the image
+     */
+    private FutureTask<ImageIcon> loadIcon(String path, String description) {
+        FutureTask<ImageIcon> task = createLoadTask(path, description);
+        loader.execute(task);
+        return task;
+    }
+
+    /**
+     * Creates (but does not start) a task that loads the image at the
+     * specified path.
+     * @param path        the file path to the image
+     * @param description the description of the image
+     * @return a task that loads the image
+     */
+    private FutureTask<ImageIcon> createLoadTask(final String path, final String description) {
+        return new FutureTask<ImageIcon>(new Callable<ImageIcon>() {
+            @Override
+            public ImageIcon call() {
+                return createImageIcon(path, description);
+            }
+        });
+    }
+
+    /**
+     * Returns the icon loaded by the specified task. If the task has not been
+     * started yet, it is run on the calling thread instead of waiting for a
+     * loader thread to get to it.
+     * @param task the task that loads the icon (or null)
+     * @return the icon loaded by the specified task (or null if the task is
+     * null or the icon could not be loaded)
+     */
+    private ImageIcon awaitIcon(FutureTask<ImageIcon> task) {
+        if (task == null) {
+            return null;
+        }
+        task.run();//Does nothing if the task has already been started
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Could not load icon", e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Registers a rarely used icon and loads it into the cache in the
+     * background.
+     * @param key         the key of the icon in the cache
+     * @param path        the file path to the image
+     * @param description the description of the image
+     */
+    private void prefetchRareIcon(final String key, String path, String description) {
+        rareIconSources.put(key, new String[]{path, description});
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                getRareIcon(key);
+            }
+        });
+    }
+
+    /**
+     * Returns the rarely used icon with the specified key, loading it (again)
+     * if it is not in the cache.
+     * @param key the key of the icon in the cache
+     * @return the icon with the specified key (or null if no such icon exists)
+     */
+    private ImageIcon getRareIcon(String key) {
+        String[] source = rareIconSources.get(key);
+        if (source == null) {
+            return null;
+        }
+        FutureTask<ImageIcon> task;
+        synchronized (rareIcons) {
+            ImageIcon icon = rareIcons.get(key);
+            if (icon != null) {
+                return icon;
+            }
+            task = rareIconLoads.get(key);
+            if (task == null) {
+                task = createLoadTask(source[0], source[1]);
+                rareIconLoads.put(key, task);
+            }
+        }
+        ImageIcon icon = awaitIcon(task);
+        synchronized (rareIcons) {
+            if (rareIconLoads.remove(key) == task && icon != null) {//Only the first thread to finish caches the icon
+                rareIcons.put(key, icon);
+                rareIconBytes += getDecodedSize(icon);
+                //Evict the least recently used icons until the cache fits in its budget again
+                Iterator<Map.Entry<String, ImageIcon>> iterator = rareIcons.entrySet().iterator();
+                while (rareIconBytes > RARE_ICON_BUDGET_BYTES && rareIcons.size() > 1) {
+                    rareIconBytes -= getDecodedSize(iterator.next().getValue());
+                    iterator.remove();
+                }
+            }
+        }
+        return icon;
+    }
+
+    /**
+     * Returns the number of bytes used by the decoded image of the specified
+     * icon.
+     * @param icon the icon
+     * @return the number of bytes used by the decoded image of the specified
+     * icon
+     */
+    private long getDecodedSize(ImageIcon icon) {
+        return 4L * icon.getIconWidth() * icon.getIconHeight();//Decoded images use 4 bytes per pixel
+    }
+
+    //TODO: Should the "get" methods return a copy of the ImageIcon instead of the ImageIcon itself?
+
+    /**
+     * Returns the ImageIcon of a tile with the specified terrain.
+     * @param terrain the terrain of the tile
+     * @return the ImageIcon of a tile with the specified terrain
+     */
+    public ImageIcon getTileIcon(String terrain) {
+        return awaitIcon(tileIcons.get(terrain));
+    }
+
+    /**
+     * Returns the ImageIcon of the number token with the specified letter.
+     * @param letter the letter on the number token
+     * @return the ImageIcon of the number token with the specified letter
+     */
+    public ImageIcon getNumberTokenIcon(char letter) {
+        return awaitIcon(numberTokenIcons.get(letter));
+    }
+
+    /**
+     * Returns the ImageIcon of a settlement token of the specified color.
+     * @param color the color of the settlement
+     * @return the ImageIcon of a settlement token of the specified color
+     */
+    public ImageIcon getSettlementIcon(String color) {
+        return awaitIcon(settlementIcons.get(color));
+    }
+
+    /**
+     * Returns the ImageIcon of a city token of the specified color.
+     * @param color the color of the city
+     * @return the ImageIcon of a city token of the specified color
+     */
+    public ImageIcon getCityIcon(String color) {
+        return awaitIcon(cityIcons.get(color));
+    }
+
+    /**
+     * Returns the ImageIcon of a road of the specified color and the specified
+     * orientation.
+     * @param color       The color of the road
+     * @param orientation The orientation of the road (i.e. VERTICAL,
+     *                    POSITIVE_SLOPE, or NEGATIVE_SLOPE)
+     * @return the ImageIcon of a road of the specified color and the specified
+     * orientation
+     */
+    public ImageIcon getRoadIcon(String color, int orientation) {
+        if (orientation == VERTICAL) {
+            return awaitIcon(verticalRoadIcons.get(color));
+        } else if (orientation == POSITIVE_SLOPE) {
+            return awaitIcon(positiveSlopeRoadIcons.get(color));
+        } else if (orientation == NEGATIVE_SLOPE) {
+            return awaitIcon(negativeSlopeRoadIcons.get(color));
+        } else {
+            throw new IllegalArgumentException("The orientation argument must be GameIcons.VERTICAL, GameIcons.POSITIVE_SLOPE, or GameIcons.NEGATIVE_SLOPE");
+        }
+    }
+
+    /**
+     * Returns the ImageIcon of a resource card of the specified type.
+     * @param resource the type of resource
+     * @return the ImageIcon of a resource card of the specified type
+     */
+    public ImageIcon getResourceIcon(String resource) {
+        return awaitIcon(resourceIcons.get(resource));
+    }
+
+    /**
+     * Returns the ImageIcon of a development card with the specified title.
+     * @param title the title of the development card
+     * @return the ImageIcon of a development card with the specified title
+     */
+    public ImageIcon getDevCardIcon(String title) {
+        return getRareIcon("Dev Card:" + title);
+    }
+
+    /**
+     * Returns the ImageIcon of a building costs card of the specified color.
+     * @param color the color of the building costs card
+     * @return the ImageIcon of a building costs card of the specified color
+     */
+    public ImageIcon getCostsCardIcon(String color) {
+        return getRareIcon("Costs Card:" + color);
+    }
+
+    /**
+     * Returns the ImageIcon of the specified harbor (or null if no such harbor
+     * exists).
+     * @param type the type of resource that the harbor affects
+     * @return the ImageIcon of the specified harbor
+     */
+    public ImageIcon getHarborIcon(String type) {
+        return getRareIcon("Harbor:" + type);
+    }
+
+    /**
+     * Returns the ImageIcon of the red die with the specified number of dots.
+     * @param dots the number of dots on the die
+     * @return the ImageIcon of the red die with the specified number of dots
+     */
+    public ImageIcon getRedDieIcon(int dots) {
+        return getRareIcon("Red Die:" + dots);
+    }
+
+    /**
+     * Returns the ImageIcon of the yellow die with the specified number of
+     * dots.
+     * @param dots the number of dots on the die
+     * @return the ImageIcon of the yellow die with the specified number of dots
+     */
+    public ImageIcon getYellowDieIcon(int dots) {
+        return getRareIcon("Yellow Die:" + dots);
+    }
+
+    /**
+     * Returns the ImageIcon of the frame of the game board.
+     * @return the ImageIcon of the frame of the game board
+     */
+    public ImageIcon getBoardIcon() {
+        return awaitIcon(boardIcon);
+    }
+
+    /**
+     * Returns the ImageIcon of the robber token.
+     * @return the ImageIcon of the robber token
+     */
+    public ImageIcon getRobberIcon() {
+        return awaitIcon(robberIcon);
+    }
+
+    /**
+     * Returns the ImageIcon of the Longest Road card.
+     * @return the ImageIcon of the Longest Road card
+     */
+    public ImageIcon getLongestRoadIcon() {
+        return awaitIcon(longestRoadIcon);
+    }
+
+    /**
+     * Returns the ImageIcon of the Largest Army card.
+     * @return the ImageIcon of the Largest Army card
+     */
+    public ImageIcon getLargestArmyIcon() {
+        return awaitIcon(largestArmyIcon);
+    }
+
+    /**
+     * Returns the ImageIcon of a star that is the same size as a number token.
+     * @return the ImageIcon of a star that is the same size as a number token
+     */
+    public ImageIcon getStarIcon(boolean type) {
+        if (type) { //type == PLAYER_TOKEN_STAR
+            return awaitIcon(tokenStarIcon);
+        } else { //type == ROBBER_STAR
+            return awaitIcon(robberStarIcon);
+        }
+    }
+
+    /**
+     * Returns an ImageIcon of the word "Cancel".
+     * @return an ImageIcon of the word "Cancel"
+     */
+    public ImageIcon getCancelIcon() {
+        return awaitIcon(cancelIcon);
+    }
+
+    /**
+     * Returns an ImageIcon containing the Image used for the IconImage of the
+     * main window.
+     * @return an ImageIcon containing the Image used for the IconImage of the
+     * main window
+     */
+    public ImageIcon getWindowIcon() {
+        return awaitIcon(windowIcon);
+    }
+}
@@ -0,0 +1,118 @@
+package soc.base.gui;
+
+/**
+ * A spatial index that finds the location closest to a point on the board
+ * (e.g. the road that the user clicked on). The board is divided into square
+ * cells, and each cell lists the locations whose centers lie inside of it.
+ * Since a location can only be selected from within one cell of its center,
+ * a lookup only ever checks the cells around the point, no matter how many
+ * locations there are.
+ * @author Connor Barnes
+ */
+public class LocationGrid {
+    private final int cellSize, numColumns, numRows;
+    private final int[] centerX, centerY;//Index is the location
+    private final int[][] cells;        //Index is row * numColumns + column, values are locations
+
+    /**
+     * Constructs a grid containing every location with the specified center.
+     * @param centerX  the x-coordinate of the center of each location
+     * @param centerY  the y-coordinate of the center of each location (index
+     *                 matches centerX)
+     * @param width    the width of the area that contains every location
+     * @param height   the height of the area that contains every location
+     * @param cellSize the width and height of each cell, which is also the
+     *                 farthest a point can be from a location and still
+     *                 select it
+     * @throws IllegalArgumentException if the coordinate arrays have different
+     *                                  lengths or the cell size is not
+     *                                  positive
+     */
+    public LocationGrid(int[] centerX, int[] centerY, int width, int height, int cellSize) {
+        if (centerX.length != centerY.length) {
+            throw new IllegalArgumentException("Every location must have an x-coordinate and a y-coordinate");
+        }
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("The cell size must be positive");
+        }
+        this.cellSize = cellSize;
+        this.centerX = centerX.clone();
+        this.centerY = centerY.clone();
+        numColumns = width / cellSize + 1;
+        numRows = height / cellSize + 1;
+        //Count the locations in each cell, then fill the cells
+        int[] cellSizes = new int[numColumns * numRows];
+        for (int loc = 0; loc < centerX.length; loc++) {
+            cellSizes[getCell(centerX[loc], centerY[loc])]++;
+        }
+        cells = new int[cellSizes.length][];
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = new int[cellSizes[cell]];
+            cellSizes[cell] = 0;
+        }
+        for (int loc = 0; loc < centerX.length; loc++) {
+            int cell = getCell(centerX[loc], centerY[loc]);
+            cells[cell][cellSizes[cell]++] = loc;
+        }
+    }
+
+    /**
+     * Returns the number of locations in this grid.
+     * @return the number of locations in this grid
+     */
+    public int getNumLocs() {
+        return centerX.length;
+    }
+
+    /**
+     * Returns the location closest to the specified point that is within one
+     * cell size of it and is in the specified set of locations.
+     * @param x         the x-coordinate of the point
+     * @param y         the y-coordinate of the point
+     * @param validLocs a bitmask of the locations that can be returned (bit
+     *                  loc % 64 of validLocs[loc / 64]), or null if every
+     *                  location can be returned
+     * @return the closest valid location to the specified point (or -1 if no
+     * valid location is close enough)
+     */
+    public int getNearestLoc(int x, int y, long[] validLocs) {
+        int column = clamp(x / cellSize, numColumns), row = clamp(y / cellSize, numRows);
+        int nearestLoc = -1;
+        long nearestDistance = (long) cellSize * cellSize + 1;
+        for (int r = Math.max(0, row - 1); r <= Math.min(numRows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(numColumns - 1, column + 1); c++) {
+                for (int loc : cells[r * numColumns + c]) {
+                    if (validLocs == null || (validLocs[loc >>> 6] & (1L << loc)) != 0) {
+                        long dx = centerX[loc] - x, dy = centerY[loc] - y;
+                        long distance = dx * dx + dy * dy;
+                        if (distance < nearestDistance) {
+                            nearestDistance = distance;
+                            nearestLoc = loc;
+                        }
+                    }
+                }
+            }
+        }
+        return nearestLoc;
+    }
+
+    /**
+     * Returns the index of the cell that contains the specified point.
+     * @param x the x-coordinate of the point
+     * @param y the y-coordinate of the point
+     * @return the index of the cell that contains the specified point
+     */
+    private int getCell(int x, int y) {
+        return clamp(y / cellSize, numRows) * numColumns + clamp(x / cellSize, numColumns);
+    }
+
+    /**
+     * Returns the specified index, moved inside of the range [0, size).
+     * @param index the index
+     * @param size  the number of valid indexes
+     * @return the closest valid index to the specified index
+     */
+    private int clamp(int index, int size) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+}
@@ -1,5 +1,6 @@
 package soc.base.gui;
 
+import soc.base.GameController;
 import soc.base.model.DevelopmentCard;
 import soc.base.model.Player;
 
@@ -23,6 +24,7 @@ public class PlayerInfoPanel extends JPanel {
     private boolean orientation;
     private JLabel roadsLabel, settlementsLabel, citiesLabel, resourcesLabel, devCardsLabel, knightCardsPlayedLabel;
     private JLabel longestRoadLabel, largestArmyLabel;
+    private JLabel incomeLabel;
 
     /**
      * Creates a new JPanel that displays the specified player's information.
@@ -39,6 +41,10 @@ public class PlayerInfoPanel extends JPanel {
         JPanel tokenAndCardPanel = new JPanel(new BorderLayout(-1, -1));
         tokenAndCardPanel.add(buildTokenPanel(player), BorderLayout.NORTH);
         tokenAndCardPanel.add(buildCardPanel(player), BorderLayout.CENTER);
+        incomeLabel = new JLabel("", JLabel.CENTER);
+        incomeLabel.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED));
+        tokenAndCardPanel.add(incomeLabel, BorderLayout.SOUTH);
+        setIncome(new float[GameController.RESOURCE_TYPES.length]);
         longestRoadLabel = new JLabel();
         longestRoadLabel.setHorizontalAlignment(JLabel.CENTER);
         largestArmyLabel = new JLabel();
@@ -57,6 +63,47 @@ public class PlayerInfoPanel extends JPanel {
         setLargestArmy(player.hasLargestArmy());
     }
 
+    /**
+     * Sets every number displayed to the specified numbers and repaints the
+     * panel once.
+     * @param numRoads             The number of roads the player has
+     * @param numSettlements       The number of settlements the player has
+     * @param numCities            The number of cities the player has
+     * @param numResourceCards     The number of resource cards the player has
+     * @param numDevCards          The number of development cards the player
+     *                             has
+     * @param numKnightCardsPlayed The number of Knight cards the player has
+     *                             played
+     */
+    public void setCounts(int numRoads, int numSettlements, int numCities, int numResourceCards, int numDevCards, int numKnightCardsPlayed) {
+        roadsLabel.setText(String.valueOf(numRoads));
+        settlementsLabel.setText(String.valueOf(numSettlements));
+        citiesLabel.setText(String.valueOf(numCities));
+        resourcesLabel.setText(String.valueOf(numResourceCards));
+        devCardsLabel.setText(String.valueOf(numDevCards));
+        knightCardsPlayedLabel.setText(String.valueOf(numKnightCardsPlayed));
+        repaint();
+    }
+
+    /**
+     * Displays the number of resource cards the player is expected to receive
+     * per roll. The total is shown, and the amount of each resource is shown
+     * in the label's tool tip.
+     * @param expectedIncome The expected number of cards of each resource per
+     *                       roll (index matches GameController.RESOURCE_TYPES)
+     */
+    public void setIncome(float[] expectedIncome) {
+        float total = 0;
+        StringBuilder toolTip = new StringBuilder("<html>");
+        for (int i = 0; i < expectedIncome.length; i++) {
+            total += expectedIncome[i];
+            toolTip.append(String.format("%s: %.2f<br>", GameController.RESOURCE_TYPES[i], expectedIncome[i]));
+        }
+        incomeLabel.setText(String.format("%.2f cards/roll", total));
+        incomeLabel.setToolTipText(toolTip.append("</html>").toString());
+        repaint();
+    }
+
     /**
      * Sets the number of roads displayed to the specified number.
      * @param numRoads The number of roads the player has
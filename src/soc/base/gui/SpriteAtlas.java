@@ -0,0 +1,144 @@
+package soc.base.gui;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.HashMap;
+
+/**
+ * Serves the images packed by SpriteAtlasBuilder. The index is read when the
+ * atlas is loaded, and each page is decoded the first time one of its images
+ * is requested. The images that are handed out share the pixels of their
+ * page, so no image is ever decoded (or stored) twice.
+ * @author Connor Barnes
+ */
+public class SpriteAtlas {
+    private final Class<?> resourceBase;
+    private final String atlasPath;
+    private final HashMap<String, Rectangle> spriteBounds;//Key is the path of the image relative to the images directory
+    private final HashMap<String, Integer> spritePages;
+    private final BufferedImage[] pages;//Guarded by pages, null until the page is decoded
+
+    /**
+     * Constructs an atlas from an index that has already been read.
+     * @param resourceBase the class used to look up the pages
+     * @param atlasPath    the path of the atlas folder, relative to
+     *                     resourceBase
+     * @param spriteBounds the location of each image on its page
+     * @param spritePages  the page that each image is on
+     * @param numPages     the number of pages in the atlas
+     */
+    private SpriteAtlas(Class<?> resourceBase, String atlasPath, HashMap<String, Rectangle> spriteBounds,
+                        HashMap<String, Integer> spritePages, int numPages) {
+        this.resourceBase = resourceBase;
+        this.atlasPath = atlasPath;
+        this.spriteBounds = spriteBounds;
+        this.spritePages = spritePages;
+        pages = new BufferedImage[numPages];
+    }
+
+    /**
+     * Reads the index of the atlas in the specified images directory. Returns
+     * null if no atlas has been built (or the index cannot be read), in which
+     * case the images should be loaded individually.
+     * @param resourceBase the class used to look up the atlas
+     * @param imagesPath   the path of the images directory, relative to
+     *                     resourceBase (e.g. "Images/")
+     * @return the atlas in the specified images directory (or null if there is
+     * no atlas)
+     */
+    public static SpriteAtlas load(Class<?> resourceBase, String imagesPath) {
+        String atlasPath = imagesPath + SpriteAtlasBuilder.ATLAS_FOLDER + "/";
+        InputStream stream = resourceBase.getResourceAsStream(atlasPath + SpriteAtlasBuilder.INDEX_FILE);
+        if (stream == null) {
+            return null;
+        }
+        HashMap<String, Rectangle> spriteBounds = new HashMap<String, Rectangle>();
+        HashMap<String, Integer> spritePages = new HashMap<String, Integer>();
+        int numPages = 0;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(" ", 6);//The path can contain spaces, so it is always last
+                    if (fields.length < 6) {
+                        continue;
+                    }
+                    int page = Integer.parseInt(fields[0]);
+                    spritePages.put(fields[5], page);
+                    spriteBounds.put(fields[5], new Rectangle(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                            Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+                    numPages = Math.max(numPages, page + 1);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Couldn't read sprite atlas index: " + e);
+            return null;
+        } catch (NumberFormatException e) {
+            System.err.println("Couldn't read sprite atlas index: " + e);
+            return null;
+        }
+        return new SpriteAtlas(resourceBase, atlasPath, spriteBounds, spritePages, numPages);
+    }
+
+    /**
+     * Returns true if the image at the specified path was packed into this
+     * atlas; otherwise false.
+     * @param path the path of the image relative to the images directory
+     * @return true if the image at the specified path is in this atlas
+     */
+    public boolean contains(String path) {
+        return spriteBounds.containsKey(path);
+    }
+
+    /**
+     * Returns an ImageIcon of the image at the specified path, or null if the
+     * image is not in this atlas (or its page cannot be read). The image
+     * shares the pixels of its page, which stay in memory as long as the atlas
+     * does.
+     * @param path        the path of the image relative to the images
+     *                    directory
+     * @param description the description of the image
+     * @return an ImageIcon of the image at the specified path (or null)
+     */
+    public ImageIcon getIcon(String path, String description) {
+        Rectangle bounds = spriteBounds.get(path);
+        if (bounds == null) {
+            return null;
+        }
+        BufferedImage page = getPage(spritePages.get(path));
+        if (page == null) {
+            return null;
+        }
+        return new ImageIcon(page.getSubimage(bounds.x, bounds.y, bounds.width, bounds.height), description);
+    }
+
+    /**
+     * Returns the specified page, decoding it if this is the first time it
+     * has been requested.
+     * @param page the index of the page
+     * @return the specified page (or null if it cannot be read)
+     */
+    public BufferedImage getPage(int page) {
+        synchronized (pages) {
+            if (pages[page] == null) {
+                URL pageURL = resourceBase.getResource(atlasPath + SpriteAtlasBuilder.PAGE_FILE_PREFIX + page + ".png");
+                try {
+                    pages[page] = pageURL == null ? null : ImageIO.read(pageURL);
+                } catch (IOException e) {
+                    System.err.println("Couldn't read sprite atlas page " + page + ": " + e);
+                }
+            }
+            return pages[page];
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package soc.base.gui;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * Packs the images used by GameIcons into a few large atlas images and writes
+ * an index that records where each image was placed. GameIcons reads the atlas
+ * (if it exists) instead of opening and decoding every image separately.
+ * <p>
+ * The atlas is checked in with the images. The project is built by the IDE
+ * straight from the source and resource folders, and there is no build
+ * script that could run this first, so the atlas has to be in the resource
+ * folder already to be shipped. Run this (and commit its output) whenever an
+ * image is added or changed:
+ * <pre>
+ *     java soc.base.gui.SpriteAtlasBuilder [images directory]
+ * </pre>
+ * The images directory defaults to resources/Images. The atlas is written to
+ * the Atlas folder inside of it. Each line of the index has the form
+ * "page x y width height path", where path is relative to the images
+ * directory. The folders in UNPACKED_FOLDERS and images larger than
+ * MAX_SPRITE_AREA pixels are left out of the atlas and are still loaded from
+ * their own files.
+ * @author Connor Barnes
+ */
+public class SpriteAtlasBuilder {
+    public static final String ATLAS_FOLDER = "Atlas";
+    public static final String INDEX_FILE = "Atlas.txt";
+    public static final String PAGE_FILE_PREFIX = "Atlas ";
+
+    private static final int PAGE_SIZE = 1024;
+    private static final int PADDING = 1;//Keeps neighboring sprites from bleeding into each other when scaled
+    private static final int MAX_SPRITE_AREA = 400 * 400;//Larger images are only shown scaled, so they are not kept resident
+    private static final String[] UNPACKED_FOLDERS = {"Building Costs Cards", "Development Cards", "Dice", "Harbors"};//Rarely shown, so GameIcons keeps them in a cache that must be able to free them
+
+    /**
+     * Packs every image in the images directory into the atlas.
+     * @param args the images directory (optional)
+     * @throws IOException if an image cannot be read or the atlas cannot be
+     *                     written
+     */
+    public static void main(String[] args) throws IOException {
+        File imagesDir = new File(args.length > 0 ? args[0] : "resources/Images");
+        if (!imagesDir.isDirectory()) {
+            throw new IllegalArgumentException(imagesDir + " is not a directory");
+        }
+        ArrayList<Sprite> sprites = new ArrayList<Sprite>();
+        findSprites(imagesDir, "", sprites);
+        int numPages = pack(sprites);
+
+        //Draw each page and write the index
+        File atlasDir = new File(imagesDir, ATLAS_FOLDER);
+        if (!atlasDir.isDirectory() && !atlasDir.mkdirs()) {
+            throw new IOException("Could not create " + atlasDir);
+        }
+        for (int page = 0; page < numPages; page++) {
+            BufferedImage pageImage = new BufferedImage(PAGE_SIZE, getPageHeight(sprites, page), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = pageImage.createGraphics();
+            for (Sprite sprite : sprites) {
+                if (sprite.page == page) {
+                    g.drawImage(sprite.image, sprite.x, sprite.y, null);
+                }
+            }
+            g.dispose();
+            ImageIO.write(pageImage, "png", new File(atlasDir, PAGE_FILE_PREFIX + page + ".png"));
+        }
+        PrintWriter index = new PrintWriter(new FileWriter(new File(atlasDir, INDEX_FILE)));
+        try {
+            for (Sprite sprite : sprites) {
+                index.println(sprite.page + " " + sprite.x + " " + sprite.y + " " + sprite.image.getWidth() + " "
+                        + sprite.image.getHeight() + " " + sprite.path);
+            }
+        } finally {
+            index.close();
+        }
+        System.out.println("Packed " + sprites.size() + " images into " + numPages + " page(s) in " + atlasDir);
+    }
+
+    /**
+     * Reads every PNG image in the specified directory (and its
+     * subdirectories) and adds it to the specified list.
+     * @param dir     the directory to search
+     * @param prefix  the path of the directory relative to the images
+     *                directory
+     * @param sprites the list to add the images to
+     * @throws IOException if an image cannot be read
+     */
+    private static void findSprites(File dir, String prefix, ArrayList<Sprite> sprites) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                if (prefix.isEmpty() && Arrays.asList(UNPACKED_FOLDERS).contains(file.getName())) {
+                    System.out.println("Leaving " + file.getName() + " out of the atlas because its images are rarely shown");
+                } else if (!(prefix.isEmpty() && file.getName().equals(ATLAS_FOLDER))) {
+                    findSprites(file, prefix + file.getName() + "/", sprites);
+                }
+            } else if (file.getName().endsWith(".png")) {
+                BufferedImage image = ImageIO.read(file);
+                if (image.getWidth() * image.getHeight() > MAX_SPRITE_AREA
+                        || image.getWidth() + PADDING > PAGE_SIZE || image.getHeight() + PADDING > PAGE_SIZE) {
+                    System.out.println("Leaving " + prefix + file.getName() + " out of the atlas because it is too large");
+                } else {
+                    sprites.add(new Sprite(prefix + file.getName(), image));
+                }
+            }
+        }
+    }
+
+    /**
+     * Places every sprite on a page using shelf packing: the sprites are
+     * sorted from tallest to shortest and laid out left to right in rows, and
+     * a new page is started once a row no longer fits.
+     * @param sprites the sprites to place
+     * @return the number of pages used
+     */
+    private static int pack(ArrayList<Sprite> sprites) {
+        Collections.sort(sprites, new Comparator<Sprite>() {
+            @Override
+            public int compare(Sprite a, Sprite b) {
+                if (a.image.getHeight() != b.image.getHeight()) {
+                    return b.image.getHeight() - a.image.getHeight();
+                }
+                return a.path.compareTo(b.path);
+            }
+        });
+        int page = 0, x = 0, y = 0, shelfHeight = 0;
+        for (Sprite sprite : sprites) {
+            int width = sprite.image.getWidth() + PADDING, height = sprite.image.getHeight() + PADDING;
+            if (x + width > PAGE_SIZE) {//Start a new shelf
+                x = 0;
+                y += shelfHeight;
+                shelfHeight = 0;
+            }
+            if (y + height > PAGE_SIZE) {//Start a new page
+                page++;
+                x = 0;
+                y = 0;
+                shelfHeight = 0;
+            }
+            sprite.page = page;
+            sprite.x = x;
+            sprite.y = y;
+            x += width;
+            shelfHeight = Math.max(shelfHeight, height);
+        }
+        return sprites.isEmpty() ? 0 : page + 1;
+    }
+
+    /**
+     * Returns the height of the specified page, which is just tall enough to
+     * hold the sprites placed on it.
+     * @param sprites the sprites that have been placed
+     * @param page    the page
+     * @return the height of the specified page
+     */
+    private static int getPageHeight(ArrayList<Sprite> sprites, int page) {
+        int height = 1;
+        for (Sprite sprite : sprites) {
+            if (sprite.page == page) {
+                height = Math.max(height, sprite.y + sprite.image.getHeight());
+            }
+        }
+        return height;
+    }
+
+    /**
+     * An image and the location it was placed at in the atlas.
+     */
+    private static class Sprite {
+        private final String path;
+        private final BufferedImage image;
+        private int page, x, y;
+
+        /**
+         * Constructs a sprite that has not been placed yet.
+         * @param path  the path of the image relative to the images directory
+         * @param image the image
+         */
+        private Sprite(String path, BufferedImage image) {
+            this.path = path;
+            this.image = image;
+        }
+    }
+}
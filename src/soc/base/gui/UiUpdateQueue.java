@@ -0,0 +1,185 @@
+package soc.base.gui;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Collects changes to the GUI that are made by threads other than the event
+ * dispatch thread (such as the game engine) and applies them at most once per
+ * frame. Each update is keyed by the widget it changes and the property of the
+ * widget it sets. If an update is posted while an earlier update to the same
+ * property of the same widget is still waiting, the earlier update is dropped,
+ * so a burst of changes (e.g. resource cards being handed out one at a time)
+ * only updates each widget once. Updates to different properties are applied
+ * in the order they were first posted.
+ * @author Connor Barnes
+ */
+public class UiUpdateQueue {
+    public static final int FRAME_MILLIS = 16;//About 60 frames per second
+
+    private final LinkedHashMap<Key, Runnable> pending;//Guarded by pending
+    private final Timer frameTimer;
+    private long numCoalesced;//Guarded by pending
+
+    /**
+     * Constructs an empty queue.
+     */
+    public UiUpdateQueue() {
+        pending = new LinkedHashMap<Key, Runnable>();
+        numCoalesced = 0;
+        frameTimer = new Timer(FRAME_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                drain();
+            }
+        });
+        frameTimer.setRepeats(false);
+    }
+
+    /**
+     * Posts an update that sets the specified property of the specified
+     * widget. The update is run on the event dispatch thread during the next
+     * frame, unless another update to the same property is posted first. Can
+     * be called from any thread.
+     * @param widget   the widget that is changed by the update
+     * @param property the name of the property that is set by the update
+     * @param update   the update to run on the event dispatch thread
+     */
+    public void post(Object widget, String property, Runnable update) {
+        boolean firstUpdate;
+        synchronized (pending) {
+            firstUpdate = pending.isEmpty();
+            if (pending.put(new Key(widget, property), update) != null) {
+                numCoalesced++;
+            }
+        }
+        if (firstUpdate) {
+            frameTimer.start();//Does nothing if the timer is already running
+        }
+    }
+
+    /**
+     * Applies every update that is waiting and then runs the specified call on
+     * the event dispatch thread, blocking until it returns. Used to show modal
+     * dialogs from other threads (the GUI is brought up to date first so the
+     * dialog never appears over stale information).
+     * @param call the call to run on the event dispatch thread
+     * @param <T>  the type of value returned by the call
+     * @return the value returned by the call
+     * @throws RuntimeException if the call throws an exception or the calling
+     *                          thread is interrupted while waiting
+     */
+    public <T> T callAndWait(final Callable<T> call) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            drain();
+            return callUnchecked(call);
+        }
+        final ArrayList<T> result = new ArrayList<T>(1);
+        try {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                    result.add(callUnchecked(call));
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the event dispatch thread", e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+        return result.get(0);
+    }
+
+    /**
+     * Returns the number of updates that have been dropped because a newer
+     * update to the same property was posted before they were applied.
+     * @return the number of updates that have been coalesced
+     */
+    public long getNumCoalesced() {
+        synchronized (pending) {
+            return numCoalesced;
+        }
+    }
+
+    /**
+     * Runs every update that is waiting. Must be called on the event dispatch
+     * thread.
+     */
+    private void drain() {
+        ArrayList<Runnable> updates;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            updates = new ArrayList<Runnable>(pending.values());
+            pending.clear();
+        }
+        for (Runnable update : updates) {
+            try {
+                update.run();
+            } catch (RuntimeException exception) {//One broken update should not keep the others from being applied
+                System.err.println("GUI update failed: " + exception);
+                exception.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Runs the specified call, wrapping any checked exception it throws.
+     * @param call the call to run
+     * @param <T>  the type of value returned by the call
+     * @return the value returned by the call
+     */
+    private static <T> T callUnchecked(Callable<T> call) {
+        try {
+            return call.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Identifies a property of a widget. Widgets are compared by identity.
+     */
+    private static class Key {
+        private final Object widget;
+        private final String property;
+
+        /**
+         * Constructs a key for the specified property of the specified widget.
+         * @param widget   the widget
+         * @param property the name of the property
+         */
+        private Key(Object widget, String property) {
+            this.widget = widget;
+            this.property = property;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) object;
+            return widget == key.widget && property.equals(key.property);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(widget) + property.hashCode();
+        }
+    }
+}
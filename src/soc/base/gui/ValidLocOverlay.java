@@ -0,0 +1,225 @@
+package soc.base.gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The layer of a BoardPane that highlights valid locations. The locations of
+ * each type that are highlighted are kept in a bitmask, and the position of
+ * the star at every location is computed once when the overlay is created.
+ * Showing or hiding the overlay only clears and sets bits in the same masks
+ * and flips a flag, so it never allocates memory or adds or removes a
+ * component.
+ * @author Connor Barnes
+ */
+class ValidLocOverlay {
+    static final int NO_LOC = -2;//Returned by getLocAt() when nothing is selected
+    private static final int NUM_LOC_TYPES = 3;
+
+    private final LocationConverter locConverter;
+    private final ImageIcon tokenStarIcon, robberStarIcon, cancelIcon;
+    private final long[][] masks;   //Index is the type of location, bit loc % 64 of masks[type][loc / 64] is set if loc is highlighted
+    private final int[][] starX;    //Index is the type of location, then the location
+    private final int[][] starY;
+    private final Rectangle cancelBounds;
+    private final Rectangle bounds; //The smallest area that contains every star (and the cancel button) that is shown
+    private boolean visible, cancelShown;
+    private int locType;
+
+    /**
+     * Constructs a hidden overlay.
+     * @param icons        the icons of the stars and the cancel button
+     * @param locConverter the positions of every location on the board
+     */
+    ValidLocOverlay(GameIcons icons, LocationConverter locConverter) {
+        this.locConverter = locConverter;
+        tokenStarIcon = icons.getStarIcon(GameIcons.PLAYER_TOKEN_STAR);
+        robberStarIcon = icons.getStarIcon(GameIcons.ROBBER_STAR);
+        cancelIcon = icons.getCancelIcon();
+        masks = new long[NUM_LOC_TYPES][];
+        starX = new int[NUM_LOC_TYPES][];
+        starY = new int[NUM_LOC_TYPES][];
+        //Roads
+        masks[BoardPane.LOC_TYPE_ROAD] = new long[(LocationConverter.NUM_ROAD_LOCS + 63) / 64];
+        starX[BoardPane.LOC_TYPE_ROAD] = new int[LocationConverter.NUM_ROAD_LOCS];
+        starY[BoardPane.LOC_TYPE_ROAD] = new int[LocationConverter.NUM_ROAD_LOCS];
+        for (int loc = 0; loc < LocationConverter.NUM_ROAD_LOCS; loc++) {
+            starX[BoardPane.LOC_TYPE_ROAD][loc] = locConverter.getRoadX(loc);
+            starY[BoardPane.LOC_TYPE_ROAD][loc] = locConverter.getRoadY(loc);
+        }
+        //Settlements and cities
+        masks[BoardPane.LOC_TYPE_SETTLEMENT] = new long[(LocationConverter.NUM_CORNER_LOCS + 63) / 64];
+        starX[BoardPane.LOC_TYPE_SETTLEMENT] = new int[LocationConverter.NUM_CORNER_LOCS];
+        starY[BoardPane.LOC_TYPE_SETTLEMENT] = new int[LocationConverter.NUM_CORNER_LOCS];
+        for (int loc = 0; loc < LocationConverter.NUM_CORNER_LOCS; loc++) {
+            starX[BoardPane.LOC_TYPE_SETTLEMENT][loc] = locConverter.getSettlementX(loc);
+            starY[BoardPane.LOC_TYPE_SETTLEMENT][loc] = locConverter.getSettlementY(loc);
+        }
+        //Robber (the star is centered on the number token)
+        masks[BoardPane.LOC_TYPE_ROBBER] = new long[(LocationConverter.NUM_TILE_LOCS + 63) / 64];
+        starX[BoardPane.LOC_TYPE_ROBBER] = new int[LocationConverter.NUM_TILE_LOCS];
+        starY[BoardPane.LOC_TYPE_ROBBER] = new int[LocationConverter.NUM_TILE_LOCS];
+        int offset = (GameIcons.NUMBER_TOKEN_WIDTH - robberStarIcon.getIconWidth()) / 2;
+        for (int loc = 0; loc < LocationConverter.NUM_TILE_LOCS; loc++) {
+            starX[BoardPane.LOC_TYPE_ROBBER][loc] = locConverter.getNumberTokenX(loc) + offset;
+            starY[BoardPane.LOC_TYPE_ROBBER][loc] = locConverter.getNumberTokenY(loc) + offset - 3;
+        }
+        cancelBounds = new Rectangle((GameIcons.BOARD_WIDTH / 2) - (cancelIcon.getIconWidth() / 2),
+                GameIcons.BOARD_HEIGHT - cancelIcon.getIconHeight() - 10, cancelIcon.getIconWidth(), cancelIcon.getIconHeight());
+        bounds = new Rectangle();
+        visible = false;
+        cancelShown = false;
+        locType = BoardPane.LOC_TYPE_ROAD;
+    }
+
+    /**
+     * Highlights every location in the specified list (and hides any
+     * locations that were already highlighted).
+     * @param locType      the type of locations in the specified list (see
+     *                     BoardPane)
+     * @param validLocs    the locations to highlight
+     * @param cancelOption true if the cancel button should be shown
+     * @param dirtyBounds  set to the area that must be repainted (empty if
+     *                     nothing changed)
+     * @throws IllegalArgumentException if the type of location is not valid
+     */
+    void show(int locType, Collection<Integer> validLocs, boolean cancelOption, Rectangle dirtyBounds) {
+        if (locType < 0 || locType >= NUM_LOC_TYPES) {
+            throw new IllegalArgumentException("Invalid location type: " + locType);
+        }
+        dirtyBounds.setBounds(bounds);
+        Arrays.fill(masks[this.locType], 0L);
+        this.locType = locType;
+        long[] mask = masks[locType];
+        int width = getStarIcon().getIconWidth(), height = getStarIcon().getIconHeight();
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int loc : validLocs) {
+            mask[loc >>> 6] |= 1L << loc;
+            minX = Math.min(minX, starX[locType][loc]);
+            minY = Math.min(minY, starY[locType][loc]);
+            maxX = Math.max(maxX, starX[locType][loc] + width);
+            maxY = Math.max(maxY, starY[locType][loc] + height);
+        }
+        if (minX <= maxX) {
+            bounds.setBounds(minX, minY, maxX - minX, maxY - minY);
+            if (cancelOption) {
+                bounds.add(cancelBounds);
+            }
+        } else if (cancelOption) {
+            bounds.setBounds(cancelBounds);
+        } else {
+            bounds.setBounds(0, 0, 0, 0);
+        }
+        cancelShown = cancelOption;
+        visible = true;
+        if (dirtyBounds.isEmpty()) {//Rectangle.add() would treat an empty rectangle as the point (0, 0)
+            dirtyBounds.setBounds(bounds);
+        } else if (!bounds.isEmpty()) {
+            dirtyBounds.add(bounds);
+        }
+    }
+
+    /**
+     * Hides every highlighted location (and the cancel button).
+     * @param dirtyBounds set to the area that must be repainted (empty if
+     *                    nothing was shown)
+     */
+    void hide(Rectangle dirtyBounds) {
+        dirtyBounds.setBounds(bounds);
+        Arrays.fill(masks[locType], 0L);
+        bounds.setBounds(0, 0, 0, 0);
+        visible = false;
+        cancelShown = false;
+    }
+
+    /**
+     * Returns true if any locations are highlighted; otherwise false.
+     * @return true if any locations are highlighted
+     */
+    boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Returns the type of the highlighted locations (see BoardPane).
+     * @return the type of the highlighted locations
+     */
+    int getLocType() {
+        return locType;
+    }
+
+    /**
+     * Returns the highlighted location closest to the specified point, or -1
+     * if the cancel button is at the specified point.
+     * @param x the x-coordinate of the point
+     * @param y the y-coordinate of the point
+     * @return the highlighted location closest to the specified point, -1 if
+     * the cancel button was selected, or NO_LOC if nothing is close enough to
+     * the specified point
+     */
+    int getLocAt(int x, int y) {
+        if (!visible) {
+            return NO_LOC;
+        }
+        if (cancelShown && cancelBounds.contains(x, y)) {
+            return -1;
+        }
+        int loc;
+        if (locType == BoardPane.LOC_TYPE_ROAD) {
+            loc = locConverter.getRoadLocAt(x, y, masks[locType]);
+        } else if (locType == BoardPane.LOC_TYPE_SETTLEMENT) {
+            loc = locConverter.getSettlementLocAt(x, y, masks[locType]);
+        } else { //locType == LOC_TYPE_ROBBER
+            loc = locConverter.getTileLocAt(x, y, masks[locType]);
+        }
+        return loc == -1 ? NO_LOC : loc;
+    }
+
+    /**
+     * Paints the stars at every highlighted location that lies inside of the
+     * area being repainted.
+     * @param c    the component to paint on
+     * @param g    the Graphics to paint with
+     * @param clip the area being repainted
+     */
+    void paintStars(Component c, Graphics g, Rectangle clip) {
+        if (!visible || !clip.intersects(bounds)) {
+            return;
+        }
+        ImageIcon starIcon = getStarIcon();
+        int width = starIcon.getIconWidth(), height = starIcon.getIconHeight();
+        long[] mask = masks[locType];
+        for (int i = 0; i < mask.length; i++) {
+            for (long bits = mask[i]; bits != 0; bits &= bits - 1) {
+                int loc = (i << 6) + Long.numberOfTrailingZeros(bits);
+                int x = starX[locType][loc], y = starY[locType][loc];
+                if (clip.intersects(x, y, width, height)) {
+                    starIcon.paintIcon(c, g, x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Paints the cancel button if it is shown and lies inside of the area
+     * being repainted.
+     * @param c    the component to paint on
+     * @param g    the Graphics to paint with
+     * @param clip the area being repainted
+     */
+    void paintCancel(Component c, Graphics g, Rectangle clip) {
+        if (cancelShown && clip.intersects(cancelBounds)) {
+            cancelIcon.paintIcon(c, g, cancelBounds.x, cancelBounds.y);
+        }
+    }
+
+    /**
+     * Returns the icon of the stars for the current type of location.
+     * @return the icon of the stars for the current type of location
+     */
+    private ImageIcon getStarIcon() {
+        return locType == BoardPane.LOC_TYPE_ROBBER ? robberStarIcon : tokenStarIcon;
+    }
+}
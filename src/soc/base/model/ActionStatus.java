@@ -0,0 +1,55 @@
+package soc.base.model;
+
+/**
+ * The status codes returned by the tryX methods of the Board and the Player.
+ * A tryX method checks an action and either performs it and returns OK or
+ * leaves everything unchanged and returns the first rule the action broke,
+ * without throwing or allocating anything. The methods that throw an
+ * exception for an illegal action call the tryX method and turn its status
+ * into the exception, so code that tries many actions that may be illegal
+ * (such as random playouts) should call the tryX methods directly.
+ * @author Connor Barnes
+ */
+public final class ActionStatus {
+    public static final int OK = 0;
+    public static final int INVALID_LOCATION = 1;//The location is not on the board
+    public static final int OCCUPIED = 2;        //There is already a piece at the location
+    public static final int DISTANCE_RULE = 3;   //There is a settlement on an adjacent corner
+    public static final int NOT_CONNECTED = 4;   //The player has no road (or settlement) leading to the location
+    public static final int NO_SETTLEMENT = 5;   //There is no settlement to upgrade
+    public static final int ALREADY_CITY = 6;    //The settlement is already a city
+    public static final int NO_PIECES = 7;       //The player has none of the piece left to place
+    public static final int CANNOT_AFFORD = 8;   //The player does not have enough resource cards
+    public static final int INVALID_RESOURCE = 9;//The resource type does not exist
+    private static final String[] MESSAGES = {
+            "OK",
+            "Invalid location",
+            "The location is already occupied",
+            "Cannot place a settlement adjacent to another settlement",
+            "The location is not connected to the player's roads",
+            "Cannot upgrade a nonexistent settlement",
+            "Cannot upgrade a city",
+            "The player does not have any of the piece left to place",
+            "A player cannot have a negative amount of resource cards",
+            "Invalid resource type"
+    };
+
+    /**
+     * Prevents the class from being instantiated.
+     */
+    private ActionStatus() {
+    }
+
+    /**
+     * Returns a description of the specified status.
+     * @param status the status code
+     * @return a description of the status
+     * @throws IllegalArgumentException if the status code does not exist
+     */
+    public static String getMessage(int status) {
+        if (status < 0 || status >= MESSAGES.length) {
+            throw new IllegalArgumentException("Invalid status code: " + status);
+        }
+        return MESSAGES[status];
+    }
+}
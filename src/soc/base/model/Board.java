@@ -7,16 +7,78 @@ import java.util.*;
 /**
  * Represents the Settlers of Catan game board. Keeps track of what objects are
  * on the board and where they are.
+ * <p>
+ * The pieces on the board are kept in flat arrays: one byte per corner (the
+ * owner of the settlement and whether it is a city) and one byte per road
+ * location (the owner of the road), where an owner is an index into the
+ * colors that have placed pieces. The layout of the corners, roads and tiles
+ * is the same on every board, so it is built once and shared. The Corner,
+ * Road and Tile objects returned by the getters are built from these arrays
+ * when they are asked for, and changing them does not change the board.
  * @author Connor Barnes
  */
 public class Board {
+    private static final int NUM_CORNERS = 54;
+    private static final int NUM_ROADS = 72;
+    private static final int OWNER_MASK = 0x3F;//Bits of a corner or road state holding the owner's color index + 1 (0 means empty)
+    private static final int CITY = 0x40;      //Bit of a corner state that is set for a city
+    //Shared by every board (index is the location)
+    private static final int[][] CORNER_CORNERS;//Corners adjacent to each corner
+    private static final int[][] CORNER_ROADS;  //Roads that end at each corner
+    private static final int[][] CORNER_TILES;  //Tiles around each corner
+    private static final String[] CORNER_HARBORS;//Harbor of each corner (or null)
+    private static final int[][] ROAD_ROADS;    //Roads adjacent to each road
+    private static final int[][] ROAD_CORNERS;  //Corners at either end of each road
+    private static final int[][] TILE_CORNERS;  //Corners around each tile
+    private static final long[] TILE_CORNER_MASKS;//Bit i is set if corner i is around the tile
+
     private Tile[] tileMap;
-    private Corner[] cornerMap;
-    private Road[] roadMap;
+    private byte[] cornerStates;//Index is the corner location, value is the owner (see OWNER_MASK) and CITY
+    private byte[] roadOwners;  //Index is the road location, value is the owner's color index + 1 (0 means empty)
+    private long occupiedCorners;//Bit i is set if there is a settlement or city at corner i
+    private long settlementOwners;//Bit i is set once owner i has placed a settlement (even if it was removed)
+    private long roadOwnersPlaced;//Bit i is set once owner i has placed a road (even if it was removed)
+    private String[] colors;    //The colors that have placed pieces, in the order they were first placed
+    private int numColors;
     private int robberLoc;
-    private HashMap<Integer, LinkedList<Tile>> numberTokenMap;//Key is a number token, value is a list of the tiles that have that number token
-    private HashMap<String, ArrayList<Integer>> playerRoadMap;//Key is player color, value is a list of all their road locations
-    private HashMap<String, ArrayList<Integer>> playerSettlementMap;//Key is player color, value is a list of the locations of their settlements & cities
+    private IncomeTracker incomeTracker;
+
+    static {
+        Corner[] cornerMap = buildCornerMap();
+        Road[] roadMap = buildRoadMap(cornerMap);
+        CORNER_CORNERS = new int[NUM_CORNERS][];
+        CORNER_ROADS = new int[NUM_CORNERS][];
+        CORNER_TILES = new int[NUM_CORNERS][];
+        CORNER_HARBORS = new String[NUM_CORNERS];
+        int[] numTileCorners = new int[BoardLayout.NUM_TILES];
+        for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+            CORNER_CORNERS[cornerLoc] = cornerMap[cornerLoc].getAdjacentCornerLocs();
+            CORNER_ROADS[cornerLoc] = toIntArray(cornerMap[cornerLoc].getAdjacentRoadLocs());
+            CORNER_TILES[cornerLoc] = toIntArray(cornerMap[cornerLoc].getAdjacentTileLocs());
+            CORNER_HARBORS[cornerLoc] = cornerMap[cornerLoc].getHarbor();
+            for (int tileLoc : CORNER_TILES[cornerLoc]) {
+                numTileCorners[tileLoc]++;
+            }
+        }
+        ROAD_ROADS = new int[NUM_ROADS][];
+        ROAD_CORNERS = new int[NUM_ROADS][];
+        for (int roadLoc = 0; roadLoc < NUM_ROADS; roadLoc++) {
+            ROAD_ROADS[roadLoc] = roadMap[roadLoc].getAdjacentRoadLocs();
+            ROAD_CORNERS[roadLoc] = roadMap[roadLoc].getAdjacentCornerLocs();
+        }
+        TILE_CORNERS = new int[BoardLayout.NUM_TILES][];
+        TILE_CORNER_MASKS = new long[BoardLayout.NUM_TILES];
+        for (int tileLoc = 0; tileLoc < BoardLayout.NUM_TILES; tileLoc++) {
+            TILE_CORNERS[tileLoc] = new int[numTileCorners[tileLoc]];
+            numTileCorners[tileLoc] = 0;
+        }
+        for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+            for (int tileLoc : CORNER_TILES[cornerLoc]) {
+                TILE_CORNERS[tileLoc][numTileCorners[tileLoc]++] = cornerLoc;
+                TILE_CORNER_MASKS[tileLoc] |= 1L << cornerLoc;
+            }
+        }
+    }
 
     /**
      * Constructs a new Settlers of Catan board. The location of each tile is
@@ -24,11 +86,24 @@ public class Board {
      * rulebook for details).
      */
     public Board() {
-        buildTileMap();
-        buildCornerMap();
-        buildRoadMap();
-        playerRoadMap = new HashMap<String, ArrayList<Integer>>();
-        playerSettlementMap = new HashMap<String, ArrayList<Integer>>();
+        this(BoardGenerator.randomLayout(new Random()));
+    }
+
+    /**
+     * Constructs a Settlers of Catan board with the specified layout of tiles
+     * and number tokens (e.g. one chosen by a BoardGenerator).
+     * @param layout the terrain and number token of each tile
+     */
+    public Board(BoardLayout layout) {
+        buildTileMap(layout);
+        cornerStates = new byte[NUM_CORNERS];
+        roadOwners = new byte[NUM_ROADS];
+        occupiedCorners = 0;
+        settlementOwners = 0;
+        roadOwnersPlaced = 0;
+        colors = new String[4];
+        numColors = 0;
+        incomeTracker = new IncomeTracker(tileMap, CORNER_TILES, TILE_CORNERS, robberLoc);
     }
 
     /**
@@ -45,7 +120,7 @@ public class Board {
      * @return the tile at the specified location
      */
     public Tile getTile(int tileLoc) {
-        return new Tile(tileMap[tileLoc]);
+        return new Tile(tileMap[tileLoc], TILE_CORNER_MASKS[tileLoc] & occupiedCorners);
     }
 
     /**
@@ -55,20 +130,26 @@ public class Board {
     public Tile[] getTiles() {
         Tile[] tempArray = new Tile[tileMap.length];
         for (int i = 0; i < tileMap.length; i++) {
-            tempArray[i] = new Tile(tileMap[i]);
+            tempArray[i] = getTile(i);
         }
         return tempArray;
     }
 
     /**
-     * Returns a list of all the tiles whose number token matches the specified
-     * number.
+     * Returns a list of copies of all the tiles whose number token matches
+     * the specified number.
      * @param numberToken the number on the number token
      * @return a list of all the tiles whose number token matches the specified
      * number
      */
     public LinkedList<Tile> getNumberTokenTiles(int numberToken) {
-        return numberTokenMap.get(numberToken);
+        LinkedList<Tile> tiles = new LinkedList<Tile>();
+        for (int tileLoc = 0; tileLoc < tileMap.length; tileLoc++) {
+            if (!tileMap[tileLoc].getTerrain().equals(Tile.DESERT) && tileMap[tileLoc].getNumberToken() == numberToken) {
+                tiles.add(getTile(tileLoc));
+            }
+        }
+        return tiles;
     }
 
     /**
@@ -76,7 +157,7 @@ public class Board {
      * @return the total number of corners on the board
      */
     public int getNumCorners() {
-        return cornerMap.length;
+        return NUM_CORNERS;
     }
 
     /**
@@ -85,7 +166,9 @@ public class Board {
      * @return the corner at the specified location
      */
     public Corner getCorner(int cornerLoc) {
-        return new Corner(cornerMap[cornerLoc]);
+        int state = cornerStates[cornerLoc];
+        return new Corner(CORNER_CORNERS[cornerLoc], CORNER_ROADS[cornerLoc], CORNER_TILES[cornerLoc],
+                CORNER_HARBORS[cornerLoc], getOwnerColor(state), (state & CITY) != 0);
     }
 
     /**
@@ -97,42 +180,113 @@ public class Board {
      * @throws IllegalArgumentException if there is a settlement at or adjacent to the corner at the specified location
      */
     public void placeSettlement(int cornerLoc, String color) {
-        if (cornerLoc < 0 || cornerLoc >= cornerMap.length) {
-            throw new IndexOutOfBoundsException("Invalid corner location");
-        } else if (cornerMap[cornerLoc].hasSettlement()) {
-            throw new IllegalArgumentException("Cannot place a settlement on a corner that already has a settlement");
-        } else {
-            for (int adjacentCornerLoc : cornerMap[cornerLoc].getAdjacentCornerLocs()) {
-                if (cornerMap[adjacentCornerLoc].hasSettlement()) {
-                    throw new IllegalArgumentException("Cannot place a settlement adjacent to another settlement");
-                }
+        switch (tryPlaceSettlement(cornerLoc, color)) {
+            case ActionStatus.INVALID_LOCATION:
+                throw new IndexOutOfBoundsException("Invalid corner location");
+            case ActionStatus.OCCUPIED:
+                throw new IllegalArgumentException("Cannot place a settlement on a corner that already has a settlement");
+            case ActionStatus.DISTANCE_RULE:
+                throw new IllegalArgumentException("Cannot place a settlement adjacent to another settlement");
+        }
+    }
+
+    /**
+     * Places a settlement of the specified color at the specified location if
+     * the corner and every corner adjacent to it are empty (as in setup).
+     * Nothing is allocated unless the settlement is placed.
+     * @param cornerLoc the location of the new settlement
+     * @param color     the color of the new settlement
+     * @return ActionStatus.OK if the settlement was placed, otherwise
+     * INVALID_LOCATION, OCCUPIED or DISTANCE_RULE
+     */
+    public int tryPlaceSettlement(int cornerLoc, String color) {
+        if (cornerLoc < 0 || cornerLoc >= NUM_CORNERS) {
+            return ActionStatus.INVALID_LOCATION;
+        } else if (cornerStates[cornerLoc] != 0) {
+            return ActionStatus.OCCUPIED;
+        }
+        for (int adjacentCornerLoc : CORNER_CORNERS[cornerLoc]) {
+            if (cornerStates[adjacentCornerLoc] != 0) {
+                return ActionStatus.DISTANCE_RULE;
             }
-            cornerMap[cornerLoc].addSettlement(color);
-            for (Integer tileLoc : cornerMap[cornerLoc].getAdjacentTileLocs()) {
-                tileMap[tileLoc].addSettlementLoc(cornerLoc);
+        }
+        int owner = getOwner(color, true);
+        cornerStates[cornerLoc] = (byte) owner;
+        occupiedCorners |= 1L << cornerLoc;
+        settlementOwners |= 1L << owner;
+        incomeTracker.addSettlement(cornerLoc, color);
+        return ActionStatus.OK;
+    }
+
+    /**
+     * Places a settlement of the specified color at the specified location if
+     * it could be built during a turn: the same rules as
+     * tryPlaceSettlement(), and the corner must be at the end of one of the
+     * player's roads.
+     * @param cornerLoc the location of the new settlement
+     * @param color     the color of the new settlement
+     * @return ActionStatus.OK if the settlement was placed, otherwise
+     * INVALID_LOCATION, OCCUPIED, DISTANCE_RULE or NOT_CONNECTED
+     */
+    public int tryBuildSettlement(int cornerLoc, String color) {
+        if (cornerLoc >= 0 && cornerLoc < NUM_CORNERS && cornerStates[cornerLoc] == 0) {
+            int owner = getOwner(color, false);
+            boolean connected = false;
+            for (int roadLoc : CORNER_ROADS[cornerLoc]) {
+                connected |= owner != 0 && roadOwners[roadLoc] == owner;
             }
-            if (playerSettlementMap.get(color) == null) {
-                playerSettlementMap.put(color, new ArrayList<Integer>());
+            if (!connected) {
+                for (int adjacentCornerLoc : CORNER_CORNERS[cornerLoc]) {
+                    if (cornerStates[adjacentCornerLoc] != 0) {
+                        return ActionStatus.DISTANCE_RULE;//Report the distance rule first, as tryPlaceSettlement() does
+                    }
+                }
+                return ActionStatus.NOT_CONNECTED;
             }
-            playerSettlementMap.get(color).add(cornerLoc);
         }
+        return tryPlaceSettlement(cornerLoc, color);
+    }
+
+    /**
+     * Removes the settlement (or city) at the specified location, undoing
+     * placeSettlement().
+     * @param cornerLoc the location of the settlement
+     * @throws IllegalArgumentException if there is no settlement at the
+     *                                  specified location
+     */
+    public void removeSettlement(int cornerLoc) {
+        if (cornerStates[cornerLoc] == 0) {
+            throw new IllegalArgumentException("Cannot remove a nonexistent settlement");
+        }
+        if ((cornerStates[cornerLoc] & CITY) != 0) {
+            downgradeCity(cornerLoc);
+        }
+        incomeTracker.removeSettlement(cornerLoc);
+        cornerStates[cornerLoc] = 0;
+        occupiedCorners &= ~(1L << cornerLoc);
     }
 
     /**
      * Returns a list of the locations of the settlements and cities that the player of the
-     * specified color has on the board. Returns null if a player of the
-     * specified color does not exist.
+     * specified color has on the board, in order of location. Returns null if
+     * the player of the specified color has not placed a settlement.
      * @param color the color of the player whose settlement and city locations will be
      *              returned
      * @return a list of the locations of settlements and cities on the board belonging to
      * the player of the specified color
      */
     public ArrayList<Integer> getSettlementLocs(String color) {
-        try {
-            return new ArrayList<Integer>(playerSettlementMap.get(color));
-        } catch (NullPointerException exception) {
+        int owner = getOwner(color, false);
+        if (owner == 0 || (settlementOwners & (1L << owner)) == 0) {
             return null;
         }
+        ArrayList<Integer> settlementLocs = new ArrayList<Integer>();
+        for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+            if ((cornerStates[cornerLoc] & OWNER_MASK) == owner) {
+                settlementLocs.add(cornerLoc);
+            }
+        }
+        return settlementLocs;
     }
 
     /**
@@ -143,15 +297,49 @@ public class Board {
      *                          already at the specified location
      */
     public void upgradeSettlement(int cornerLoc) {
-        if (cornerLoc < 0 || cornerLoc >= cornerMap.length) {
-            throw new IndexOutOfBoundsException("Invalid corner location");
-        } else if (!cornerMap[cornerLoc].hasSettlement()) {
-            throw new IllegalArgumentException("Cannot upgrade a nonexistent settlement");
-        } else if (cornerMap[cornerLoc].hasCity()) {
-            throw new IllegalArgumentException("Cannot upgrade a city");
-        } else {
-            cornerMap[cornerLoc].upgradeSettlement();
+        switch (tryUpgradeSettlement(cornerLoc)) {
+            case ActionStatus.INVALID_LOCATION:
+                throw new IndexOutOfBoundsException("Invalid corner location");
+            case ActionStatus.NO_SETTLEMENT:
+                throw new IllegalArgumentException("Cannot upgrade a nonexistent settlement");
+            case ActionStatus.ALREADY_CITY:
+                throw new IllegalArgumentException("Cannot upgrade a city");
+        }
+    }
+
+    /**
+     * Upgrades the settlement at the specified location to a city if there
+     * is a settlement there that is not already a city.
+     * @param cornerLoc the location of the settlement
+     * @return ActionStatus.OK if the settlement was upgraded, otherwise
+     * INVALID_LOCATION, NO_SETTLEMENT or ALREADY_CITY
+     */
+    public int tryUpgradeSettlement(int cornerLoc) {
+        if (cornerLoc < 0 || cornerLoc >= NUM_CORNERS) {
+            return ActionStatus.INVALID_LOCATION;
+        } else if (cornerStates[cornerLoc] == 0) {
+            return ActionStatus.NO_SETTLEMENT;
+        } else if ((cornerStates[cornerLoc] & CITY) != 0) {
+            return ActionStatus.ALREADY_CITY;
+        }
+        cornerStates[cornerLoc] |= CITY;
+        incomeTracker.upgradeSettlement(cornerLoc);
+        return ActionStatus.OK;
+    }
+
+    /**
+     * Turns the city at the specified location back into a settlement,
+     * undoing upgradeSettlement().
+     * @param cornerLoc the location of the city
+     * @throws IllegalArgumentException if there is no city at the specified
+     *                                  location
+     */
+    public void downgradeCity(int cornerLoc) {
+        if ((cornerStates[cornerLoc] & CITY) == 0) {
+            throw new IllegalArgumentException("Cannot downgrade a nonexistent city");
         }
+        cornerStates[cornerLoc] &= ~CITY;
+        incomeTracker.downgradeCity(cornerLoc);
     }
 
     /**
@@ -159,7 +347,7 @@ public class Board {
      * @return the total number of road locations on the board
      */
     public int getNumRoadLocs() {
-        return roadMap.length;
+        return NUM_ROADS;
     }
 
     /**
@@ -168,23 +356,30 @@ public class Board {
      * @return the road at the specified location
      */
     public Road getRoad(int roadLoc) {
-        return new Road(roadMap[roadLoc]);
+        return new Road(ROAD_ROADS[roadLoc], ROAD_CORNERS[roadLoc], getOwnerColor(roadOwners[roadLoc]));
     }
 
     /**
      * Returns the locations of all the roads that the player of the specified
-     * color has placed (or null if there is no player with the specified color).
+     * color has placed, in order of location (or null if the player has not
+     * placed a road).
      * @param playerColor the color of the player whose road locations are to be
      *                    returned
      * @return the locations of all the roads that the player of the specified
-     * color has placed (or null if there is no player with the specified color)
+     * color has placed (or null if the player has not placed a road)
      */
     public ArrayList<Integer> getRoadLocs(String playerColor) {
-        if (playerRoadMap.get(playerColor) == null) {
+        int owner = getOwner(playerColor, false);
+        if (owner == 0 || (roadOwnersPlaced & (1L << owner)) == 0) {
             return null;
-        } else {
-            return new ArrayList<Integer>(playerRoadMap.get(playerColor));
         }
+        ArrayList<Integer> roadLocs = new ArrayList<Integer>();
+        for (int roadLoc = 0; roadLoc < NUM_ROADS; roadLoc++) {
+            if (roadOwners[roadLoc] == owner) {
+                roadLocs.add(roadLoc);
+            }
+        }
+        return roadLocs;
     }
 
     /**
@@ -196,17 +391,80 @@ public class Board {
      * @throws IllegalArgumentException if a road has already been placed at the specified location
      */
     public void addRoad(int roadLoc, String color) {
-        if (roadLoc < 0 || roadLoc >= roadMap.length) {
-            throw new IndexOutOfBoundsException("Invalid road location");
-        } else if (roadMap[roadLoc].getColor() != null) {//There is already a road at the specified location
-            throw new IllegalArgumentException("Two roads cannot occupy the same location");
-        } else {
-            roadMap[roadLoc].setColor(color);
-            if (playerRoadMap.get(color) == null) {
-                playerRoadMap.put(color, new ArrayList<Integer>());
+        switch (tryAddRoad(roadLoc, color)) {
+            case ActionStatus.INVALID_LOCATION:
+                throw new IndexOutOfBoundsException("Invalid road location");
+            case ActionStatus.OCCUPIED:
+                throw new IllegalArgumentException("Two roads cannot occupy the same location");
+        }
+    }
+
+    /**
+     * Adds a road of the specified color at the specified location if there
+     * is not already a road there.
+     * @param roadLoc the location of the new road
+     * @param color   the color of the new road
+     * @return ActionStatus.OK if the road was added, otherwise
+     * INVALID_LOCATION or OCCUPIED
+     */
+    public int tryAddRoad(int roadLoc, String color) {
+        if (roadLoc < 0 || roadLoc >= NUM_ROADS) {
+            return ActionStatus.INVALID_LOCATION;
+        } else if (roadOwners[roadLoc] != 0) {//There is already a road at the specified location
+            return ActionStatus.OCCUPIED;
+        }
+        int owner = getOwner(color, true);
+        roadOwners[roadLoc] = (byte) owner;
+        roadOwnersPlaced |= 1L << owner;
+        return ActionStatus.OK;
+    }
+
+    /**
+     * Removes the road at the specified location, undoing addRoad().
+     * @param roadLoc the location of the road
+     * @throws IllegalArgumentException if there is no road at the specified
+     *                                  location
+     */
+    public void removeRoad(int roadLoc) {
+        if (roadOwners[roadLoc] == 0) {
+            throw new IllegalArgumentException("Cannot remove a nonexistent road");
+        }
+        roadOwners[roadLoc] = 0;
+    }
+
+    /**
+     * Adds a road of the specified color at the specified location if it
+     * could be built during a turn: the location must be empty, and one of
+     * its ends must be the player's settlement or meet one of the player's
+     * roads at a corner without another player's settlement.
+     * @param roadLoc the location of the new road
+     * @param color   the color of the new road
+     * @return ActionStatus.OK if the road was added, otherwise
+     * INVALID_LOCATION, OCCUPIED or NOT_CONNECTED
+     */
+    public int tryBuildRoad(int roadLoc, String color) {
+        if (roadLoc < 0 || roadLoc >= NUM_ROADS) {
+            return ActionStatus.INVALID_LOCATION;
+        } else if (roadOwners[roadLoc] != 0) {
+            return ActionStatus.OCCUPIED;
+        }
+        int owner = getOwner(color, false);
+        if (owner == 0) {//The player has no pieces to connect to
+            return ActionStatus.NOT_CONNECTED;
+        }
+        for (int cornerLoc : ROAD_CORNERS[roadLoc]) {
+            int cornerOwner = cornerStates[cornerLoc] & OWNER_MASK;
+            if (cornerOwner == owner) {
+                return tryAddRoad(roadLoc, color);
+            } else if (cornerOwner == 0) {
+                for (int adjacentRoadLoc : CORNER_ROADS[cornerLoc]) {
+                    if (roadOwners[adjacentRoadLoc] == owner) {
+                        return tryAddRoad(roadLoc, color);
+                    }
+                }
             }
-            playerRoadMap.get(color).add(roadLoc);
         }
+        return ActionStatus.NOT_CONNECTED;
     }
 
     /**
@@ -218,55 +476,63 @@ public class Board {
      * the specified locations
      */
     public int calcLongestRoadLength(String playerColor) {
-        ArrayList<Integer> visited = new ArrayList<Integer>(playerRoadMap.get(playerColor).size());
+        int owner = getOwner(playerColor, false);
+        boolean[] visited = new boolean[NUM_ROADS];
         int longestRoadLength = 0;
-        for (int start : playerRoadMap.get(playerColor)) {
-            visited.add(start);
-            int tempLength = calcLongestRoadLengthHelper(start, playerRoadMap.get(playerColor), visited);
-            if (tempLength > longestRoadLength) {
-                longestRoadLength = tempLength;
+        for (int start = 0; start < NUM_ROADS; start++) {
+            if (owner != 0 && roadOwners[start] == owner) {
+                visited[start] = true;
+                int tempLength = calcLongestRoadLengthHelper(start, owner, visited);
+                if (tempLength > longestRoadLength) {
+                    longestRoadLength = tempLength;
+                }
+                visited[start] = false;
             }
-            visited.remove(new Integer(start));
         }
         return longestRoadLength;
     }
 
     /**
-     * Recursive method that explores every possible path using the specified
-     * locations and starting from the specified location that does not include
-     * any locations in the specified list of locations that have already been
-     * visited. Returns the length of the longest path found.
-     * @param start    the starting location
-     * @param roadLocs the locations that can be (or already have been) visited
-     * @param visited  the locations that have already been visited
+     * Recursive method that explores every possible path of the specified
+     * owner's roads starting from the specified location that does not
+     * include any locations that have already been visited. Returns the
+     * length of the longest path found.
+     * @param start   the starting location
+     * @param owner   the owner of the roads (see OWNER_MASK)
+     * @param visited whether each location has already been visited
      * @return the length of the longest path
      */
-    private int calcLongestRoadLengthHelper(int start, Collection<Integer> roadLocs, Collection<Integer> visited) {
+    private int calcLongestRoadLengthHelper(int start, int owner, boolean[] visited) {
         int currentLength = 0;
-        for (int adjacentRoadLoc : roadMap[start].getAdjacentRoadLocs()) {
-            if (roadLocs.contains(adjacentRoadLoc) && !visited.contains(adjacentRoadLoc)) {
+        for (int adjacentRoadLoc : ROAD_ROADS[start]) {
+            if (roadOwners[adjacentRoadLoc] == owner && !visited[adjacentRoadLoc]) {
                 //Make sure there isn't another player's settlement between the road at start and the next road
-                outerLoop:
-                for (int adjacentCornerLocA : roadMap[start].getAdjacentCornerLocs()) {
-                    for (int adjacentCornerLocB : roadMap[adjacentRoadLoc].getAdjacentCornerLocs()) {
-                        if (adjacentCornerLocA == adjacentCornerLocB) {
-                            if (!cornerMap[adjacentCornerLocA].hasSettlement() || cornerMap[adjacentCornerLocA].getSettlementColor().equals(roadMap[start].getColor())) {
-                                visited.add(adjacentRoadLoc);
-                                int tempLength = calcLongestRoadLengthHelper(adjacentRoadLoc, roadLocs, visited);
-                                if (tempLength > currentLength) {
-                                    currentLength = tempLength;
-                                }
-                                visited.remove(adjacentRoadLoc);
-                            }
-                            break outerLoop;
-                        }
+                int cornerOwner = cornerStates[getSharedCornerLoc(start, adjacentRoadLoc)] & OWNER_MASK;
+                if (cornerOwner == 0 || cornerOwner == owner) {
+                    visited[adjacentRoadLoc] = true;
+                    int tempLength = calcLongestRoadLengthHelper(adjacentRoadLoc, owner, visited);
+                    if (tempLength > currentLength) {
+                        currentLength = tempLength;
                     }
+                    visited[adjacentRoadLoc] = false;
                 }
             }
         }
         return currentLength + 1;
     }
 
+    /**
+     * Returns the location of the corner where the two specified (adjacent)
+     * roads meet.
+     * @param roadLocA the location of one road
+     * @param roadLocB the location of the other road
+     * @return the location of the corner the roads share
+     */
+    private static int getSharedCornerLoc(int roadLocA, int roadLocB) {
+        int[] cornerLocs = ROAD_CORNERS[roadLocA];
+        return cornerLocs[0] == ROAD_CORNERS[roadLocB][0] || cornerLocs[0] == ROAD_CORNERS[roadLocB][1] ? cornerLocs[0] : cornerLocs[1];
+    }
+
     /**
      * Returns the location of the tile that the robber currently occupies.
      * @return the location of the tile that the robber currently occupies
@@ -283,110 +549,98 @@ public class Board {
         tileMap[robberLoc].setRobberStatus(false);
         robberLoc = tileLoc;
         tileMap[robberLoc].setRobberStatus(true);
+        incomeTracker.moveRobber(tileLoc);
     }
 
     /**
-     * Constructs a default set of tiles and adds each of them to a random
-     * location on the board, and then constructs a default set of number tokens
-     * and adds each of them to a tile. The tile to which a number token is
-     * added is chosen semi-randomly (see rulebook for details).
+     * Returns the tracker of how many resource cards each player receives on
+     * each roll. The tracker is kept up to date as the board changes.
+     * @return the tracker of each player's income
      */
-    private void buildTileMap() {
-        //Construct a default set of tiles
-        tileMap = new Tile[19];
-        ArrayList<Tile> defaultTileList = new ArrayList<Tile>(tileMap.length);
-        String[] nonDesertTerrains = {Tile.HILLS, Tile.FIELDS, Tile.FORREST, Tile.MOUNTAINS, Tile.PASTURE};
-        for (String terrain : nonDesertTerrains) {
-            for (int j = 0; j < 3; j++) {
-                defaultTileList.add(new Tile(terrain));
-            }
-        }
-        defaultTileList.add(new Tile(Tile.FIELDS));
-        defaultTileList.add(new Tile(Tile.FORREST));
-        defaultTileList.add(new Tile(Tile.PASTURE));
-        defaultTileList.add(new Tile(Tile.DESERT, true));
-        //Put each tile on the board in a random location
-        Collections.shuffle(defaultTileList);
-        tileMap = defaultTileList.toArray(tileMap);
-        //Construct the number token map
-        numberTokenMap = new HashMap<Integer, LinkedList<Tile>>();
-        for (int i = 2; i < 7; i++) {
-            numberTokenMap.put(i, new LinkedList<Tile>());
-            numberTokenMap.put(i + 6, new LinkedList<Tile>());
-        }
-        //Determine the order in which the number tokens will be added to the board
-        LinkedList<NumberToken> numberTokens = new LinkedList<NumberToken>();
-        for (int i = 0; i < NumberToken.NUMBERS.length; i++) {
-            numberTokens.add(new NumberToken(NumberToken.NUMBERS[i], (char) (i + 65)));
-        }
-        int[] outerTileLocs = {0, 3, 7, 12, 16, 17, 18, 15, 11, 6, 2, 1};
-        int[] innerTileLocs = {4, 8, 13, 14, 10, 5};
-        int startingOuterIndex, startingInnerIndex;
-        int startingPoint = (int) (Math.random() * 4);//Randomly pick a corner to start in
-        if (startingPoint == 0) {
-            startingOuterIndex = 0;
-            startingInnerIndex = 0;
-        } else if (startingPoint == 1) {
-            startingOuterIndex = 10;
-            startingInnerIndex = 5;
-        } else if (startingPoint == 2) {
-            startingOuterIndex = 4;
-            startingInnerIndex = 2;
-        } else { //startingPoint == 3
-            startingOuterIndex = 6;
-            startingInnerIndex = 3;
-        }
-        //Add number tokens to the outer tiles
-        for (int i = startingOuterIndex; i < outerTileLocs.length; i++) {
-            if (tileMap[outerTileLocs[i]].hasRobber()) {
-                robberLoc = outerTileLocs[i];
-            } else {
-                tileMap[outerTileLocs[i]].setNumberToken(numberTokens.getFirst());
-                numberTokenMap.get(numberTokens.removeFirst().getNumber()).add(tileMap[outerTileLocs[i]]);
+    public IncomeTracker getIncomeTracker() {
+        return incomeTracker;
+    }
+
+    /**
+     * Returns the owner of pieces of the specified color: its index in the
+     * colors that have placed pieces, plus one. Returns 0 if the color has
+     * not placed a piece, unless add is true, in which case the color is
+     * added.
+     * @param color the color
+     * @param add   whether to add the color if it has not placed a piece
+     * @return the owner of pieces of the color, or 0
+     * @throws IllegalArgumentException if there are too many colors to add
+     *                                  another
+     */
+    private int getOwner(String color, boolean add) {
+        for (int i = 0; i < numColors; i++) {
+            if (colors[i].equals(color)) {
+                return i + 1;
             }
         }
-        for (int i = 0; i < startingOuterIndex; i++) {
-            if (tileMap[outerTileLocs[i]].hasRobber()) {
-                robberLoc = outerTileLocs[i];
-            } else {
-                tileMap[outerTileLocs[i]].setNumberToken(numberTokens.getFirst());
-                numberTokenMap.get(numberTokens.removeFirst().getNumber()).add(tileMap[outerTileLocs[i]]);
-            }
+        if (!add) {
+            return 0;
+        } else if (color == null || numColors == OWNER_MASK) {
+            throw new IllegalArgumentException("Invalid color");
         }
-        //Add number tokens to the inner tiles
-        for (int i = startingInnerIndex; i < innerTileLocs.length; i++) {
-            if (tileMap[innerTileLocs[i]].hasRobber()) {
-                robberLoc = innerTileLocs[i];
-            } else {
-                tileMap[innerTileLocs[i]].setNumberToken(numberTokens.getFirst());
-                numberTokenMap.get(numberTokens.removeFirst().getNumber()).add(tileMap[innerTileLocs[i]]);
-            }
+        if (numColors == colors.length) {
+            colors = Arrays.copyOf(colors, 2 * colors.length);
         }
-        for (int i = 0; i < startingInnerIndex; i++) {
-            if (tileMap[innerTileLocs[i]].hasRobber()) {
-                robberLoc = innerTileLocs[i];
+        colors[numColors++] = color;
+        return numColors;
+    }
+
+    /**
+     * Returns the color of the owner in the specified corner or road state.
+     * @param state the state of a corner or road
+     * @return the color of the owner (or null if the state is empty)
+     */
+    private String getOwnerColor(int state) {
+        int owner = state & OWNER_MASK;
+        return owner == 0 ? null : colors[owner - 1];
+    }
+
+    /**
+     * Constructs a tile for each tile location in the specified layout, gives
+     * each tile its number token, and places the robber on the desert.
+     * @param layout the terrain and number token of each tile
+     */
+    private void buildTileMap(BoardLayout layout) {
+        tileMap = new Tile[BoardLayout.NUM_TILES];
+        for (int tileLoc = 0; tileLoc < tileMap.length; tileLoc++) {
+            if (tileLoc == layout.getDesertLoc()) {
+                tileMap[tileLoc] = new Tile(Tile.DESERT, true);
+                robberLoc = tileLoc;
             } else {
-                tileMap[innerTileLocs[i]].setNumberToken(numberTokens.getFirst());
-                numberTokenMap.get(numberTokens.removeFirst().getNumber()).add(tileMap[innerTileLocs[i]]);
+                tileMap[tileLoc] = new Tile(layout.getTerrain(tileLoc));
+                tileMap[tileLoc].setNumberToken(new NumberToken(layout.getNumber(tileLoc), layout.getNumberTokenLetter(tileLoc)));
             }
         }
-        //Add a number token to the center tile
-        final int CENTER_TILE_INDEX = 9;
-        if (tileMap[CENTER_TILE_INDEX].hasRobber()) {
-            robberLoc = CENTER_TILE_INDEX;
-        } else {
-            tileMap[CENTER_TILE_INDEX].setNumberToken(numberTokens.getFirst());
-            numberTokenMap.get(numberTokens.removeFirst().getNumber()).add(tileMap[CENTER_TILE_INDEX]);
+    }
+
+    /**
+     * Copies the specified list of locations into an array.
+     * @param locs the locations
+     * @return an array of the locations
+     */
+    private static int[] toIntArray(List<Integer> locs) {
+        int[] array = new int[locs.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = locs.get(i);
         }
+        return array;
     }
 
     /**
      * Constructs the corner map and gives various attributes to specific
-     * corners in order to reflect the corners on Settlers of Catan board.
+     * corners in order to reflect the corners on Settlers of Catan board. The
+     * corners do not depend on the tiles, so the map can also be built without
+     * a board (see BoardGenerator).
+     * @return the corner map
      */
-    private void buildCornerMap() {
+    static Corner[] buildCornerMap() {
         //Construct the cornerMap
-        cornerMap = new Corner[54];
+        Corner[] cornerMap = new Corner[NUM_CORNERS];
         for (int i = 0; i < cornerMap.length; i++) {
             cornerMap[i] = new Corner();
         }
@@ -495,15 +749,19 @@ public class Board {
         cornerMap[27].setHarbor(GameController.HARBOR_TYPE_ANY);
         cornerMap[7].setHarbor(GameController.GRAIN);
         cornerMap[8].setHarbor(GameController.GRAIN);
+        return cornerMap;
     }
 
     /**
-     * Constructs the road map and adds the appropriate adjacent locations to
-     * each road.
+     * Constructs the road map, adds the appropriate adjacent locations to
+     * each road, and adds the adjacent road locations to the specified
+     * corners.
+     * @param cornerMap the corner map (see buildCornerMap())
+     * @return the road map
      */
-    private void buildRoadMap() {
+    private static Road[] buildRoadMap(Corner[] cornerMap) {
         //Construct the roadMap
-        roadMap = new Road[72];
+        Road[] roadMap = new Road[NUM_ROADS];
         for (int i = 0; i < roadMap.length; i++) {
             roadMap[i] = new Road();
         }
@@ -621,5 +879,6 @@ public class Board {
                 cornerMap[adjacentCornerLoc].addAdjacentRoadLoc(roadLoc);
             }
         }
+        return roadMap;
     }
 }
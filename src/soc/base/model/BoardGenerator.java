@@ -0,0 +1,475 @@
+package soc.base.model;
+
+import soc.base.GameController;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates random board layouts and scores how balanced they are, without
+ * constructing a Board for each one. Each candidate is shuffled into the same
+ * pair of byte arrays and scored against tables of the board's geometry that
+ * are built once, so a worker thread allocates nothing unless it finds a
+ * layout worth keeping. The work is split between one worker per processor.
+ * <p>
+ * A layout's imbalance is a weighted sum of how unevenly the pips are spread
+ * between the resources, how many 6s and 8s are next to each other, how
+ * unevenly the pips are spread between the corners, and how much of each
+ * resource is next to its own 2:1 harbor (lower is more balanced).
+ * @author Connor Barnes
+ */
+public class BoardGenerator {
+    //Weights of each part of the imbalance
+    private static final float RESOURCE_SPREAD_WEIGHT = 4f;
+    private static final float RED_PAIR_WEIGHT = 3f;
+    private static final float CORNER_SPREAD_WEIGHT = 1f;
+    private static final float HARBOR_SYNERGY_WEIGHT = 0.25f;
+    private static final int CANDIDATES_PER_CHECK = 1024;//How often a worker checks whether enough layouts have been found
+
+    //The default set of tiles (values are indexes in Tile.TERRAIN_TYPES)
+    private static final byte[] DEFAULT_TERRAINS = {0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 4, 4, 4, 4, BoardLayout.DESERT};
+    private static final int[] RESOURCE_NUM_TILES;//Index is the terrain
+    //The order in which number tokens are placed from each starting point (see rulebook)
+    private static final int[][] SPIRALS;
+    //Pips (number of ways to roll the number) of each number token in NumberToken.NUMBERS
+    private static final int[] TOKEN_PIPS;
+    private static final boolean[] TOKEN_IS_RED;
+    private static final float MEAN_PIPS;//Average pips per non-desert tile
+    //Geometry of the board
+    private static final int[] INNER_CORNER_TILES;      //The three tiles around each corner that touches three tiles, flattened
+    private static final int[] ADJACENT_TILES_A, ADJACENT_TILES_B;//Each pair of adjacent tiles
+    private static final int[] HARBOR_TERRAINS;         //The terrain that produces the resource of each 2:1 harbor
+    private static final int[] HARBOR_TILE_MASKS;       //Bit tileLoc is set if the tile touches the harbor
+
+    static {
+        RESOURCE_NUM_TILES = new int[Tile.TERRAIN_TYPES.length];
+        for (byte terrain : DEFAULT_TERRAINS) {
+            RESOURCE_NUM_TILES[terrain]++;
+        }
+        int[] outerTileLocs = {0, 3, 7, 12, 16, 17, 18, 15, 11, 6, 2, 1};
+        int[] innerTileLocs = {4, 8, 13, 14, 10, 5};
+        int[] startingOuterIndexes = {0, 10, 4, 6};
+        int[] startingInnerIndexes = {0, 5, 2, 3};
+        final int CENTER_TILE_INDEX = 9;
+        SPIRALS = new int[BoardLayout.NUM_STARTING_POINTS][BoardLayout.NUM_TILES];
+        for (int startingPoint = 0; startingPoint < SPIRALS.length; startingPoint++) {
+            int index = 0;
+            for (int i = 0; i < outerTileLocs.length; i++) {
+                SPIRALS[startingPoint][index++] = outerTileLocs[(startingOuterIndexes[startingPoint] + i) % outerTileLocs.length];
+            }
+            for (int i = 0; i < innerTileLocs.length; i++) {
+                SPIRALS[startingPoint][index++] = innerTileLocs[(startingInnerIndexes[startingPoint] + i) % innerTileLocs.length];
+            }
+            SPIRALS[startingPoint][index] = CENTER_TILE_INDEX;
+        }
+        TOKEN_PIPS = new int[NumberToken.NUMBERS.length];
+        TOKEN_IS_RED = new boolean[NumberToken.NUMBERS.length];
+        int totalPips = 0;
+        for (int token = 0; token < NumberToken.NUMBERS.length; token++) {
+            TOKEN_PIPS[token] = 6 - Math.abs(7 - NumberToken.NUMBERS[token]);
+            TOKEN_IS_RED[token] = NumberToken.NUMBERS[token] == 6 || NumberToken.NUMBERS[token] == 8;
+            totalPips += TOKEN_PIPS[token];
+        }
+        MEAN_PIPS = (float) totalPips / NumberToken.NUMBERS.length;
+        //Read the geometry from the corners of a board
+        Corner[] corners = Board.buildCornerMap();
+        ArrayList<Integer> innerCornerTiles = new ArrayList<Integer>();
+        boolean[][] adjacent = new boolean[BoardLayout.NUM_TILES][BoardLayout.NUM_TILES];
+        HashMap<String, Integer> harborTileMasks = new HashMap<String, Integer>();
+        for (Corner corner : corners) {
+            List<Integer> tileLocs = corner.getAdjacentTileLocs();
+            if (tileLocs.size() == 3) {
+                innerCornerTiles.addAll(tileLocs);
+            }
+            for (int tileLoc : tileLocs) {
+                for (int otherTileLoc : tileLocs) {
+                    adjacent[tileLoc][otherTileLoc] = tileLoc != otherTileLoc;
+                }
+            }
+            if (corner.hasHarbor() && !corner.getHarbor().equals(GameController.HARBOR_TYPE_ANY)) {
+                int mask = harborTileMasks.containsKey(corner.getHarbor()) ? harborTileMasks.get(corner.getHarbor()) : 0;
+                for (int tileLoc : tileLocs) {
+                    mask |= 1 << tileLoc;
+                }
+                harborTileMasks.put(corner.getHarbor(), mask);
+            }
+        }
+        INNER_CORNER_TILES = toIntArray(innerCornerTiles);
+        ArrayList<Integer> adjacentA = new ArrayList<Integer>(), adjacentB = new ArrayList<Integer>();
+        for (int tileLoc = 0; tileLoc < BoardLayout.NUM_TILES; tileLoc++) {
+            for (int otherTileLoc = tileLoc + 1; otherTileLoc < BoardLayout.NUM_TILES; otherTileLoc++) {
+                if (adjacent[tileLoc][otherTileLoc]) {
+                    adjacentA.add(tileLoc);
+                    adjacentB.add(otherTileLoc);
+                }
+            }
+        }
+        ADJACENT_TILES_A = toIntArray(adjacentA);
+        ADJACENT_TILES_B = toIntArray(adjacentB);
+        HARBOR_TERRAINS = new int[harborTileMasks.size()];
+        HARBOR_TILE_MASKS = new int[harborTileMasks.size()];
+        int harbor = 0;
+        for (Map.Entry<String, Integer> entry : harborTileMasks.entrySet()) {
+            HARBOR_TERRAINS[harbor] = Arrays.asList(GameController.RESOURCE_TYPES).indexOf(entry.getKey());
+            HARBOR_TILE_MASKS[harbor] = entry.getValue();
+            harbor++;
+        }
+    }
+
+    private final long seed;
+    private final int numThreads;
+
+    /**
+     * Constructs a generator that uses one thread per available processor.
+     */
+    public BoardGenerator() {
+        this(System.nanoTime(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a generator with the specified seed that uses the specified
+     * number of threads. Searches with the same seed and number of threads
+     * always consider the same layouts.
+     * @param seed       the seed of the random number generators
+     * @param numThreads the number of threads to generate layouts on
+     * @throws IllegalArgumentException if the number of threads is not
+     *                                  positive
+     */
+    public BoardGenerator(long seed, int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("There must be at least one thread");
+        }
+        this.seed = seed;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Returns a random layout, shuffled the same way as a physical board.
+     * @param random the random number generator to shuffle with
+     * @return a random layout
+     */
+    public static BoardLayout randomLayout(Random random) {
+        byte[] terrains = new byte[BoardLayout.NUM_TILES];
+        int startingPoint = shuffle(random, terrains);
+        return new BoardLayout(terrains, startingPoint);
+    }
+
+    /**
+     * Generates the specified number of random layouts and returns the k most
+     * balanced of them, most balanced first.
+     * @param k             the number of layouts to return
+     * @param numCandidates the number of layouts to generate
+     * @return the k most balanced layouts that were generated
+     * @throws IllegalArgumentException if k is not positive
+     */
+    public List<BoardLayout> getMostBalanced(final int k, long numCandidates) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        ArrayList<Callable<List<BoardLayout>>> workers = new ArrayList<Callable<List<BoardLayout>>>(numThreads);
+        for (int worker = 0; worker < numThreads; worker++) {
+            final long workerSeed = getWorkerSeed(worker);
+            final long workerCandidates = getWorkerCandidates(worker, numCandidates);
+            workers.add(new Callable<List<BoardLayout>>() {
+                @Override
+                public List<BoardLayout> call() {
+                    Random random = new Random(workerSeed);
+                    Scorer scorer = new Scorer();
+                    byte[] terrains = new byte[BoardLayout.NUM_TILES], tokens = new byte[BoardLayout.NUM_TILES];
+                    PriorityQueue<BoardLayout> best = new PriorityQueue<BoardLayout>(k + 1, Collections.reverseOrder(BY_IMBALANCE));//Least balanced first
+                    for (long i = 0; i < workerCandidates; i++) {
+                        int startingPoint = shuffle(random, terrains);
+                        layNumberTokens(terrains, startingPoint, tokens);
+                        float imbalance = scorer.score(terrains, tokens);
+                        if (best.size() < k || imbalance < best.peek().getImbalance()) {
+                            best.add(new BoardLayout(terrains, startingPoint));
+                            if (best.size() > k) {
+                                best.remove();
+                            }
+                        }
+                    }
+                    return new ArrayList<BoardLayout>(best);
+                }
+            });
+        }
+        List<BoardLayout> layouts = runWorkers(workers);
+        Collections.sort(layouts, BY_IMBALANCE);
+        return new ArrayList<BoardLayout>(layouts.subList(0, Math.min(k, layouts.size())));
+    }
+
+    /**
+     * Generates random layouts until the specified number of layouts whose
+     * imbalance is within the specified band have been found (or the maximum
+     * number of layouts have been generated) and returns them in the order
+     * they were found by each thread.
+     * @param minImbalance  the smallest imbalance a layout can have
+     * @param maxImbalance  the largest imbalance a layout can have
+     * @param count         the number of layouts to find
+     * @param maxCandidates the largest number of layouts to generate
+     * @return up to count layouts within the specified band
+     * @throws IllegalArgumentException if the band is empty or the count is
+     *                                  not positive
+     */
+    public List<BoardLayout> getWithinBand(final float minImbalance, final float maxImbalance, final int count, long maxCandidates) {
+        if (minImbalance > maxImbalance) {
+            throw new IllegalArgumentException("The band is empty");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("The count must be positive");
+        }
+        final AtomicInteger numFound = new AtomicInteger(0);
+        ArrayList<Callable<List<BoardLayout>>> workers = new ArrayList<Callable<List<BoardLayout>>>(numThreads);
+        for (int worker = 0; worker < numThreads; worker++) {
+            final long workerSeed = getWorkerSeed(worker);
+            final long workerCandidates = getWorkerCandidates(worker, maxCandidates);
+            workers.add(new Callable<List<BoardLayout>>() {
+                @Override
+                public List<BoardLayout> call() {
+                    Random random = new Random(workerSeed);
+                    Scorer scorer = new Scorer();
+                    byte[] terrains = new byte[BoardLayout.NUM_TILES], tokens = new byte[BoardLayout.NUM_TILES];
+                    ArrayList<BoardLayout> found = new ArrayList<BoardLayout>();
+                    for (long i = 0; i < workerCandidates; i++) {
+                        if (i % CANDIDATES_PER_CHECK == 0 && numFound.get() >= count) {
+                            break;//Other threads found the rest
+                        }
+                        int startingPoint = shuffle(random, terrains);
+                        layNumberTokens(terrains, startingPoint, tokens);
+                        float imbalance = scorer.score(terrains, tokens);
+                        if (imbalance >= minImbalance && imbalance <= maxImbalance) {
+                            if (numFound.incrementAndGet() > count) {
+                                break;
+                            }
+                            found.add(new BoardLayout(terrains, startingPoint));
+                        }
+                    }
+                    return found;
+                }
+            });
+        }
+        return runWorkers(workers);
+    }
+
+    /**
+     * Returns true if the specified terrains are the default set of tiles (in
+     * any order); otherwise false.
+     * @param terrains the index (in Tile.TERRAIN_TYPES) of the terrain of each
+     *                 tile
+     * @return true if the specified terrains are the default set of tiles
+     */
+    static boolean isDefaultTileSet(byte[] terrains) {
+        if (terrains.length != BoardLayout.NUM_TILES) {
+            return false;
+        }
+        int[] numTiles = new int[Tile.TERRAIN_TYPES.length];
+        for (byte terrain : terrains) {
+            if (terrain < 0 || terrain >= numTiles.length) {
+                return false;
+            }
+            numTiles[terrain]++;
+        }
+        return Arrays.equals(numTiles, RESOURCE_NUM_TILES);
+    }
+
+    /**
+     * Places the number tokens on the specified terrains, starting from the
+     * specified corner of the board and skipping the desert (see rulebook).
+     * @param terrains      the index (in Tile.TERRAIN_TYPES) of the terrain of
+     *                      each tile
+     * @param startingPoint the corner of the board that the number tokens
+     *                      start from
+     * @param tokens        set to the index (in NumberToken.NUMBERS) of the
+     *                      number token on each tile (-1 for the desert)
+     */
+    static void layNumberTokens(byte[] terrains, int startingPoint, byte[] tokens) {
+        int[] spiral = SPIRALS[startingPoint];
+        byte token = 0;
+        for (int tileLoc : spiral) {
+            tokens[tileLoc] = terrains[tileLoc] == BoardLayout.DESERT ? -1 : token++;
+        }
+    }
+
+    /**
+     * Shuffles the default set of tiles into the specified array and picks a
+     * random starting point for the number tokens.
+     * @param random   the random number generator to shuffle with
+     * @param terrains set to the index (in Tile.TERRAIN_TYPES) of the terrain
+     *                 of each tile
+     * @return the corner of the board that the number tokens start from
+     */
+    private static int shuffle(Random random, byte[] terrains) {
+        System.arraycopy(DEFAULT_TERRAINS, 0, terrains, 0, DEFAULT_TERRAINS.length);
+        for (int i = terrains.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte temp = terrains[i];
+            terrains[i] = terrains[j];
+            terrains[j] = temp;
+        }
+        return random.nextInt(BoardLayout.NUM_STARTING_POINTS);
+    }
+
+    /**
+     * Returns the seed of the random number generator of the specified worker.
+     * @param worker the index of the worker
+     * @return the seed of the worker's random number generator
+     */
+    private long getWorkerSeed(int worker) {
+        return seed + worker * 0x9E3779B97F4A7C15L;//Spread the seeds out so the workers' sequences do not overlap
+    }
+
+    /**
+     * Returns the number of layouts the specified worker should generate.
+     * @param worker        the index of the worker
+     * @param numCandidates the number of layouts to generate in total
+     * @return the number of layouts the worker should generate
+     */
+    private long getWorkerCandidates(int worker, long numCandidates) {
+        return numCandidates / numThreads + (worker < numCandidates % numThreads ? 1 : 0);
+    }
+
+    /**
+     * Runs each of the specified workers on its own thread and returns every
+     * layout they return.
+     * @param workers the workers to run
+     * @return every layout returned by the workers
+     * @throws RuntimeException if a worker throws an exception or the calling
+     *                          thread is interrupted while waiting
+     */
+    private List<BoardLayout> runWorkers(List<Callable<List<BoardLayout>>> workers) {
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            ArrayList<BoardLayout> layouts = new ArrayList<BoardLayout>();
+            for (Future<List<BoardLayout>> result : executor.invokeAll(workers)) {
+                layouts.addAll(result.get());
+            }
+            return layouts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating layouts", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the elements of the specified list in an array.
+     * @param list the list to copy
+     * @return an array of the elements of the list
+     */
+    private static int[] toIntArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private static final Comparator<BoardLayout> BY_IMBALANCE = new Comparator<BoardLayout>() {
+        @Override
+        public int compare(BoardLayout layout1, BoardLayout layout2) {
+            return Float.compare(layout1.getImbalance(), layout2.getImbalance());
+        }
+    };
+
+    /**
+     * Scores layouts. Keeps the parts of the last score and reuses its scratch
+     * arrays, so each thread needs its own scorer.
+     */
+    static class Scorer {
+        private final int[] tilePips = new int[BoardLayout.NUM_TILES];
+        private final boolean[] tileIsRed = new boolean[BoardLayout.NUM_TILES];
+        private final int[] resourcePips = new int[Tile.TERRAIN_TYPES.length];
+        private float resourceSpread, cornerSpread;
+        private int numAdjacentRedPairs, harborSynergy;
+
+        /**
+         * Returns the imbalance of the specified layout.
+         * @param terrains the index (in Tile.TERRAIN_TYPES) of the terrain of
+         *                 each tile
+         * @param tokens   the index (in NumberToken.NUMBERS) of the number
+         *                 token on each tile (-1 for the desert)
+         * @return the imbalance of the layout
+         */
+        float score(byte[] terrains, byte[] tokens) {
+            Arrays.fill(resourcePips, 0);
+            for (int tileLoc = 0; tileLoc < BoardLayout.NUM_TILES; tileLoc++) {
+                int token = tokens[tileLoc];
+                tilePips[tileLoc] = token < 0 ? 0 : TOKEN_PIPS[token];
+                tileIsRed[tileLoc] = token >= 0 && TOKEN_IS_RED[token];
+                resourcePips[terrains[tileLoc]] += tilePips[tileLoc];
+            }
+            //Pips per resource
+            resourceSpread = 0;
+            for (int terrain = 0; terrain < BoardLayout.DESERT; terrain++) {
+                resourceSpread += Math.abs((float) resourcePips[terrain] / RESOURCE_NUM_TILES[terrain] - MEAN_PIPS);
+            }
+            //Adjacent 6s and 8s
+            numAdjacentRedPairs = 0;
+            for (int pair = 0; pair < ADJACENT_TILES_A.length; pair++) {
+                if (tileIsRed[ADJACENT_TILES_A[pair]] && tileIsRed[ADJACENT_TILES_B[pair]]) {
+                    numAdjacentRedPairs++;
+                }
+            }
+            //Pips per corner
+            int sum = 0, sumOfSquares = 0;
+            for (int i = 0; i < INNER_CORNER_TILES.length; i += 3) {
+                int cornerPips = tilePips[INNER_CORNER_TILES[i]] + tilePips[INNER_CORNER_TILES[i + 1]] + tilePips[INNER_CORNER_TILES[i + 2]];
+                sum += cornerPips;
+                sumOfSquares += cornerPips * cornerPips;
+            }
+            int numCorners = INNER_CORNER_TILES.length / 3;
+            cornerSpread = (float) Math.sqrt(numCorners * sumOfSquares - sum * sum) / numCorners;
+            //Production next to a matching 2:1 harbor
+            harborSynergy = 0;
+            for (int harbor = 0; harbor < HARBOR_TILE_MASKS.length; harbor++) {
+                for (int mask = HARBOR_TILE_MASKS[harbor]; mask != 0; mask &= mask - 1) {
+                    int tileLoc = Integer.numberOfTrailingZeros(mask);
+                    if (terrains[tileLoc] == HARBOR_TERRAINS[harbor]) {
+                        harborSynergy += tilePips[tileLoc];
+                    }
+                }
+            }
+            return RESOURCE_SPREAD_WEIGHT * resourceSpread + RED_PAIR_WEIGHT * numAdjacentRedPairs
+                    + CORNER_SPREAD_WEIGHT * cornerSpread + HARBOR_SYNERGY_WEIGHT * harborSynergy;
+        }
+
+        /**
+         * Returns the resource spread of the last layout that was scored.
+         * @return the resource spread of the last layout that was scored
+         */
+        float getResourceSpread() {
+            return resourceSpread;
+        }
+
+        /**
+         * Returns the corner spread of the last layout that was scored.
+         * @return the corner spread of the last layout that was scored
+         */
+        float getCornerSpread() {
+            return cornerSpread;
+        }
+
+        /**
+         * Returns the number of adjacent red pairs in the last layout that was
+         * scored.
+         * @return the number of adjacent red pairs in the last layout
+         */
+        int getNumAdjacentRedPairs() {
+            return numAdjacentRedPairs;
+        }
+
+        /**
+         * Returns the harbor synergy of the last layout that was scored.
+         * @return the harbor synergy of the last layout that was scored
+         */
+        int getHarborSynergy() {
+            return harborSynergy;
+        }
+    }
+}
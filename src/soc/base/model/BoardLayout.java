@@ -0,0 +1,195 @@
+package soc.base.model;
+
+import java.util.Arrays;
+
+/**
+ * A compact description of where the tiles and number tokens go on a board,
+ * along with how fairly the layout spreads out production. A layout is fully
+ * determined by the terrain of each tile and the corner of the board that the
+ * number tokens start from (see rulebook), so it can also be packed into a
+ * single long. A Board can be constructed from any layout.
+ * @author Connor Barnes
+ */
+public class BoardLayout {
+    public static final int NUM_TILES = 19;
+    public static final int NUM_STARTING_POINTS = 4;
+    static final int DESERT = 5;//Index of Tile.DESERT in Tile.TERRAIN_TYPES
+    private static final int TERRAIN_BITS = 3;
+
+    private final byte[] terrains;//Index is the tile location, value is the index of the terrain in Tile.TERRAIN_TYPES
+    private final byte[] tokens;  //Index is the tile location, value is the index of the number token in NumberToken.NUMBERS (-1 for the desert)
+    private final int startingPoint;
+    private final int desertLoc;
+    private final float imbalance, resourceSpread, cornerSpread;
+    private final int numAdjacentRedPairs, harborSynergy;
+
+    /**
+     * Constructs the layout with the specified terrains whose number tokens
+     * are placed starting from the specified corner of the board.
+     * @param terrains      the index (in Tile.TERRAIN_TYPES) of the terrain of
+     *                      each tile
+     * @param startingPoint the corner of the board that the number tokens
+     *                      start from (0 to NUM_STARTING_POINTS - 1)
+     * @throws IllegalArgumentException if the terrains are not the default set
+     *                                  of tiles or the starting point is not
+     *                                  valid
+     */
+    public BoardLayout(byte[] terrains, int startingPoint) {
+        if (!BoardGenerator.isDefaultTileSet(terrains)) {
+            throw new IllegalArgumentException("The terrains must be the default set of tiles");
+        }
+        if (startingPoint < 0 || startingPoint >= NUM_STARTING_POINTS) {
+            throw new IllegalArgumentException("Invalid starting point: " + startingPoint);
+        }
+        this.terrains = terrains.clone();
+        this.startingPoint = startingPoint;
+        tokens = new byte[NUM_TILES];
+        BoardGenerator.layNumberTokens(this.terrains, startingPoint, tokens);
+        int desert = -1;
+        for (int tileLoc = 0; tileLoc < NUM_TILES; tileLoc++) {
+            if (this.terrains[tileLoc] == DESERT) {
+                desert = tileLoc;
+            }
+        }
+        desertLoc = desert;
+        BoardGenerator.Scorer scorer = new BoardGenerator.Scorer();
+        imbalance = scorer.score(this.terrains, tokens);
+        resourceSpread = scorer.getResourceSpread();
+        cornerSpread = scorer.getCornerSpread();
+        numAdjacentRedPairs = scorer.getNumAdjacentRedPairs();
+        harborSynergy = scorer.getHarborSynergy();
+    }
+
+    /**
+     * Returns the layout that was packed into the specified long by toLong().
+     * @param packedLayout the packed layout
+     * @return the layout that was packed into the specified long
+     * @throws IllegalArgumentException if the long is not a packed layout
+     */
+    public static BoardLayout fromLong(long packedLayout) {
+        byte[] terrains = new byte[NUM_TILES];
+        for (int tileLoc = 0; tileLoc < NUM_TILES; tileLoc++) {
+            terrains[tileLoc] = (byte) ((packedLayout >>> (tileLoc * TERRAIN_BITS)) & ((1 << TERRAIN_BITS) - 1));
+        }
+        return new BoardLayout(terrains, (int) (packedLayout >>> (NUM_TILES * TERRAIN_BITS)));
+    }
+
+    /**
+     * Packs this layout into a long (3 bits for the terrain of each tile,
+     * followed by the starting point of the number tokens).
+     * @return this layout packed into a long
+     */
+    public long toLong() {
+        long packedLayout = (long) startingPoint << (NUM_TILES * TERRAIN_BITS);
+        for (int tileLoc = 0; tileLoc < NUM_TILES; tileLoc++) {
+            packedLayout |= (long) terrains[tileLoc] << (tileLoc * TERRAIN_BITS);
+        }
+        return packedLayout;
+    }
+
+    /**
+     * Returns the terrain of the tile at the specified location.
+     * @param tileLoc the location of the tile
+     * @return the terrain of the tile at the specified location
+     */
+    public String getTerrain(int tileLoc) {
+        return Tile.TERRAIN_TYPES[terrains[tileLoc]];
+    }
+
+    /**
+     * Returns the number on the number token of the tile at the specified
+     * location (or zero if the tile is the desert).
+     * @param tileLoc the location of the tile
+     * @return the number on the tile's number token
+     */
+    public int getNumber(int tileLoc) {
+        return tokens[tileLoc] < 0 ? 0 : NumberToken.NUMBERS[tokens[tileLoc]];
+    }
+
+    /**
+     * Returns the letter on the number token of the tile at the specified
+     * location (or a space if the tile is the desert).
+     * @param tileLoc the location of the tile
+     * @return the letter on the tile's number token
+     */
+    public char getNumberTokenLetter(int tileLoc) {
+        return tokens[tileLoc] < 0 ? ' ' : (char) (tokens[tileLoc] + 65);
+    }
+
+    /**
+     * Returns the location of the desert (where the robber starts).
+     * @return the location of the desert
+     */
+    public int getDesertLoc() {
+        return desertLoc;
+    }
+
+    /**
+     * Returns the corner of the board that the number tokens start from.
+     * @return the corner of the board that the number tokens start from
+     */
+    public int getStartingPoint() {
+        return startingPoint;
+    }
+
+    /**
+     * Returns how unbalanced this layout is. Zero would be perfectly balanced;
+     * a typical random board scores around 14. See BoardGenerator for how the
+     * score is weighted.
+     * @return how unbalanced this layout is
+     */
+    public float getImbalance() {
+        return imbalance;
+    }
+
+    /**
+     * Returns the total difference between the average number of pips on the
+     * tiles of each resource and the average number of pips on every tile.
+     * @return how unevenly the pips are spread between the resources
+     */
+    public float getResourceSpread() {
+        return resourceSpread;
+    }
+
+    /**
+     * Returns the number of pairs of adjacent tiles that both have a 6 or an
+     * 8.
+     * @return the number of pairs of adjacent red number tokens
+     */
+    public int getNumAdjacentRedPairs() {
+        return numAdjacentRedPairs;
+    }
+
+    /**
+     * Returns the standard deviation of the number of pips around each corner
+     * that touches three tiles.
+     * @return how unevenly the pips are spread between the corners
+     */
+    public float getCornerSpread() {
+        return cornerSpread;
+    }
+
+    /**
+     * Returns the total number of pips on tiles next to a 2:1 harbor that
+     * produce the harbor's resource.
+     * @return how much production is next to a matching 2:1 harbor
+     */
+    public int getHarborSynergy() {
+        return harborSynergy;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof BoardLayout)) {
+            return false;
+        }
+        BoardLayout layout = (BoardLayout) object;
+        return startingPoint == layout.startingPoint && Arrays.equals(terrains, layout.terrains);
+    }
+
+    @Override
+    public int hashCode() {
+        long packedLayout = toLong();
+        return (int) (packedLayout ^ (packedLayout >>> 32));
+    }
+}
@@ -2,27 +2,32 @@ package soc.base.model;
 
 import soc.base.GameController;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 
 /**
- * Represents a corner of a tile on the Settlers of Catan board.
+ * Represents a corner of a tile on the Settlers of Catan board. The Board
+ * keeps its corners in flat arrays and builds a Corner when one is asked
+ * for, so changing a Corner does not change the board.
  * @author Connor Barnes
  */
 public class Corner {
-    private Settlement settlement;//null means the corner is unoccupied
+    private String settlementColor;//null means the corner is unoccupied
+    private boolean city;//true means the settlement is a city
     private String harbor;//null means this corner has no harbor
     private int[] adjacentCornerLocs;//Used when checking for adjacent settlements when adding a settlement
-    private LinkedList<Integer> adjacentRoadLocs, adjacentTileLocs;
+    private int[] adjacentRoadLocs, adjacentTileLocs;
 
     /**
      * Constructs an empty corner.
      */
     public Corner() {
-        settlement = new Settlement();
+        settlementColor = null;
+        city = false;
         harbor = null;
         adjacentCornerLocs = null;
-        adjacentTileLocs = new LinkedList<Integer>();
-        adjacentRoadLocs = new LinkedList<Integer>();
+        adjacentTileLocs = new int[0];
+        adjacentRoadLocs = new int[0];
     }
 
     /**
@@ -30,12 +35,34 @@ public class Corner {
      * @param corner the corner to copy
      */
     public Corner(Corner corner) {
-        settlement = new Settlement(corner.settlement);
+        settlementColor = corner.settlementColor;
+        city = corner.city;
         harbor = corner.harbor;
-        adjacentCornerLocs = new int[corner.adjacentCornerLocs.length];
-        System.arraycopy(corner.adjacentCornerLocs, 0, adjacentCornerLocs, 0, corner.adjacentCornerLocs.length);
-        adjacentTileLocs = new LinkedList<Integer>(corner.adjacentTileLocs);
-        adjacentRoadLocs = new LinkedList<Integer>(corner.adjacentRoadLocs);
+        adjacentCornerLocs = Arrays.copyOf(corner.adjacentCornerLocs, corner.adjacentCornerLocs.length);
+        adjacentTileLocs = Arrays.copyOf(corner.adjacentTileLocs, corner.adjacentTileLocs.length);
+        adjacentRoadLocs = Arrays.copyOf(corner.adjacentRoadLocs, corner.adjacentRoadLocs.length);
+    }
+
+    /**
+     * Constructs a corner with the specified adjacent locations, harbor and
+     * settlement. The arrays are shared, not copied (every getter returns a
+     * copy), so the Board can pass in its own tables.
+     * @param adjacentCornerLocs the locations of the adjacent corners
+     * @param adjacentRoadLocs   the locations of the adjacent roads
+     * @param adjacentTileLocs   the locations of the adjacent tiles
+     * @param harbor             the harbor adjacent to the corner (or null)
+     * @param settlementColor    the color of the settlement on the corner (or
+     *                           null)
+     * @param city               whether the settlement is a city
+     */
+    Corner(int[] adjacentCornerLocs, int[] adjacentRoadLocs, int[] adjacentTileLocs, String harbor, String settlementColor,
+           boolean city) {
+        this.adjacentCornerLocs = adjacentCornerLocs;
+        this.adjacentRoadLocs = adjacentRoadLocs;
+        this.adjacentTileLocs = adjacentTileLocs;
+        this.harbor = harbor;
+        this.settlementColor = settlementColor;
+        this.city = city;
     }
 
     /**
@@ -64,7 +91,8 @@ public class Corner {
      * @param roadLoc the location to add to the list
      */
     public void addAdjacentRoadLoc(int roadLoc) {
-        adjacentRoadLocs.add(roadLoc);
+        adjacentRoadLocs = Arrays.copyOf(adjacentRoadLocs, adjacentRoadLocs.length + 1);
+        adjacentRoadLocs[adjacentRoadLocs.length - 1] = roadLoc;
     }
 
     /**
@@ -72,7 +100,7 @@ public class Corner {
      * @return the list of the locations of adjacent roads
      */
     public LinkedList<Integer> getAdjacentRoadLocs() {
-        return new LinkedList<Integer>(adjacentRoadLocs);
+        return toList(adjacentRoadLocs);
     }
 
     /**
@@ -80,7 +108,8 @@ public class Corner {
      * @param tileLoc the location to add to the list
      */
     public void addAdjacentTileLoc(int tileLoc) {
-        adjacentTileLocs.add(tileLoc);
+        adjacentTileLocs = Arrays.copyOf(adjacentTileLocs, adjacentTileLocs.length + 1);
+        adjacentTileLocs[adjacentTileLocs.length - 1] = tileLoc;
     }
 
     /**
@@ -88,7 +117,7 @@ public class Corner {
      * @return the list of the locations of adjacent tiles
      */
     public LinkedList<Integer> getAdjacentTileLocs() {
-        return new LinkedList<Integer>(adjacentTileLocs);
+        return toList(adjacentTileLocs);
     }
 
     /**
@@ -96,7 +125,7 @@ public class Corner {
      * @param color the color of the settlement
      */
     public void addSettlement(String color) {
-        settlement.color = color;
+        settlementColor = color;
     }
 
     /**
@@ -106,7 +135,7 @@ public class Corner {
      * such token exists)
      */
     public String getSettlementColor() {
-        return settlement.color;
+        return settlementColor;
     }
 
     /**
@@ -116,14 +145,29 @@ public class Corner {
      * returns false
      */
     public boolean hasSettlement() {
-        return settlement.color != null;
+        return settlementColor != null;
     }
 
     /**
      * Upgrades the settlement on this corner to a city.
      */
     public void upgradeSettlement() {
-        settlement.isCity = true;
+        city = true;
+    }
+
+    /**
+     * Turns the city on this corner back into a settlement.
+     */
+    public void downgradeCity() {
+        city = false;
+    }
+
+    /**
+     * Removes the settlement (or city) on this corner.
+     */
+    public void removeSettlement() {
+        settlementColor = null;
+        city = false;
     }
 
     /**
@@ -133,7 +177,7 @@ public class Corner {
      * false
      */
     public boolean hasCity() {
-        return settlement.isCity;
+        return city;
     }
 
     /**
@@ -176,27 +220,15 @@ public class Corner {
     }
 
     /**
-     * Represents a settlement or a city.
+     * Copies the specified locations into a list.
+     * @param locs the locations
+     * @return a list of the locations
      */
-    private class Settlement {
-        private String color;//The player that owns this settlement
-        private boolean isCity;//true means this is a city, false means this is a settlement
-
-        /**
-         * Creates a new settlement without a color.
-         */
-        private Settlement() {
-            color = null;
-            isCity = false;
-        }
-
-        /**
-         * Creates a deep copy of the specified Settlement.
-         * @param settlement the Settlement to copy
-         */
-        private Settlement(Settlement settlement) {
-            color = settlement.color;
-            isCity = settlement.isCity;
+    private static LinkedList<Integer> toList(int[] locs) {
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        for (int loc : locs) {
+            list.add(loc);
         }
+        return list;
     }
 }
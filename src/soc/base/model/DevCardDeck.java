@@ -0,0 +1,211 @@
+package soc.base.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * The deck of development cards. Each card is stored as the index of its
+ * type in CARD_TYPES, so the whole deck is an array of 25 bytes and a cursor
+ * that points to the next card to be drawn. The number of cards of each type
+ * left in the deck is kept up to date as cards are drawn.
+ * <p>
+ * Copying a deck only copies those arrays, and the cards that have not been
+ * drawn yet can be reshuffled in place, so a search can cheaply try out
+ * different orders of the cards no player has seen.
+ * @author Connor Barnes
+ */
+public class DevCardDeck {
+    public static final String[] CARD_TYPES = {DevelopmentCard.KNIGHT, DevelopmentCard.MONOPOLY,
+            DevelopmentCard.ROAD_BUILDING, DevelopmentCard.YEAR_OF_PLENTY, DevelopmentCard.CHAPEL,
+            DevelopmentCard.LIBRARY, DevelopmentCard.MARKET, DevelopmentCard.PALACE, DevelopmentCard.UNIVERSITY};
+    public static final int KNIGHT = 0;
+    public static final int MONOPOLY = 1;
+    public static final int ROAD_BUILDING = 2;
+    public static final int YEAR_OF_PLENTY = 3;
+    public static final int FIRST_VICTORY_POINT = 4;//Every type from here on is a victory point card
+    public static final int SIZE = 25;
+    private static final int[] NUM_CARDS = {14, 2, 2, 2, 1, 1, 1, 1, 1};//Index matches CARD_TYPES
+
+    private final byte[] cards;//Index is the position in the deck, value is the index of the card's type
+    private final int[] numRemaining;//Index is the index of the card type
+    private int cursor;//Position of the next card to be drawn
+
+    /**
+     * Constructs a full deck shuffled with a new random number generator.
+     */
+    public DevCardDeck() {
+        this(new Random());
+    }
+
+    /**
+     * Constructs a full deck shuffled with the specified random number
+     * generator.
+     * @param random the random number generator used to shuffle the deck
+     */
+    public DevCardDeck(Random random) {
+        cards = new byte[SIZE];
+        numRemaining = NUM_CARDS.clone();
+        int position = 0;
+        for (int type = 0; type < NUM_CARDS.length; type++) {
+            for (int i = 0; i < NUM_CARDS[type]; i++) {
+                cards[position++] = (byte) type;
+            }
+        }
+        cursor = 0;
+        shuffleRemaining(random);
+    }
+
+    /**
+     * Constructs a copy of the specified deck, including which cards have
+     * already been drawn.
+     * @param deck the deck to copy
+     */
+    public DevCardDeck(DevCardDeck deck) {
+        cards = deck.cards.clone();
+        numRemaining = deck.numRemaining.clone();
+        cursor = deck.cursor;
+    }
+
+    /**
+     * Returns true if every card has been drawn.
+     * @return true if every card has been drawn
+     */
+    public boolean isEmpty() {
+        return cursor == SIZE;
+    }
+
+    /**
+     * Returns the number of cards left in the deck.
+     * @return the number of cards left in the deck
+     */
+    public int size() {
+        return SIZE - cursor;
+    }
+
+    /**
+     * Returns the type of the next card without drawing it.
+     * @return the index of the next card's type in CARD_TYPES
+     * @throws IllegalStateException if the deck is empty
+     */
+    public int peek() {
+        if (isEmpty()) {
+            throw new IllegalStateException("There are no more development cards in the deck");
+        }
+        return cards[cursor];
+    }
+
+    /**
+     * Draws the next card.
+     * @return the index of the card's type in CARD_TYPES
+     * @throws IllegalStateException if the deck is empty
+     */
+    public int draw() {
+        int type = peek();
+        cursor++;
+        numRemaining[type]--;
+        return type;
+    }
+
+    /**
+     * Puts the last card drawn back on top of the deck, undoing draw().
+     * @return the index of the card's type in CARD_TYPES
+     * @throws IllegalStateException if no cards have been drawn
+     */
+    public int undraw() {
+        if (cursor == 0) {
+            throw new IllegalStateException("No development cards have been drawn");
+        }
+        int type = cards[--cursor];
+        numRemaining[type]++;
+        return type;
+    }
+
+    /**
+     * Returns the number of cards of the specified type left in the deck.
+     * @param type the index of the card type in CARD_TYPES
+     * @return the number of cards of the type left in the deck
+     */
+    public int getNumRemaining(int type) {
+        return numRemaining[type];
+    }
+
+    /**
+     * Shuffles the cards that have not been drawn yet, leaving the drawn
+     * cards where they are.
+     * @param random the random number generator used to shuffle the cards
+     */
+    public void shuffleRemaining(Random random) {
+        for (int i = SIZE - 1; i > cursor; i--) {
+            int j = cursor + random.nextInt(i - cursor + 1);
+            byte temp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = temp;
+        }
+    }
+
+    /**
+     * Writes the order of the cards and how many have been drawn to the
+     * specified output (SIZE + 1 bytes).
+     * @param out the output
+     * @throws IOException if the output throws one
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.write(cards);
+        out.writeByte(cursor);
+    }
+
+    /**
+     * Replaces the cards in this deck with the ones written by writeTo(),
+     * including which cards have already been drawn.
+     * @param in the input
+     * @throws IOException              if the input throws one
+     * @throws IllegalArgumentException if the input does not hold a full
+     *                                  deck
+     */
+    public void readFrom(DataInput in) throws IOException {
+        byte[] newCards = new byte[SIZE];
+        in.readFully(newCards);
+        int newCursor = in.readUnsignedByte();
+        int[] numCards = new int[NUM_CARDS.length];
+        for (byte type : newCards) {
+            if (type < 0 || type >= NUM_CARDS.length || ++numCards[type] > NUM_CARDS[type]) {
+                throw new IllegalArgumentException("Not a full deck of development cards");
+            }
+        }
+        if (newCursor > SIZE) {
+            throw new IllegalArgumentException("Invalid number of cards drawn: " + newCursor);
+        }
+        System.arraycopy(newCards, 0, cards, 0, SIZE);
+        cursor = newCursor;
+        System.arraycopy(NUM_CARDS, 0, numRemaining, 0, NUM_CARDS.length);
+        for (int position = 0; position < cursor; position++) {
+            numRemaining[cards[position]]--;
+        }
+    }
+
+    /**
+     * Returns the title of the specified type of card.
+     * @param type the index of the card type in CARD_TYPES
+     * @return the title of the card type
+     */
+    public static String getTitle(int type) {
+        return CARD_TYPES[type];
+    }
+
+    /**
+     * Returns the index in CARD_TYPES of the card with the specified title.
+     * @param title the title of the card
+     * @return the index of the card type
+     * @throws IllegalArgumentException if no card has the title
+     */
+    public static int getType(String title) {
+        for (int type = 0; type < CARD_TYPES.length; type++) {
+            if (CARD_TYPES[type].equals(title)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Not a development card: " + title);
+    }
+}
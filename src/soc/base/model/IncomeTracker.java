@@ -0,0 +1,269 @@
+package soc.base.model;
+
+import soc.base.GameController;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps track of how many resource cards each player receives on each roll of
+ * the dice. The Board updates the tracker whenever a settlement is placed, a
+ * settlement is upgraded to a city, or the robber moves, and only the tiles
+ * and corners touched by the change are visited. Reading a player's income
+ * (by resource, by roll, or in total) never searches the board.
+ * <p>
+ * Resources are identified by their index in GameController.RESOURCE_TYPES.
+ * @author Connor Barnes
+ */
+public class IncomeTracker {
+    public static final int NUM_RESOURCES = GameController.RESOURCE_TYPES.length;
+    public static final int MAX_ROLL = 12;
+    private static final int NUM_OUTCOMES = 36;//Number of ways two dice can land
+
+    private final int[] tileNumbers;     //Index is the tile location, 0 for the desert
+    private final int[] tileResources;   //Index is the tile location, -1 for the desert
+    private final int[][] tileCorners;   //Index is the tile location, values are the corners around the tile
+    private final int[][] cornerTiles;   //Index is the corner location, values are the tiles around the corner
+    private final Income[] cornerOwners; //Index is the corner location, null if there is no settlement or city
+    private final int[] cornerMultipliers;//Index is the corner location, 1 for a settlement and 2 for a city
+    private final HashMap<String, Income> incomeMap;//Key is player color
+    private int robberLoc;
+
+    /**
+     * Constructs a tracker for a board with the specified tiles and layout,
+     * none of whose corners have settlements on them yet. The layout tables
+     * are shared with the board, not copied.
+     * @param tileMap     the tiles on the board
+     * @param cornerTiles the locations of the tiles around each corner
+     * @param tileCorners the locations of the corners around each tile
+     * @param robberLoc   the location of the tile the robber starts on
+     */
+    IncomeTracker(Tile[] tileMap, int[][] cornerTiles, int[][] tileCorners, int robberLoc) {
+        List<String> resourceTypes = Arrays.asList(GameController.RESOURCE_TYPES);
+        tileNumbers = new int[tileMap.length];
+        tileResources = new int[tileMap.length];
+        for (int tileLoc = 0; tileLoc < tileMap.length; tileLoc++) {
+            tileResources[tileLoc] = resourceTypes.indexOf(tileMap[tileLoc].getResourceProduced());
+            tileNumbers[tileLoc] = tileResources[tileLoc] < 0 ? 0 : tileMap[tileLoc].getNumberToken();
+        }
+        this.cornerTiles = cornerTiles;
+        this.tileCorners = tileCorners;
+        cornerOwners = new Income[cornerTiles.length];
+        cornerMultipliers = new int[cornerTiles.length];
+        incomeMap = new HashMap<String, Income>();
+        this.robberLoc = robberLoc;
+    }
+
+    /**
+     * Returns the income of the player of the specified color. The returned
+     * object is updated as the board changes, so callers can keep it.
+     * @param color the color of the player
+     * @return the income of the player of the specified color
+     */
+    public Income getIncome(String color) {
+        Income income = incomeMap.get(color);
+        if (income == null) {
+            income = new Income(tileNumbers.length);
+            incomeMap.put(color, income);
+        }
+        return income;
+    }
+
+    /**
+     * Adds the income of a new settlement of the specified color at the
+     * specified location.
+     * @param cornerLoc the location of the settlement
+     * @param color     the color of the settlement
+     */
+    void addSettlement(int cornerLoc, String color) {
+        cornerOwners[cornerLoc] = getIncome(color);
+        cornerMultipliers[cornerLoc] = 1;
+        addCorner(cornerLoc, 1);
+    }
+
+    /**
+     * Adds the extra income of the city that replaced the settlement at the
+     * specified location.
+     * @param cornerLoc the location of the city
+     */
+    void upgradeSettlement(int cornerLoc) {
+        cornerMultipliers[cornerLoc] = 2;
+        addCorner(cornerLoc, 1);//The city gets one more card than the settlement did
+    }
+
+    /**
+     * Removes the income of the settlement (or city) at the specified
+     * location.
+     * @param cornerLoc the location of the settlement
+     */
+    void removeSettlement(int cornerLoc) {
+        addCorner(cornerLoc, -cornerMultipliers[cornerLoc]);
+        cornerOwners[cornerLoc] = null;
+        cornerMultipliers[cornerLoc] = 0;
+    }
+
+    /**
+     * Removes the extra income of the city at the specified location that
+     * was turned back into a settlement.
+     * @param cornerLoc the location of the settlement
+     */
+    void downgradeCity(int cornerLoc) {
+        cornerMultipliers[cornerLoc] = 1;
+        addCorner(cornerLoc, -1);
+    }
+
+    /**
+     * Removes the income of the tile the robber moved to and restores the
+     * income of the tile it left.
+     * @param tileLoc the location of the tile the robber moved to
+     */
+    void moveRobber(int tileLoc) {
+        int oldRobberLoc = robberLoc;
+        robberLoc = -1;//Neither tile is blocked while their income is updated
+        addTile(oldRobberLoc, 1);
+        addTile(tileLoc, -1);
+        robberLoc = tileLoc;
+    }
+
+    /**
+     * Adds the specified number of cards per production to the owner of the
+     * specified corner from each tile around it. Tiles blocked by the robber
+     * are recorded but do not add to the owner's income.
+     * @param cornerLoc the location of the corner
+     * @param numCards  the number of cards to add (negative to remove)
+     */
+    private void addCorner(int cornerLoc, int numCards) {
+        for (int tileLoc : cornerTiles[cornerLoc]) {
+            cornerOwners[cornerLoc].tileCards[tileLoc] += numCards;
+            if (tileLoc != robberLoc && tileResources[tileLoc] >= 0) {
+                cornerOwners[cornerLoc].add(tileNumbers[tileLoc], tileResources[tileLoc], numCards);
+            }
+        }
+    }
+
+    /**
+     * Adds the production of the specified tile to the owner of each
+     * settlement and city around it.
+     * @param tileLoc the location of the tile
+     * @param sign    1 to add the production, -1 to remove it
+     */
+    private void addTile(int tileLoc, int sign) {
+        if (tileResources[tileLoc] < 0) {
+            return;//The desert produces nothing
+        }
+        for (int cornerLoc : tileCorners[tileLoc]) {
+            if (cornerOwners[cornerLoc] != null) {//tileCards does not change, since it ignores the robber
+                cornerOwners[cornerLoc].add(tileNumbers[tileLoc], tileResources[tileLoc], sign * cornerMultipliers[cornerLoc]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of ways to roll the specified number with two dice.
+     * @param roll the number rolled
+     * @return the number of ways to roll the number
+     */
+    public static int getPips(int roll) {
+        return roll < 2 || roll > MAX_ROLL ? 0 : 6 - Math.abs(7 - roll);
+    }
+
+    /**
+     * The income of one player.
+     */
+    public static class Income {
+        private final int[] numCards;    //Index is roll * NUM_RESOURCES + resource
+        private final int[] resourcePips;//Index is the resource, value is the sum of pips times cards
+        private final int[] tileCards;   //Index is the tile location, value is the cards received when the tile produces (even if the robber is on it)
+        private int totalPips;
+
+        /**
+         * Constructs an empty income.
+         * @param numTiles the number of tiles on the board
+         */
+        private Income(int numTiles) {
+            numCards = new int[(MAX_ROLL + 1) * NUM_RESOURCES];
+            resourcePips = new int[NUM_RESOURCES];
+            tileCards = new int[numTiles];
+            totalPips = 0;
+        }
+
+        /**
+         * Returns the number of cards of the specified resource the player
+         * receives when the specified number is rolled.
+         * @param roll     the number rolled
+         * @param resource the index of the resource
+         * @return the number of cards of the resource received on the roll
+         */
+        public int getNumCards(int roll, int resource) {
+            return numCards[roll * NUM_RESOURCES + resource];
+        }
+
+        /**
+         * Returns the total number of cards the player receives when the
+         * specified number is rolled.
+         * @param roll the number rolled
+         * @return the number of cards received on the roll
+         */
+        public int getNumCards(int roll) {
+            int sum = 0;
+            for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                sum += numCards[roll * NUM_RESOURCES + resource];
+            }
+            return sum;
+        }
+
+        /**
+         * Returns the expected number of cards of the specified resource the
+         * player receives per roll.
+         * @param resource the index of the resource
+         * @return the expected number of cards of the resource per roll
+         */
+        public float getExpected(int resource) {
+            return (float) resourcePips[resource] / NUM_OUTCOMES;
+        }
+
+        /**
+         * Returns the expected number of cards the player receives per roll.
+         * @return the expected number of cards per roll
+         */
+        public float getExpectedTotal() {
+            return (float) totalPips / NUM_OUTCOMES;
+        }
+
+        /**
+         * Returns the expected number of cards of the specified resource the
+         * player receives per 36 rolls (i.e. as a whole number of pips).
+         * @param resource the index of the resource
+         * @return the expected number of cards of the resource per 36 rolls
+         */
+        public int getPips(int resource) {
+            return resourcePips[resource];
+        }
+
+        /**
+         * Returns the number of cards the player receives when the tile at
+         * the specified location produces, ignoring the robber (i.e. one for
+         * each settlement and two for each city next to the tile).
+         * @param tileLoc the location of the tile
+         * @return the number of cards received from the tile
+         */
+        public int getTileCards(int tileLoc) {
+            return tileCards[tileLoc];
+        }
+
+        /**
+         * Adds the specified number of cards to the income on the specified
+         * roll.
+         * @param roll     the number rolled
+         * @param resource the index of the resource
+         * @param cards    the number of cards to add (negative to remove)
+         */
+        private void add(int roll, int resource, int cards) {
+            numCards[roll * NUM_RESOURCES + resource] += cards;
+            int pips = IncomeTracker.getPips(roll) * cards;
+            resourcePips[resource] += pips;
+            totalPips += pips;
+        }
+    }
+}
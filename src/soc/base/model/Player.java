@@ -14,8 +14,10 @@ public class Player {
     private String color, name;//The color of this player's tokens (i.e. settlements, roads, etc.)
     private int numRemainingSettlements, numRemainingCities, numRemainingRoads;//Number of remaining tokens this player has
     private int[] resourceCards;
-    private ArrayList<DevelopmentCard> devCards;
-    private HashSet<String> harbors;//All types of harbors that this player can access
+    private int[] devCards;   //Index is the card type in DevCardDeck.CARD_TYPES, value is the number held since before this turn
+    private int[] newDevCards;//Index is the card type, value is the number bought this turn (which cannot be played yet)
+    private int sumDevCards, numPlayableDevCards, numVictoryPointCards;
+    private int harborMask;//Bit i is set if this player can access the harbor of GameController.RESOURCE_TYPES[i], bit RESOURCE_TYPES.length for a 3:1 harbor
     private int sumResourceCards, victoryPoints, longestRoadLength, numKnightCardsPlayed;
     private boolean longestRoad, largestArmy;//Whether or not this player has Longest Road or Largest Army, respectively
 
@@ -33,8 +35,12 @@ public class Player {
         numRemainingSettlements = 5;
         numRemainingCities = 4;
         numRemainingRoads = 15;
-        devCards = new ArrayList<DevelopmentCard>();
-        harbors = new HashSet<String>();
+        devCards = new int[DevCardDeck.CARD_TYPES.length];
+        newDevCards = new int[DevCardDeck.CARD_TYPES.length];
+        sumDevCards = 0;
+        numPlayableDevCards = 0;
+        numVictoryPointCards = 0;
+        harborMask = 0;
         victoryPoints = 0;
         longestRoadLength = 0;
         numKnightCardsPlayed = 0;
@@ -57,8 +63,12 @@ public class Player {
         numRemainingSettlements = 5;
         numRemainingCities = 4;
         numRemainingRoads = 15;
-        devCards = new ArrayList<DevelopmentCard>();
-        harbors = new HashSet<String>();
+        devCards = new int[DevCardDeck.CARD_TYPES.length];
+        newDevCards = new int[DevCardDeck.CARD_TYPES.length];
+        sumDevCards = 0;
+        numPlayableDevCards = 0;
+        numVictoryPointCards = 0;
+        harborMask = 0;
         victoryPoints = 0;
         longestRoadLength = 0;
         numKnightCardsPlayed = 0;
@@ -83,8 +93,12 @@ public class Player {
         numRemainingSettlements = 5;
         numRemainingCities = 4;
         numRemainingRoads = 15;
-        devCards = new ArrayList<DevelopmentCard>();
-        harbors = new HashSet<String>();
+        devCards = new int[DevCardDeck.CARD_TYPES.length];
+        newDevCards = new int[DevCardDeck.CARD_TYPES.length];
+        sumDevCards = 0;
+        numPlayableDevCards = 0;
+        numVictoryPointCards = 0;
+        harborMask = 0;
         victoryPoints = 0;
         longestRoadLength = 0;
         numKnightCardsPlayed = 0;
@@ -107,8 +121,12 @@ public class Player {
         numRemainingSettlements = player.numRemainingSettlements;
         numRemainingCities = player.numRemainingCities;
         numRemainingRoads = player.numRemainingRoads;
-        devCards = new ArrayList<DevelopmentCard>(player.devCards);
-        harbors = new HashSet<String>(player.harbors);
+        devCards = player.devCards.clone();
+        newDevCards = player.newDevCards.clone();
+        sumDevCards = player.sumDevCards;
+        numPlayableDevCards = player.numPlayableDevCards;
+        numVictoryPointCards = player.numVictoryPointCards;
+        harborMask = player.harborMask;
         victoryPoints = player.victoryPoints;
         longestRoadLength = player.longestRoadLength;
         numKnightCardsPlayed = player.numKnightCardsPlayed;
@@ -210,28 +228,101 @@ public class Player {
      *                                  cards
      */
     public boolean takeResource(String resource, int amount) {
+        int status = tryTakeResource(resource, amount);
+        if (status == ActionStatus.CANNOT_AFFORD) {
+            throw new IllegalArgumentException("A player cannot have a negative amount of resource cards");
+        }
+        return status == ActionStatus.OK;
+    }
+
+    /**
+     * Takes the specified amount of resource cards of the specified type if
+     * this player has that many.
+     * @param resource the type of resource to take
+     * @param amount   the number of resource cards to take
+     * @return ActionStatus.OK if the cards were removed, otherwise
+     * CANNOT_AFFORD or INVALID_RESOURCE
+     */
+    public int tryTakeResource(String resource, int amount) {
         for (int i = 0; i < GameController.RESOURCE_TYPES.length; i++) {
             if (GameController.RESOURCE_TYPES[i].equals(resource)) {
                 if (resourceCards[i] < amount) {
-                    throw new IllegalArgumentException("A player cannot have a negative amount of resource cards");
-                } else {
-                    resourceCards[i] -= amount;
-                    sumResourceCards -= amount;
-                    return true;
+                    return ActionStatus.CANNOT_AFFORD;
                 }
+                resourceCards[i] -= amount;
+                sumResourceCards -= amount;
+                return ActionStatus.OK;
             }
         }
-        return false;
+        return ActionStatus.INVALID_RESOURCE;
+    }
+
+    /**
+     * Takes the specified number of cards of every resource type if this
+     * player has enough of all of them; otherwise takes none.
+     * @param cost the number of cards of each type to take (index matches
+     *             GameController.RESOURCE_TYPES)
+     * @return ActionStatus.OK if the cards were removed, otherwise
+     * CANNOT_AFFORD
+     */
+    public int tryPay(int[] cost) {
+        for (int i = 0; i < resourceCards.length; i++) {
+            if (resourceCards[i] < cost[i]) {
+                return ActionStatus.CANNOT_AFFORD;
+            }
+        }
+        for (int i = 0; i < resourceCards.length; i++) {
+            resourceCards[i] -= cost[i];
+            sumResourceCards -= cost[i];
+        }
+        return ActionStatus.OK;
     }
 
     /**
-     * Gives the specified development card to the player.
+     * Gives the specified development card to the player. The card can be
+     * played straight away.
      * @param devCard the development card to give to the player
      */
     public void giveDevCard(DevelopmentCard devCard) {
-        devCards.add(devCard);
-        if (devCard.getDescription().equals("1 Victory Point!")) {
-            victoryPoints++;
+        giveDevCard(DevCardDeck.getType(devCard.getTitle()));
+    }
+
+    /**
+     * Gives a development card of the specified type to the player. The card
+     * can be played straight away.
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     */
+    public void giveDevCard(int type) {
+        devCards[type]++;
+        if (type < DevCardDeck.FIRST_VICTORY_POINT) {
+            numPlayableDevCards++;
+        }
+        addDevCard(type, 1);
+    }
+
+    /**
+     * Gives a development card of the specified type that the player just
+     * bought. A victory point card counts straight away, but the card cannot
+     * be played until releaseDevCards() is called at the end of the turn.
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     */
+    public void buyDevCard(int type) {
+        newDevCards[type]++;
+        addDevCard(type, 1);
+    }
+
+    /**
+     * Makes the development cards bought this turn playable. Called at the
+     * end of the player's turn.
+     */
+    public void releaseDevCards() {
+        for (int type = 0; type < devCards.length; type++) {
+            devCards[type] += newDevCards[type];
+            newDevCards[type] = 0;
+        }
+        numPlayableDevCards = 0;
+        for (int type = 0; type < DevCardDeck.FIRST_VICTORY_POINT; type++) {
+            numPlayableDevCards += devCards[type];
         }
     }
 
@@ -239,19 +330,100 @@ public class Player {
      * Takes a development card with the specified title. Updates the number of
      * Knight cards played if necessary.
      * @param title the title of the development card to take
+     * @return true if a playable development card with the specified title
+     * was found; otherwise false
+     * @throws IllegalArgumentException if the title is not a development card
+     */
+    public boolean playDevCard(String title) {
+        return playDevCard(DevCardDeck.getType(title));
+    }
+
+    /**
+     * Takes a development card of the specified type if the player can play
+     * one (see canPlayDevCard()). Updates the number of Knight cards played
+     * if necessary.
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     * @return true if the card was played; otherwise false
+     */
+    public boolean playDevCard(int type) {
+        if (!canPlayDevCard(type)) {
+            return false;
+        }
+        devCards[type]--;
+        numPlayableDevCards--;
+        addDevCard(type, -1);
+        if (type == DevCardDeck.KNIGHT) {
+            numKnightCardsPlayed++;
+        }
+        return true;
+    }
+
+    /**
+     * Takes back the last development card with the specified title that
+     * this player was given, undoing giveDevCard() or buyDevCard().
+     * @param title the title of the development card
      * @return true if a development card with the specified title was found;
      * otherwise false
+     * @throws IllegalArgumentException if the title is not a development card
      */
-    public boolean playDevCard(String title) {
-        for (int i = 0; i < devCards.size(); i++) {
-            if (devCards.get(i).getTitle().equals(title)) {
-                if (devCards.remove(i).getTitle().equals("Knight")) {
-                    numKnightCardsPlayed++;
-                }
-                return true;
+    public boolean removeDevCard(String title) {
+        return removeDevCard(DevCardDeck.getType(title));
+    }
+
+    /**
+     * Takes back a development card of the specified type, undoing
+     * giveDevCard() or buyDevCard(). A card bought this turn is taken first.
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     * @return true if the player had a card of the type; otherwise false
+     */
+    public boolean removeDevCard(int type) {
+        if (newDevCards[type] > 0) {
+            newDevCards[type]--;
+        } else if (devCards[type] > 0) {
+            devCards[type]--;
+            if (type < DevCardDeck.FIRST_VICTORY_POINT) {
+                numPlayableDevCards--;
             }
+        } else {
+            return false;
+        }
+        addDevCard(type, -1);
+        return true;
+    }
+
+    /**
+     * Returns a played development card with the specified title to this
+     * player's hand, undoing playDevCard().
+     * @param title the title of the development card
+     */
+    public void unplayDevCard(String title) {
+        unplayDevCard(DevCardDeck.getType(title));
+    }
+
+    /**
+     * Returns a played development card of the specified type to this
+     * player's hand, undoing playDevCard().
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     */
+    public void unplayDevCard(int type) {
+        giveDevCard(type);
+        if (type == DevCardDeck.KNIGHT) {
+            numKnightCardsPlayed--;
+        }
+    }
+
+    /**
+     * Updates the totals for the specified number of development cards of
+     * the specified type being added to (or taken from) this player's hand.
+     * @param type   the index of the card type in DevCardDeck.CARD_TYPES
+     * @param amount the number of cards added (negative if taken)
+     */
+    private void addDevCard(int type, int amount) {
+        sumDevCards += amount;
+        if (type >= DevCardDeck.FIRST_VICTORY_POINT) {
+            numVictoryPointCards += amount;
+            victoryPoints += amount;
         }
-        return false;
     }
 
     /**
@@ -259,14 +431,38 @@ public class Player {
      * @throws RuntimeException if this player does not have any settlement tokens left to place
      */
     public void placeSettlement() {
-        if (numRemainingSettlements == 0) {
+        if (tryPlaceSettlement() == ActionStatus.NO_PIECES) {
             throw new RuntimeException("This player does not have any settlement tokens left to place");
-        } else {
-            numRemainingSettlements--;
-            victoryPoints++;
         }
     }
 
+    /**
+     * Places one of this player's settlement tokens (and gives them its
+     * victory point) if they have one left.
+     * @return ActionStatus.OK if a token was placed, otherwise NO_PIECES
+     */
+    public int tryPlaceSettlement() {
+        if (numRemainingSettlements == 0) {
+            return ActionStatus.NO_PIECES;
+        }
+        numRemainingSettlements--;
+        victoryPoints++;
+        return ActionStatus.OK;
+    }
+
+    /**
+     * Takes one of this player's settlements off the board, undoing
+     * placeSettlement().
+     * @throws RuntimeException if this player does not have any settlements on the board
+     */
+    public void removeSettlement() {
+        if (numRemainingSettlements == 5) {
+            throw new RuntimeException("This player does not have any settlement tokens on the board");
+        }
+        numRemainingSettlements++;
+        victoryPoints--;
+    }
+
     /**
      * Returns the number of settlement tokens not on the board.
      * @return the number of settlement tokens not on the board
@@ -281,15 +477,40 @@ public class Player {
      * @throws RuntimeException if this player does not have any city tokens left to place
      */
     public void placeCity() {
-        if (numRemainingCities == 0) {
+        if (tryPlaceCity() == ActionStatus.NO_PIECES) {
             throw new RuntimeException("This player does not have any city tokens left to place");
-        } else {
-            numRemainingSettlements++;
-            numRemainingCities--;
-            victoryPoints++;
         }
     }
 
+    /**
+     * Replaces one of this player's settlement tokens with a city token if
+     * they have one left.
+     * @return ActionStatus.OK if a token was placed, otherwise NO_PIECES
+     */
+    public int tryPlaceCity() {
+        if (numRemainingCities == 0) {
+            return ActionStatus.NO_PIECES;
+        }
+        numRemainingSettlements++;
+        numRemainingCities--;
+        victoryPoints++;
+        return ActionStatus.OK;
+    }
+
+    /**
+     * Replaces one of this player's cities with a settlement, undoing
+     * placeCity().
+     * @throws RuntimeException if this player does not have any cities on the board
+     */
+    public void removeCity() {
+        if (numRemainingCities == 4) {
+            throw new RuntimeException("This player does not have any city tokens on the board");
+        }
+        numRemainingSettlements--;
+        numRemainingCities++;
+        victoryPoints--;
+    }
+
     /**
      * Returns the number of city tokens not on the board.
      * @return the number of city tokens not on the board
@@ -303,13 +524,34 @@ public class Player {
      * @throws RuntimeException if this player does not have any road tokens left to place
      */
     public void placeRoad() {
-        if (numRemainingRoads == 0) {
+        if (tryPlaceRoad() == ActionStatus.NO_PIECES) {
             throw new RuntimeException("This player does not have any road tokens left to place");
-        } else {
-            numRemainingRoads--;
         }
     }
 
+    /**
+     * Places one of this player's road tokens if they have one left.
+     * @return ActionStatus.OK if a token was placed, otherwise NO_PIECES
+     */
+    public int tryPlaceRoad() {
+        if (numRemainingRoads == 0) {
+            return ActionStatus.NO_PIECES;
+        }
+        numRemainingRoads--;
+        return ActionStatus.OK;
+    }
+
+    /**
+     * Takes one of this player's roads off the board, undoing placeRoad().
+     * @throws RuntimeException if this player does not have any roads on the board
+     */
+    public void removeRoad() {
+        if (numRemainingRoads == 15) {
+            throw new RuntimeException("This player does not have any road tokens on the board");
+        }
+        numRemainingRoads++;
+    }
+
     /**
      * Returns the number of road tokens not on the board.
      * @return the number of road tokens not on the board
@@ -325,29 +567,94 @@ public class Player {
      *                                  harbor
      */
     public void addHarbor(String type) {
-        if (type.equals(GameController.HARBOR_TYPE_ANY) || Arrays.asList(GameController.RESOURCE_TYPES).contains(type)) {
-            harbors.add(type);
-        } else {
+        int bit = getHarborBit(type);
+        if (bit < 0) {
             throw new IllegalArgumentException("Invalid harbor type");
         }
+        harborMask |= 1 << bit;
+    }
+
+    /**
+     * Removes the specified harbor from the list of harbors this player can
+     * access, undoing addHarbor().
+     * @param type the resource type that the harbor affects
+     */
+    public void removeHarbor(String type) {
+        int bit = getHarborBit(type);
+        if (bit >= 0) {
+            harborMask &= ~(1 << bit);
+        }
     }
 
     /**
-     * Returns a list of all the harbors that this player can access.
+     * Returns a list of all the harbors that this player can access (built
+     * from the harbor bitmask).
      * @return a list of all the harbors that this player can access
      */
     public HashSet<String> getHarbors() {
-        return new HashSet<String>(harbors);
+        HashSet<String> harbors = new HashSet<String>();
+        for (int i = 0; i < GameController.RESOURCE_TYPES.length; i++) {
+            if ((harborMask & 1 << i) != 0) {
+                harbors.add(GameController.RESOURCE_TYPES[i]);
+            }
+        }
+        if ((harborMask & 1 << GameController.RESOURCE_TYPES.length) != 0) {
+            harbors.add(GameController.HARBOR_TYPE_ANY);
+        }
+        return harbors;
+    }
+
+    /**
+     * Returns the harbors that this player can access as a bitmask. Bit i is
+     * set if the player can access the 2:1 harbor of the resource at index i
+     * in GameController.RESOURCE_TYPES, and bit RESOURCE_TYPES.length is set
+     * if the player can access a 3:1 harbor.
+     * @return the harbors that this player can access as a bitmask
+     */
+    public int getHarborMask() {
+        return harborMask;
+    }
+
+    /**
+     * Returns the number of cards of the specified resource that this player
+     * must trade in to receive one resource card from the bank (2 with a
+     * matching harbor, 3 with a 3:1 harbor, otherwise 4).
+     * @param resource the resource to trade in
+     * @return the number of cards of the resource needed for one trade
+     */
+    public int getTradeRate(String resource) {
+        int bit = getHarborBit(resource);
+        if (bit >= 0 && bit < GameController.RESOURCE_TYPES.length && (harborMask & 1 << bit) != 0) {
+            return 2;
+        } else if ((harborMask & 1 << GameController.RESOURCE_TYPES.length) != 0) {
+            return 3;
+        } else {
+            return 4;
+        }
+    }
+
+    /**
+     * Returns the bit of the specified harbor type in the harbor bitmask (see
+     * getHarborMask()), or -1 if it is not a harbor type.
+     * @param type the resource type that the harbor affects, or
+     *             GameController.HARBOR_TYPE_ANY
+     * @return the bit of the harbor type, or -1
+     */
+    private static int getHarborBit(String type) {
+        if (GameController.HARBOR_TYPE_ANY.equals(type)) {
+            return GameController.RESOURCE_TYPES.length;
+        }
+        return Arrays.asList(GameController.RESOURCE_TYPES).indexOf(type);
     }
 
     /**
      * Stores the length of this player's longest road.
      * @param length the length of this player's longest road
-     * @throws IllegalArgumentException if the specified length is less than 1
+     * @throws IllegalArgumentException if the specified length is negative
      */
     public void setLongestRoadLength(int length) {
-        if (length < 1) {
-            throw new IllegalArgumentException("The length of a player's longest road can never be less than 1");
+        if (length < 0) {//A player with no roads (e.g. after undoing their only road) has a length of 0
+            throw new IllegalArgumentException("The length of a player's longest road can never be negative");
         } else {
             longestRoadLength = length;
         }
@@ -406,11 +713,33 @@ public class Player {
     }
 
     /**
-     * Returns a list of all the development cards this player has.
+     * Returns a list of all the development cards this player has (including
+     * the ones bought this turn), in the order of DevCardDeck.CARD_TYPES.
      * @return a list of all the development cards this player has
      */
     public ArrayList<DevelopmentCard> getDevCards() {
-        return new ArrayList<DevelopmentCard>(devCards);
+        ArrayList<DevelopmentCard> cards = new ArrayList<DevelopmentCard>(sumDevCards);
+        for (int type = 0; type < devCards.length; type++) {
+            for (int i = 0; i < devCards[type] + newDevCards[type]; i++) {
+                cards.add(new DevelopmentCard(DevCardDeck.getTitle(type)));
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * Returns a list of the development cards this player can play right now
+     * (every card except victory point cards and the ones bought this turn).
+     * @return a list of the development cards this player can play
+     */
+    public ArrayList<DevelopmentCard> getPlayableDevCards() {
+        ArrayList<DevelopmentCard> cards = new ArrayList<DevelopmentCard>(numPlayableDevCards);
+        for (int type = 0; type < DevCardDeck.FIRST_VICTORY_POINT; type++) {
+            for (int i = 0; i < devCards[type]; i++) {
+                cards.add(new DevelopmentCard(DevCardDeck.getTitle(type)));
+            }
+        }
+        return cards;
     }
 
     /**
@@ -418,7 +747,54 @@ public class Player {
      * @return the total number of development cards this player has
      */
     public int getSumDevCards() {
-        return devCards.size();
+        return sumDevCards;
+    }
+
+    /**
+     * Returns the number of development cards of the specified type this
+     * player has (including the ones bought this turn).
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     * @return the number of cards of the type this player has
+     */
+    public int getNumDevCards(int type) {
+        return devCards[type] + newDevCards[type];
+    }
+
+    /**
+     * Returns the number of development cards of the specified type this
+     * player bought this turn (which cannot be played until their next turn).
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     * @return the number of cards of the type bought this turn
+     */
+    public int getNumNewDevCards(int type) {
+        return newDevCards[type];
+    }
+
+    /**
+     * Returns true if this player has a development card of the specified
+     * type that they can play right now (a progress card they did not buy
+     * this turn).
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     * @return true if the player can play a card of the type
+     */
+    public boolean canPlayDevCard(int type) {
+        return type < DevCardDeck.FIRST_VICTORY_POINT && devCards[type] > 0;
+    }
+
+    /**
+     * Returns the number of development cards this player can play right now.
+     * @return the number of playable development cards this player has
+     */
+    public int getNumPlayableDevCards() {
+        return numPlayableDevCards;
+    }
+
+    /**
+     * Returns the number of victory point cards this player has.
+     * @return the number of victory point cards this player has
+     */
+    public int getNumVictoryPointCards() {
+        return numVictoryPointCards;
     }
 
     /**
@@ -5,7 +5,9 @@ import java.util.Arrays;
 /**
  * Represents a road location on a Settlers of Catan board (i.e. a side of a
  * terrain hex). Contains adjacent road locations, adjacent corner locations,
- * and the color of the road token at this location (if there is one).
+ * and the color of the road token at this location (if there is one). The
+ * Board keeps its roads in flat arrays and builds a Road when one is asked
+ * for, so changing a Road does not change the board.
  * @author Connor Barnes
  */
 public class Road {
@@ -22,6 +24,20 @@ public class Road {
         adjacentCornerLocs = null;
     }
 
+    /**
+     * Constructs a road location with the specified adjacent locations and
+     * road token. The arrays are shared, not copied (every getter returns a
+     * copy), so the Board can pass in its own tables.
+     * @param adjacentRoadLocs   the locations of the adjacent roads
+     * @param adjacentCornerLocs the locations of the corners at either end
+     * @param color              the color of the road token (or null)
+     */
+    Road(int[] adjacentRoadLocs, int[] adjacentCornerLocs, String color) {
+        this.adjacentRoadLocs = adjacentRoadLocs;
+        this.adjacentCornerLocs = adjacentCornerLocs;
+        this.color = color;
+    }
+
     /**
      * Constructs a deep copy of the specified road.
      * @param road the Road to copy
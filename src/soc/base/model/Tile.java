@@ -2,14 +2,15 @@ package soc.base.model;
 
 import soc.base.GameController;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Represents a terrain hex on a Settlers of Catan board. Contains the tile's
  * type of terrain (which dictates what type of resource it produces), its
- * number token, whether or not it is occupied by the robber, and a list of all
- * the settlements adjacent to it.
+ * number token, whether or not it is occupied by the robber, and the
+ * settlements adjacent to it (kept as a bitmask of corner locations, which the
+ * Board derives from its corners when it returns a tile).
  * @author Connor Barnes
  */
 public class Tile {
@@ -25,7 +26,7 @@ public class Tile {
     private String terrain;//Dictates what resource this tile yields
     private NumberToken numberToken;
     private boolean hasRobber;//true if the robber is on this tile, false if not
-    private LinkedList<Integer> settlementLocs;//Corner locations of all the settlements that are touching the tile
+    private long settlementMask;//Bit i is set if there is a settlement at corner i touching the tile
 
     /**
      * Constructs a tile with the specified terrain. The number token for this
@@ -46,7 +47,7 @@ public class Tile {
         }
         numberToken = null;
         hasRobber = false;
-        settlementLocs = new LinkedList<Integer>();
+        settlementMask = 0;
     }
 
     /**
@@ -70,7 +71,7 @@ public class Tile {
         }
         numberToken = null;
         hasRobber = robberStatus;
-        settlementLocs = new LinkedList<Integer>();
+        settlementMask = 0;
     }
 
     /**
@@ -81,7 +82,21 @@ public class Tile {
         terrain = tile.terrain;
         numberToken = tile.numberToken;
         hasRobber = tile.hasRobber;
-        settlementLocs = new LinkedList<Integer>(tile.settlementLocs);
+        settlementMask = tile.settlementMask;
+    }
+
+    /**
+     * Constructs a copy of the specified tile with the specified settlements
+     * adjacent to it.
+     * @param tile           the tile to copy
+     * @param settlementMask bit i is set if there is a settlement at corner i
+     *                       touching the tile
+     */
+    Tile(Tile tile, long settlementMask) {
+        terrain = tile.terrain;
+        numberToken = tile.numberToken;
+        hasRobber = tile.hasRobber;
+        this.settlementMask = settlementMask;
     }
 
     /**
@@ -161,14 +176,27 @@ public class Tile {
      * @param newSettlementLoc the location of the new settlement
      */
     public void addSettlementLoc(int newSettlementLoc) {
-        settlementLocs.add(newSettlementLoc);
+        settlementMask |= 1L << newSettlementLoc;
+    }
+
+    /**
+     * Removes the specified location from the list of settlement locations.
+     * @param settlementLoc the location of the removed settlement
+     */
+    public void removeSettlementLoc(int settlementLoc) {
+        settlementMask &= ~(1L << settlementLoc);
     }
 
     /**
-     * Returns the list of locations of settlements adjacent to this tile.
+     * Returns the list of locations of settlements adjacent to this tile, in
+     * order of location.
      * @return the list of locations of settlements adjacent to this tile
      */
     public List<Integer> getSettlementLocs() {
-        return new LinkedList<Integer>(settlementLocs);
+        List<Integer> settlementLocs = new ArrayList<Integer>(Long.bitCount(settlementMask));
+        for (long mask = settlementMask; mask != 0; mask &= mask - 1) {
+            settlementLocs.add(Long.numberOfTrailingZeros(mask));
+        }
+        return settlementLocs;
     }
 }
@@ -0,0 +1,316 @@
+package soc.base.net;
+
+import soc.base.model.Board;
+import soc.base.model.Player;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents a game that is being hosted by the server. Every action, timer,
+ * and broadcast for a room is run by the RoomEventLoop that the room is pinned
+ * to, and only one of them is ever run at a time. This means the room's Board
+ * and Players (which are not thread-safe) can only be touched from inside
+ * tasks that were passed to execute() or schedule().
+ * <p>
+ * A room can be moved to a different loop by the RoomScheduler. The move
+ * happens in between two of the room's tasks, so tasks never run on two loops
+ * at the same time and are never run out of order.
+ * <p>
+ * Tasks that change the game should call stateChanged() so the room's
+ * spectators are sent the new public view. However many tasks change the game
+ * during one drain of the mailbox, only one view is captured at the end of it.
+ * @author Connor Barnes
+ */
+public class GameRoom {
+    private final int MAX_TASKS_PER_DRAIN = 64;//Lets other rooms on the same loop take a turn
+
+    private final String id;
+    private final Board board;
+    private final Player[] players;
+    private final Queue<Runnable> mailbox;//Written by any thread, drained by the loop the room is pinned to
+    private final AtomicBoolean drainScheduled;
+    private final Runnable drainTask;
+    private final SpectatorHub spectators;
+    private boolean stateChanged;//Only touched by the loop the room is pinned to
+    private volatile RoomEventLoop loop;
+    private volatile RoomEventLoop nextLoop;//The loop the room should move to after its current drain (or null)
+    private volatile long load;//Nanoseconds spent running this room's tasks during the last load window
+    private long busyNanos;//Only touched by the loop the room is pinned to
+    private volatile boolean closed;
+
+    /**
+     * Constructs a room for a game that is played on the specified Board by
+     * the specified players. The room does not run any tasks until it is
+     * pinned to a loop by the RoomScheduler.
+     * @param id              the unique id of the room
+     * @param board           the Board that the game is played on
+     * @param players         the players in the game
+     * @param spectatorWriter the threads that deliver views to the room's
+     *                        spectators
+     */
+    public GameRoom(String id, Board board, Player[] players, Executor spectatorWriter) {
+        this.id = id;
+        this.board = board;
+        this.players = players;
+        mailbox = new ConcurrentLinkedQueue<Runnable>();
+        drainScheduled = new AtomicBoolean(false);
+        drainTask = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+        spectators = new SpectatorHub(this, spectatorWriter);
+        stateChanged = false;
+        closed = false;
+    }
+
+    /**
+     * Returns the unique id of this room.
+     * @return the unique id of this room
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the Board that this room's game is played on. Must only be
+     * called from one of this room's tasks.
+     * @return the Board that this room's game is played on
+     */
+    public Board getBoard() {
+        checkLoop();
+        return board;
+    }
+
+    /**
+     * Returns the players in this room's game. Must only be called from one of
+     * this room's tasks.
+     * @return the players in this room's game
+     */
+    public Player[] getPlayers() {
+        checkLoop();
+        return players;
+    }
+
+    /**
+     * Returns the number of players in this room's game. Can be called from
+     * any thread.
+     * @return the number of players in this room's game
+     */
+    public int getNumPlayers() {
+        return players.length;
+    }
+
+    /**
+     * Returns the hub that streams this room's public view to its spectators.
+     * Can be called from any thread.
+     * @return the hub that streams this room's public view to its spectators
+     */
+    public SpectatorHub getSpectators() {
+        return spectators;
+    }
+
+    /**
+     * Records that the game has changed, so the room's spectators are sent
+     * the new public view once the current drain is over. Must only be called
+     * from one of this room's tasks.
+     */
+    public void stateChanged() {
+        checkLoop();
+        stateChanged = true;
+    }
+
+    /**
+     * Submits the specified task to be run on the loop this room is pinned to.
+     * Tasks are run one at a time in the order they were submitted. Tasks
+     * submitted before the room is pinned are run once it is. Can be called
+     * from any thread.
+     * @param task the task to run
+     */
+    public void execute(Runnable task) {
+        if (!closed) {
+            mailbox.offer(task);
+            if (loop != null) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    /**
+     * Runs the specified task as one of this room's tasks after the specified
+     * delay (e.g. a turn timer). Can be called from any thread.
+     * @param task        the task to run
+     * @param delayMillis the number of milliseconds to wait before running the
+     *                    task
+     * @throws IllegalStateException if the room has not been pinned to a loop
+     *                               yet
+     */
+    public void schedule(final Runnable task, long delayMillis) {
+        RoomEventLoop currentLoop = loop;
+        if (currentLoop == null) {
+            throw new IllegalStateException("Room " + id + " has not been pinned to a loop yet");
+        }
+        currentLoop.schedule(new Runnable() {
+            @Override
+            public void run() {
+                execute(task);//Goes through the mailbox in case the room has moved to another loop
+            }
+        }, delayMillis);
+    }
+
+    /**
+     * Returns true if the calling thread is the thread of the loop this room
+     * is currently pinned to; otherwise false.
+     * @return true if the calling thread is running this room's tasks;
+     * otherwise false
+     */
+    public boolean inLoop() {
+        RoomEventLoop currentLoop = loop;
+        return currentLoop != null && currentLoop.inLoop();
+    }
+
+    /**
+     * Returns the load of this room, which is the number of nanoseconds spent
+     * running its tasks during the last load window of its loop (about a
+     * second). A room that has not run any tasks during that window has no
+     * load.
+     * @return the number of nanoseconds spent running this room's tasks during
+     * the last second
+     */
+    public long getLoad() {
+        return load;
+    }
+
+    /**
+     * Returns the loop that this room is currently pinned to.
+     * @return the loop that this room is currently pinned to
+     */
+    RoomEventLoop getLoop() {
+        return loop;
+    }
+
+    /**
+     * Pins this room to the specified loop. Must only be called once. Tasks
+     * that were submitted before are run from now on.
+     * @param loop the loop to pin this room to
+     */
+    void pin(RoomEventLoop loop) {
+        loop.addRoom(this);
+        this.loop = loop;
+        if (!mailbox.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Ends the current load window: the time spent running this room's tasks
+     * during it becomes the room's load, and the next window starts from
+     * zero. Only called by the loop this room is pinned to.
+     */
+    void endLoadWindow() {
+        load = busyNanos;
+        busyNanos = 0;
+    }
+
+    /**
+     * Moves this room to the specified loop once the task it is currently
+     * running (if any) has finished.
+     * @param target the loop to move this room to
+     */
+    void migrate(RoomEventLoop target) {
+        if (target != loop) {
+            nextLoop = target;
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    //Nothing to do; this makes sure a drain happens so the move is carried out
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops this room from accepting any more tasks and unpins it from its
+     * loop. Tasks that were already submitted are discarded. The room is
+     * unpinned by a final drain, so it cannot race a move to another loop
+     * (which is also carried out by a drain).
+     */
+    void close() {
+        closed = true;
+        mailbox.clear();
+        if (loop != null) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Makes sure that a drain of the mailbox is (or will be) running on this
+     * room's loop.
+     */
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            loop.execute(drainTask);
+        }
+    }
+
+    /**
+     * Runs the tasks in the mailbox (up to MAX_TASKS_PER_DRAIN of them). Is
+     * only ever run by this room's loop, and never by two threads at once
+     * because drainScheduled is not reset until the drain is over. Once the
+     * room is closed, the next drain unpins it instead and leaves
+     * drainScheduled set, so the room is never drained again.
+     */
+    private void drain() {
+        if (closed) {
+            mailbox.clear();
+            loop.removeRoom(this);
+            spectators.close();
+            return;
+        }
+        long start = System.nanoTime();
+        Runnable task;
+        int tasksRun = 0;
+        while (tasksRun < MAX_TASKS_PER_DRAIN && (task = mailbox.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException exception) {
+                System.err.println("Room " + id + ": " + exception);
+                exception.printStackTrace();
+            }
+            tasksRun++;
+        }
+        if (stateChanged) {
+            stateChanged = false;
+            spectators.publish(board, players);
+        }
+        busyNanos += System.nanoTime() - start;
+        //Carry out a pending move now that no task is running
+        RoomEventLoop target = nextLoop;
+        if (target != null) {
+            nextLoop = null;
+            loop.removeRoom(this);
+            target.addRoom(this);
+            loop = target;
+        }
+        drainScheduled.set(false);
+        if (!mailbox.isEmpty() || closed) {//A close() during this drain could not schedule the final drain
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Makes sure that the calling thread is allowed to touch this room's
+     * model.
+     * @throws IllegalStateException if the calling thread is not the thread of
+     *                               the loop that this room is pinned to
+     */
+    private void checkLoop() {
+        if (!inLoop()) {
+            throw new IllegalStateException("Room " + id + " can only be accessed from its event loop");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package soc.base.net;
+
+import soc.base.GameController;
+import soc.base.model.Board;
+import soc.base.model.Player;
+
+import java.util.ArrayDeque;
+
+/**
+ * Groups players who are waiting for a game into rooms. Join and leave
+ * requests can be submitted from any thread (e.g. the threads handling client
+ * connections), but they are queued and processed one at a time by the
+ * directory loop, so the waiting list never needs to be locked and never
+ * touches a room's loop.
+ * @author Connor Barnes
+ */
+public class Matchmaker {
+    private final RoomScheduler scheduler;
+    private final RoomEventLoop directoryLoop;
+    private final ArrayDeque<String> waitingPlayers;//Only touched by the directory loop
+    private final ArrayDeque<RoomScheduler.RoomListener> waitingListeners;//Index matches waitingPlayers
+
+    /**
+     * Constructs a matchmaker that opens rooms using the specified scheduler
+     * and processes requests on the specified loop.
+     * @param scheduler     the scheduler used to open new rooms
+     * @param directoryLoop the loop that processes join and leave requests
+     */
+    Matchmaker(RoomScheduler scheduler, RoomEventLoop directoryLoop) {
+        this.scheduler = scheduler;
+        this.directoryLoop = directoryLoop;
+        waitingPlayers = new ArrayDeque<String>();
+        waitingListeners = new ArrayDeque<RoomScheduler.RoomListener>();
+    }
+
+    /**
+     * Adds the player with the specified name to the waiting list. Once enough
+     * players are waiting, a room is opened for them and each of their
+     * listeners is notified. Can be called from any thread.
+     * @param name     the name of the player
+     * @param listener notified (on the room's loop) once the player's room is
+     *                 open
+     */
+    public void join(final String name, final RoomScheduler.RoomListener listener) {
+        directoryLoop.execute(new Runnable() {
+            @Override
+            public void run() {
+                waitingPlayers.addLast(name);
+                waitingListeners.addLast(listener);
+                if (waitingPlayers.size() == GameController.PLAYER_COLORS.length) {
+                    openRoom();
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the player with the specified name from the waiting list (if
+     * they are on it). Can be called from any thread.
+     * @param name the name of the player
+     */
+    public void leave(final String name) {
+        directoryLoop.execute(new Runnable() {
+            @Override
+            public void run() {
+                String[] names = waitingPlayers.toArray(new String[waitingPlayers.size()]);
+                RoomScheduler.RoomListener[] listeners = waitingListeners.toArray(new RoomScheduler.RoomListener[waitingListeners.size()]);
+                waitingPlayers.clear();
+                waitingListeners.clear();
+                for (int i = 0; i < names.length; i++) {
+                    if (!names[i].equals(name)) {
+                        waitingPlayers.addLast(names[i]);
+                        waitingListeners.addLast(listeners[i]);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Opens a room for every player on the waiting list and clears the list.
+     * The Board and Players are constructed here so the room's loop never has
+     * to wait for them.
+     */
+    private void openRoom() {
+        final Player[] players = new Player[waitingPlayers.size()];
+        final RoomScheduler.RoomListener[] listeners = new RoomScheduler.RoomListener[players.length];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(GameController.PLAYER_COLORS[i], waitingPlayers.removeFirst());
+            listeners[i] = waitingListeners.removeFirst();
+        }
+        scheduler.openRoom(new Board(), players, new RoomScheduler.RoomListener() {
+            @Override
+            public void roomOpened(GameRoom room) {
+                for (RoomScheduler.RoomListener listener : listeners) {
+                    listener.roomOpened(room);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,281 @@
+package soc.base.net;
+
+import soc.base.model.Board;
+import soc.base.model.Player;
+import soc.base.model.Tile;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable snapshot of everything about a game that is on display when
+ * Settlers of Catan is played normally (i.e. what a spectator sitting at the
+ * table could see). The board and every token on it are included, but each
+ * player's hand is masked: only the number of resource cards and development
+ * cards are included, along with the Knight cards that have been played.
+ * Victory point cards are not counted until they are revealed, so the victory
+ * points in a view may be lower than a player's actual victory points.
+ * <p>
+ * A view is captured once per update and then shared by every spectator of
+ * the room, so it must never be modified.
+ * @author Connor Barnes
+ */
+public class PublicGameView {
+    private final long version;
+    private final String[] terrains;
+    private final int[] numberTokens;//0 for the desert
+    private final int robberLoc;
+    private final String[] roadColors, settlementColors;//null means the location is unoccupied
+    private final boolean[] cities;
+    private final PlayerView[] players;
+
+    /**
+     * Captures the public view of a game played on the specified Board by the
+     * specified players. Must be called from the room's loop.
+     * @param version the number of updates published before this one
+     * @param board   the Board that the game is played on
+     * @param players the players in the game
+     */
+    PublicGameView(long version, Board board, Player[] players) {
+        this.version = version;
+        Tile[] tiles = board.getTiles();
+        terrains = new String[tiles.length];
+        numberTokens = new int[tiles.length];
+        for (int i = 0; i < tiles.length; i++) {
+            terrains[i] = tiles[i].getTerrain();
+            numberTokens[i] = tiles[i].getTerrain().equals(Tile.DESERT) ? 0 : tiles[i].getNumberToken();
+        }
+        robberLoc = board.getRobberLoc();
+        roadColors = new String[board.getNumRoadLocs()];
+        for (int i = 0; i < roadColors.length; i++) {
+            roadColors[i] = board.getRoad(i).getColor();
+        }
+        settlementColors = new String[board.getNumCorners()];
+        cities = new boolean[board.getNumCorners()];
+        for (int i = 0; i < settlementColors.length; i++) {
+            settlementColors[i] = board.getCorner(i).getSettlementColor();
+            cities[i] = board.getCorner(i).hasCity();
+        }
+        this.players = new PlayerView[players.length];
+        for (int i = 0; i < players.length; i++) {
+            this.players[i] = new PlayerView(players[i]);
+        }
+    }
+
+    /**
+     * Returns the number of updates that were published before this one. A
+     * spectator who falls behind will see gaps in the version numbers.
+     * @return the number of updates that were published before this one
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the terrain of the tile at the specified location.
+     * @param tileLoc the location of the tile
+     * @return the terrain of the tile at the specified location
+     */
+    public String getTerrain(int tileLoc) {
+        return terrains[tileLoc];
+    }
+
+    /**
+     * Returns the number on the number token of the tile at the specified
+     * location (or 0 if the tile is the desert).
+     * @param tileLoc the location of the tile
+     * @return the number on the number token of the tile at the specified
+     * location
+     */
+    public int getNumberToken(int tileLoc) {
+        return numberTokens[tileLoc];
+    }
+
+    /**
+     * Returns the number of tiles on the board.
+     * @return the number of tiles on the board
+     */
+    public int getNumTiles() {
+        return terrains.length;
+    }
+
+    /**
+     * Returns the location of the tile that the robber occupies.
+     * @return the location of the tile that the robber occupies
+     */
+    public int getRobberLoc() {
+        return robberLoc;
+    }
+
+    /**
+     * Returns the color of the road at the specified location (or null if
+     * there is no road there).
+     * @param roadLoc the location of the road
+     * @return the color of the road at the specified location
+     */
+    public String getRoadColor(int roadLoc) {
+        return roadColors[roadLoc];
+    }
+
+    /**
+     * Returns the number of road locations on the board.
+     * @return the number of road locations on the board
+     */
+    public int getNumRoadLocs() {
+        return roadColors.length;
+    }
+
+    /**
+     * Returns the color of the settlement or city at the specified location
+     * (or null if the corner is unoccupied).
+     * @param cornerLoc the location of the corner
+     * @return the color of the settlement or city at the specified location
+     */
+    public String getSettlementColor(int cornerLoc) {
+        return settlementColors[cornerLoc];
+    }
+
+    /**
+     * Returns true if there is a city at the specified location; otherwise
+     * false.
+     * @param cornerLoc the location of the corner
+     * @return true if there is a city at the specified location; otherwise
+     * false
+     */
+    public boolean hasCity(int cornerLoc) {
+        return cities[cornerLoc];
+    }
+
+    /**
+     * Returns the number of corners on the board.
+     * @return the number of corners on the board
+     */
+    public int getNumCorners() {
+        return settlementColors.length;
+    }
+
+    /**
+     * Returns the public information of every player, in turn order.
+     * @return the public information of every player
+     */
+    public List<PlayerView> getPlayers() {
+        return Arrays.asList(players);
+    }
+
+    /**
+     * The public information of one player.
+     */
+    public static class PlayerView {
+        private final String name, color;
+        private final int numResourceCards, numDevCards, numKnightCardsPlayed, numPublicVictoryPoints;
+        private final int numRemainingRoads, numRemainingSettlements, numRemainingCities;
+        private final boolean longestRoad, largestArmy;
+
+        /**
+         * Captures the public information of the specified player.
+         * @param player the player whose information is captured
+         */
+        private PlayerView(Player player) {
+            name = player.getName();
+            color = player.getColor();
+            numResourceCards = player.getSumResourceCards();
+            numDevCards = player.getSumDevCards();
+            numKnightCardsPlayed = player.getNumKnightCardsPlayed();
+            numPublicVictoryPoints = player.getNumVictoryPoints() - player.getNumVictoryPointCards();
+            numRemainingRoads = player.getNumRemainingRoads();
+            numRemainingSettlements = player.getNumRemainingSettlements();
+            numRemainingCities = player.getNumRemainingCities();
+            longestRoad = player.hasLongestRoad();
+            largestArmy = player.hasLargestArmy();
+        }
+
+        /**
+         * Returns the name of the player.
+         * @return the name of the player
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the color of the player's tokens.
+         * @return the color of the player's tokens
+         */
+        public String getColor() {
+            return color;
+        }
+
+        /**
+         * Returns the number of resource cards in the player's hand.
+         * @return the number of resource cards in the player's hand
+         */
+        public int getNumResourceCards() {
+            return numResourceCards;
+        }
+
+        /**
+         * Returns the number of development cards in the player's hand.
+         * @return the number of development cards in the player's hand
+         */
+        public int getNumDevCards() {
+            return numDevCards;
+        }
+
+        /**
+         * Returns the number of Knight cards the player has played.
+         * @return the number of Knight cards the player has played
+         */
+        public int getNumKnightCardsPlayed() {
+            return numKnightCardsPlayed;
+        }
+
+        /**
+         * Returns the number of victory points the player has, not counting
+         * victory point cards that are still hidden in their hand.
+         * @return the number of victory points the player has revealed
+         */
+        public int getNumPublicVictoryPoints() {
+            return numPublicVictoryPoints;
+        }
+
+        /**
+         * Returns the number of road tokens the player has not placed.
+         * @return the number of road tokens the player has not placed
+         */
+        public int getNumRemainingRoads() {
+            return numRemainingRoads;
+        }
+
+        /**
+         * Returns the number of settlement tokens the player has not placed.
+         * @return the number of settlement tokens the player has not placed
+         */
+        public int getNumRemainingSettlements() {
+            return numRemainingSettlements;
+        }
+
+        /**
+         * Returns the number of city tokens the player has not placed.
+         * @return the number of city tokens the player has not placed
+         */
+        public int getNumRemainingCities() {
+            return numRemainingCities;
+        }
+
+        /**
+         * Returns true if the player has Longest Road; otherwise false.
+         * @return true if the player has Longest Road; otherwise false
+         */
+        public boolean hasLongestRoad() {
+            return longestRoad;
+        }
+
+        /**
+         * Returns true if the player has Largest Army; otherwise false.
+         * @return true if the player has Largest Army; otherwise false
+         */
+        public boolean hasLargestArmy() {
+            return largestArmy;
+        }
+    }
+}
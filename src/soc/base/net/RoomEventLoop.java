@@ -0,0 +1,279 @@
+package soc.base.net;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single thread that runs tasks and timers for the rooms pinned to it. Any
+ * thread can submit a task, but tasks are only ever run by this loop's thread,
+ * so the rooms (and the Boards and Players inside them) never need to be
+ * locked. Submitted tasks are stored in a multi-producer, single-consumer
+ * queue that is drained in the order the tasks were submitted.
+ * @author Connor Barnes
+ */
+public class RoomEventLoop implements Runnable {
+    private final int MAX_TASKS_PER_PASS = 256;//Keeps timers from starving when the inbox is flooded
+    private final long LOAD_DECAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final Queue<Runnable> inbox;//Written by any thread, read only by the loop thread
+    private final PriorityQueue<Timer> timers;//Only touched by the loop thread
+    private final AtomicBoolean parked, running;
+    private final AtomicInteger numRooms;
+    private final ArrayList<GameRoom> rooms;//Only touched by the loop thread
+    private final AtomicLong busyNanos;//Time spent running tasks during the current load window
+    private volatile long load;//Busy nanos during the last complete load window
+    private long timerSequence, windowStart;
+    private volatile Thread thread;
+
+    /**
+     * Constructs an event loop with the specified name. The loop does not run
+     * any tasks until start() is called.
+     * @param name the name of the loop's thread
+     */
+    public RoomEventLoop(String name) {
+        this.name = name;
+        inbox = new ConcurrentLinkedQueue<Runnable>();
+        timers = new PriorityQueue<Timer>();
+        parked = new AtomicBoolean(false);
+        running = new AtomicBoolean(false);
+        numRooms = new AtomicInteger(0);
+        rooms = new ArrayList<GameRoom>();
+        busyNanos = new AtomicLong(0);
+        load = 0;
+        timerSequence = 0;
+    }
+
+    /**
+     * Starts the loop's thread. Does nothing if the loop is already running.
+     */
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the loop's thread once it finishes the task it is currently
+     * running. Tasks that have not been run yet are discarded.
+     */
+    public void shutdown() {
+        running.set(false);
+        wakeUp();
+    }
+
+    /**
+     * Returns true if the calling thread is this loop's thread; otherwise
+     * false.
+     * @return true if the calling thread is this loop's thread; otherwise false
+     */
+    public boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Submits the specified task to be run by this loop's thread. Can be
+     * called from any thread.
+     * @param task the task to run
+     */
+    public void execute(Runnable task) {
+        inbox.offer(task);
+        wakeUp();
+    }
+
+    /**
+     * Runs the specified task on this loop's thread after the specified delay.
+     * Can be called from any thread.
+     * @param task        the task to run
+     * @param delayMillis the number of milliseconds to wait before running the
+     *                    task
+     */
+    public void schedule(final Runnable task, long delayMillis) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                timers.add(new Timer(deadline, timerSequence++, task));
+            }
+        });
+    }
+
+    /**
+     * Returns the number of rooms that are currently pinned to this loop.
+     * @return the number of rooms that are currently pinned to this loop
+     */
+    public int getNumRooms() {
+        return numRooms.get();
+    }
+
+    /**
+     * Returns the load of this loop, which is the number of nanoseconds spent
+     * running tasks during the last second.
+     * @return the number of nanoseconds spent running tasks during the last
+     * second
+     */
+    public long getLoad() {
+        return load;
+    }
+
+    /**
+     * Records that the specified room has been pinned to this loop, so its
+     * load is updated at the end of each of this loop's load windows. Can be
+     * called from any thread.
+     * @param room the room that was pinned to this loop
+     */
+    void addRoom(final GameRoom room) {
+        numRooms.incrementAndGet();
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                rooms.add(room);
+            }
+        });
+    }
+
+    /**
+     * Records that the specified room has been unpinned from this loop. Must
+     * only be called from this loop's thread.
+     * @param room the room that was unpinned from this loop
+     */
+    void removeRoom(GameRoom room) {
+        numRooms.decrementAndGet();
+        rooms.remove(room);
+    }
+
+    /**
+     * Runs tasks and expired timers until the loop is shut down. Parks the
+     * thread when there is nothing to do.
+     */
+    @Override
+    public void run() {
+        windowStart = System.nanoTime();
+        while (running.get()) {
+            long start = System.nanoTime();
+            int tasksRun = runTasks();
+            tasksRun += runTimers(start);
+            long end = System.nanoTime();
+            if (tasksRun > 0) {
+                busyNanos.addAndGet(end - start);
+            }
+            if (end - windowStart >= LOAD_DECAY_NANOS) {
+                load = busyNanos.getAndSet(0);
+                windowStart = end;
+                for (GameRoom room : rooms) {
+                    room.endLoadWindow();//Rooms that ran nothing during the window go back to no load
+                }
+            }
+            if (tasksRun == 0 && inbox.isEmpty()) {
+                park();
+            }
+        }
+    }
+
+    /**
+     * Runs the tasks in the inbox (up to MAX_TASKS_PER_PASS of them).
+     * @return the number of tasks that were run
+     */
+    private int runTasks() {
+        int tasksRun = 0;
+        Runnable task;
+        while (tasksRun < MAX_TASKS_PER_PASS && (task = inbox.poll()) != null) {
+            runSafely(task);
+            tasksRun++;
+        }
+        return tasksRun;
+    }
+
+    /**
+     * Runs every timer whose deadline has passed.
+     * @param now the current value of System.nanoTime()
+     * @return the number of timers that were run
+     */
+    private int runTimers(long now) {
+        int timersRun = 0;
+        while (!timers.isEmpty() && timers.peek().deadline - now <= 0) {
+            runSafely(timers.poll().task);
+            timersRun++;
+        }
+        return timersRun;
+    }
+
+    /**
+     * Runs the specified task, printing (rather than propagating) anything it
+     * throws so that one broken room cannot stop the loop.
+     * @param task the task to run
+     */
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException exception) {
+            System.err.println(name + ": " + exception);
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Parks the loop's thread until a task is submitted, the next timer
+     * expires or the current load window ends.
+     */
+    private void park() {
+        parked.set(true);
+        if (inbox.isEmpty() && running.get()) {//Re-check after publishing the flag so a wake-up is never missed
+            long wakeUpTime = windowStart + LOAD_DECAY_NANOS;
+            if (!timers.isEmpty() && timers.peek().deadline - wakeUpTime < 0) {
+                wakeUpTime = timers.peek().deadline;
+            }
+            LockSupport.parkNanos(this, wakeUpTime - System.nanoTime());
+        }
+        parked.set(false);
+    }
+
+    /**
+     * Unparks the loop's thread if it is parked.
+     */
+    private void wakeUp() {
+        if (parked.get() && thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * A task that should be run once a deadline has passed. Timers with the
+     * same deadline are run in the order they were scheduled.
+     */
+    private static class Timer implements Comparable<Timer> {
+        private final long deadline, sequence;
+        private final Runnable task;
+
+        /**
+         * Constructs a timer that runs the specified task once the specified
+         * deadline has passed.
+         * @param deadline the value of System.nanoTime() after which the task
+         *                 should be run
+         * @param sequence the order in which this timer was scheduled
+         * @param task     the task to run
+         */
+        private Timer(long deadline, long sequence, Runnable task) {
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Timer timer) {
+            if (deadline != timer.deadline) {
+                return deadline - timer.deadline < 0 ? -1 : 1;
+            }
+            return sequence < timer.sequence ? -1 : (sequence == timer.sequence ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package soc.base.net;
+
+import soc.base.model.Board;
+import soc.base.model.BoardLayout;
+import soc.base.model.Player;
+import soc.base.sim.Bot;
+import soc.base.sim.HeadlessGame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EventListener;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Pins every GameRoom to one of a fixed set of RoomEventLoops (one per
+ * processor by default) and moves rooms between loops when the load becomes
+ * uneven. Operations that involve more than one room, such as matchmaking and
+ * updates to the room directory, are never run on a room's loop. Instead they
+ * are submitted to a separate directory loop, whose inbox is a
+ * multi-producer, single-consumer queue like every other loop's inbox.
+ * <p>
+ * Views of the games are delivered to spectators by a small pool of writer
+ * threads that is shared by every room, so spectators never use a room's loop
+ * to wait on their connections.
+ * @author Connor Barnes
+ */
+public class RoomScheduler {
+    private final long REBALANCE_PERIOD_MILLIS = 2000;
+    private final double REBALANCE_THRESHOLD = 1.25;//Rooms are only moved if the busiest loop has this much more load than the idlest
+
+    private final RoomEventLoop[] loops;
+    private final RoomEventLoop directoryLoop;
+    private final ExecutorService spectatorWriter;
+    private final HashMap<String, GameRoom> rooms;//Only touched by the directory loop
+    private volatile Map<String, GameRoom> directory;//Read-only copy of rooms that any thread can read
+    private final Matchmaker matchmaker;
+    private int nextRoomId;//Only touched by the directory loop
+
+    /**
+     * Constructs a scheduler with one loop per available processor.
+     */
+    public RoomScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a scheduler with the specified number of loops.
+     * @param numLoops the number of loops to pin rooms to
+     * @throws IllegalArgumentException if the specified number of loops is
+     *                                  less than 1
+     */
+    public RoomScheduler(int numLoops) {
+        if (numLoops < 1) {
+            throw new IllegalArgumentException("A scheduler needs at least one loop");
+        }
+        loops = new RoomEventLoop[numLoops];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new RoomEventLoop("Room Loop " + i);
+        }
+        directoryLoop = new RoomEventLoop("Directory Loop");
+        spectatorWriter = Executors.newFixedThreadPool(Math.max(2, numLoops / 2), new ThreadFactory() {
+            private int nextWriterId = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "Spectator Writer " + nextWriterId++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        rooms = new HashMap<String, GameRoom>();
+        directory = Collections.emptyMap();
+        matchmaker = new Matchmaker(this, directoryLoop);
+        nextRoomId = 0;
+    }
+
+    /**
+     * Starts every loop and the periodic rebalancing of rooms.
+     */
+    public void start() {
+        for (RoomEventLoop loop : loops) {
+            loop.start();
+        }
+        directoryLoop.start();
+        directoryLoop.schedule(new Runnable() {
+            @Override
+            public void run() {
+                rebalance();
+                directoryLoop.schedule(this, REBALANCE_PERIOD_MILLIS);
+            }
+        }, REBALANCE_PERIOD_MILLIS);
+    }
+
+    /**
+     * Stops every loop and writer thread. Tasks that have not been run yet and
+     * views that have not been delivered yet are discarded.
+     */
+    public void shutdown() {
+        directoryLoop.shutdown();
+        for (RoomEventLoop loop : loops) {
+            loop.shutdown();
+        }
+        spectatorWriter.shutdownNow();
+    }
+
+    /**
+     * Returns the matchmaker that groups waiting players into new rooms.
+     * @return the matchmaker that groups waiting players into new rooms
+     */
+    public Matchmaker getMatchmaker() {
+        return matchmaker;
+    }
+
+    /**
+     * Opens a new room for a game played on the specified Board by the
+     * specified players and pins it to the loop with the fewest rooms. The
+     * room is added to the directory asynchronously. Can be called from any
+     * thread, but the Board and Players must not be touched by the caller
+     * afterwards.
+     * @param board    the Board that the game is played on
+     * @param players  the players in the game
+     * @param listener notified (on the room's loop) once the room is open, or
+     *                 null
+     */
+    public void openRoom(final Board board, final Player[] players, final RoomListener listener) {
+        directoryLoop.execute(new Runnable() {
+            @Override
+            public void run() {
+                GameRoom room = new GameRoom("room-" + nextRoomId++, board, players, spectatorWriter);
+                room.pin(getIdlestLoop());
+                rooms.put(room.getId(), room);
+                publishDirectory();
+                if (listener != null) {
+                    final GameRoom openedRoom = room;
+                    room.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.roomOpened(openedRoom);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Opens a new room in which bots play a game (see HeadlessGame) for
+     * spectators to watch. The bots make one decision every moveDelayMillis
+     * milliseconds, each as one of the room's tasks, and the spectators are
+     * sent the new public view after each of them. The room stays open once
+     * the game is over, until it is closed. Can be called from any thread.
+     * @param layout          the layout of the board
+     * @param seats           creates the bot in each seat
+     * @param seed            the seed of the game
+     * @param moveDelayMillis the number of milliseconds between decisions
+     * @param listener        notified (on the room's loop) once the room is
+     *                        open, or null
+     * @throws IllegalArgumentException if there is not one bot per seat
+     */
+    public void openBotRoom(BoardLayout layout, Bot.Factory[] seats, long seed, final long moveDelayMillis,
+                            final RoomListener listener) {
+        Bot[] bots = new Bot[seats.length];
+        for (int seat = 0; seat < seats.length; seat++) {
+            if (seats[seat] == null) {
+                throw new IllegalArgumentException("Every seat in a bot room needs a bot");
+            }
+            bots[seat] = seats[seat].createBot();
+        }
+        final HeadlessGame game = new HeadlessGame(layout, bots, seed);
+        Player[] players = new Player[HeadlessGame.NUM_PLAYERS];
+        for (int player = 0; player < players.length; player++) {
+            players[player] = game.getPlayer(player);
+        }
+        openRoom(game.getBoard(), players, new RoomListener() {
+            @Override
+            public void roomOpened(final GameRoom room) {
+                room.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean moreToPlay = game.advance();
+                        room.stateChanged();
+                        if (moreToPlay) {
+                            room.schedule(this, moveDelayMillis);
+                        }
+                    }
+                }, moveDelayMillis);
+                if (listener != null) {
+                    listener.roomOpened(room);
+                }
+            }
+        });
+    }
+
+    /**
+     * Closes the room with the specified id (if it exists) and removes it from
+     * the directory. Can be called from any thread.
+     * @param roomId the id of the room to close
+     */
+    public void closeRoom(final String roomId) {
+        directoryLoop.execute(new Runnable() {
+            @Override
+            public void run() {
+                GameRoom room = rooms.remove(roomId);
+                if (room != null) {
+                    room.close();
+                    publishDirectory();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the room with the specified id, or null if no such room exists.
+     * The directory is updated asynchronously, so a room that was just opened
+     * may not be returned yet. Can be called from any thread.
+     * @param roomId the id of the room
+     * @return the room with the specified id (or null if no such room exists)
+     */
+    public GameRoom getRoom(String roomId) {
+        return directory.get(roomId);
+    }
+
+    /**
+     * Returns a read-only snapshot of every open room, keyed by room id. Can
+     * be called from any thread.
+     * @return a read-only snapshot of every open room
+     */
+    public Map<String, GameRoom> getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the number of loops that rooms are pinned to.
+     * @return the number of loops that rooms are pinned to
+     */
+    public int getNumLoops() {
+        return loops.length;
+    }
+
+    /**
+     * Returns the number of rooms pinned to the loops. Once every room that
+     * was opened or closed has been carried out, this is the number of rooms
+     * in the directory. Can be called from any thread.
+     * @return the number of rooms pinned to the loops
+     */
+    public int getNumPinnedRooms() {
+        int numPinned = 0;
+        for (RoomEventLoop loop : loops) {
+            numPinned += loop.getNumRooms();
+        }
+        return numPinned;
+    }
+
+    /**
+     * Replaces the published directory with a copy of the current rooms. Only
+     * called by the directory loop.
+     */
+    private void publishDirectory() {
+        directory = Collections.unmodifiableMap(new HashMap<String, GameRoom>(rooms));
+    }
+
+    /**
+     * Returns the loop with the fewest rooms (ties are broken by load).
+     * @return the loop with the fewest rooms
+     */
+    private RoomEventLoop getIdlestLoop() {
+        RoomEventLoop idlest = loops[0];
+        for (RoomEventLoop loop : loops) {
+            if (loop.getNumRooms() < idlest.getNumRooms()
+                    || (loop.getNumRooms() == idlest.getNumRooms() && loop.getLoad() < idlest.getLoad())) {
+                idlest = loop;
+            }
+        }
+        return idlest;
+    }
+
+    /**
+     * Moves rooms from the busiest loop to the idlest loop until moving
+     * another room would not make the load more even. Only called by the
+     * directory loop.
+     */
+    private void rebalance() {
+        if (loops.length < 2 || rooms.isEmpty()) {
+            return;
+        }
+        //Estimate the load of each loop from the load of the rooms pinned to it
+        HashMap<RoomEventLoop, Long> loopLoads = new HashMap<RoomEventLoop, Long>(loops.length);
+        HashMap<RoomEventLoop, ArrayList<GameRoom>> loopRooms = new HashMap<RoomEventLoop, ArrayList<GameRoom>>(loops.length);
+        for (RoomEventLoop loop : loops) {
+            loopLoads.put(loop, 0L);
+            loopRooms.put(loop, new ArrayList<GameRoom>());
+        }
+        for (GameRoom room : rooms.values()) {
+            loopLoads.put(room.getLoop(), loopLoads.get(room.getLoop()) + room.getLoad());
+            loopRooms.get(room.getLoop()).add(room);
+        }
+        for (int moves = 0; moves < rooms.size(); moves++) {
+            RoomEventLoop busiest = loops[0], idlest = loops[0];
+            for (RoomEventLoop loop : loops) {
+                if (loopLoads.get(loop) > loopLoads.get(busiest)) {
+                    busiest = loop;
+                }
+                if (loopLoads.get(loop) < loopLoads.get(idlest)) {
+                    idlest = loop;
+                }
+            }
+            long gap = loopLoads.get(busiest) - loopLoads.get(idlest);
+            if (loopLoads.get(busiest) <= loopLoads.get(idlest) * REBALANCE_THRESHOLD || gap == 0) {
+                break;
+            }
+            //Move the busiest room that narrows the gap without reversing it
+            GameRoom roomToMove = null;
+            for (GameRoom room : loopRooms.get(busiest)) {
+                if (room.getLoad() > 0 && room.getLoad() < gap
+                        && (roomToMove == null || room.getLoad() > roomToMove.getLoad())) {
+                    roomToMove = room;
+                }
+            }
+            if (roomToMove == null) {
+                break;
+            }
+            roomToMove.migrate(idlest);
+            loopRooms.get(busiest).remove(roomToMove);
+            loopRooms.get(idlest).add(roomToMove);
+            loopLoads.put(busiest, loopLoads.get(busiest) - roomToMove.getLoad());
+            loopLoads.put(idlest, loopLoads.get(idlest) + roomToMove.getLoad());
+        }
+    }
+
+    /**
+     * The listener interface for receiving notifications about rooms opened
+     * by the scheduler.
+     */
+    public interface RoomListener extends EventListener {
+        /**
+         * Called on the room's loop once the room is open and pinned.
+         * @param room the room that was opened
+         */
+        void roomOpened(GameRoom room);
+    }
+}
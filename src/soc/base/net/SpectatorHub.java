@@ -0,0 +1,229 @@
+package soc.base.net;
+
+import soc.base.model.Board;
+import soc.base.model.Player;
+
+import java.util.ArrayList;
+import java.util.EventListener;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams the public view of a room's game to its spectators. Views are
+ * captured on the room's loop at most once per drain of the room's mailbox and
+ * shared by every spectator, but they are delivered by a separate pool of
+ * writer threads, so a spectator with a slow connection can never slow down
+ * the room.
+ * <p>
+ * Each spectator has a single slot holding the latest view that has not been
+ * delivered to them yet. A newer view replaces the one in the slot, so a
+ * spectator who falls behind is never sent a stale view. Since every view
+ * contains the whole public state of the game, the spectator skips straight
+ * to the present instead of replaying every step they missed.
+ * @author Connor Barnes
+ */
+public class SpectatorHub {
+    private final GameRoom room;
+    private final Executor writer;
+    private final ArrayList<Session> sessions;//Only touched by the room's loop
+    private PublicGameView latestView;//Only touched by the room's loop
+    private long version;//Only touched by the room's loop
+    private volatile int numSpectators;
+
+    /**
+     * Constructs a hub that streams the specified room's public view using
+     * the specified writer threads.
+     * @param room   the room whose public view is streamed
+     * @param writer the threads that deliver views to spectators
+     */
+    SpectatorHub(GameRoom room, Executor writer) {
+        this.room = room;
+        this.writer = writer;
+        sessions = new ArrayList<Session>();
+        latestView = null;
+        version = 0;
+        numSpectators = 0;
+    }
+
+    /**
+     * Adds the specified spectator to the room. The spectator is sent the
+     * current public view right away and then every update after that. Can be
+     * called from any thread.
+     * @param listener the spectator to add
+     */
+    public void addSpectator(final SpectatorListener listener) {
+        room.execute(new Runnable() {
+            @Override
+            public void run() {
+                Session session = new Session(listener);
+                sessions.add(session);
+                numSpectators = sessions.size();
+                if (latestView == null) {
+                    latestView = new PublicGameView(version++, room.getBoard(), room.getPlayers());
+                }
+                session.offer(latestView);
+            }
+        });
+    }
+
+    /**
+     * Removes the specified spectator from the room. Views that have not been
+     * delivered to the spectator yet are discarded. Can be called from any
+     * thread.
+     * @param listener the spectator to remove
+     */
+    public void removeSpectator(final SpectatorListener listener) {
+        room.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < sessions.size(); i++) {
+                    if (sessions.get(i).listener == listener) {
+                        sessions.remove(i).close();
+                        numSpectators = sessions.size();
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the number of spectators watching the room. Can be called from
+     * any thread.
+     * @return the number of spectators watching the room
+     */
+    public int getNumSpectators() {
+        return numSpectators;
+    }
+
+    /**
+     * Captures the current public view of the game and offers it to every
+     * spectator. Nothing is captured if there are no spectators. Must only be
+     * called from the room's loop.
+     * @param board   the Board that the game is played on
+     * @param players the players in the game
+     */
+    void publish(Board board, Player[] players) {
+        if (sessions.isEmpty()) {
+            latestView = null;//Captured again when the next spectator arrives
+            return;
+        }
+        latestView = new PublicGameView(version++, board, players);
+        for (int i = sessions.size() - 1; i >= 0; i--) {
+            if (sessions.get(i).isClosed()) {
+                sessions.remove(i);
+            } else {
+                sessions.get(i).offer(latestView);
+            }
+        }
+        numSpectators = sessions.size();
+    }
+
+    /**
+     * Removes every spectator. Must only be called from the room's loop (or
+     * once the room has been closed).
+     */
+    void close() {
+        for (Session session : sessions) {
+            session.close();
+        }
+        sessions.clear();
+        numSpectators = 0;
+    }
+
+    /**
+     * The connection to one spectator. Views are offered by the room's loop
+     * and delivered by the writer threads, at most one writer at a time.
+     */
+    private class Session implements Runnable {
+        private final SpectatorListener listener;
+        private final AtomicReference<PublicGameView> pendingView;//The latest view not delivered yet (or null)
+        private final AtomicBoolean flushScheduled;
+        private final AtomicLong numCoalesced;
+        private volatile boolean closed;
+
+        /**
+         * Constructs a session that delivers views to the specified
+         * spectator.
+         * @param listener the spectator to deliver views to
+         */
+        private Session(SpectatorListener listener) {
+            this.listener = listener;
+            pendingView = new AtomicReference<PublicGameView>(null);
+            flushScheduled = new AtomicBoolean(false);
+            numCoalesced = new AtomicLong(0);
+            closed = false;
+        }
+
+        /**
+         * Puts the specified view in the slot without ever blocking,
+         * replacing the view that was waiting there (if any).
+         * @param view the view to deliver
+         */
+        private void offer(PublicGameView view) {
+            if (pendingView.getAndSet(view) != null) {
+                numCoalesced.incrementAndGet();
+            }
+            if (flushScheduled.compareAndSet(false, true)) {
+                writer.execute(this);
+            }
+        }
+
+        /**
+         * Delivers the view in the slot to the spectator. Only one view is
+         * delivered per run so that other spectators can share the writer
+         * threads. The spectator is dropped if their listener throws an
+         * exception.
+         */
+        @Override
+        public void run() {
+            PublicGameView view = pendingView.getAndSet(null);
+            if (!closed && view != null) {
+                try {
+                    listener.viewUpdated(view, numCoalesced.getAndSet(0));
+                } catch (RuntimeException exception) {
+                    System.err.println("Dropping spectator of room " + room.getId() + ": " + exception);
+                    close();
+                }
+            }
+            flushScheduled.set(false);
+            if (!closed && pendingView.get() != null && flushScheduled.compareAndSet(false, true)) {
+                writer.execute(this);
+            }
+        }
+
+        /**
+         * Returns true if the spectator has been dropped; otherwise false.
+         * @return true if the spectator has been dropped; otherwise false
+         */
+        private boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Stops delivering views to the spectator.
+         */
+        private void close() {
+            closed = true;
+            pendingView.set(null);
+        }
+    }
+
+    /**
+     * The listener interface for spectators who want to receive the public
+     * view of a room's game.
+     */
+    public interface SpectatorListener extends EventListener {
+        /**
+         * Called on one of the writer threads whenever a newer public view of
+         * the game is available. Never called by two threads at once for the
+         * same spectator.
+         * @param view         the latest public view of the game
+         * @param numCoalesced the number of views that were skipped because
+         *                     the spectator fell behind
+         */
+        void viewUpdated(PublicGameView view, long numCoalesced);
+    }
+}
@@ -0,0 +1,101 @@
+package soc.base.sim;
+
+/**
+ * Makes every decision for one seat of a HeadlessGame. The game asks the bot
+ * where to place its setup pieces, what to discard, where to move the robber
+ * and who to steal from, and calls playTurn() once the dice have been rolled
+ * (and the robber has been moved on a 7). During playTurn() the bot builds,
+ * trades and plays development cards by calling the game's actions, each of
+ * which returns false (and changes nothing) if it is not allowed. Each
+ * decision is made when the game's state machine reaches the phase that
+ * needs it (see HeadlessGame.advance()), and a seat can be left without a
+ * bot to be played by calling HeadlessGame.step() instead.
+ * <p>
+ * A bot only plays in one game at a time, so it may keep state about that
+ * game. Anything the game returns must not be changed by the bot.
+ * @author Connor Barnes
+ */
+public interface Bot {
+    /**
+     * Returns the location of the corner where the bot places a setup
+     * settlement. An invalid location is replaced with a random valid one.
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     * @return the location of the corner
+     */
+    int placeSetupSettlement(HeadlessGame game, int player);
+
+    /**
+     * Returns the location where the bot places the road next to the setup
+     * settlement it just placed. An invalid location is replaced with a
+     * random valid one.
+     * @param game          the game being played
+     * @param player        the index of the bot's player
+     * @param settlementLoc the location of the settlement just placed
+     * @return the location of the road
+     */
+    int placeSetupRoad(HeadlessGame game, int player, int settlementLoc);
+
+    /**
+     * Chooses the cards the bot discards after a 7 is rolled. A choice that
+     * does not add up to the right number of cards (or that the player does
+     * not have) is replaced with a random one.
+     * @param game      the game being played
+     * @param player    the index of the bot's player
+     * @param numCards  the number of cards that must be discarded
+     * @param discarded filled with the number of cards of each resource to
+     *                  discard (all zero when called)
+     */
+    void discard(HeadlessGame game, int player, int numCards, int[] discarded);
+
+    /**
+     * Returns the location of the tile the bot moves the robber to. The tile
+     * the robber is already on (or an invalid location) is replaced with a
+     * random tile.
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     * @return the location of the tile
+     */
+    int moveRobber(HeadlessGame game, int player);
+
+    /**
+     * Returns the index of the player the bot steals from. Only called if
+     * there is someone to steal from; an invalid choice is replaced with one
+     * of the valid victims.
+     * @param game    the game being played
+     * @param player  the index of the bot's player
+     * @param tileLoc the location of the tile the robber was moved to
+     * @return the index of the player to steal from
+     */
+    int chooseVictim(HeadlessGame game, int player, int tileLoc);
+
+    /**
+     * Plays the rest of the bot's turn after the dice have been rolled. The
+     * turn ends when this method returns (or as soon as the game is won).
+     * After a Road Building card, only roads can be built until the free
+     * roads have been placed.
+     * @param game   the game being played
+     * @param player the index of the bot's player
+     */
+    void playTurn(HeadlessGame game, int player);
+
+    /**
+     * Returns about how many bytes this bot keeps: the bot itself and every
+     * object it holds that no other bot shares. Used by GameRegistry to
+     * count what a live game retains, and checked by tests/FootprintReport.
+     * @return the size of the bot's state in bytes
+     */
+    int getEstimatedBytes();
+
+    /**
+     * Creates a new bot for each game, so that bots can keep state about the
+     * game they are playing. A factory may be used by several threads at once.
+     */
+    interface Factory {
+        /**
+         * Returns a new bot.
+         * @return a new bot
+         */
+        Bot createBot();
+    }
+}
@@ -0,0 +1,270 @@
+package soc.base.sim;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A log of the commands that changed a game, grouped into actions, that can
+ * be stepped backwards and forwards. A command is one small change packed
+ * into an int (see encode()) that holds everything needed to apply it again
+ * or to apply its exact inverse, so undoing an action costs only as much as
+ * the few commands it was made of and no copy of the game is ever kept.
+ * <p>
+ * The log only stores commands; the HeadlessGame decides what they mean.
+ * Commands added after an action was undone discard the actions that could
+ * have been redone. The arrays grow as needed and are kept when the log is
+ * cleared, so a log that is cleared every turn stops allocating after the
+ * first few turns.
+ * @author Connor Barnes
+ */
+public class CommandLog {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int OP_BITS = 5;
+    private static final int PLAYER_BITS = 3;
+    private static final int ARG_BITS = 8;
+
+    private int[] commands;
+    private int[] actionEnds;//Index is the action, value is the index of the command after its last one
+    private int numCommands, maxCommands;//Commands from numCommands up to maxCommands can be redone
+    private int numActions, maxActions;
+    private int actionStart;//Index of the first command of the action being recorded
+
+    /**
+     * Constructs an empty log.
+     */
+    public CommandLog() {
+        commands = new int[INITIAL_CAPACITY];
+        actionEnds = new int[INITIAL_CAPACITY];
+        clear();
+    }
+
+    /**
+     * Removes every command, so nothing can be undone or redone.
+     */
+    public void clear() {
+        numCommands = 0;
+        maxCommands = 0;
+        numActions = 0;
+        maxActions = 0;
+        actionStart = 0;
+    }
+
+    /**
+     * Adds a command to the action being recorded. Any actions that could
+     * have been redone are discarded.
+     * @param command the command (see encode())
+     */
+    public void add(int command) {
+        if (numCommands == commands.length) {
+            commands = Arrays.copyOf(commands, 2 * commands.length);
+        }
+        commands[numCommands++] = command;
+        maxCommands = numCommands;
+        maxActions = numActions;
+    }
+
+    /**
+     * Ends the action being recorded. Ending an action with no commands does
+     * nothing.
+     */
+    public void endAction() {
+        if (numCommands == actionStart) {
+            return;
+        }
+        if (numActions == actionEnds.length) {
+            actionEnds = Arrays.copyOf(actionEnds, 2 * actionEnds.length);
+        }
+        actionEnds[numActions++] = numCommands;
+        maxActions = numActions;
+        actionStart = numCommands;
+    }
+
+    /**
+     * Returns true if there is an action to undo.
+     * @return true if there is an action to undo
+     */
+    public boolean canUndo() {
+        return numActions > 0 && actionStart == numCommands;
+    }
+
+    /**
+     * Returns true if there is an undone action to redo.
+     * @return true if there is an action to redo
+     */
+    public boolean canRedo() {
+        return numActions < maxActions && actionStart == numCommands;
+    }
+
+    /**
+     * Steps back over the last action. Its commands are those from
+     * getNumCommands() (after the call) up to the value before the call, and
+     * should be reverted last to first.
+     * @throws IllegalStateException if there is no action to undo
+     */
+    public void undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("There is no action to undo");
+        }
+        numActions--;
+        numCommands = numActions == 0 ? 0 : actionEnds[numActions - 1];
+        actionStart = numCommands;
+    }
+
+    /**
+     * Steps forward over the last action that was undone. Its commands are
+     * those from getNumCommands() (before the call) up to the value after
+     * the call, and should be applied first to last.
+     * @throws IllegalStateException if there is no action to redo
+     */
+    public void redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("There is no action to redo");
+        }
+        numCommands = actionEnds[numActions++];
+        actionStart = numCommands;
+    }
+
+    /**
+     * Returns the number of actions that can be undone.
+     * @return the number of actions that can be undone
+     */
+    public int getNumActions() {
+        return numActions;
+    }
+
+    /**
+     * Returns the number of commands that have been applied.
+     * @return the number of commands that have been applied
+     */
+    public int getNumCommands() {
+        return numCommands;
+    }
+
+    /**
+     * Returns the command at the specified index, including commands that
+     * were undone and can be redone.
+     * @param index the index of the command
+     * @return the command
+     * @throws IndexOutOfBoundsException if there is no command at the
+     *                                   specified index
+     */
+    public int getCommand(int index) {
+        if (index < 0 || index >= maxCommands) {
+            throw new IndexOutOfBoundsException("Invalid command index: " + index);
+        }
+        return commands[index];
+    }
+
+    /**
+     * Returns about how many bytes the log's arrays take, which grow with the
+     * longest turn the log has recorded.
+     * @return the size of the arrays in bytes
+     */
+    public int getArrayBytes() {
+        return 2 * 16 + 4 * (commands.length + actionEnds.length);//16 byte array headers
+    }
+
+    /**
+     * Writes every command and action in the log to the specified output,
+     * including the ones that can be redone.
+     * @param out the output
+     * @throws IOException if the output throws one
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeShort(maxCommands);
+        out.writeShort(numCommands);
+        out.writeShort(actionStart);
+        for (int i = 0; i < maxCommands; i++) {
+            out.writeInt(commands[i]);
+        }
+        out.writeShort(maxActions);
+        out.writeShort(numActions);
+        for (int i = 0; i < maxActions; i++) {
+            out.writeShort(actionEnds[i]);
+        }
+    }
+
+    /**
+     * Replaces the contents of this log with the commands and actions
+     * written by writeTo().
+     * @param in the input
+     * @throws IOException              if the input throws one
+     * @throws IllegalArgumentException if the input does not hold a log
+     */
+    public void readFrom(DataInput in) throws IOException {
+        int newMaxCommands = in.readUnsignedShort();
+        int newNumCommands = in.readUnsignedShort();
+        int newActionStart = in.readUnsignedShort();
+        int[] newCommands = new int[Math.max(INITIAL_CAPACITY, newMaxCommands)];
+        for (int i = 0; i < newMaxCommands; i++) {
+            newCommands[i] = in.readInt();
+        }
+        int newMaxActions = in.readUnsignedShort();
+        int newNumActions = in.readUnsignedShort();
+        int[] newActionEnds = new int[Math.max(INITIAL_CAPACITY, newMaxActions)];
+        for (int i = 0; i < newMaxActions; i++) {
+            newActionEnds[i] = in.readUnsignedShort();
+        }
+        if (newNumCommands > newMaxCommands || newActionStart > newNumCommands || newNumActions > newMaxActions
+                || (newNumActions > 0 && newActionEnds[newNumActions - 1] > newActionStart)) {
+            throw new IllegalArgumentException("Not a command log");
+        }
+        commands = newCommands;
+        actionEnds = newActionEnds;
+        maxCommands = newMaxCommands;
+        numCommands = newNumCommands;
+        maxActions = newMaxActions;
+        numActions = newNumActions;
+        actionStart = newActionStart;
+    }
+
+    /**
+     * Packs a command into an int.
+     * @param op     the operation (0 to 31)
+     * @param player the index of the player (0 to 7)
+     * @param a      the first argument (0 to 255)
+     * @param b      the second argument (-32768 to 32767)
+     * @return the command
+     */
+    public static int encode(int op, int player, int a, int b) {
+        return op | player << OP_BITS | a << (OP_BITS + PLAYER_BITS) | b << (OP_BITS + PLAYER_BITS + ARG_BITS);
+    }
+
+    /**
+     * Returns the operation of the specified command.
+     * @param command the command
+     * @return the operation
+     */
+    public static int getOp(int command) {
+        return command & ((1 << OP_BITS) - 1);
+    }
+
+    /**
+     * Returns the player of the specified command.
+     * @param command the command
+     * @return the index of the player
+     */
+    public static int getPlayer(int command) {
+        return (command >>> OP_BITS) & ((1 << PLAYER_BITS) - 1);
+    }
+
+    /**
+     * Returns the first argument of the specified command.
+     * @param command the command
+     * @return the first argument
+     */
+    public static int getA(int command) {
+        return (command >>> (OP_BITS + PLAYER_BITS)) & ((1 << ARG_BITS) - 1);
+    }
+
+    /**
+     * Returns the second argument of the specified command.
+     * @param command the command
+     * @return the second argument (sign-extended)
+     */
+    public static int getB(int command) {
+        return command >> (OP_BITS + PLAYER_BITS + ARG_BITS);
+    }
+}
@@ -0,0 +1,181 @@
+package soc.base.sim;
+
+import java.util.Arrays;
+
+/**
+ * Elo ratings of a fixed set of bots, updated one game at a time. A game
+ * between four seats is scored as a match between every pair of seats held
+ * by different bots: the winner beats each of the others, and two seats that
+ * both lost (or a game that ended in a draw) count as a draw.
+ * <p>
+ * Besides the running Elo rating (which depends on the order of the games),
+ * the ratings keep each bot's total score against the others, from which a
+ * performance rating and its 95% confidence interval are worked out. Only a
+ * few numbers are kept per bot, however many games are added. The ratings
+ * are not thread-safe; the TournamentRunner adds every game from one thread.
+ * @author Connor Barnes
+ */
+public class EloRatings {
+    public static final double INITIAL_RATING = 1500;
+    private static final double K_FACTOR = 8;//How far one match moves a rating
+    private static final double Z_95 = 1.96; //Number of standard errors in a 95% confidence interval
+    private static final double ELO_SCALE = 400 / Math.log(10);
+
+    private final double[] ratings;
+    private final double[] scores;     //Index is the bot, value is its total score in matches
+    private final long[] numMatches;   //Index is the bot
+    private final long[] numGames, numWins;//Index is the bot
+    private final double[] deltas;     //Reused by every game
+    private long numGamesAdded, numDraws;
+
+    /**
+     * Constructs the ratings of the specified number of bots, all starting at
+     * INITIAL_RATING.
+     * @param numBots the number of bots
+     */
+    public EloRatings(int numBots) {
+        ratings = new double[numBots];
+        Arrays.fill(ratings, INITIAL_RATING);
+        scores = new double[numBots];
+        numMatches = new long[numBots];
+        numGames = new long[numBots];
+        numWins = new long[numBots];
+        deltas = new double[numBots];
+        numGamesAdded = 0;
+        numDraws = 0;
+    }
+
+    /**
+     * Updates the ratings with the result of a game.
+     * @param seats      the index of the bot in each seat
+     * @param winnerSeat the seat of the winner (or -1 if the game was a draw)
+     */
+    public void addGame(int[] seats, int winnerSeat) {
+        Arrays.fill(deltas, 0);
+        for (int i = 0; i < seats.length; i++) {
+            int bot = seats[i];
+            numGames[bot]++;
+            if (i == winnerSeat) {
+                numWins[bot]++;
+            }
+            for (int j = i + 1; j < seats.length; j++) {
+                int otherBot = seats[j];
+                if (bot == otherBot) {
+                    continue;//A bot playing itself tells us nothing about its rating
+                }
+                double score = i == winnerSeat ? 1 : j == winnerSeat ? 0 : 0.5;
+                double expected = 1 / (1 + Math.pow(10, (ratings[otherBot] - ratings[bot]) / 400));
+                //Every match in a game is rated against the ratings from before the game
+                deltas[bot] += K_FACTOR * (score - expected);
+                deltas[otherBot] -= K_FACTOR * (score - expected);
+                scores[bot] += score;
+                scores[otherBot] += 1 - score;
+                numMatches[bot]++;
+                numMatches[otherBot]++;
+            }
+        }
+        for (int bot = 0; bot < ratings.length; bot++) {
+            ratings[bot] += deltas[bot];
+        }
+        numGamesAdded++;
+        if (winnerSeat < 0) {
+            numDraws++;
+        }
+    }
+
+    /**
+     * Returns the running Elo rating of the specified bot.
+     * @param bot the index of the bot
+     * @return the bot's Elo rating
+     */
+    public double getRating(int bot) {
+        return ratings[bot];
+    }
+
+    /**
+     * Returns the rating at which the specified bot's average score against
+     * the other bots would be expected, relative to the average of the bots
+     * it played (which is given INITIAL_RATING). Unlike the running rating,
+     * it does not depend on the order of the games.
+     * @param bot the index of the bot
+     * @return the bot's performance rating (or NaN if it has no matches)
+     */
+    public double getPerformanceRating(int bot) {
+        if (numMatches[bot] == 0) {
+            return Double.NaN;
+        }
+        double score = clamp(scores[bot] / numMatches[bot], numMatches[bot]);
+        return INITIAL_RATING + ELO_SCALE * Math.log(score / (1 - score));
+    }
+
+    /**
+     * Returns half the width of the 95% confidence interval of the specified
+     * bot's performance rating. The matches within a game are not
+     * independent, so the interval is based on the number of games the bot
+     * played rather than the number of matches.
+     * @param bot the index of the bot
+     * @return half the width of the confidence interval (or infinity if the
+     * bot has not played)
+     */
+    public double getConfidenceInterval(int bot) {
+        if (numMatches[bot] == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = clamp(scores[bot] / numMatches[bot], numGames[bot]);
+        return Z_95 * ELO_SCALE / Math.sqrt(numGames[bot] * score * (1 - score));
+    }
+
+    /**
+     * Returns the fraction of its games that the specified bot won.
+     * @param bot the index of the bot
+     * @return the bot's win rate (or NaN if it has not played)
+     */
+    public double getWinRate(int bot) {
+        return (double) numWins[bot] / numGames[bot];
+    }
+
+    /**
+     * Returns the number of games the specified bot has played.
+     * @param bot the index of the bot
+     * @return the number of games the bot has played
+     */
+    public long getNumGames(int bot) {
+        return numGames[bot];
+    }
+
+    /**
+     * Returns the number of games that have been added.
+     * @return the number of games that have been added
+     */
+    public long getNumGames() {
+        return numGamesAdded;
+    }
+
+    /**
+     * Returns the number of games that ended without a winner.
+     * @return the number of games that ended in a draw
+     */
+    public long getNumDraws() {
+        return numDraws;
+    }
+
+    /**
+     * Returns the number of bots being rated.
+     * @return the number of bots
+     */
+    public int getNumBots() {
+        return ratings.length;
+    }
+
+    /**
+     * Keeps an average score away from 0 and 1 (where its rating would be
+     * infinite) by half a match.
+     * @param score  the average score
+     * @param sample the number of matches (or games) the average is over
+     * @return the clamped score
+     */
+    private static double clamp(double score, long sample) {
+        double margin = 0.5 / sample;
+        return Math.min(1 - margin, Math.max(margin, score));
+    }
+}
@@ -0,0 +1,112 @@
+package soc.base.sim;
+
+/**
+ * The actions that can be passed to HeadlessGame.step(), each packed into an
+ * int: a type and up to two arguments (see encode()). Which types are allowed
+ * depends on the phase of the game; an action that is not allowed is rejected
+ * by step() without changing anything.
+ * <p>
+ * Locations, resources and players are given by their index, as everywhere
+ * else in HeadlessGame.
+ * @author Connor Barnes
+ */
+public final class GameAction {
+    public static final int PLACE_SETTLEMENT = 0;    //SETUP_SETTLEMENT: place a settlement at corner a
+    public static final int PLACE_ROAD = 1;          //SETUP_ROAD: place a road at road location a
+    public static final int ROLL = 2;                //ROLL: roll the dice
+    public static final int DISCARD = 3;             //DISCARD: discard b cards of resource a
+    public static final int MOVE_ROBBER = 4;         //MOVE_ROBBER: move the robber to tile a
+    public static final int STEAL = 5;               //STEAL: steal a random card from player a
+    public static final int BUILD_ROAD = 6;          //MAIN or ROAD_BUILDING: build a road at road location a
+    public static final int BUILD_SETTLEMENT = 7;    //MAIN: build a settlement at corner a
+    public static final int BUILD_CITY = 8;          //MAIN: upgrade the settlement at corner a
+    public static final int BUY_DEV_CARD = 9;        //MAIN: buy a development card
+    public static final int PLAY_KNIGHT = 10;        //MAIN: play a Knight
+    public static final int PLAY_ROAD_BUILDING = 11; //MAIN: play Road Building
+    public static final int PLAY_YEAR_OF_PLENTY = 12;//MAIN: play Year of Plenty, taking resources a and b
+    public static final int PLAY_MONOPOLY = 13;      //MAIN: play Monopoly on resource a
+    public static final int TRADE = 14;              //MAIN: trade resource a with the bank for one of resource b
+    public static final int END_TURN = 15;           //MAIN or ROAD_BUILDING: end the turn
+    public static final int UNDO = 16;               //Undo the current player's last action this turn
+    public static final int REDO = 17;               //Redo the last action that was undone
+    private static final int TYPE_BITS = 5;
+    private static final int ARG_BITS = 8;
+    private static final String[] NAMES = {"PLACE_SETTLEMENT", "PLACE_ROAD", "ROLL", "DISCARD", "MOVE_ROBBER", "STEAL",
+            "BUILD_ROAD", "BUILD_SETTLEMENT", "BUILD_CITY", "BUY_DEV_CARD", "PLAY_KNIGHT", "PLAY_ROAD_BUILDING",
+            "PLAY_YEAR_OF_PLENTY", "PLAY_MONOPOLY", "TRADE", "END_TURN", "UNDO", "REDO"};
+
+    /**
+     * Prevents the class from being instantiated.
+     */
+    private GameAction() {
+    }
+
+    /**
+     * Packs an action with no arguments into an int.
+     * @param type the type of the action
+     * @return the action
+     */
+    public static int encode(int type) {
+        return encode(type, 0, 0);
+    }
+
+    /**
+     * Packs an action with one argument into an int.
+     * @param type the type of the action
+     * @param a    the argument (0 to 255)
+     * @return the action
+     */
+    public static int encode(int type, int a) {
+        return encode(type, a, 0);
+    }
+
+    /**
+     * Packs an action into an int.
+     * @param type the type of the action (0 to 31)
+     * @param a    the first argument (0 to 255)
+     * @param b    the second argument (0 to 524287)
+     * @return the action
+     */
+    public static int encode(int type, int a, int b) {
+        return type | (a & ((1 << ARG_BITS) - 1)) << TYPE_BITS | b << (TYPE_BITS + ARG_BITS);
+    }
+
+    /**
+     * Returns the type of the specified action.
+     * @param action the action
+     * @return the type of the action
+     */
+    public static int getType(int action) {
+        return action & ((1 << TYPE_BITS) - 1);
+    }
+
+    /**
+     * Returns the first argument of the specified action.
+     * @param action the action
+     * @return the first argument
+     */
+    public static int getA(int action) {
+        return (action >>> TYPE_BITS) & ((1 << ARG_BITS) - 1);
+    }
+
+    /**
+     * Returns the second argument of the specified action.
+     * @param action the action
+     * @return the second argument
+     */
+    public static int getB(int action) {
+        return action >>> (TYPE_BITS + ARG_BITS);
+    }
+
+    /**
+     * Returns a readable description of the specified action, such as
+     * "BUILD_ROAD(12, 0)".
+     * @param action the action
+     * @return a description of the action
+     */
+    public static String toString(int action) {
+        int type = getType(action);
+        String name = type < NAMES.length ? NAMES[type] : "UNKNOWN_" + type;
+        return name + "(" + getA(action) + ", " + getB(action) + ")";
+    }
+}
@@ -0,0 +1,62 @@
+package soc.base.sim;
+
+import java.util.Random;
+
+/**
+ * The random number generator of a HeadlessGame. It produces exactly the
+ * same numbers as a java.util.Random with the same seed (it uses the same
+ * linear congruential generator), but its 48 bit state can be read and set,
+ * so a saved game (see HeadlessGame.save()) carries on with the same dice,
+ * steals and bot decisions as the game it was saved from.
+ * <p>
+ * Like the game it belongs to, it is not thread-safe.
+ * @author Connor Barnes
+ */
+class GameRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;//Not initialized here, since Random's constructor sets it through setSeed()
+
+    /**
+     * Constructs a generator with the specified seed.
+     * @param seed the seed
+     */
+    GameRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Sets the seed of this generator, as Random.setSeed() does.
+     * @param seed the seed
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);//Clears the Gaussian that Random may have kept
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Returns the state of this generator.
+     * @return the state (48 bits)
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * Sets the state of this generator to one returned by getState().
+     * @param state the state
+     */
+    void setState(long state) {
+        this.state = state & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+}
@@ -0,0 +1,375 @@
+package soc.base.sim;
+
+import soc.base.model.BoardLayout;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Hosts many HeadlessGames in one process, each identified by an id, within
+ * a memory budget. A game that has not been used for a while is evicted into
+ * its saved state (see HeadlessGame.save(), a few hundred bytes) and loaded
+ * again on the next call that needs it. Loading places the pieces and deals
+ * the cards straight from the saved state, so it takes the same short time
+ * however long the game has been going. The bots are created anew, which
+ * gives back exactly the same game as long as they only keep what they can
+ * work out again from the game (as every bot in soc.base.ai does).
+ * <p>
+ * Games are evicted when they have been idle for longer than the registry's
+ * idle time. If the games still retain more than the budget allows (each
+ * live game is counted at its estimated size including its bots, see
+ * HeadlessGame.getEstimatedBytes()), the games that have been idle the
+ * longest are evicted as well. The budget is an average over every hosted
+ * game, and a live game can never be as small as a saved one, so each live
+ * game is also held to a limit of its own: a game larger than that is
+ * evicted as soon as the call that used it returns.
+ * <p>
+ * After every call, the bots have made every decision they can, so a game is
+ * always either over or waiting for a seat without a bot. All public methods
+ * are synchronized.
+ * @author Connor Barnes
+ */
+public class GameRegistry {
+    public static final int DEFAULT_BYTES_PER_GAME = 4096;
+    public static final int DEFAULT_MAX_LIVE_GAME_BYTES = 32768;//A game between four GreedyBots takes about 20,000
+    public static final long DEFAULT_MAX_IDLE_MILLIS = 60000;
+    private static final int ENTRY_BYTES = 96;//An entry, its key and its place in the maps
+
+    private final long bytesPerGame;
+    private final int maxLiveGameBytes;
+    private final long maxIdleNanos;
+    private final HashMap<Long, Entry> entries;
+    private final LinkedHashMap<Long, Entry> liveEntries;//Least recently used first
+    private long nextId;
+    private long liveBytes;   //Total estimated size of the live games
+    private long evictedBytes;//Total size of the saved states of the evicted games
+    private long numEvictions, numRehydrations;
+
+    /**
+     * Constructs an empty registry with a budget of DEFAULT_BYTES_PER_GAME
+     * per game, a limit of DEFAULT_MAX_LIVE_GAME_BYTES per live game and an
+     * idle time of DEFAULT_MAX_IDLE_MILLIS.
+     */
+    public GameRegistry() {
+        this(DEFAULT_BYTES_PER_GAME, DEFAULT_MAX_LIVE_GAME_BYTES, DEFAULT_MAX_IDLE_MILLIS);
+    }
+
+    /**
+     * Constructs an empty registry with the specified budget, limit and idle
+     * time.
+     * @param bytesPerGame     the number of bytes each hosted game is allowed
+     *                         on average
+     * @param maxLiveGameBytes the number of bytes a game can take and stay
+     *                         live between calls
+     * @param maxIdleMillis    the longest a game can go unused and stay live
+     * @throws IllegalArgumentException if the budget or the limit is not
+     *                                  positive or the idle time is negative
+     */
+    public GameRegistry(int bytesPerGame, int maxLiveGameBytes, long maxIdleMillis) {
+        if (bytesPerGame < 1 || maxLiveGameBytes < 1) {
+            throw new IllegalArgumentException("The budget and the limit must be positive");
+        } else if (maxIdleMillis < 0) {
+            throw new IllegalArgumentException("The idle time must not be negative");
+        }
+        this.bytesPerGame = bytesPerGame;
+        this.maxLiveGameBytes = maxLiveGameBytes;
+        maxIdleNanos = maxIdleMillis * 1000000;
+        entries = new HashMap<Long, Entry>();
+        liveEntries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+        nextId = 0;
+        liveBytes = 0;
+        evictedBytes = 0;
+        numEvictions = 0;
+        numRehydrations = 0;
+    }
+
+    /**
+     * Creates a game and lets its bots play until a seat without a bot has to
+     * act (or the game is over).
+     * @param layout the layout of the board
+     * @param seats  creates the bot in each seat, or null for a seat played
+     *               by calling step()
+     * @param seed   the seed of the game
+     * @return the id of the game
+     * @throws IllegalArgumentException if there is not one entry per seat
+     */
+    public synchronized long create(BoardLayout layout, Bot.Factory[] seats, long seed) {
+        if (seats.length != HeadlessGame.NUM_PLAYERS) {
+            throw new IllegalArgumentException("A game needs exactly " + HeadlessGame.NUM_PLAYERS + " seats");
+        }
+        Entry entry = new Entry(nextId++, seats.clone());
+        HeadlessGame game = new HeadlessGame(layout, createBots(entry.seats), seed);
+        advanceBots(game);
+        entries.put(entry.id, entry);
+        setLive(entry, game);
+        evictIdle(entry);
+        return entry.id;
+    }
+
+    /**
+     * Takes the specified action in the specified game (see
+     * HeadlessGame.step()), loading the game if it was evicted, and then lets
+     * the bots play until a seat without a bot has to act again.
+     * @param id     the id of the game
+     * @param action the action (see GameAction.encode())
+     * @return true if the action was taken, false if it is not allowed
+     * @throws IllegalArgumentException if there is no game with the id
+     */
+    public synchronized boolean step(long id, int action) {
+        Entry entry = use(id);
+        boolean taken = entry.game.step(action);
+        if (taken) {
+            advanceBots(entry.game);
+            liveBytes += entry.game.getEstimatedBytes() - entry.numBytes;//The log may have grown
+            entry.numBytes = entry.game.getEstimatedBytes();
+        }
+        evictIdle(entry);
+        return taken;
+    }
+
+    /**
+     * Returns the specified game, loading it if it was evicted. The game must
+     * only be read (every change must go through step()), and only until the
+     * next call to the registry, which may evict it.
+     * @param id the id of the game
+     * @return the game
+     * @throws IllegalArgumentException if there is no game with the id
+     */
+    public synchronized HeadlessGame getGame(long id) {
+        Entry entry = use(id);
+        HeadlessGame game = entry.game;
+        evictIdle(entry);
+        return game;
+    }
+
+    /**
+     * Removes the specified game from the registry.
+     * @param id the id of the game
+     * @return true if the game was removed, false if there was no game with
+     * the id
+     */
+    public synchronized boolean remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.game != null) {
+            liveEntries.remove(id);
+            liveBytes -= entry.numBytes;
+        } else {
+            evictedBytes -= entry.savedState.length;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the specified game is live (has not been evicted).
+     * @param id the id of the game
+     * @return true if the game is live
+     * @throws IllegalArgumentException if there is no game with the id
+     */
+    public synchronized boolean isLive(long id) {
+        return getEntry(id).game != null;
+    }
+
+    /**
+     * Evicts every live game that has not been used for the registry's idle
+     * time. Every call that uses a game does this as well, so this only needs
+     * to be called when the registry would otherwise go unused for a while.
+     * @return the number of games evicted
+     */
+    public synchronized int evictIdle() {
+        return evictIdle(null);
+    }
+
+    /**
+     * Returns the number of games hosted.
+     * @return the number of games hosted
+     */
+    public synchronized int getNumGames() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of games that are live.
+     * @return the number of live games
+     */
+    public synchronized int getNumLiveGames() {
+        return liveEntries.size();
+    }
+
+    /**
+     * Returns the number of times a game has been evicted.
+     * @return the number of evictions
+     */
+    public synchronized long getNumEvictions() {
+        return numEvictions;
+    }
+
+    /**
+     * Returns the number of times an evicted game has been loaded again.
+     * @return the number of rehydrations
+     */
+    public synchronized long getNumRehydrations() {
+        return numRehydrations;
+    }
+
+    /**
+     * Returns the estimated memory retained by the hosted games: the
+     * estimated size of each live game (bots included), the exact size of
+     * each saved state, and the entries that keep track of them.
+     * @return the memory retained by the games, in bytes
+     */
+    public synchronized long getRetainedBytes() {
+        return liveBytes + evictedBytes + entries.size() * (long) ENTRY_BYTES;
+    }
+
+    /**
+     * Returns the memory the hosted games are allowed to retain.
+     * @return the budget, in bytes
+     */
+    public synchronized long getBudgetBytes() {
+        return entries.size() * bytesPerGame;
+    }
+
+    /**
+     * Returns the entry of the specified game as the most recently used,
+     * loading the game if it was evicted.
+     * @param id the id of the game
+     * @return the entry of the game
+     * @throws IllegalArgumentException if there is no game with the id
+     */
+    private Entry use(long id) {
+        Entry entry = getEntry(id);
+        if (entry.game == null) {
+            byte[] savedState = entry.savedState;
+            entry.savedState = null;
+            evictedBytes -= savedState.length;
+            setLive(entry, HeadlessGame.load(savedState, createBots(entry.seats)));
+            numRehydrations++;
+        } else {
+            liveEntries.get(id);//Moves the entry to the end of the access order
+        }
+        entry.lastUsed = System.nanoTime();
+        return entry;
+    }
+
+    /**
+     * Returns the entry of the specified game.
+     * @param id the id of the game
+     * @return the entry of the game
+     * @throws IllegalArgumentException if there is no game with the id
+     */
+    private Entry getEntry(long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            throw new IllegalArgumentException("There is no game with id " + id);
+        }
+        return entry;
+    }
+
+    /**
+     * Makes the specified game the live game of the specified entry, as the
+     * most recently used.
+     * @param entry the entry
+     * @param game  the game
+     */
+    private void setLive(Entry entry, HeadlessGame game) {
+        entry.game = game;
+        entry.numBytes = game.getEstimatedBytes();
+        entry.lastUsed = System.nanoTime();
+        liveBytes += entry.numBytes;
+        liveEntries.put(entry.id, entry);
+    }
+
+    /**
+     * Evicts the games that have been idle for longer than the idle time, and
+     * then, while the retained memory is over the budget, the games that have
+     * been idle the longest. The game just used is evicted as well if it is
+     * larger than the limit for a live game.
+     * @param keep the entry of the game just used, which is only evicted if
+     *             it is over the limit (or null)
+     * @return the number of games evicted
+     */
+    private int evictIdle(Entry keep) {
+        long oldest = System.nanoTime() - maxIdleNanos;
+        long budget = getBudgetBytes();
+        int numEvicted = 0;
+        Iterator<Entry> iterator = liveEntries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry == keep || entry.lastUsed - oldest > 0 && getRetainedBytes() <= budget) {
+                break;//The rest were used more recently
+            }
+            iterator.remove();
+            evict(entry);
+            numEvicted++;
+        }
+        if (keep != null && keep.numBytes > maxLiveGameBytes) {
+            liveEntries.remove(keep.id);
+            evict(keep);
+            numEvicted++;
+        }
+        return numEvicted;
+    }
+
+    /**
+     * Replaces the specified entry's game with its saved state. The entry
+     * must already have been removed from liveEntries.
+     * @param entry the entry of a live game
+     */
+    private void evict(Entry entry) {
+        entry.savedState = entry.game.save();
+        entry.game = null;
+        liveBytes -= entry.numBytes;
+        evictedBytes += entry.savedState.length;
+        numEvictions++;
+    }
+
+    /**
+     * Creates the bots of a game.
+     * @param seats creates the bot in each seat, or null for a seat without a
+     *              bot
+     * @return the bots
+     */
+    private static Bot[] createBots(Bot.Factory[] seats) {
+        Bot[] bots = new Bot[seats.length];
+        for (int seat = 0; seat < bots.length; seat++) {
+            bots[seat] = seats[seat] == null ? null : seats[seat].createBot();
+        }
+        return bots;
+    }
+
+    /**
+     * Lets the bots of the specified game make every decision they can.
+     * @param game the game
+     */
+    private static void advanceBots(HeadlessGame game) {
+        while (game.advance()) {
+            //Each decision is made by a bot
+        }
+    }
+
+    /**
+     * A hosted game, which is either live or evicted.
+     */
+    private static class Entry {
+        private final long id;
+        private final Bot.Factory[] seats;//Null for a seat without a bot
+        private HeadlessGame game;        //Null if the game is evicted
+        private int numBytes;             //The estimated size of the live game
+        private byte[] savedState;        //Null if the game is live
+        private long lastUsed;            //From System.nanoTime()
+
+        /**
+         * Constructs the entry of a new game.
+         * @param id    the id of the game
+         * @param seats creates the bot in each seat
+         */
+        private Entry(long id, Bot.Factory[] seats) {
+            this.id = id;
+            this.seats = seats;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package soc.base.sim;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many HeadlessGames at once on a small executor. A game only uses a
+ * thread while it has something to do: its bots make their decisions a few
+ * at a time (so a game between bots cannot hold a thread for long), and when
+ * it has to wait for a seat without a bot it is parked and the listener is
+ * told which player must act. Parked games hold no thread at all, so
+ * thousands of games waiting on slow players (over a network, say) can share
+ * a handful of threads.
+ * <p>
+ * Actions for a parked game are passed to submit() from any thread. They are
+ * queued, and the game is put back on the executor to take them with step()
+ * and carry on. A game is only ever run by one thread at a time, and each run
+ * starts after the last one ended, so the games themselves need no locking;
+ * they should not be read from other threads while they are running.
+ * @author Connor Barnes
+ */
+public class GameScheduler {
+    private static final int DECISIONS_PER_RUN = 32;//Bot decisions a game makes before letting other games run
+
+    private final Executor executor;
+    private final Listener listener;
+    private final AtomicInteger numGames;  //Games that are not over
+    private final AtomicInteger numWaiting;//Games parked until an action is submitted
+
+    /**
+     * Constructs a scheduler that runs games on the specified executor.
+     * @param executor runs the games (a fixed pool of a few threads is
+     *                 enough)
+     * @param listener told when a game needs an action or is over
+     */
+    public GameScheduler(Executor executor, Listener listener) {
+        this.executor = executor;
+        this.listener = listener;
+        numGames = new AtomicInteger();
+        numWaiting = new AtomicInteger();
+    }
+
+    /**
+     * Adds a game and starts running it. The game must not be stepped by
+     * anything but the scheduler from now on.
+     * @param game the game to run
+     * @return the game's entry in the scheduler, to which actions are
+     * submitted
+     */
+    public ScheduledGame add(HeadlessGame game) {
+        ScheduledGame scheduledGame = new ScheduledGame(game);
+        numGames.incrementAndGet();
+        scheduledGame.running.set(true);
+        executor.execute(scheduledGame);
+        return scheduledGame;
+    }
+
+    /**
+     * Returns the number of games that have been added and are not over.
+     * @return the number of games being played
+     */
+    public int getNumGames() {
+        return numGames.get();
+    }
+
+    /**
+     * Returns the number of games that are parked, waiting for an action
+     * from a seat without a bot.
+     * @return the number of waiting games
+     */
+    public int getNumWaiting() {
+        return numWaiting.get();
+    }
+
+    /**
+     * A game being run by the scheduler.
+     */
+    public class ScheduledGame implements Runnable {
+        private final HeadlessGame game;
+        private final ConcurrentLinkedQueue<Integer> actions;//Submitted actions that have not been taken
+        private final AtomicBoolean running;//True while the game is on the executor (or about to be)
+        private boolean waiting;//Only read and written by the thread running the game
+        private volatile RuntimeException error;
+
+        /**
+         * Constructs an entry for the specified game.
+         * @param game the game to run
+         */
+        private ScheduledGame(HeadlessGame game) {
+            this.game = game;
+            actions = new ConcurrentLinkedQueue<Integer>();
+            running = new AtomicBoolean();
+            waiting = false;
+            error = null;
+        }
+
+        /**
+         * Queues an action for the player the game is waiting for and makes
+         * sure the game will run to take it. Can be called from any thread,
+         * including from the listener.
+         * @param action the action (see GameAction.encode())
+         */
+        public void submit(int action) {
+            actions.add(action);
+            if (running.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Returns the game. It should only be read while it is waiting for an
+         * action, or from the listener.
+         * @return the game
+         */
+        public HeadlessGame getGame() {
+            return game;
+        }
+
+        /**
+         * Returns what went wrong if the game stopped because of an exception.
+         * @return the exception (or null if there was none)
+         */
+        public RuntimeException getError() {
+            return error;
+        }
+
+        /**
+         * Takes the submitted actions and lets the bots make their decisions,
+         * then puts the game back on the executor if the bots have more to
+         * do, or parks it if it is waiting for an action.
+         */
+        @Override
+        public void run() {
+            if (waiting) {
+                waiting = false;
+                numWaiting.decrementAndGet();
+            }
+            try {
+                Integer action;
+                while ((action = actions.poll()) != null) {
+                    if (!game.step(action)) {
+                        listener.actionRejected(this, action);
+                    }
+                }
+                for (int i = 0; i < DECISIONS_PER_RUN && game.advance(); i++) {
+                    //Each decision is made by a bot
+                }
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            if (game.isOver() || error != null) {
+                numGames.decrementAndGet();
+                listener.gameOver(this);
+                return;//Stays marked as running, so it is never run again
+            }
+            if (!game.isAwaitingAction()) {
+                executor.execute(this);//A bot has more to do, but other games get a turn first
+                return;
+            }
+            waiting = true;
+            numWaiting.incrementAndGet();
+            if (actions.isEmpty()) {
+                listener.actionNeeded(this, game.getActingPlayer());
+            }
+            running.set(false);
+            if (!actions.isEmpty() && running.compareAndSet(false, true)) {
+                executor.execute(this);//An action arrived while the game was being parked
+            }
+        }
+    }
+
+    /**
+     * Told when a game needs an action or is over. Methods are called on the
+     * executor's threads and should return quickly; a listener that needs to
+     * wait for a player should return and submit the action when it has it.
+     */
+    public interface Listener {
+        /**
+         * Called when a game is waiting for an action from a seat without a
+         * bot.
+         * @param game   the game
+         * @param player the index of the player who must act
+         */
+        void actionNeeded(ScheduledGame game, int player);
+
+        /**
+         * Called when a submitted action was not allowed. The game is
+         * unchanged and will ask for another action.
+         * @param game   the game
+         * @param action the action that was rejected
+         */
+        void actionRejected(ScheduledGame game, int action);
+
+        /**
+         * Called once when a game is over, or has stopped because of an
+         * exception (see ScheduledGame.getError()).
+         * @param game the game
+         */
+        void gameOver(ScheduledGame game);
+    }
+}
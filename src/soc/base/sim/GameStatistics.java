@@ -0,0 +1,243 @@
+package soc.base.sim;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Running totals over simulated games: the win rate of each seat, of each
+ * corner chosen for a setup settlement and of each share of the setup pips,
+ * and a histogram of how many turns the games lasted. Every statistic is a
+ * fixed set of counters, so the memory used does not grow with the number of
+ * games.
+ * <p>
+ * Games can be recorded from many threads at once. The counters are split
+ * into stripes and each thread adds to the stripe its id maps to, so threads
+ * rarely touch the same counters; a query adds up the stripes. Queries can be
+ * made while games are still being recorded, in which case each count is
+ * exact at some moment but counts read one after another may include a few
+ * more games. Totals from another run (or another process) can be added with
+ * merge().
+ * @author Connor Barnes
+ */
+public class GameStatistics {
+    public static final int NUM_PIP_SHARE_BUCKETS = 20;//Each bucket is 5% of the setup pips
+    public static final int NUM_LENGTH_BUCKETS = HeadlessGame.MAX_TURNS + 1;//One per number of turns
+    //Offsets of each statistic in a stripe
+    private static final int GAMES = 0;
+    private static final int DRAWS = 1;
+    private static final int SEAT_WINS = 2;
+    private static final int CORNER_GAMES = SEAT_WINS + HeadlessGame.NUM_PLAYERS;
+    private static final int CORNER_WINS = CORNER_GAMES + HeadlessGame.NUM_CORNERS;
+    private static final int PIP_SHARE_GAMES = CORNER_WINS + HeadlessGame.NUM_CORNERS;
+    private static final int PIP_SHARE_WINS = PIP_SHARE_GAMES + NUM_PIP_SHARE_BUCKETS;
+    private static final int LENGTHS = PIP_SHARE_WINS + NUM_PIP_SHARE_BUCKETS;
+    private static final int STRIPE_LENGTH = LENGTHS + NUM_LENGTH_BUCKETS;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Constructs empty statistics with enough stripes for the number of
+     * processors.
+     */
+    public GameStatistics() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs empty statistics with at least the specified number of
+     * stripes.
+     * @param numStripes the number of threads expected to record games at
+     *                   once
+     * @throws IllegalArgumentException if the number of stripes is not
+     *                                  positive
+     */
+    public GameStatistics(int numStripes) {
+        if (numStripes < 1) {
+            throw new IllegalArgumentException("The number of stripes must be positive");
+        }
+        int size = Integer.highestOneBit(numStripes);
+        if (size < numStripes) {
+            size <<= 1;
+        }
+        stripes = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new AtomicLongArray(STRIPE_LENGTH);
+        }
+        stripeMask = size - 1;
+    }
+
+    /**
+     * Adds a game that has been played to the end.
+     * @param game the game to add
+     * @throws IllegalArgumentException if the game is not over
+     */
+    public void record(HeadlessGame game) {
+        if (!game.isOver()) {
+            throw new IllegalArgumentException("The game is not over");
+        }
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        int winner = game.getWinner();
+        stripe.incrementAndGet(GAMES);
+        if (winner < 0) {
+            stripe.incrementAndGet(DRAWS);
+        } else {
+            stripe.incrementAndGet(SEAT_WINS + winner);
+        }
+        int totalPips = 0;
+        for (int player = 0; player < HeadlessGame.NUM_PLAYERS; player++) {
+            totalPips += game.getSetupPips(player);
+        }
+        for (int player = 0; player < HeadlessGame.NUM_PLAYERS; player++) {
+            int won = player == winner ? 1 : 0;
+            for (int round = 0; round < 2; round++) {
+                int cornerLoc = game.getSetupSettlementLoc(player, round);
+                stripe.incrementAndGet(CORNER_GAMES + cornerLoc);
+                stripe.addAndGet(CORNER_WINS + cornerLoc, won);
+            }
+            int bucket = Math.min(NUM_PIP_SHARE_BUCKETS - 1, game.getSetupPips(player) * NUM_PIP_SHARE_BUCKETS / Math.max(1, totalPips));
+            stripe.incrementAndGet(PIP_SHARE_GAMES + bucket);
+            stripe.addAndGet(PIP_SHARE_WINS + bucket, won);
+        }
+        stripe.incrementAndGet(LENGTHS + Math.min(game.getNumTurns(), NUM_LENGTH_BUCKETS - 1));
+    }
+
+    /**
+     * Adds the totals of the specified statistics to these ones. The other
+     * statistics should not be recorded to while they are merged.
+     * @param other the statistics to add
+     */
+    public void merge(GameStatistics other) {
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        for (int i = 0; i < STRIPE_LENGTH; i++) {
+            long count = other.sum(i);
+            if (count != 0) {
+                stripe.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of games recorded.
+     * @return the number of games recorded
+     */
+    public long getNumGames() {
+        return sum(GAMES);
+    }
+
+    /**
+     * Returns the number of games that ended without a winner.
+     * @return the number of draws recorded
+     */
+    public long getNumDraws() {
+        return sum(DRAWS);
+    }
+
+    /**
+     * Returns the fraction of games won by the player in the specified seat.
+     * @param seat the seat (0 moves first)
+     * @return the seat's win rate (or NaN if no games have been recorded)
+     */
+    public double getSeatWinRate(int seat) {
+        return (double) sum(SEAT_WINS + seat) / sum(GAMES);
+    }
+
+    /**
+     * Returns the number of setup settlements placed at the specified corner.
+     * @param cornerLoc the location of the corner
+     * @return the number of setup settlements placed at the corner
+     */
+    public long getNumCornerGames(int cornerLoc) {
+        return sum(CORNER_GAMES + cornerLoc);
+    }
+
+    /**
+     * Returns the fraction of setup settlements at the specified corner whose
+     * owner won the game.
+     * @param cornerLoc the location of the corner
+     * @return the corner's win rate (or NaN if no one has settled there)
+     */
+    public double getCornerWinRate(int cornerLoc) {
+        return (double) sum(CORNER_WINS + cornerLoc) / sum(CORNER_GAMES + cornerLoc);
+    }
+
+    /**
+     * Returns the number of players whose share of the setup pips fell in the
+     * specified bucket. Bucket i holds shares from i / NUM_PIP_SHARE_BUCKETS
+     * up to (i + 1) / NUM_PIP_SHARE_BUCKETS.
+     * @param bucket the index of the bucket
+     * @return the number of players in the bucket
+     */
+    public long getNumPipShareGames(int bucket) {
+        return sum(PIP_SHARE_GAMES + bucket);
+    }
+
+    /**
+     * Returns the fraction of players whose share of the setup pips fell in
+     * the specified bucket that won the game.
+     * @param bucket the index of the bucket
+     * @return the bucket's win rate (or NaN if no players are in it)
+     */
+    public double getPipShareWinRate(int bucket) {
+        return (double) sum(PIP_SHARE_WINS + bucket) / sum(PIP_SHARE_GAMES + bucket);
+    }
+
+    /**
+     * Returns the number of games that lasted the specified number of turns.
+     * @param numTurns the number of turns
+     * @return the number of games that lasted that many turns
+     */
+    public long getNumGamesOfLength(int numTurns) {
+        return sum(LENGTHS + numTurns);
+    }
+
+    /**
+     * Returns the average number of turns a game lasted.
+     * @return the average length of a game (or NaN if no games have been
+     * recorded)
+     */
+    public double getMeanGameLength() {
+        long numGames = 0, numTurns = 0;
+        for (int length = 0; length < NUM_LENGTH_BUCKETS; length++) {
+            long count = sum(LENGTHS + length);
+            numGames += count;
+            numTurns += count * length;
+        }
+        return (double) numTurns / numGames;
+    }
+
+    /**
+     * Returns the smallest number of turns that at least the specified
+     * fraction of games lasted no longer than.
+     * @param fraction the fraction of games (0.5 for the median)
+     * @return the number of turns (or -1 if no games have been recorded)
+     */
+    public int getGameLengthQuantile(double fraction) {
+        long[] counts = new long[NUM_LENGTH_BUCKETS];
+        long numGames = 0;
+        for (int length = 0; length < NUM_LENGTH_BUCKETS; length++) {
+            counts[length] = sum(LENGTHS + length);
+            numGames += counts[length];
+        }
+        long seen = 0;
+        for (int length = 0; length < NUM_LENGTH_BUCKETS; length++) {
+            seen += counts[length];
+            if (seen > 0 && seen >= fraction * numGames) {
+                return length;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds up the specified counter across every stripe.
+     * @param index the offset of the counter in a stripe
+     * @return the total of the counter
+     */
+    private long sum(int index) {
+        long total = 0;
+        for (AtomicLongArray stripe : stripes) {
+            total += stripe.get(index);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,1840 @@
+package soc.base.sim;
+
+import soc.base.GameController;
+import soc.base.ai.TradePlanner;
+import soc.base.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A game of Settlers of Catan played without a GUI. The game follows the same
+ * turn structure as GameController (setup in snake order, then each turn a
+ * roll, production or discards and the robber, and any number of builds,
+ * trades and one development card) and keeps its state in the same Board and
+ * Player objects.
+ * <p>
+ * The game is an explicit state machine. It is always in one of the phases
+ * below, waiting for one player (see getActingPlayer()) to act, and step()
+ * takes that player's action (see GameAction) and moves the game to its next
+ * phase without ever waiting on anything. Each action also has a method of
+ * its own, which step() calls. Seats with a Bot have their decisions made by
+ * advance() (and play(), which advances until the game is over); seats
+ * without one are played by calling step(). A game that is waiting for an
+ * action holds no thread, so a GameScheduler can multiplex thousands of games
+ * over a few threads.
+ * <p>
+ * Where the pieces are is mirrored in flat arrays (and the geometry of the
+ * board is read once for every game), so checking whether a location is
+ * valid never copies a Corner or a Road. A game is only ever stepped by one
+ * thread at a time and is not thread-safe. Between actions, a game can be
+ * saved into a few hundred bytes and loaded again (see save()).
+ * <p>
+ * Players are identified by their index (which is also their seat), and
+ * resources by their index in GameController.RESOURCE_TYPES.
+ * @author Connor Barnes
+ */
+public class HeadlessGame {
+    public static final int NUM_PLAYERS = GameController.PLAYER_COLORS.length;
+    public static final int NUM_RESOURCES = GameController.RESOURCE_TYPES.length;
+    public static final int WIN_LIMIT = 10;
+    public static final int MAX_TURNS = 1000;//The game is a draw if no one has won after this many turns
+    public static final int NUM_TILES, NUM_CORNERS, NUM_ROADS;
+    //Phases of the game (see getPhase())
+    public static final int SETUP_SETTLEMENT = 0;//The acting player places a setup settlement
+    public static final int SETUP_ROAD = 1;      //The acting player places a road next to the settlement they just placed
+    public static final int ROLL = 2;            //The current player rolls the dice
+    public static final int DISCARD = 3;         //The acting player discards half their cards after a 7
+    public static final int MOVE_ROBBER = 4;     //The current player moves the robber (after a 7 or a Knight)
+    public static final int STEAL = 5;           //The current player chooses who to steal a card from
+    public static final int MAIN = 6;            //The current player builds, trades and plays development cards
+    public static final int ROAD_BUILDING = 7;   //The current player places the free roads from a Road Building card
+    public static final int GAME_OVER = 8;       //Someone has won or the game ran out of turns
+    private static final int MAX_HAND = 7;//Players with more cards discard half of them on a 7
+    private static final int MODEL_BYTES = 6344;//Everything but the log's arrays (measured with tests/FootprintReport)
+    private static final int CITY_BIT = 0x10;//Set in the saved state of a corner with a city (see save())
+    //Operations of the commands in the log (see CommandLog.encode())
+    private static final int RESOURCE = 0;      //Player gains b (or loses -b) cards of resource a
+    private static final int SETTLEMENT = 1;    //Player places a settlement at corner a
+    private static final int CITY = 2;          //Player upgrades their settlement at corner a
+    private static final int ROAD = 3;          //Player places a road at road location a
+    private static final int ROAD_LENGTH = 4;   //Player's longest road changes from a to b
+    private static final int LONGEST_ROAD = 5;  //Longest Road moves from player a - 1 to player b - 1
+    private static final int LARGEST_ARMY = 6;  //Largest Army moves from player a - 1 to player b - 1
+    private static final int ROBBER = 7;        //The robber moves from tile a to tile b
+    private static final int BUY_DEV_CARD = 8;  //Player draws the top development card, of type a
+    private static final int PLAY_DEV_CARD = 9; //Player plays a development card of type a
+    private static final int FREE_ROADS = 10;   //The number of free roads changes from a to b
+    private static final int WINNER = 11;       //The winner changes from player a - 1 to player b - 1
+    private static final int PHASE = 12;        //The phase changes from a to b
+    //Geometry of the board (the same for every layout)
+    private static final int[][] CORNER_CORNERS;//Index is the corner location, values are the adjacent corners
+    private static final int[][] CORNER_ROADS;  //Index is the corner location, values are the adjacent roads
+    private static final int[][] CORNER_TILES;  //Index is the corner location, values are the adjacent tiles
+    private static final int[][] TILE_CORNERS;  //Index is the tile location, values are the corners around the tile
+    private static final int[][] ROAD_CORNERS;  //Index is the road location, values are the corners at each end
+    private static final String[] CORNER_HARBORS;//Index is the corner location, null if the corner has no harbor
+
+    static {
+        Board board = new Board();
+        NUM_TILES = board.getNumTiles();
+        NUM_CORNERS = board.getNumCorners();
+        NUM_ROADS = board.getNumRoadLocs();
+        CORNER_CORNERS = new int[NUM_CORNERS][];
+        CORNER_ROADS = new int[NUM_CORNERS][];
+        CORNER_TILES = new int[NUM_CORNERS][];
+        CORNER_HARBORS = new String[NUM_CORNERS];
+        int[] numTileCorners = new int[NUM_TILES];
+        for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+            Corner corner = board.getCorner(cornerLoc);
+            CORNER_CORNERS[cornerLoc] = corner.getAdjacentCornerLocs();
+            CORNER_ROADS[cornerLoc] = toIntArray(corner.getAdjacentRoadLocs());
+            CORNER_TILES[cornerLoc] = toIntArray(corner.getAdjacentTileLocs());
+            CORNER_HARBORS[cornerLoc] = corner.hasHarbor() ? corner.getHarbor() : null;
+            for (int tileLoc : CORNER_TILES[cornerLoc]) {
+                numTileCorners[tileLoc]++;
+            }
+        }
+        TILE_CORNERS = new int[NUM_TILES][];
+        for (int tileLoc = 0; tileLoc < NUM_TILES; tileLoc++) {
+            TILE_CORNERS[tileLoc] = new int[numTileCorners[tileLoc]];
+            numTileCorners[tileLoc] = 0;
+        }
+        for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+            for (int tileLoc : CORNER_TILES[cornerLoc]) {
+                TILE_CORNERS[tileLoc][numTileCorners[tileLoc]++] = cornerLoc;
+            }
+        }
+        ROAD_CORNERS = new int[NUM_ROADS][];
+        for (int roadLoc = 0; roadLoc < NUM_ROADS; roadLoc++) {
+            ROAD_CORNERS[roadLoc] = board.getRoad(roadLoc).getAdjacentCornerLocs();
+        }
+    }
+
+    private final Board board;
+    private final Player[] players;
+    private final Bot[] bots;//Index is the seat, null for a seat played by calling step()
+    private final long packedLayout;//See BoardLayout.toLong()
+    private final GameRandom random;
+    private final DevCardDeck devCardDeck;
+    private final int[] tileNumbers;  //Index is the tile location, 0 for the desert
+    private final int[] tileResources;//Index is the tile location, -1 for the desert
+    private final byte[] cornerOwners;//Index is the corner location, -1 if there is no settlement
+    private final boolean[] cities;   //Index is the corner location
+    private final byte[] roadOwners;  //Index is the road location, -1 if there is no road
+    private final int[] setupSettlementLocs;//Index is 2 * player + round
+    private final int[] setupPips;          //Index is the player, value is the pips around their setup settlements
+    private final int[] discarded, scratchLocs;//Reused
+    private final CommandLog log;//Every change made during the current player's turn
+    private int phase, currentPlayer, numTurns, lastRoll, winner;
+    private int numSetupTurns;//Setup settlements (and their roads) placed so far
+    private int discardPlayer, numToDiscard;//Who is discarding after a 7 and how many cards they have left to discard
+    private int longestRoadPlayer, largestArmyPlayer;
+    private int numFreeRoads;//Roads left to place from a Road Building card
+    private boolean started, inTurn, devCardPlayed;
+    private boolean revealed;//The action being taken drew a hidden card or made a random choice, so it cannot be undone
+
+    /**
+     * Constructs a game on a board with the specified layout between the
+     * specified bots. Games with the same layout, bots and seed (and the same
+     * actions from any seats without a bot) are played the same way.
+     * @param layout the layout of the board
+     * @param bots   the bot in each seat (in turn order), or null for a seat
+     *               that is played by calling step()
+     * @param seed   the seed of the dice, the development cards and every
+     *               other random choice
+     * @throws IllegalArgumentException if there is not one entry per seat
+     */
+    public HeadlessGame(BoardLayout layout, Bot[] bots, long seed) {
+        if (bots.length != NUM_PLAYERS) {
+            throw new IllegalArgumentException("A game needs exactly " + NUM_PLAYERS + " seats");
+        }
+        board = new Board(layout);
+        this.bots = bots.clone();
+        packedLayout = layout.toLong();
+        random = new GameRandom(seed);
+        devCardDeck = new DevCardDeck(random);
+        players = new Player[NUM_PLAYERS];
+        for (int player = 0; player < NUM_PLAYERS; player++) {
+            players[player] = new Player(GameController.PLAYER_COLORS[player]);
+        }
+        List<String> resourceTypes = Arrays.asList(GameController.RESOURCE_TYPES);
+        tileNumbers = new int[NUM_TILES];
+        tileResources = new int[NUM_TILES];
+        for (int tileLoc = 0; tileLoc < NUM_TILES; tileLoc++) {
+            Tile tile = board.getTile(tileLoc);
+            tileResources[tileLoc] = resourceTypes.indexOf(tile.getResourceProduced());
+            tileNumbers[tileLoc] = tileResources[tileLoc] < 0 ? 0 : tile.getNumberToken();
+        }
+        cornerOwners = new byte[NUM_CORNERS];
+        Arrays.fill(cornerOwners, (byte) -1);
+        cities = new boolean[NUM_CORNERS];
+        roadOwners = new byte[NUM_ROADS];
+        Arrays.fill(roadOwners, (byte) -1);
+        setupSettlementLocs = new int[2 * NUM_PLAYERS];
+        Arrays.fill(setupSettlementLocs, -1);
+        setupPips = new int[NUM_PLAYERS];
+        discarded = new int[NUM_RESOURCES];
+        scratchLocs = new int[Math.max(NUM_CORNERS, NUM_ROADS)];
+        log = new CommandLog();
+        phase = SETUP_SETTLEMENT;
+        currentPlayer = 0;
+        numTurns = 0;
+        lastRoll = 0;
+        winner = -1;
+        numSetupTurns = 0;
+        discardPlayer = -1;
+        numToDiscard = 0;
+        longestRoadPlayer = -1;
+        largestArmyPlayer = -1;
+        numFreeRoads = 0;
+        started = false;
+        inTurn = false;
+        devCardPlayed = false;
+        revealed = false;
+    }
+
+    /**
+     * Plays the whole game, with every decision made by the bots.
+     * @return the index of the winner (or -1 if no one won within MAX_TURNS
+     * turns)
+     * @throws IllegalStateException if the game has already been played, or
+     *                               if a seat without a bot has to act
+     */
+    public int play() {
+        if (started) {
+            throw new IllegalStateException("The game has already been played");
+        }
+        started = true;
+        while (advance()) {
+            //Every decision is made by a bot
+        }
+        if (!isOver()) {
+            throw new IllegalStateException("Seat " + getActingPlayer() + " has no bot");
+        }
+        return winner;
+    }
+
+    /**
+     * Makes the next decision in the game if it belongs to a bot. The bot in
+     * the acting player's seat chooses an action (an action that is not
+     * allowed is replaced with a random valid one) and the game takes it. In
+     * the main phase, the bot plays the rest of its turn and the turn ends.
+     * @return true if a decision was made, false if the game is over or is
+     * waiting for a seat without a bot
+     */
+    public boolean advance() {
+        if (phase == GAME_OVER || isAwaitingAction()) {
+            return false;
+        }
+        decide();
+        return true;
+    }
+
+    /**
+     * Takes the specified action for the acting player and moves the game to
+     * its next phase. This never waits on anything: an action that is not
+     * allowed in the current phase (or breaks a rule) is rejected and changes
+     * nothing. Calling step() is the same as calling the method for the
+     * action's type, such as buildRoad() for GameAction.BUILD_ROAD.
+     * @param action the action (see GameAction.encode())
+     * @return true if the action was taken, false if it is not allowed
+     */
+    public boolean step(int action) {
+        int a = GameAction.getA(action);
+        int b = GameAction.getB(action);
+        switch (GameAction.getType(action)) {
+            case GameAction.PLACE_SETTLEMENT:
+                return placeSetupSettlement(a);
+            case GameAction.PLACE_ROAD:
+                return placeSetupRoad(a);
+            case GameAction.ROLL:
+                return roll();
+            case GameAction.DISCARD:
+                return discard(a, b);
+            case GameAction.MOVE_ROBBER:
+                return moveRobber(a);
+            case GameAction.STEAL:
+                return steal(a);
+            case GameAction.BUILD_ROAD:
+                return buildRoad(a);
+            case GameAction.BUILD_SETTLEMENT:
+                return buildSettlement(a);
+            case GameAction.BUILD_CITY:
+                return buildCity(a);
+            case GameAction.BUY_DEV_CARD:
+                return buyDevCard();
+            case GameAction.PLAY_KNIGHT:
+                return playKnight();
+            case GameAction.PLAY_ROAD_BUILDING:
+                return playRoadBuilding();
+            case GameAction.PLAY_YEAR_OF_PLENTY:
+                return playYearOfPlenty(a, b);
+            case GameAction.PLAY_MONOPOLY:
+                return playMonopoly(a);
+            case GameAction.TRADE:
+                return tradeWithBank(a, b);
+            case GameAction.END_TURN:
+                return endTurn();
+            case GameAction.UNDO:
+                return undo();
+            case GameAction.REDO:
+                return redo();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Places a setup settlement at the specified corner for the acting
+     * player. A player receives the resources around their second setup
+     * settlement.
+     * @param cornerLoc the location of the corner
+     * @return true if the settlement was placed, false if it is not allowed
+     */
+    public boolean placeSetupSettlement(int cornerLoc) {
+        if (phase != SETUP_SETTLEMENT || !isValidSettlementLoc(currentPlayer, cornerLoc, true)) {
+            return false;
+        }
+        int round = numSetupTurns < NUM_PLAYERS ? 0 : 1;
+        execute(CommandLog.encode(SETTLEMENT, currentPlayer, cornerLoc, 0));
+        setupSettlementLocs[2 * currentPlayer + round] = cornerLoc;
+        for (int tileLoc : CORNER_TILES[cornerLoc]) {
+            setupPips[currentPlayer] += IncomeTracker.getPips(tileNumbers[tileLoc]);
+            if (round == 1 && tileResources[tileLoc] >= 0) {
+                execute(CommandLog.encode(RESOURCE, currentPlayer, tileResources[tileLoc], 1));
+            }
+        }
+        boolean roadLocLeft = false;
+        for (int roadLoc : CORNER_ROADS[cornerLoc]) {
+            roadLocLeft |= roadOwners[roadLoc] < 0;
+        }
+        if (roadLocLeft) {
+            setPhase(SETUP_ROAD);
+        } else {
+            endSetupTurn();//Other players' roads can take every spot
+        }
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Places the acting player's setup road at the specified location, which
+     * must touch the settlement they just placed.
+     * @param roadLoc the location of the road
+     * @return true if the road was placed, false if it is not allowed
+     */
+    public boolean placeSetupRoad(int roadLoc) {
+        if (phase != SETUP_ROAD || !isSetupRoadLoc(getSetupSettlementLoc(), roadLoc)) {
+            return false;
+        }
+        placeRoad(currentPlayer, roadLoc);
+        endSetupTurn();
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Rolls the dice for the current player. On a 7 every player with too
+     * many cards discards half of them and the current player moves the
+     * robber; otherwise every player receives what their settlements and
+     * cities produce.
+     * @return true if the dice were rolled, false if it is not allowed
+     */
+    public boolean roll() {
+        if (phase != ROLL) {
+            return false;
+        }
+        lastRoll = random.nextInt(6) + random.nextInt(6) + 2;
+        if (lastRoll == 7) {
+            startDiscards(0);
+        } else {
+            produce(lastRoll);
+            startMain();
+        }
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Discards cards of one resource for the acting player after a 7. The
+     * player keeps discarding until they have discarded half their cards.
+     * @param resource the index of the resource
+     * @param numCards the number of cards to discard
+     * @return true if the cards were discarded, false if it is not allowed
+     */
+    public boolean discard(int resource, int numCards) {
+        if (phase != DISCARD || resource < 0 || resource >= NUM_RESOURCES || numCards < 1 || numCards > numToDiscard
+                || numCards > getNumCards(discardPlayer, resource)) {
+            return false;
+        }
+        execute(CommandLog.encode(RESOURCE, discardPlayer, resource, -numCards));
+        numToDiscard -= numCards;
+        if (numToDiscard == 0) {
+            startDiscards(discardPlayer + 1);
+        }
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Moves the robber to the specified tile for the current player, who then
+     * chooses who to steal from if there is anyone.
+     * @param tileLoc the location of the tile
+     * @return true if the robber was moved, false if it is not allowed
+     */
+    public boolean moveRobber(int tileLoc) {
+        int robberLoc = board.getRobberLoc();
+        if (phase != MOVE_ROBBER || tileLoc < 0 || tileLoc >= NUM_TILES || tileLoc == robberLoc) {
+            return false;
+        }
+        execute(CommandLog.encode(ROBBER, 0, robberLoc, tileLoc));
+        if (getFirstVictim(tileLoc) >= 0) {
+            setPhase(STEAL);
+        } else {
+            startMain();
+        }
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Steals a random card from the specified player for the current player.
+     * The victim must have a settlement or city next to the robber. A steal
+     * cannot be undone (and neither can anything taken before it this turn).
+     * @param victim the index of the player to steal from
+     * @return true if a card was stolen, false if it is not allowed
+     */
+    public boolean steal(int victim) {
+        if (phase != STEAL || victim < 0 || victim >= NUM_PLAYERS || !isValidVictim(board.getRobberLoc(), victim)) {
+            return false;
+        }
+        Arrays.fill(discarded, 0);
+        int resource = randomCard(victim, discarded);
+        execute(CommandLog.encode(RESOURCE, victim, resource, -1));
+        execute(CommandLog.encode(RESOURCE, currentPlayer, resource, 1));
+        revealed = true;
+        startMain();
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Builds a road at the specified location for the current player. While
+     * placing the roads from a Road Building card the road is free, and no
+     * other action but ending the turn is allowed.
+     * @param roadLoc the location of the road
+     * @return true if the road was built, false if it is not allowed
+     */
+    public boolean buildRoad(int roadLoc) {
+        if ((phase != MAIN && phase != ROAD_BUILDING) || players[currentPlayer].getNumRemainingRoads() == 0
+                || !isValidRoadLoc(currentPlayer, roadLoc)) {
+            return false;
+        }
+        if (phase == ROAD_BUILDING) {
+            execute(CommandLog.encode(FREE_ROADS, 0, numFreeRoads, numFreeRoads - 1));
+        } else if (!pay(TradePlanner.ROAD_COST)) {
+            return false;
+        }
+        placeRoad(currentPlayer, roadLoc);
+        if (phase == ROAD_BUILDING && !canPlaceFreeRoad()) {
+            if (numFreeRoads > 0) {
+                execute(CommandLog.encode(FREE_ROADS, 0, numFreeRoads, 0));//There is nowhere left to place them
+            }
+            setPhase(MAIN);
+        }
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Builds a settlement at the specified location for the current player.
+     * @param cornerLoc the location of the settlement
+     * @return true if the settlement was built, false if it is not allowed
+     */
+    public boolean buildSettlement(int cornerLoc) {
+        if (phase != MAIN || players[currentPlayer].getNumRemainingSettlements() == 0
+                || !isValidSettlementLoc(currentPlayer, cornerLoc, false) || !pay(TradePlanner.SETTLEMENT_COST)) {
+            return false;
+        }
+        execute(CommandLog.encode(SETTLEMENT, currentPlayer, cornerLoc, 0));
+        splitRoads(cornerLoc);
+        checkVictoryPoints();
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Upgrades the current player's settlement at the specified location to a
+     * city.
+     * @param cornerLoc the location of the settlement
+     * @return true if the city was built, false if it is not allowed
+     */
+    public boolean buildCity(int cornerLoc) {
+        if (phase != MAIN || players[currentPlayer].getNumRemainingCities() == 0 || cornerLoc < 0 || cornerLoc >= NUM_CORNERS
+                || cornerOwners[cornerLoc] != currentPlayer || cities[cornerLoc] || !pay(TradePlanner.CITY_COST)) {
+            return false;
+        }
+        execute(CommandLog.encode(CITY, currentPlayer, cornerLoc, 0));
+        checkVictoryPoints();
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Buys the top development card for the current player. It cannot be
+     * played until their next turn. Nothing taken this turn before buying
+     * the card can be undone, since the card has been seen.
+     * @return true if the card was bought, false if it is not allowed
+     */
+    public boolean buyDevCard() {
+        if (phase != MAIN || devCardDeck.isEmpty() || !pay(TradePlanner.DEV_CARD_COST)) {
+            return false;
+        }
+        execute(CommandLog.encode(BUY_DEV_CARD, currentPlayer, devCardDeck.peek(), 0));
+        revealed = true;
+        checkVictoryPoints();
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Plays a Knight card for the current player, who then moves the robber
+     * and steals a card. If the current player's seat has a bot, the bot is
+     * asked where to move the robber and who to steal from before this
+     * returns; otherwise the game waits in MOVE_ROBBER for the player to
+     * choose. Nothing taken this turn before playing the card can be undone,
+     * since a card may have been stolen.
+     * @return true if the card was played, false if it is not allowed
+     */
+    public boolean playKnight() {
+        if (!playDevCard(DevCardDeck.KNIGHT)) {
+            return false;
+        }
+        Player player = players[currentPlayer];
+        if (player.getNumKnightCardsPlayed() >= 3 && (largestArmyPlayer < 0
+                || player.getNumKnightCardsPlayed() > players[largestArmyPlayer].getNumKnightCardsPlayed())) {
+            execute(CommandLog.encode(LARGEST_ARMY, 0, largestArmyPlayer + 1, currentPlayer + 1));
+            checkVictoryPoints();
+        }
+        revealed = true;
+        setPhase(MOVE_ROBBER);
+        finishAction();
+        while ((phase == MOVE_ROBBER || phase == STEAL) && bots[currentPlayer] != null) {
+            decide();
+        }
+        return true;
+    }
+
+    /**
+     * Plays a Road Building card for the current player, who then places up
+     * to two roads for free before doing anything else this turn (see
+     * buildRoad()). If there is nowhere to place a road the card does
+     * nothing.
+     * @return true if the card was played, false if it is not allowed
+     */
+    public boolean playRoadBuilding() {
+        if (!playDevCard(DevCardDeck.ROAD_BUILDING)) {
+            return false;
+        }
+        execute(CommandLog.encode(FREE_ROADS, 0, numFreeRoads, Math.min(2, players[currentPlayer].getNumRemainingRoads())));
+        if (canPlaceFreeRoad()) {
+            setPhase(ROAD_BUILDING);
+        } else if (numFreeRoads > 0) {
+            execute(CommandLog.encode(FREE_ROADS, 0, numFreeRoads, 0));
+        }
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Plays a Year of Plenty card for the current player, who takes the
+     * specified resources from the bank.
+     * @param first  the index of the first resource
+     * @param second the index of the second resource
+     * @return true if the card was played, false if it is not allowed
+     */
+    public boolean playYearOfPlenty(int first, int second) {
+        if (first < 0 || first >= NUM_RESOURCES || second < 0 || second >= NUM_RESOURCES
+                || !playDevCard(DevCardDeck.YEAR_OF_PLENTY)) {
+            return false;
+        }
+        execute(CommandLog.encode(RESOURCE, currentPlayer, first, 1));
+        execute(CommandLog.encode(RESOURCE, currentPlayer, second, 1));
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Plays a Monopoly card for the current player, who takes every card of
+     * the specified resource from the other players.
+     * @param resource the index of the resource
+     * @return true if the card was played, false if it is not allowed
+     */
+    public boolean playMonopoly(int resource) {
+        if (resource < 0 || resource >= NUM_RESOURCES || !playDevCard(DevCardDeck.MONOPOLY)) {
+            return false;
+        }
+        for (int player = 0; player < NUM_PLAYERS; player++) {
+            int numTaken = getNumCards(player, resource);
+            if (player != currentPlayer && numTaken > 0) {
+                execute(CommandLog.encode(RESOURCE, player, resource, -numTaken));
+                execute(CommandLog.encode(RESOURCE, currentPlayer, resource, numTaken));
+            }
+        }
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Trades cards of one resource with the bank (or a harbor) for one card
+     * of another, at the current player's best rate.
+     * @param give the index of the resource traded in
+     * @param take the index of the resource received
+     * @return true if the trade was made, false if it is not allowed
+     */
+    public boolean tradeWithBank(int give, int take) {
+        if (phase != MAIN || give < 0 || give >= NUM_RESOURCES || take < 0 || take >= NUM_RESOURCES || give == take) {
+            return false;
+        }
+        int rate = players[currentPlayer].getTradeRate(GameController.RESOURCE_TYPES[give]);
+        if (getNumCards(currentPlayer, give) < rate) {
+            return false;
+        }
+        execute(CommandLog.encode(RESOURCE, currentPlayer, give, -rate));
+        execute(CommandLog.encode(RESOURCE, currentPlayer, take, 1));
+        finishAction();
+        return true;
+    }
+
+    /**
+     * Ends the current player's turn (giving up any free roads they have not
+     * placed) and passes the dice to the next player. The game is a draw once
+     * MAX_TURNS turns have ended. A turn that has ended cannot be undone.
+     * @return true if the turn ended, false if it is not allowed
+     */
+    public boolean endTurn() {
+        if (phase != MAIN && phase != ROAD_BUILDING) {
+            return false;
+        }
+        inTurn = false;
+        players[currentPlayer].releaseDevCards();
+        devCardPlayed = false;
+        numFreeRoads = 0;
+        currentPlayer = (currentPlayer + 1) % NUM_PLAYERS;
+        numTurns++;
+        checkVictoryPoints();//Longest Road can be given to a player during another player's turn (see splitRoads())
+        setPhase(winner >= 0 || numTurns >= MAX_TURNS ? GAME_OVER : ROLL);
+        return true;
+    }
+
+    /**
+     * Undoes the last action the current player took this turn (a build, a
+     * purchase, a development card or a trade), restoring the pieces,
+     * resources, awards, robber and development cards exactly as they were.
+     * Only the changes the action made are reverted, so this takes the same
+     * time however far into the game it is. Bots (and searches run by them)
+     * can use this to try an action and take it back. An action that draws a
+     * hidden card or makes a random choice (buying a development card,
+     * playing a Knight or stealing) cannot be undone, and neither can
+     * anything taken before it, so a player cannot see a card or a steal and
+     * then take it back to choose again.
+     * @return true if an action was undone, false if there was none that can
+     * be undone this turn
+     */
+    public boolean undo() {
+        if (!inTurn || !log.canUndo()) {
+            return false;
+        }
+        int end = log.getNumCommands();
+        log.undo();
+        for (int i = end - 1; i >= log.getNumCommands(); i--) {
+            revert(log.getCommand(i));
+        }
+        return true;
+    }
+
+    /**
+     * Takes the last undone action again, exactly as it was first taken.
+     * Taking any other action first means nothing can be redone.
+     * @return true if an action was redone, false if there was none
+     */
+    public boolean redo() {
+        if (!inTurn || !log.canRedo()) {
+            return false;
+        }
+        int start = log.getNumCommands();
+        log.redo();
+        for (int i = start; i < log.getNumCommands(); i++) {
+            apply(log.getCommand(i));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of actions the current player has taken this turn
+     * that can be undone.
+     * @return the number of actions that can be undone
+     */
+    public int getNumUndoableActions() {
+        return inTurn ? log.getNumActions() : 0;
+    }
+
+    /**
+     * Returns the state of this game packed into a few hundred bytes: the
+     * layout, the pieces, each player's cards, the deck, the state of the
+     * random number generator, the phase and the changes that can still be
+     * undone (or redone) this turn. The game that load() creates from it
+     * plays on exactly as this one would, as long as the bots only keep
+     * what they can work out again from the game (as every bot in soc.base.ai
+     * does). Must not be called while a bot is deciding.
+     * @return the state of the game
+     */
+    public byte[] save() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeLong(packedLayout);
+            out.writeLong(random.getState());
+            devCardDeck.writeTo(out);
+            out.writeByte(board.getRobberLoc());
+            for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+                out.writeByte(cornerOwners[cornerLoc] + 1 | (cities[cornerLoc] ? CITY_BIT : 0));
+            }
+            for (int roadLoc = 0; roadLoc < NUM_ROADS; roadLoc++) {
+                out.writeByte(roadOwners[roadLoc] + 1);
+            }
+            for (Player player : players) {
+                for (String resource : GameController.RESOURCE_TYPES) {
+                    out.writeByte(player.getNumResourceCards(resource));
+                }
+                for (int type = 0; type < DevCardDeck.CARD_TYPES.length; type++) {
+                    out.writeByte(player.getNumDevCards(type) - player.getNumNewDevCards(type));
+                    out.writeByte(player.getNumNewDevCards(type));
+                }
+                out.writeByte(player.getNumKnightCardsPlayed());
+                out.writeByte(player.getLongestRoadLength());
+            }
+            out.writeByte(longestRoadPlayer + 1);
+            out.writeByte(largestArmyPlayer + 1);
+            out.writeByte(phase);
+            out.writeByte(currentPlayer);
+            out.writeShort(numTurns);
+            out.writeByte(lastRoll);
+            out.writeByte(winner + 1);
+            out.writeByte(numSetupTurns);
+            out.writeByte(discardPlayer + 1);
+            out.writeByte(numToDiscard);
+            out.writeByte(numFreeRoads);
+            out.writeBoolean(started);
+            out.writeBoolean(inTurn);
+            out.writeBoolean(devCardPlayed);
+            for (int i = 0; i < setupSettlementLocs.length; i++) {
+                out.writeByte(setupSettlementLocs[i] + 1);
+            }
+            for (int player = 0; player < NUM_PLAYERS; player++) {
+                out.writeByte(setupPips[player]);
+            }
+            log.writeTo(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);//A ByteArrayOutputStream never throws one
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Creates a game from a state returned by save(), with the specified
+     * bots. Nothing is replayed: the pieces are placed and the cards dealt
+     * straight from the saved state, so this takes the same time however
+     * far into the game the state was saved.
+     * @param state the saved state
+     * @param bots  the bot in each seat (in turn order), or null for a seat
+     *              that is played by calling step()
+     * @return the game
+     * @throws IllegalArgumentException if there is not one entry per seat,
+     *                                  or if the state ends too early or holds
+     *                                  an invalid layout, deck or log
+     */
+    public static HeadlessGame load(byte[] state, Bot[] bots) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+        try {
+            HeadlessGame game = new HeadlessGame(BoardLayout.fromLong(in.readLong()), bots, 0);
+            game.readState(in);
+            if (in.read() >= 0) {
+                throw new IllegalArgumentException("The saved state is too long");
+            }
+            return game;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The saved state ends too early", e);
+        }
+    }
+
+    /**
+     * Returns about how many bytes this game retains: the board, the players,
+     * the deck, the log, the arrays that mirror the pieces and the bots (see
+     * Bot.getEstimatedBytes()). Only the log changes size during a game (it
+     * grows with the longest turn it has recorded), so the model is counted
+     * as the measured size of everything else plus the size of the log's
+     * arrays. tests/FootprintReport fails if the measured size drifts from
+     * this estimate.
+     * @return the size of the game in bytes
+     */
+    public int getEstimatedBytes() {
+        int numBytes = getEstimatedModelBytes();
+        for (Bot bot : bots) {
+            if (bot != null) {
+                numBytes += bot.getEstimatedBytes();
+            }
+        }
+        return numBytes;
+    }
+
+    /**
+     * Returns about how many bytes this game's model takes, which is
+     * everything getEstimatedBytes() counts but the bots.
+     * @return the size of the game's model in bytes
+     */
+    public int getEstimatedModelBytes() {
+        return MODEL_BYTES + log.getArrayBytes();
+    }
+
+    /**
+     * Returns true if the current player can play a development card of the
+     * specified type right now (they have one they did not buy this turn and
+     * have not played a card yet this turn).
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     * @return true if the card can be played
+     */
+    public boolean canPlayDevCard(int type) {
+        return phase == MAIN && !devCardPlayed && players[currentPlayer].canPlayDevCard(type);
+    }
+
+    /**
+     * Returns the board the game is played on.
+     * @return the board the game is played on
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the player at the specified index.
+     * @param player the index of the player
+     * @return the player at the specified index
+     */
+    public Player getPlayer(int player) {
+        return players[player];
+    }
+
+    /**
+     * Returns the index of the player whose turn it is.
+     * @return the index of the current player
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Returns the phase the game is in (SETUP_SETTLEMENT to GAME_OVER).
+     * @return the phase the game is in
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns the index of the player who must act next: the player
+     * discarding in DISCARD, and the current player in every other phase.
+     * @return the index of the acting player (or -1 if the game is over)
+     */
+    public int getActingPlayer() {
+        if (phase == GAME_OVER) {
+            return -1;
+        }
+        return phase == DISCARD ? discardPlayer : currentPlayer;
+    }
+
+    /**
+     * Returns true if the game is waiting for an action from a seat without a
+     * bot, i.e. nothing will happen until step() is called.
+     * @return true if the game is waiting for an action from outside
+     */
+    public boolean isAwaitingAction() {
+        return phase != GAME_OVER && bots[getActingPlayer()] == null;
+    }
+
+    /**
+     * Returns the number of cards the acting player has left to discard in
+     * DISCARD.
+     * @return the number of cards left to discard (or 0 outside DISCARD)
+     */
+    public int getNumCardsToDiscard() {
+        return phase == DISCARD ? numToDiscard : 0;
+    }
+
+    /**
+     * Returns the number of turns that have been completed since setup.
+     * @return the number of turns that have been completed
+     */
+    public int getNumTurns() {
+        return numTurns;
+    }
+
+    /**
+     * Returns the corner where the specified player placed a settlement in
+     * the specified round of setup.
+     * @param player the index of the player
+     * @param round  0 for the first round of setup, 1 for the second
+     * @return the location of the settlement (or -1 if it has not been
+     * placed)
+     */
+    public int getSetupSettlementLoc(int player, int round) {
+        return setupSettlementLocs[2 * player + round];
+    }
+
+    /**
+     * Returns the total pips of the tiles around the specified player's setup
+     * settlements (the number of ways the dice can give them a card when
+     * setup ends).
+     * @param player the index of the player
+     * @return the pips around the player's setup settlements
+     */
+    public int getSetupPips(int player) {
+        return setupPips[player];
+    }
+
+    /**
+     * Returns the number rolled at the start of the current turn.
+     * @return the number rolled at the start of the current turn
+     */
+    public int getLastRoll() {
+        return lastRoll;
+    }
+
+    /**
+     * Returns the index of the winner (or -1 if no one has won).
+     * @return the index of the winner
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns true if someone has won or the game ran out of turns.
+     * @return true if the game is over
+     */
+    public boolean isOver() {
+        return phase == GAME_OVER;
+    }
+
+    /**
+     * Returns the random number generator of this game, which bots can use so
+     * that games with the same seed are played the same way.
+     * @return the random number generator of this game
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Returns the number of cards of the specified resource the specified
+     * player has.
+     * @param player   the index of the player
+     * @param resource the index of the resource
+     * @return the number of cards of the resource
+     */
+    public int getNumCards(int player, int resource) {
+        return players[player].getNumResourceCards(GameController.RESOURCE_TYPES[resource]);
+    }
+
+    /**
+     * Returns true if the specified player has enough cards to pay the
+     * specified cost.
+     * @param player the index of the player
+     * @param cost   the number of cards of each resource needed
+     * @return true if the player can pay the cost
+     */
+    public boolean canAfford(int player, int[] cost) {
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            if (getNumCards(player, resource) < cost[resource]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of development cards of the specified type the
+     * specified player holds (including any bought this turn).
+     * @param player the index of the player
+     * @param type   the index of the card type in DevCardDeck.CARD_TYPES
+     * @return the number of cards of the type the player holds
+     */
+    public int getNumDevCards(int player, int type) {
+        return players[player].getNumDevCards(type);
+    }
+
+    /**
+     * Returns the number of development cards left in the deck.
+     * @return the number of development cards left in the deck
+     */
+    public int getNumDevCardsLeft() {
+        return devCardDeck.size();
+    }
+
+    /**
+     * Returns the number of victory points the specified player has that
+     * every player can see (i.e. not counting their victory point cards).
+     * @param player the index of the player
+     * @return the player's public victory points
+     */
+    public int getPublicVictoryPoints(int player) {
+        return players[player].getNumVictoryPoints() - players[player].getNumVictoryPointCards();
+    }
+
+    /**
+     * Returns the number of free roads the current player has left to place
+     * from a Road Building card.
+     * @return the number of free roads left to place
+     */
+    public int getNumFreeRoads() {
+        return numFreeRoads;
+    }
+
+    /**
+     * Returns the index of the player with a settlement or city at the
+     * specified corner (or -1 if there is none).
+     * @param cornerLoc the location of the corner
+     * @return the index of the owner of the corner
+     */
+    public int getCornerOwner(int cornerLoc) {
+        return cornerOwners[cornerLoc];
+    }
+
+    /**
+     * Returns true if there is a city at the specified corner.
+     * @param cornerLoc the location of the corner
+     * @return true if there is a city at the corner
+     */
+    public boolean isCity(int cornerLoc) {
+        return cities[cornerLoc];
+    }
+
+    /**
+     * Returns the index of the player with a road at the specified location
+     * (or -1 if there is none).
+     * @param roadLoc the location of the road
+     * @return the index of the owner of the road
+     */
+    public int getRoadOwner(int roadLoc) {
+        return roadOwners[roadLoc];
+    }
+
+    /**
+     * Returns the locations of the corners adjacent to the specified corner.
+     * The array is shared and must not be changed.
+     * @param cornerLoc the location of the corner
+     * @return the locations of the adjacent corners
+     */
+    public static int[] getAdjacentCornerLocs(int cornerLoc) {
+        return CORNER_CORNERS[cornerLoc];
+    }
+
+    /**
+     * Returns the locations of the roads that touch the specified corner. The
+     * array is shared and must not be changed.
+     * @param cornerLoc the location of the corner
+     * @return the locations of the adjacent roads
+     */
+    public static int[] getAdjacentRoadLocs(int cornerLoc) {
+        return CORNER_ROADS[cornerLoc];
+    }
+
+    /**
+     * Returns the locations of the corners at each end of the specified road.
+     * The array is shared and must not be changed.
+     * @param roadLoc the location of the road
+     * @return the locations of the corners at each end of the road
+     */
+    public static int[] getRoadCornerLocs(int roadLoc) {
+        return ROAD_CORNERS[roadLoc];
+    }
+
+    /**
+     * Returns true if the specified player could place a settlement at the
+     * specified corner (ignoring whether they can afford it).
+     * @param player    the index of the player
+     * @param cornerLoc the location of the corner
+     * @param setup     true if the settlement is placed during setup (and so
+     *                  does not need to be next to one of the player's roads)
+     * @return true if the settlement could be placed at the corner
+     */
+    public boolean isValidSettlementLoc(int player, int cornerLoc, boolean setup) {
+        if (cornerLoc < 0 || cornerLoc >= NUM_CORNERS || cornerOwners[cornerLoc] >= 0) {
+            return false;
+        }
+        for (int adjacentCornerLoc : CORNER_CORNERS[cornerLoc]) {
+            if (cornerOwners[adjacentCornerLoc] >= 0) {
+                return false;
+            }
+        }
+        if (setup) {
+            return true;
+        }
+        for (int roadLoc : CORNER_ROADS[cornerLoc]) {
+            if (roadOwners[roadLoc] == player) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the specified player could place a road at the
+     * specified location (ignoring whether they can afford it). The road
+     * must connect to one of the player's settlements, or to one of their
+     * roads without passing another player's settlement.
+     * @param player  the index of the player
+     * @param roadLoc the location of the road
+     * @return true if the road could be placed at the location
+     */
+    public boolean isValidRoadLoc(int player, int roadLoc) {
+        if (roadLoc < 0 || roadLoc >= NUM_ROADS || roadOwners[roadLoc] >= 0) {
+            return false;
+        }
+        for (int cornerLoc : ROAD_CORNERS[roadLoc]) {
+            if (cornerOwners[cornerLoc] == player) {
+                return true;
+            } else if (cornerOwners[cornerLoc] < 0) {
+                for (int adjacentRoadLoc : CORNER_ROADS[cornerLoc]) {
+                    if (roadOwners[adjacentRoadLoc] == player) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the specified player can steal from the specified
+     * victim after moving the robber to the specified tile.
+     * @param tileLoc the location of the tile
+     * @param victim  the index of the victim
+     * @return true if the victim can be stolen from
+     */
+    public boolean isValidVictim(int tileLoc, int victim) {
+        if (victim == currentPlayer || players[victim].getSumResourceCards() == 0) {
+            return false;
+        }
+        for (int cornerLoc : TILE_CORNERS[tileLoc]) {
+            if (cornerOwners[cornerLoc] == victim) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills the specified array with every corner where the specified player
+     * could place a settlement.
+     * @param player the index of the player
+     * @param setup  true if the settlement is placed during setup
+     * @param locs   filled with the locations of the corners (must hold at
+     *               least NUM_CORNERS)
+     * @return the number of locations
+     */
+    public int getValidSettlementLocs(int player, boolean setup, int[] locs) {
+        int numLocs = 0;
+        for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+            if (isValidSettlementLoc(player, cornerLoc, setup)) {
+                locs[numLocs++] = cornerLoc;
+            }
+        }
+        return numLocs;
+    }
+
+    /**
+     * Fills the specified array with every location where the specified
+     * player could place a road.
+     * @param player the index of the player
+     * @param locs   filled with the locations of the roads (must hold at
+     *               least NUM_ROADS)
+     * @return the number of locations
+     */
+    public int getValidRoadLocs(int player, int[] locs) {
+        int numLocs = 0;
+        for (int roadLoc = 0; roadLoc < NUM_ROADS; roadLoc++) {
+            if (isValidRoadLoc(player, roadLoc)) {
+                locs[numLocs++] = roadLoc;
+            }
+        }
+        return numLocs;
+    }
+
+    /**
+     * Fills the specified array with the locations of the specified player's
+     * settlements that can be upgraded to cities.
+     * @param player the index of the player
+     * @param locs   filled with the locations of the settlements (must hold
+     *               at least NUM_CORNERS)
+     * @return the number of locations
+     */
+    public int getValidCityLocs(int player, int[] locs) {
+        int numLocs = 0;
+        for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+            if (cornerOwners[cornerLoc] == player && !cities[cornerLoc]) {
+                locs[numLocs++] = cornerLoc;
+            }
+        }
+        return numLocs;
+    }
+
+    /**
+     * Has the bot in the acting player's seat make the next decision and
+     * takes it. A decision that is not allowed is replaced with a random
+     * valid one, so the game always moves on.
+     */
+    private void decide() {
+        int player = getActingPlayer();
+        Bot bot = bots[player];
+        switch (phase) {
+            case SETUP_SETTLEMENT:
+                int cornerLoc = bot.placeSetupSettlement(this, player);
+                if (!isValidSettlementLoc(player, cornerLoc, true)) {
+                    cornerLoc = scratchLocs[random.nextInt(getValidSettlementLocs(player, true, scratchLocs))];
+                }
+                placeSetupSettlement(cornerLoc);
+                break;
+            case SETUP_ROAD:
+                int settlementLoc = getSetupSettlementLoc();
+                int roadLoc = bot.placeSetupRoad(this, player, settlementLoc);
+                if (!isSetupRoadLoc(settlementLoc, roadLoc)) {
+                    int numValid = 0;
+                    for (int adjacentRoadLoc : CORNER_ROADS[settlementLoc]) {
+                        if (roadOwners[adjacentRoadLoc] < 0) {
+                            scratchLocs[numValid++] = adjacentRoadLoc;
+                        }
+                    }
+                    roadLoc = scratchLocs[random.nextInt(numValid)];
+                }
+                placeSetupRoad(roadLoc);
+                break;
+            case ROLL:
+                roll();
+                break;
+            case DISCARD:
+                chooseDiscards(bot, player, numToDiscard);
+                for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                    if (discarded[resource] > 0) {
+                        discard(resource, discarded[resource]);
+                    }
+                }
+                break;
+            case MOVE_ROBBER:
+                int robberLoc = board.getRobberLoc();
+                int tileLoc = bot.moveRobber(this, player);
+                if (tileLoc < 0 || tileLoc >= NUM_TILES || tileLoc == robberLoc) {
+                    tileLoc = random.nextInt(NUM_TILES - 1);
+                    if (tileLoc >= robberLoc) {
+                        tileLoc++;
+                    }
+                }
+                moveRobber(tileLoc);
+                break;
+            case STEAL:
+                int victim = bot.chooseVictim(this, player, board.getRobberLoc());
+                if (victim < 0 || victim >= NUM_PLAYERS || !isValidVictim(board.getRobberLoc(), victim)) {
+                    victim = getFirstVictim(board.getRobberLoc());
+                }
+                steal(victim);
+                break;
+            default:
+                bot.playTurn(this, player);
+                if (phase == MAIN || phase == ROAD_BUILDING) {
+                    endTurn();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Asks the specified bot which cards to discard, leaving its choice in
+     * discarded (or random cards if its choice is not valid).
+     * @param bot      the bot of the discarding player
+     * @param player   the index of the player
+     * @param numCards the number of cards to discard
+     */
+    private void chooseDiscards(Bot bot, int player, int numCards) {
+        Arrays.fill(discarded, 0);
+        bot.discard(this, player, numCards, discarded);
+        int sum = 0;
+        boolean valid = true;
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            valid &= discarded[resource] >= 0 && discarded[resource] <= getNumCards(player, resource);
+            sum += discarded[resource];
+        }
+        if (!valid || sum != numCards) {
+            Arrays.fill(discarded, 0);
+            for (int i = 0; i < numCards; i++) {
+                discarded[randomCard(player, discarded)]++;
+            }
+        }
+    }
+
+    /**
+     * Ends the acting player's setup turn, moving on to the next player in
+     * snake order, or to the first roll once every player has placed both
+     * settlements.
+     */
+    private void endSetupTurn() {
+        numSetupTurns++;
+        if (numSetupTurns == 2 * NUM_PLAYERS) {
+            currentPlayer = 0;
+            setPhase(ROLL);
+        } else {
+            currentPlayer = numSetupTurns < NUM_PLAYERS ? numSetupTurns : 2 * NUM_PLAYERS - 1 - numSetupTurns;
+            setPhase(SETUP_SETTLEMENT);
+        }
+    }
+
+    /**
+     * Returns the location of the setup settlement the acting player placed
+     * this setup turn.
+     * @return the location of the settlement
+     */
+    private int getSetupSettlementLoc() {
+        return setupSettlementLocs[2 * currentPlayer + (numSetupTurns < NUM_PLAYERS ? 0 : 1)];
+    }
+
+    /**
+     * Moves to DISCARD for the first player from the specified one who has too
+     * many cards after a 7, or to MOVE_ROBBER if there is no one left.
+     * @param firstPlayer the index of the first player to check
+     */
+    private void startDiscards(int firstPlayer) {
+        for (int player = firstPlayer; player < NUM_PLAYERS; player++) {
+            int numCards = players[player].getSumResourceCards();
+            if (numCards > MAX_HAND) {
+                discardPlayer = player;
+                numToDiscard = numCards / 2;
+                setPhase(DISCARD);
+                return;
+            }
+        }
+        discardPlayer = -1;
+        numToDiscard = 0;
+        setPhase(MOVE_ROBBER);
+    }
+
+    /**
+     * Replaces the state of this new game with the rest of a state written
+     * by save() (after the layout).
+     * @param in the saved state
+     * @throws IOException if the state ends too early
+     */
+    private void readState(DataInputStream in) throws IOException {
+        random.setState(in.readLong());
+        devCardDeck.readFrom(in);
+        int robberLoc = in.readUnsignedByte();
+        if (robberLoc != board.getRobberLoc()) {
+            board.moveRobber(robberLoc);
+        }
+        int[] cornerStates = new int[NUM_CORNERS];
+        for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+            cornerStates[cornerLoc] = in.readUnsignedByte();
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            //Cities first, since a player can only have 5 settlements on the board at once
+            for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+                int owner = (cornerStates[cornerLoc] & (CITY_BIT - 1)) - 1;
+                boolean city = (cornerStates[cornerLoc] & CITY_BIT) != 0;
+                if (owner >= 0 && city == (pass == 0)) {
+                    apply(CommandLog.encode(SETTLEMENT, owner, cornerLoc, 0));
+                    if (city) {
+                        apply(CommandLog.encode(CITY, owner, cornerLoc, 0));
+                    }
+                }
+            }
+        }
+        for (int roadLoc = 0; roadLoc < NUM_ROADS; roadLoc++) {
+            int owner = in.readUnsignedByte() - 1;
+            if (owner >= 0) {
+                apply(CommandLog.encode(ROAD, owner, roadLoc, 0));
+            }
+        }
+        for (int player = 0; player < NUM_PLAYERS; player++) {
+            for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+                apply(CommandLog.encode(RESOURCE, player, resource, in.readUnsignedByte()));
+            }
+            for (int type = 0; type < DevCardDeck.CARD_TYPES.length; type++) {
+                for (int numHeld = in.readUnsignedByte(); numHeld > 0; numHeld--) {
+                    players[player].giveDevCard(type);
+                }
+                for (int numBought = in.readUnsignedByte(); numBought > 0; numBought--) {
+                    players[player].buyDevCard(type);
+                }
+            }
+            for (int numKnights = in.readUnsignedByte(); numKnights > 0; numKnights--) {
+                players[player].giveDevCard(DevCardDeck.KNIGHT);
+                players[player].playDevCard(DevCardDeck.KNIGHT);
+            }
+            apply(CommandLog.encode(ROAD_LENGTH, player, 0, in.readUnsignedByte()));
+        }
+        setLongestRoadPlayer(in.readUnsignedByte() - 1);
+        setLargestArmyPlayer(in.readUnsignedByte() - 1);
+        phase = in.readUnsignedByte();
+        currentPlayer = in.readUnsignedByte();
+        numTurns = in.readUnsignedShort();
+        lastRoll = in.readUnsignedByte();
+        winner = in.readUnsignedByte() - 1;
+        numSetupTurns = in.readUnsignedByte();
+        discardPlayer = in.readUnsignedByte() - 1;
+        numToDiscard = in.readUnsignedByte();
+        numFreeRoads = in.readUnsignedByte();
+        started = in.readBoolean();
+        inTurn = in.readBoolean();
+        devCardPlayed = in.readBoolean();
+        for (int i = 0; i < setupSettlementLocs.length; i++) {
+            setupSettlementLocs[i] = in.readUnsignedByte() - 1;
+        }
+        for (int player = 0; player < NUM_PLAYERS; player++) {
+            setupPips[player] = in.readUnsignedByte();
+        }
+        log.readFrom(in);
+    }
+
+    /**
+     * Moves to MAIN. The first time in a turn, this is where the actions that
+     * can be undone start.
+     */
+    private void startMain() {
+        setPhase(MAIN);
+        if (!inTurn) {
+            log.clear();
+            inTurn = true;
+        }
+    }
+
+    /**
+     * Gives every player the resources produced by the tiles with the
+     * specified number (except the tile the robber is on).
+     * @param roll the number rolled
+     */
+    private void produce(int roll) {
+        int robberLoc = board.getRobberLoc();
+        for (int tileLoc = 0; tileLoc < NUM_TILES; tileLoc++) {
+            if (tileNumbers[tileLoc] == roll && tileLoc != robberLoc) {
+                for (int cornerLoc : TILE_CORNERS[tileLoc]) {
+                    if (cornerOwners[cornerLoc] >= 0) {
+                        execute(CommandLog.encode(RESOURCE, cornerOwners[cornerLoc], tileResources[tileLoc], cities[cornerLoc] ? 2 : 1));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the resource of a card chosen uniformly from the specified
+     * player's hand, leaving out the specified cards.
+     * @param player  the index of the player
+     * @param exclude the number of cards of each resource to leave out
+     * @return the index of the resource of the chosen card
+     */
+    private int randomCard(int player, int[] exclude) {
+        int numCards = players[player].getSumResourceCards();
+        for (int count : exclude) {
+            numCards -= count;
+        }
+        int card = random.nextInt(numCards);
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            card -= getNumCards(player, resource) - exclude[resource];
+            if (card < 0) {
+                return resource;
+            }
+        }
+        throw new IllegalStateException("The player's hand does not add up");
+    }
+
+    /**
+     * Returns the lowest index of a player the current player could steal
+     * from with the robber on the specified tile.
+     * @param tileLoc the location of the tile
+     * @return the index of the player (or -1 if there is no one to steal
+     * from)
+     */
+    private int getFirstVictim(int tileLoc) {
+        for (int player = 0; player < NUM_PLAYERS; player++) {
+            if (isValidVictim(tileLoc, player)) {
+                return player;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the current player has a free road left to place and
+     * somewhere to place it.
+     * @return true if a free road can be placed
+     */
+    private boolean canPlaceFreeRoad() {
+        if (numFreeRoads == 0 || players[currentPlayer].getNumRemainingRoads() == 0) {
+            return false;
+        }
+        for (int roadLoc = 0; roadLoc < NUM_ROADS; roadLoc++) {
+            if (isValidRoadLoc(currentPlayer, roadLoc)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finishes an action that was taken: ends the game if someone has won and
+     * ends the action in the log (unless the robber from a Knight has yet to
+     * be moved, which is part of the same action). The log is cleared instead
+     * if the action revealed a card or made a random choice, so that nothing
+     * up to it can be undone.
+     */
+    private void finishAction() {
+        if (winner >= 0 && phase != GAME_OVER) {
+            setPhase(GAME_OVER);
+        }
+        if (phase != MOVE_ROBBER && phase != STEAL) {
+            if (revealed) {
+                log.clear();
+                revealed = false;
+            } else {
+                log.endAction();
+            }
+        }
+    }
+
+    /**
+     * Moves the game to the specified phase.
+     * @param newPhase the phase to move to
+     */
+    private void setPhase(int newPhase) {
+        if (newPhase != phase) {
+            execute(CommandLog.encode(PHASE, 0, phase, newPhase));
+        }
+    }
+
+    /**
+     * Returns true if a road can be placed at the specified location next to
+     * the specified setup settlement.
+     * @param settlementLoc the location of the setup settlement
+     * @param roadLoc       the location of the road
+     * @return true if the road can be placed there
+     */
+    private boolean isSetupRoadLoc(int settlementLoc, int roadLoc) {
+        for (int adjacentRoadLoc : CORNER_ROADS[settlementLoc]) {
+            if (adjacentRoadLoc == roadLoc && roadOwners[roadLoc] < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes the specified cost from the current player if they can afford it.
+     * @param cost the number of cards of each resource needed
+     * @return true if the cost was paid
+     */
+    private boolean pay(int[] cost) {
+        if (!canAfford(currentPlayer, cost)) {
+            return false;
+        }
+        for (int resource = 0; resource < NUM_RESOURCES; resource++) {
+            if (cost[resource] > 0) {
+                execute(CommandLog.encode(RESOURCE, currentPlayer, resource, -cost[resource]));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Plays a development card of the specified type for the current player
+     * if they are allowed to.
+     * @param type the index of the card type in DevCardDeck.CARD_TYPES
+     * @return true if the card was played
+     */
+    private boolean playDevCard(int type) {
+        if (!canPlayDevCard(type)) {
+            return false;
+        }
+        execute(CommandLog.encode(PLAY_DEV_CARD, currentPlayer, type, 0));
+        return true;
+    }
+
+    /**
+     * Places a road for the specified player at the specified location and
+     * gives them Longest Road if they earned it.
+     * @param player  the index of the player
+     * @param roadLoc the location of the road
+     */
+    private void placeRoad(int player, int roadLoc) {
+        execute(CommandLog.encode(ROAD, player, roadLoc, 0));
+        int oldLength = players[player].getLongestRoadLength();
+        int length = board.calcLongestRoadLength(players[player].getColor());
+        if (length != oldLength) {
+            execute(CommandLog.encode(ROAD_LENGTH, player, oldLength, length));
+        }
+        if (length >= 5 && (longestRoadPlayer < 0 || length > players[longestRoadPlayer].getLongestRoadLength())) {
+            execute(CommandLog.encode(LONGEST_ROAD, 0, longestRoadPlayer + 1, player + 1));
+            checkVictoryPoints();
+        }
+    }
+
+    /**
+     * Recomputes the longest road of every other player with a road ending at
+     * the specified corner, since the current player's new settlement there
+     * may have split it, and moves Longest Road if its holder no longer has
+     * the longest road.
+     * @param cornerLoc the location of the new settlement
+     */
+    private void splitRoads(int cornerLoc) {
+        boolean changed = false;
+        for (int roadLoc : CORNER_ROADS[cornerLoc]) {
+            int player = roadOwners[roadLoc];
+            if (player >= 0 && player != currentPlayer) {
+                int oldLength = players[player].getLongestRoadLength();
+                int length = board.calcLongestRoadLength(players[player].getColor());
+                if (length != oldLength) {
+                    execute(CommandLog.encode(ROAD_LENGTH, player, oldLength, length));
+                    changed = true;
+                }
+            }
+        }
+        if (changed && longestRoadPlayer >= 0) {
+            awardLongestRoad();
+        }
+    }
+
+    /**
+     * Gives Longest Road to the player with the longest road after a road was
+     * split. The holder keeps it while no one has a longer road; otherwise it
+     * goes to the player with the longest road of at least 5, or to no one if
+     * there is a tie.
+     */
+    private void awardLongestRoad() {
+        int bestPlayer = -1, bestLength = 4;
+        boolean tied = false;
+        for (int player = 0; player < NUM_PLAYERS; player++) {
+            int length = players[player].getLongestRoadLength();
+            if (length > bestLength) {
+                bestPlayer = player;
+                bestLength = length;
+                tied = false;
+            } else if (length == bestLength && bestPlayer >= 0) {
+                tied = true;
+            }
+        }
+        if (players[longestRoadPlayer].getLongestRoadLength() == bestLength) {
+            return;//The holder still has (one of) the longest roads
+        }
+        int newPlayer = tied ? -1 : bestPlayer;
+        if (newPlayer != longestRoadPlayer) {
+            execute(CommandLog.encode(LONGEST_ROAD, 0, longestRoadPlayer + 1, newPlayer + 1));
+        }
+    }
+
+    /**
+     * Ends the game if the current player has enough victory points to win.
+     */
+    private void checkVictoryPoints() {
+        if (winner < 0 && players[currentPlayer].getNumVictoryPoints() >= WIN_LIMIT) {
+            execute(CommandLog.encode(WINNER, 0, 0, currentPlayer + 1));
+        }
+    }
+
+    /**
+     * Applies the specified command, recording it in the log if the current
+     * player's bot is playing their turn.
+     * @param command the command (see CommandLog.encode())
+     */
+    private void execute(int command) {
+        apply(command);
+        if (inTurn) {
+            log.add(command);
+        }
+    }
+
+    /**
+     * Makes the change described by the specified command.
+     * @param command the command (see CommandLog.encode())
+     */
+    private void apply(int command) {
+        int player = CommandLog.getPlayer(command);
+        int a = CommandLog.getA(command);
+        int b = CommandLog.getB(command);
+        switch (CommandLog.getOp(command)) {
+            case RESOURCE:
+                players[player].giveResource(GameController.RESOURCE_TYPES[a], b);
+                break;
+            case SETTLEMENT:
+                board.placeSettlement(a, players[player].getColor());
+                players[player].placeSettlement();
+                cornerOwners[a] = (byte) player;
+                if (CORNER_HARBORS[a] != null) {
+                    players[player].addHarbor(CORNER_HARBORS[a]);
+                }
+                break;
+            case CITY:
+                board.upgradeSettlement(a);
+                players[player].placeCity();
+                cities[a] = true;
+                break;
+            case ROAD:
+                board.addRoad(a, players[player].getColor());
+                players[player].placeRoad();
+                roadOwners[a] = (byte) player;
+                break;
+            case ROAD_LENGTH:
+                players[player].setLongestRoadLength(b);
+                break;
+            case LONGEST_ROAD:
+                setLongestRoadPlayer(b - 1);
+                break;
+            case LARGEST_ARMY:
+                setLargestArmyPlayer(b - 1);
+                break;
+            case ROBBER:
+                board.moveRobber(b);
+                break;
+            case BUY_DEV_CARD:
+                players[player].buyDevCard(devCardDeck.draw());
+                break;
+            case PLAY_DEV_CARD:
+                players[player].playDevCard(a);
+                devCardPlayed = true;
+                break;
+            case FREE_ROADS:
+                numFreeRoads = b;
+                break;
+            case WINNER:
+                winner = b - 1;
+                break;
+            case PHASE:
+                phase = b;
+                break;
+        }
+    }
+
+    /**
+     * Undoes the change described by the specified command. Commands must be
+     * reverted in the reverse of the order they were applied in.
+     * @param command the command (see CommandLog.encode())
+     */
+    private void revert(int command) {
+        int player = CommandLog.getPlayer(command);
+        int a = CommandLog.getA(command);
+        int b = CommandLog.getB(command);
+        switch (CommandLog.getOp(command)) {
+            case RESOURCE:
+                players[player].giveResource(GameController.RESOURCE_TYPES[a], -b);
+                break;
+            case SETTLEMENT:
+                if (CORNER_HARBORS[a] != null) {
+                    players[player].removeHarbor(CORNER_HARBORS[a]);
+                    for (int cornerLoc = 0; cornerLoc < NUM_CORNERS; cornerLoc++) {
+                        if (cornerLoc != a && cornerOwners[cornerLoc] == player && CORNER_HARBORS[a].equals(CORNER_HARBORS[cornerLoc])) {
+                            players[player].addHarbor(CORNER_HARBORS[a]);//The player has another harbor of the same type
+                        }
+                    }
+                }
+                cornerOwners[a] = -1;
+                players[player].removeSettlement();
+                board.removeSettlement(a);
+                break;
+            case CITY:
+                cities[a] = false;
+                players[player].removeCity();
+                board.downgradeCity(a);
+                break;
+            case ROAD:
+                roadOwners[a] = -1;
+                players[player].removeRoad();
+                board.removeRoad(a);
+                break;
+            case ROAD_LENGTH:
+                players[player].setLongestRoadLength(a);
+                break;
+            case LONGEST_ROAD:
+                setLongestRoadPlayer(a - 1);
+                break;
+            case LARGEST_ARMY:
+                setLargestArmyPlayer(a - 1);
+                break;
+            case ROBBER:
+                board.moveRobber(a);
+                break;
+            case BUY_DEV_CARD:
+                players[player].removeDevCard(a);
+                devCardDeck.undraw();
+                break;
+            case PLAY_DEV_CARD:
+                devCardPlayed = false;//Only one card can be played per turn
+                players[player].unplayDevCard(a);
+                break;
+            case FREE_ROADS:
+                numFreeRoads = a;
+                break;
+            case WINNER:
+                winner = a - 1;
+                break;
+            case PHASE:
+                phase = a;
+                break;
+        }
+    }
+
+    /**
+     * Gives Longest Road to the specified player, taking it from whoever had
+     * it.
+     * @param player the index of the player (or -1 to give it to no one)
+     */
+    private void setLongestRoadPlayer(int player) {
+        if (longestRoadPlayer >= 0) {
+            players[longestRoadPlayer].setLongestRoadStatus(false);
+        }
+        longestRoadPlayer = player;
+        if (player >= 0) {
+            players[player].setLongestRoadStatus(true);
+        }
+    }
+
+    /**
+     * Gives Largest Army to the specified player, taking it from whoever had
+     * it.
+     * @param player the index of the player (or -1 to give it to no one)
+     */
+    private void setLargestArmyPlayer(int player) {
+        if (largestArmyPlayer >= 0) {
+            players[largestArmyPlayer].setLargestArmyStatus(false);
+        }
+        largestArmyPlayer = player;
+        if (player >= 0) {
+            players[player].setLargestArmyStatus(true);
+        }
+    }
+
+    /**
+     * Copies the specified list into an array.
+     * @param list the list to copy
+     * @return an array of the values in the list
+     */
+    private static int[] toIntArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,305 @@
+package soc.base.sim;
+
+import soc.base.model.BoardGenerator;
+import soc.base.model.BoardLayout;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays a round-robin tournament between bots. Every board is played once
+ * with every seating of the bots (every ordered choice of four different
+ * bots, or of the bots with repeats if there are fewer than four), and every
+ * seating of a board uses the same seed, so seats and boards are balanced
+ * between the bots.
+ * <p>
+ * Games are played on a fixed pool of threads. Each worker takes the next
+ * game number, works out its board and seating from the number, plays it and
+ * hands a small result to the thread that called run(), which updates the
+ * Elo ratings and writes one line of CSV per game. Results pass through a
+ * bounded queue and nothing is kept once it has been written, so a
+ * tournament of any length runs in the same memory. Each worker also adds its
+ * games to the tournament's GameStatistics, which can be read while the
+ * tournament is running.
+ * @author Connor Barnes
+ */
+public class TournamentRunner {
+    public static final String CSV_HEADER = "game,board_seed,seat_1,seat_2,seat_3,seat_4,winner,winner_seat,turns,vp_1,vp_2,vp_3,vp_4";
+    private static final int RESULT_QUEUE_SIZE = 1024;//Largest number of finished games waiting to be rated
+    private static final int GAMES_PER_FLUSH = 1000;
+
+    private final long seed;
+    private final int numThreads;
+    private final ArrayList<String> botNames;
+    private final ArrayList<Bot.Factory> botFactories;//Index matches botNames
+    private final AtomicLong numGamesPlayed;
+    private volatile GameStatistics statistics;
+
+    /**
+     * Constructs a tournament runner with no bots.
+     * @param seed       the seed from which every board and game is seeded
+     * @param numThreads the number of threads to play games on
+     * @throws IllegalArgumentException if the number of threads is not
+     *                                  positive
+     */
+    public TournamentRunner(long seed, int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+        this.seed = seed;
+        this.numThreads = numThreads;
+        botNames = new ArrayList<String>();
+        botFactories = new ArrayList<Bot.Factory>();
+        numGamesPlayed = new AtomicLong();
+        statistics = new GameStatistics(numThreads);
+    }
+
+    /**
+     * Adds a bot to the tournament.
+     * @param name    the name of the bot (used in the CSV)
+     * @param factory creates a new instance of the bot for each game
+     */
+    public void addBot(String name, Bot.Factory factory) {
+        botNames.add(name);
+        botFactories.add(factory);
+    }
+
+    /**
+     * Returns the number of seatings each board is played with.
+     * @return the number of seatings each board is played with
+     */
+    public int getNumSeatings() {
+        return buildSeatings(botNames.size()).length;
+    }
+
+    /**
+     * Returns the number of games that have finished in the current (or last)
+     * tournament. Can be called from any thread.
+     * @return the number of games that have finished
+     */
+    public long getNumGamesPlayed() {
+        return numGamesPlayed.get();
+    }
+
+    /**
+     * Returns the statistics of the games in the current (or last)
+     * tournament. Can be called from any thread, including while the
+     * tournament is running.
+     * @return the statistics of the games played
+     */
+    public GameStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Plays every seating of the bots on the specified number of boards,
+     * writing one line of CSV (see CSV_HEADER) to the specified output as
+     * each game is rated. The output is flushed every few games if it can
+     * be.
+     * @param numBoards the number of boards to play
+     * @param csv       where the results of each game are written
+     * @return the ratings of the bots (index matches the order they were
+     * added)
+     * @throws IOException if the CSV cannot be written
+     * @throws IllegalStateException if no bots have been added
+     */
+    public EloRatings run(int numBoards, Appendable csv) throws IOException {
+        if (botNames.isEmpty()) {
+            throw new IllegalStateException("No bots have been added");
+        }
+        final int[][] seatings = buildSeatings(botNames.size());
+        final long numGames = (long) numBoards * seatings.length;
+        final AtomicLong nextGame = new AtomicLong();
+        final ArrayBlockingQueue<GameResult> results = new ArrayBlockingQueue<GameResult>(RESULT_QUEUE_SIZE);
+        final GameStatistics runStatistics = new GameStatistics(numThreads);
+        statistics = runStatistics;
+        numGamesPlayed.set(0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            long game;
+                            while ((game = nextGame.getAndIncrement()) < numGames) {
+                                GameResult result;
+                                try {
+                                    result = playGame(game, seatings, runStatistics);
+                                } catch (RuntimeException e) {
+                                    result = new GameResult(game, e);
+                                }
+                                results.put(result);
+                            }
+                        } catch (InterruptedException e) {
+                            //The tournament was stopped
+                        }
+                    }
+                });
+            }
+            EloRatings ratings = new EloRatings(botNames.size());
+            csv.append(CSV_HEADER).append('\n');
+            for (long i = 0; i < numGames; i++) {
+                GameResult result = results.take();
+                if (result.error != null) {
+                    throw new RuntimeException("Game " + result.game + " failed", result.error);
+                }
+                ratings.addGame(result.seats, result.winnerSeat);
+                writeResult(result, csv);
+                numGamesPlayed.incrementAndGet();
+                if (csv instanceof Flushable && (i + 1) % GAMES_PER_FLUSH == 0) {
+                    ((Flushable) csv).flush();
+                }
+            }
+            if (csv instanceof Flushable) {
+                ((Flushable) csv).flush();
+            }
+            return ratings;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running the tournament", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays the game with the specified number.
+     * @param game       the number of the game
+     * @param seatings   every seating of the bots
+     * @param statistics where the game is recorded
+     * @return the result of the game
+     */
+    private GameResult playGame(long game, int[][] seatings, GameStatistics statistics) {
+        long boardSeed = mix(seed + game / seatings.length);
+        int[] seats = seatings[(int) (game % seatings.length)];
+        Bot[] bots = new Bot[seats.length];
+        for (int seat = 0; seat < seats.length; seat++) {
+            bots[seat] = botFactories.get(seats[seat]).createBot();
+        }
+        BoardLayout layout = BoardGenerator.randomLayout(new Random(boardSeed));
+        HeadlessGame headlessGame = new HeadlessGame(layout, bots, boardSeed);
+        int winnerSeat = headlessGame.play();
+        statistics.record(headlessGame);
+        int[] victoryPoints = new int[seats.length];
+        for (int seat = 0; seat < seats.length; seat++) {
+            victoryPoints[seat] = headlessGame.getPlayer(seat).getNumVictoryPoints();
+        }
+        return new GameResult(game, boardSeed, seats, winnerSeat, headlessGame.getNumTurns(), victoryPoints);
+    }
+
+    /**
+     * Writes the specified result as one line of CSV.
+     * @param result the result of a game
+     * @param csv    where the line is written
+     * @throws IOException if the line cannot be written
+     */
+    private void writeResult(GameResult result, Appendable csv) throws IOException {
+        csv.append(Long.toString(result.game)).append(',').append(Long.toString(result.boardSeed));
+        for (int bot : result.seats) {
+            csv.append(',').append(botNames.get(bot));
+        }
+        csv.append(',');
+        if (result.winnerSeat >= 0) {
+            csv.append(botNames.get(result.seats[result.winnerSeat]));
+        }
+        csv.append(',').append(Integer.toString(result.winnerSeat + 1)).append(',').append(Integer.toString(result.numTurns));
+        for (int victoryPoints : result.victoryPoints) {
+            csv.append(',').append(Integer.toString(victoryPoints));
+        }
+        csv.append('\n');
+    }
+
+    /**
+     * Returns every seating of the specified number of bots. With at least
+     * as many bots as seats, a seating is an ordered choice of different
+     * bots; with fewer, bots are repeated but every bot gets a seat.
+     * @param numBots the number of bots
+     * @return the bot in each seat of every seating
+     */
+    static int[][] buildSeatings(int numBots) {
+        int numSeats = HeadlessGame.NUM_PLAYERS;
+        long numCodes = (long) Math.pow(numBots, numSeats);
+        if (numCodes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many bots: " + numBots);
+        }
+        ArrayList<int[]> seatings = new ArrayList<int[]>();
+        for (int code = 0; code < numCodes; code++) {
+            int[] seats = new int[numSeats];
+            long usedBots = 0;//Bit bot is set if the bot has a seat
+            boolean repeated = false;
+            for (int seat = 0, rest = code; seat < numSeats; seat++, rest /= numBots) {
+                seats[seat] = rest % numBots;
+                repeated |= (usedBots & (1L << seats[seat])) != 0;
+                usedBots |= 1L << seats[seat];
+            }
+            if (numBots >= numSeats ? !repeated : Long.bitCount(usedBots) == numBots) {
+                seatings.add(seats);
+            }
+        }
+        return seatings.toArray(new int[seatings.size()][]);
+    }
+
+    /**
+     * Scrambles the specified number so that nearby numbers give unrelated
+     * seeds.
+     * @param value the number to scramble
+     * @return the scrambled number
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * The result of one game.
+     */
+    private static class GameResult {
+        private final long game, boardSeed;
+        private final int[] seats;        //Index is the seat, value is the index of the bot
+        private final int winnerSeat, numTurns;
+        private final int[] victoryPoints;//Index is the seat
+        private final RuntimeException error;
+
+        /**
+         * Constructs the result of a game that was played to the end.
+         * @param game          the number of the game
+         * @param boardSeed     the seed of the board and the game
+         * @param seats         the index of the bot in each seat
+         * @param winnerSeat    the seat of the winner (or -1 for a draw)
+         * @param numTurns      the number of turns played
+         * @param victoryPoints the victory points of each seat
+         */
+        private GameResult(long game, long boardSeed, int[] seats, int winnerSeat, int numTurns, int[] victoryPoints) {
+            this.game = game;
+            this.boardSeed = boardSeed;
+            this.seats = seats;
+            this.winnerSeat = winnerSeat;
+            this.numTurns = numTurns;
+            this.victoryPoints = victoryPoints;
+            error = null;
+        }
+
+        /**
+         * Constructs the result of a game that failed.
+         * @param game  the number of the game
+         * @param error what went wrong
+         */
+        private GameResult(long game, RuntimeException error) {
+            this.game = game;
+            this.error = error;
+            boardSeed = 0;
+            seats = null;
+            winnerSeat = -1;
+            numTurns = 0;
+            victoryPoints = null;
+        }
+    }
+}
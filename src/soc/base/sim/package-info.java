@@ -0,0 +1,8 @@
+/**
+ * soc.base.sim contains the classes that play games of the base version of
+ * Settlers of Catan between bots without a GUI, the tournaments that rate
+ * the bots against each other, and the scheduler that runs many games (with
+ * seats played from outside) on a few threads.
+ * @author Connor Barnes
+ */
+package soc.base.sim;
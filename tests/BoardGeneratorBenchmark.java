@@ -0,0 +1,54 @@
+import soc.base.model.Board;
+import soc.base.model.BoardGenerator;
+import soc.base.model.BoardLayout;
+
+import java.util.List;
+
+/**
+ * Benchmarks the BoardGenerator by searching for the most balanced layouts on
+ * every processor and printing how many layouts were generated per second,
+ * the parts of the score of each layout that was found, and a layout from the
+ * middle of the fairness band. The best layout is then used to construct a
+ * Board.
+ * <p>
+ * Usage: java BoardGeneratorBenchmark [number of layouts to generate]
+ * @author Connor Barnes
+ */
+public class BoardGeneratorBenchmark {
+    private static final long DEFAULT_NUM_CANDIDATES = 20000000L;
+    private static final int K = 5;
+
+    public static void main(String[] args) {
+        long numCandidates = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_NUM_CANDIDATES;
+        BoardGenerator generator = new BoardGenerator();
+        generator.getMostBalanced(K, numCandidates / 10);//Warm up
+        long startTime = System.nanoTime();
+        List<BoardLayout> best = generator.getMostBalanced(K, numCandidates);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("%,d layouts in %.2f s (%,.0f layouts/s on %d processors)%n", numCandidates, seconds,
+                numCandidates / seconds, Runtime.getRuntime().availableProcessors());
+        System.out.println("Imbalance  Resources  Red pairs  Corners  Harbors  Packed");
+        for (BoardLayout layout : best) {
+            printLayout(layout);
+        }
+        System.out.println("Random boards:");
+        List<BoardLayout> typical = new BoardGenerator(0L, 1).getMostBalanced(1000, 1000);
+        printLayout(typical.get(typical.size() / 2));
+        float median = typical.get(typical.size() / 2).getImbalance();
+        System.out.println("Within 0.5 of the median:");
+        for (BoardLayout layout : generator.getWithinBand(median - 0.5f, median + 0.5f, 3, numCandidates)) {
+            printLayout(layout);
+        }
+        Board board = new Board(BoardLayout.fromLong(best.get(0).toLong()));
+        System.out.println("Robber starts on tile " + board.getRobberLoc());
+    }
+
+    /**
+     * Prints the parts of the score of the specified layout on one line.
+     * @param layout the layout to print
+     */
+    private static void printLayout(BoardLayout layout) {
+        System.out.printf("%9.2f  %9.2f  %9d  %7.2f  %7d  %016x%n", layout.getImbalance(), layout.getResourceSpread(),
+                layout.getNumAdjacentRedPairs(), layout.getCornerSpread(), layout.getHarborSynergy(), layout.toLong());
+    }
+}
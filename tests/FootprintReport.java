@@ -0,0 +1,381 @@
+import soc.base.ai.GreedyBot;
+import soc.base.ai.RandomBot;
+import soc.base.model.Board;
+import soc.base.model.BoardGenerator;
+import soc.base.sim.Bot;
+import soc.base.sim.HeadlessGame;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+/**
+ * Prints how many objects and bytes a game retains: a Board on its own, and a
+ * HeadlessGame between four GreedyBots played 40 turns into the game. Objects
+ * are found by following every field from the game, and objects that a second
+ * game reaches as well (constants, static tables, interned strings) are not
+ * counted, since no single game retains them. Sizes follow the layout of a
+ * 64-bit VM with compressed references (12 byte object headers, 16 byte array
+ * headers, 4 byte references, 8 byte alignment), and the growth of the heap
+ * over many live games is printed alongside as a check.
+ * <p>
+ * The sizes that GameRegistry relies on are then checked: the game's model
+ * (the bots left out) against HeadlessGame.getEstimatedModelBytes(), and each
+ * kind of bot, before and during a game, against Bot.getEstimatedBytes(). If
+ * any of them has drifted (after a change to the model or a bot), the report
+ * exits with status 1 so the estimate can be brought up to date.
+ * <p>
+ * Each total is printed next to the same measurement taken at the commit
+ * before the board was kept in flat arrays (run on Java 17 with the
+ * --add-opens below), so the report shows what that change saved. Run it
+ * before and after a later change to the model to see what that change
+ * saves. On VMs newer than Java 8, the fields of the JDK's own classes can
+ * only be followed with --add-opens java.base/java.util=ALL-UNNAMED (and the
+ * same for java.lang); without it those objects are counted but not
+ * followed, and the number of them is printed.
+ * <p>
+ * Usage: java FootprintReport [number of games for the heap check]
+ * @author Connor Barnes
+ */
+public class FootprintReport {
+    private static final int DEFAULT_NUM_GAMES = 200;
+    private static final int NUM_TURNS = 40;
+    private static final int NUM_TOP_CLASSES = 12;
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    //Measured before the board was kept in flat arrays: {objects, bytes}
+    private static final long[] BOARD_BEFORE = {1110, 32592};
+    private static final long[] GAME_BEFORE = {1320, 315664};
+    private static final long HEAP_BEFORE = 315659;//Bytes per live game
+
+    private static final HashMap<Class<?>, Field[]> fieldCache = new HashMap<Class<?>, Field[]>();
+    private static final HashSet<Class<?>> opaqueClasses = new HashSet<Class<?>>();//Classes whose fields were not all followed
+    private static int numOpaque;
+
+    public static void main(String[] args) {
+        int numGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_GAMES;
+        Bot.Factory[] seats = {GreedyBot.FACTORY, GreedyBot.FACTORY, GreedyBot.FACTORY, GreedyBot.FACTORY};
+        report("Board", new Board(BoardGenerator.randomLayout(new Random(0))),
+                new Board(BoardGenerator.randomLayout(new Random(1))), BOARD_BEFORE);
+        HeadlessGame game = playGame(seats, 0);
+        HeadlessGame other = playGame(seats, 1);
+        report("HeadlessGame after " + NUM_TURNS + " turns", game, other, GAME_BEFORE);
+        System.out.printf("Heap check: %,d bytes per live game (measured over %,d games), %,d before%n",
+                measureHeap(seats, numGames), numGames, HEAP_BEFORE);
+        if (numOpaque > 0) {
+            System.out.printf("%,d JDK objects were counted without following their fields (see --add-opens)%n", numOpaque);
+        }
+
+        //Check the estimates that GameRegistry relies on, with every kind of bot
+        int numDrifted = 0;
+        Bot.Factory[] checkSeats = {GreedyBot.FACTORY, RandomBot.FACTORY, GreedyBot.FACTORY, RandomBot.FACTORY};
+        for (Bot.Factory factory : new Bot.Factory[]{GreedyBot.FACTORY, RandomBot.FACTORY}) {
+            Bot bot = factory.createBot();
+            numDrifted += checkEstimate(bot.getClass().getSimpleName() + " before its first game",
+                    measure(bot, reach(factory.createBot(), false)), bot.getEstimatedBytes());
+        }
+        Bot[] bots = createBots(checkSeats);
+        game = playGame(bots, 0);
+        IdentityHashMap<Object, Boolean> shared = reach(playGame(createBots(checkSeats), 1), false);
+        IdentityHashMap<Object, Boolean> model = reach(game, false);
+        numDrifted += checkEstimate("HeadlessGame model", measure(game, shared), game.getEstimatedModelBytes());
+        shared.putAll(model);
+        for (int seat = 0; seat < bots.length; seat++) {
+            numDrifted += checkEstimate(bots[seat].getClass().getSimpleName() + " in seat " + seat,
+                    measure(bots[seat], shared), bots[seat].getEstimatedBytes());
+        }
+        if (numDrifted > 0) {
+            System.out.println("Update the estimates above to the measured sizes");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the number of bytes the specified object retains without
+     * following bots (other than the object itself) or counting the
+     * specified objects.
+     * @param root   the object to measure
+     * @param shared the objects not to count
+     * @return the size of the object in bytes
+     */
+    private static long measure(Object root, IdentityHashMap<Object, Boolean> shared) {
+        long numBytes = 0;
+        for (Object object : reach(root, false).keySet()) {
+            if (!shared.containsKey(object)) {
+                numBytes += sizeOf(object);
+            }
+        }
+        return numBytes;
+    }
+
+    /**
+     * Prints a measured size next to its estimate.
+     * @param name      the name to print
+     * @param measured  the measured size in bytes
+     * @param estimated the estimated size in bytes
+     * @return 1 if the estimate has drifted from the measured size, otherwise
+     * 0
+     */
+    private static int checkEstimate(String name, long measured, int estimated) {
+        boolean drifted = measured != estimated;
+        System.out.printf("%s: %,d bytes, estimated %,d%s%n", name, measured, estimated, drifted ? " (DRIFTED)" : "");
+        return drifted ? 1 : 0;
+    }
+
+    /**
+     * Measures how much memory a live game takes by playing the specified
+     * number of games NUM_TURNS turns in and comparing the heap before and
+     * after. This is only as accurate as the heap statistics of the VM.
+     * @param seats    creates the bot in each seat
+     * @param numGames the number of games to measure (a few hundred gives a
+     *                 steady result)
+     * @return the average number of bytes retained by a live game
+     */
+    private static long measureHeap(Bot.Factory[] seats, int numGames) {
+        HeadlessGame[] games = new HeadlessGame[numGames];
+        long before = getUsedMemory();
+        for (int i = 0; i < numGames; i++) {
+            games[i] = playGame(seats, i);
+        }
+        long after = getUsedMemory();
+        return (after - before) / games.length;//Using the array keeps the games reachable until now
+    }
+
+    /**
+     * Returns the memory used by the heap after collecting the garbage.
+     * @return the memory used, in bytes
+     */
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Creates a game with the specified seats and plays it NUM_TURNS turns
+     * in.
+     * @param seats creates the bot in each seat
+     * @param seed  the seed of the game and its board
+     * @return the game
+     */
+    private static HeadlessGame playGame(Bot.Factory[] seats, int seed) {
+        return playGame(createBots(seats), seed);
+    }
+
+    /**
+     * Creates a game with the specified bots and plays it NUM_TURNS turns in.
+     * @param bots the bot in each seat
+     * @param seed the seed of the game and its board
+     * @return the game
+     */
+    private static HeadlessGame playGame(Bot[] bots, int seed) {
+        HeadlessGame game = new HeadlessGame(BoardGenerator.randomLayout(new Random(seed)), bots, seed);
+        while (game.getNumTurns() < NUM_TURNS && game.advance()) {
+            //Play into the middle of the game, where most pieces have been placed
+        }
+        return game;
+    }
+
+    /**
+     * Creates a bot for each seat.
+     * @param seats creates the bot in each seat
+     * @return the bots
+     */
+    private static Bot[] createBots(Bot.Factory[] seats) {
+        Bot[] bots = new Bot[seats.length];
+        for (int seat = 0; seat < seats.length; seat++) {
+            bots[seat] = seats[seat].createBot();
+        }
+        return bots;
+    }
+
+    /**
+     * Prints the number of objects and bytes that the specified object
+     * retains and are not shared with the other object, in total and for the
+     * classes that take the most bytes.
+     * @param name   the name to print
+     * @param root   the object to measure
+     * @param other  a similar object, used to find what is shared
+     * @param before the objects and bytes measured before the board was kept
+     *               in flat arrays
+     */
+    private static void report(String name, Object root, Object other, long[] before) {
+        IdentityHashMap<Object, Boolean> shared = reach(other, true);
+        IdentityHashMap<Object, Boolean> retained = reach(root, true);
+        final HashMap<Class<?>, long[]> classTotals = new HashMap<Class<?>, long[]>();//Values are {objects, bytes}
+        long numObjects = 0, numBytes = 0;
+        for (Object object : retained.keySet()) {
+            if (!shared.containsKey(object)) {
+                long size = sizeOf(object);
+                long[] totals = classTotals.get(object.getClass());
+                if (totals == null) {
+                    totals = new long[2];
+                    classTotals.put(object.getClass(), totals);
+                }
+                totals[0]++;
+                totals[1] += size;
+                numObjects++;
+                numBytes += size;
+            }
+        }
+        System.out.printf("%s: %,d objects, %,d bytes (before: %,d objects, %,d bytes)%n", name, numObjects, numBytes,
+                before[0], before[1]);
+        ArrayList<Class<?>> classes = new ArrayList<Class<?>>(classTotals.keySet());
+        Collections.sort(classes, new Comparator<Class<?>>() {
+            @Override
+            public int compare(Class<?> a, Class<?> b) {
+                return Long.compare(classTotals.get(b)[1], classTotals.get(a)[1]);
+            }
+        });
+        for (int i = 0; i < Math.min(NUM_TOP_CLASSES, classes.size()); i++) {
+            long[] totals = classTotals.get(classes.get(i));
+            System.out.printf("  %-40s %,8d objects %,10d bytes%n", classes.get(i).getSimpleName(), totals[0], totals[1]);
+        }
+    }
+
+    /**
+     * Returns every object that can be reached from the specified object by
+     * following its fields and array elements (static fields are not
+     * followed, and neither are classes).
+     * @param root       the object to start from
+     * @param followBots false to leave out bots and everything reached only
+     *                   through them
+     * @return the objects reached, including the root
+     */
+    private static IdentityHashMap<Object, Boolean> reach(Object root, boolean followBots) {
+        IdentityHashMap<Object, Boolean> reached = new IdentityHashMap<Object, Boolean>();
+        ArrayDeque<Object> toVisit = new ArrayDeque<Object>();
+        reached.put(root, true);
+        toVisit.add(root);
+        while (!toVisit.isEmpty()) {
+            Object object = toVisit.poll();
+            Class<?> type = object.getClass();
+            if (type.isArray()) {
+                if (!type.getComponentType().isPrimitive()) {
+                    for (int i = 0; i < Array.getLength(object); i++) {
+                        visit(Array.get(object, i), followBots, reached, toVisit);
+                    }
+                }
+            } else {
+                for (Field field : getFields(type)) {
+                    if (!field.getType().isPrimitive()) {
+                        try {
+                            visit(field.get(object), followBots, reached, toVisit);
+                        } catch (IllegalAccessException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Adds the specified object to the objects to visit if it has not been
+     * reached yet (unless it is a bot that is left out).
+     * @param object     the object (may be null)
+     * @param followBots false to leave out bots
+     * @param reached    the objects reached so far
+     * @param toVisit    the objects whose fields have not been followed yet
+     */
+    private static void visit(Object object, boolean followBots, IdentityHashMap<Object, Boolean> reached,
+                              ArrayDeque<Object> toVisit) {
+        if (object != null && !(object instanceof Class) && (followBots || !(object instanceof Bot))
+                && !reached.containsKey(object)) {
+            reached.put(object, true);
+            toVisit.add(object);
+        }
+    }
+
+    /**
+     * Returns the instance fields of the specified class and its
+     * superclasses, made accessible. The fields of a class the VM will not
+     * open are left out (the objects are still counted).
+     * @param type the class
+     * @return the instance fields
+     */
+    private static Field[] getFields(Class<?> type) {
+        Field[] fields = fieldCache.get(type);
+        if (fields == null) {
+            ArrayList<Field> fieldList = new ArrayList<Field>();
+            boolean opaque = false;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        try {
+                            field.setAccessible(true);
+                            fieldList.add(field);
+                        } catch (RuntimeException e) {
+                            opaque = true;//The module system would not open the field
+                        }
+                    }
+                }
+            }
+            fields = fieldList.toArray(new Field[fieldList.size()]);
+            fieldCache.put(type, fields);
+            if (opaque) {
+                opaqueClasses.add(type);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Returns the number of bytes the specified object takes on its own,
+     * following the layout described in the class comment.
+     * @param object the object
+     * @return the size of the object in bytes
+     */
+    private static long sizeOf(Object object) {
+        Class<?> type = object.getClass();
+        long size;
+        if (type.isArray()) {
+            size = ARRAY_HEADER + (long) Array.getLength(object) * sizeOfType(type.getComponentType());
+        } else {
+            size = OBJECT_HEADER;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += sizeOfType(field.getType());
+                    }
+                }
+            }
+            getFields(type);
+            if (opaqueClasses.contains(type)) {
+                numOpaque++;
+            }
+        }
+        return (size + 7) / 8 * 8;
+    }
+
+    /**
+     * Returns the number of bytes a field or array element of the specified
+     * type takes.
+     * @param type the type of the field or element
+     * @return the size in bytes
+     */
+    private static int sizeOfType(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+}
@@ -0,0 +1,59 @@
+import soc.base.ai.GreedyBot;
+import soc.base.model.BoardGenerator;
+import soc.base.sim.Bot;
+import soc.base.sim.GameRegistry;
+
+import java.util.Random;
+
+/**
+ * Hosts many games in a GameRegistry with the default budget and plays them
+ * like players in sessions would: a window of active games moves through the
+ * games, each action is taken from the first seat of a random game in the
+ * window (the other seats are GreedyBots), and a game is created when the
+ * window reaches it. The games left behind go idle and are evicted once they
+ * have been idle for the idle time. Prints the memory retained per game, how
+ * many games were live and how many times games were evicted and loaded
+ * again.
+ * <p>
+ * Usage: java GameRegistryBenchmark [number of games] [number of actions]
+ * [number of active games] [idle time in ms]
+ * @author Connor Barnes
+ */
+public class GameRegistryBenchmark {
+    private static final int DEFAULT_NUM_GAMES = 10000;
+    private static final int DEFAULT_NUM_ACTIONS = 50000;
+    private static final int DEFAULT_NUM_ACTIVE = 500;
+    private static final long DEFAULT_MAX_IDLE_MILLIS = 1000;
+
+    public static void main(String[] args) {
+        int numGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_GAMES;
+        int numActions = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_ACTIONS;
+        int numActive = Math.min(numGames, args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_ACTIVE);
+        long maxIdleMillis = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_MAX_IDLE_MILLIS;
+        Bot.Factory[] seats = {null, GreedyBot.FACTORY, GreedyBot.FACTORY, GreedyBot.FACTORY};
+        GameRegistry registry = new GameRegistry(GameRegistry.DEFAULT_BYTES_PER_GAME, GameRegistry.DEFAULT_MAX_LIVE_GAME_BYTES,
+                maxIdleMillis);
+        long startTime = System.nanoTime();
+        long[] ids = new long[numGames];
+        int numCreated = 0;
+        Random random = new Random(0);
+        int numTaken = 0;
+        for (int i = 0; i < numActions; i++) {
+            int first = (int) ((long) i * (numGames - numActive) / numActions);
+            while (numCreated < first + numActive) {
+                ids[numCreated] = registry.create(BoardGenerator.randomLayout(new Random(numCreated)), seats, numCreated);
+                numCreated++;
+            }
+            long id = ids[first + random.nextInt(numActive)];
+            if (!registry.getGame(id).isOver() && registry.step(id, GameSchedulerBenchmark.chooseAction(registry.getGame(id)))) {
+                numTaken++;
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("%,d games and %,d actions in %.2f s (%,.0f actions/s)%n", numCreated, numTaken, seconds,
+                numTaken / seconds);
+        System.out.printf("%,d bytes retained per game (budget %,d), %,d games live%n",
+                registry.getRetainedBytes() / numCreated, registry.getBudgetBytes() / numCreated, registry.getNumLiveGames());
+        System.out.printf("%,d evictions, %,d rehydrations%n", registry.getNumEvictions(), registry.getNumRehydrations());
+    }
+}
@@ -0,0 +1,130 @@
+import soc.base.ai.GreedyBot;
+import soc.base.model.BoardGenerator;
+import soc.base.sim.Bot;
+import soc.base.sim.GameAction;
+import soc.base.sim.GameScheduler;
+import soc.base.sim.HeadlessGame;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays many games at once on a GameScheduler with one thread per processor.
+ * In every game the first seat has no bot and is played from outside: each
+ * of its actions is chosen after a delay, as if it came from a player over a
+ * network, by a single timer thread. Prints how many games were played per
+ * minute and how many were waiting at once, which shows that waiting games
+ * do not hold a thread.
+ * <p>
+ * Usage: java GameSchedulerBenchmark [number of games] [delay in ms]
+ * @author Connor Barnes
+ */
+public class GameSchedulerBenchmark {
+    private static final int DEFAULT_NUM_GAMES = 5000;
+    private static final int DEFAULT_DELAY = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        int numGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_GAMES;
+        final int delay = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DELAY;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        final CountDownLatch finished = new CountDownLatch(numGames);
+        final AtomicInteger numRejected = new AtomicInteger();
+        final AtomicInteger numFailed = new AtomicInteger();
+        GameScheduler scheduler = new GameScheduler(executor, new GameScheduler.Listener() {
+            @Override
+            public void actionNeeded(final GameScheduler.ScheduledGame game, int player) {
+                timer.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        game.submit(chooseAction(game.getGame()));
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void actionRejected(GameScheduler.ScheduledGame game, int action) {
+                numRejected.incrementAndGet();
+            }
+
+            @Override
+            public void gameOver(GameScheduler.ScheduledGame game) {
+                if (game.getError() != null) {
+                    numFailed.incrementAndGet();
+                    game.getError().printStackTrace();
+                }
+                finished.countDown();
+            }
+        });
+        long startTime = System.nanoTime();
+        for (int i = 0; i < numGames; i++) {
+            Bot[] bots = new Bot[HeadlessGame.NUM_PLAYERS];
+            for (int seat = 1; seat < bots.length; seat++) {
+                bots[seat] = GreedyBot.FACTORY.createBot();
+            }
+            scheduler.add(new HeadlessGame(BoardGenerator.randomLayout(new Random(i)), bots, i));
+        }
+        int maxWaiting = 0;
+        while (!finished.await(10, TimeUnit.MILLISECONDS)) {
+            maxWaiting = Math.max(maxWaiting, scheduler.getNumWaiting());
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        executor.shutdown();
+        timer.shutdown();
+        System.out.printf("%,d games in %.2f s (%,.0f games/min) on %d threads with a %d ms delay per outside action%n",
+                numGames, seconds, numGames * 60 / seconds, numThreads, delay);
+        System.out.printf("Up to %,d games waiting at once, %d actions rejected, %d games failed%n", maxWaiting,
+                numRejected.get(), numFailed.get());
+    }
+
+    /**
+     * Chooses a simple legal action for the player the specified game is
+     * waiting for: the first valid location for setup pieces, the first
+     * card, tile or victim that is allowed, and ending the turn as soon as the
+     * dice have been rolled.
+     * @param game the game
+     * @return the action
+     */
+    static int chooseAction(HeadlessGame game) {
+        int player = game.getActingPlayer();
+        int[] locs = new int[Math.max(HeadlessGame.NUM_CORNERS, HeadlessGame.NUM_ROADS)];
+        switch (game.getPhase()) {
+            case HeadlessGame.SETUP_SETTLEMENT:
+                game.getValidSettlementLocs(player, true, locs);
+                return GameAction.encode(GameAction.PLACE_SETTLEMENT, locs[0]);
+            case HeadlessGame.SETUP_ROAD:
+                int settlementLoc = game.getSetupSettlementLoc(player, game.getSetupSettlementLoc(player, 1) < 0 ? 0 : 1);
+                for (int roadLoc : HeadlessGame.getAdjacentRoadLocs(settlementLoc)) {
+                    if (game.getRoadOwner(roadLoc) < 0) {
+                        return GameAction.encode(GameAction.PLACE_ROAD, roadLoc);
+                    }
+                }
+                break;
+            case HeadlessGame.ROLL:
+                return GameAction.encode(GameAction.ROLL);
+            case HeadlessGame.DISCARD:
+                for (int resource = 0; resource < HeadlessGame.NUM_RESOURCES; resource++) {
+                    if (game.getNumCards(player, resource) > 0) {
+                        return GameAction.encode(GameAction.DISCARD, resource, 1);
+                    }
+                }
+                break;
+            case HeadlessGame.MOVE_ROBBER:
+                return GameAction.encode(GameAction.MOVE_ROBBER, (game.getBoard().getRobberLoc() + 1) % HeadlessGame.NUM_TILES);
+            case HeadlessGame.STEAL:
+                for (int victim = 0; victim < HeadlessGame.NUM_PLAYERS; victim++) {
+                    if (game.isValidVictim(game.getBoard().getRobberLoc(), victim)) {
+                        return GameAction.encode(GameAction.STEAL, victim);
+                    }
+                }
+                break;
+        }
+        return GameAction.encode(GameAction.END_TURN);
+    }
+}
@@ -0,0 +1,312 @@
+import soc.base.GameController;
+import soc.base.gui.*;
+import soc.base.model.Board;
+import soc.base.model.Player;
+import soc.base.model.Tile;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Benchmarks rendering of the BoardPane, the PlayerInfoPanels, the PlayerPanel
+ * and the card hands shown by CardsFrame. Every component is painted into an
+ * offscreen BufferedImage with java.awt.headless=true, so the benchmark runs
+ * on machines without a display. A recorded game is replayed one placement at
+ * a time, and after each placement every component is rendered once (one
+ * frame). The render time, the number of bytes allocated and the number of
+ * components are printed for each frame, followed by a summary.
+ * <p>
+ * CardsFrame is a JFrame (which cannot be created when headless), so the hand
+ * panes it shows are built with CardsFrame.buildResourceCardsPane() and
+ * CardsFrame.buildDevCardsPane() and rendered on their own.
+ * <p>
+ * Usage: java RenderBenchmark [recorded game file]. Each line of a recorded
+ * game is one placement: "S corner color" (settlement), "R road color" (road),
+ * "C corner" (city) or "B tile" (robber). The game below is used if no file is
+ * given.
+ * @author Connor Barnes
+ */
+public class RenderBenchmark {
+    private static final int WARM_UP_FRAMES = 50;
+    private static final String[] RECORDED_GAME = {
+            "S 14 Blue", "R 17 Blue", "S 28 Orange", "R 39 Orange", "S 20 Red", "R 26 Red", "S 43 White", "R 64 White",
+            "S 40 White", "R 56 White", "S 7 Red", "R 10 Red", "S 23 Orange", "R 21 Orange", "S 46 Blue", "R 61 Blue",
+            "R 22 Blue", "C 28", "R 35 Red", "R 32 Blue", "R 49 Orange", "C 20", "R 69 White", "S 26 Blue",
+            "R 16 Orange", "R 11 Red", "C 43", "C 14", "C 23", "R 27 Red", "S 50 White", "B 13",
+            "R 15 Orange", "C 7", "R 59 White", "C 46", "S 12 Orange", "R 43 Red", "R 58 White", "R 31 Blue",
+            "R 9 Orange", "R 18 Red", "R 70 White", "C 12", "R 44 Red", "R 51 White", "R 38 Blue", "R 42 Red",
+            "S 52 White", "R 29 Orange", "S 32 Red", "B 0", "R 65 Blue", "R 25 Red", "R 57 White", "R 33 Orange",
+            "R 24 Red"};
+
+    private final GameIcons icons;
+    private final Board board;
+    private final BoardPane boardPane;
+    private final HashMap<String, Player> players;//Key is the player's color
+    private final HashMap<String, PlayerInfoPanel> infoPanels;
+    private final HashMap<String, CardHandPane> resourcePanes;
+    private final HashMap<String, CardHandPane> devCardPanes;
+    private final PlayerPanel playerPanel;
+    private final HashMap<Component, BufferedImage> images;//The offscreen image each component is rendered into
+    private final ThreadMXBean threadBean;
+
+    /**
+     * Creates every component that is rendered, with an empty board.
+     */
+    public RenderBenchmark() {
+        icons = new GameIcons();
+        board = new Board();
+        boardPane = new BoardPane(icons, board);
+        players = new HashMap<String, Player>();
+        infoPanels = new HashMap<String, PlayerInfoPanel>();
+        resourcePanes = new HashMap<String, CardHandPane>();
+        devCardPanes = new HashMap<String, CardHandPane>();
+        for (int i = 0; i < GameController.PLAYER_COLORS.length; i++) {
+            String color = GameController.PLAYER_COLORS[i];
+            Player player = new Player(color, color);
+            players.put(color, player);
+            infoPanels.put(color, new PlayerInfoPanel(icons, player, i < 2 ? PlayerInfoPanel.TOP_CORNER : PlayerInfoPanel.BOTTOM_CORNER));
+            resourcePanes.put(color, CardsFrame.buildResourceCardsPane(icons, player));
+            devCardPanes.put(color, CardsFrame.buildDevCardsPane(icons, player.getDevCards()));
+        }
+        playerPanel = new PlayerPanel(icons, null);
+        images = new HashMap<Component, BufferedImage>();
+        threadBean = ManagementFactory.getThreadMXBean();
+    }
+
+    /**
+     * Replays the specified game, rendering one frame after each placement,
+     * and prints the results.
+     * @param game the placements to replay
+     */
+    public void run(String[] game) {
+        String color = GameController.PLAYER_COLORS[0];
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            renderFrame(color);
+        }
+        long[] renderNanos = new long[game.length];
+        long totalBytes = 0;
+        boolean measuringAllocation = getAllocatedBytes() >= 0;
+        System.out.println("frame\tplacement\trender (us)\tallocated (KB)\tcomponents");
+        for (int frame = 0; frame < game.length; frame++) {
+            color = apply(game[frame]);
+            long startBytes = getAllocatedBytes();
+            long start = System.nanoTime();
+            int numComponents = renderFrame(color);
+            renderNanos[frame] = System.nanoTime() - start;
+            long bytes = getAllocatedBytes() - startBytes;
+            totalBytes += bytes;
+            System.out.println(frame + "\t" + game[frame] + "\t" + (renderNanos[frame] / 1000) + "\t"
+                    + (measuringAllocation ? String.valueOf(bytes / 1024) : "n/a") + "\t" + numComponents);
+        }
+        //Summarize
+        long totalNanos = 0;
+        for (long nanos : renderNanos) {
+            totalNanos += nanos;
+        }
+        long[] sorted = renderNanos.clone();
+        Arrays.sort(sorted);
+        System.out.println();
+        System.out.println("Frames: " + game.length);
+        System.out.println("Render time (us): mean " + (totalNanos / Math.max(1, game.length) / 1000)
+                + ", p50 " + (percentile(sorted, 50) / 1000) + ", p95 " + (percentile(sorted, 95) / 1000)
+                + ", max " + (sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000));
+        if (measuringAllocation) {
+            System.out.println("Allocated: " + (totalBytes / 1024) + " KB total, "
+                    + (totalBytes / Math.max(1, game.length) / 1024) + " KB per frame, "
+                    + (totalNanos == 0 ? 0 : (long) (totalBytes / (totalNanos / 1e9) / (1024 * 1024))) + " MB/s while rendering");
+        } else {
+            System.out.println("Allocated: not supported by this JVM");
+        }
+    }
+
+    /**
+     * Applies the specified placement to the board, the BoardPane, the
+     * player's counters and the player's hand.
+     * @param placement the placement (see the class description)
+     * @return the color of the player who made the placement (or the first
+     * player's color if the robber was moved)
+     * @throws IllegalArgumentException if the placement cannot be read
+     */
+    private String apply(String placement) {
+        String[] fields = placement.trim().split("\\s+");
+        int loc = Integer.parseInt(fields[1]);
+        String color;
+        if (fields[0].equals("S")) {
+            color = fields[2];
+            board.placeSettlement(loc, color);
+            boardPane.addSettlement(loc, color);
+            players.get(color).placeSettlement();
+            //Hand out one resource card for each tile next to the new settlement
+            for (int tileLoc : board.getCorner(loc).getAdjacentTileLocs()) {
+                Tile tile = board.getTile(tileLoc);
+                if (!tile.getTerrain().equals(Tile.DESERT)) {
+                    players.get(color).giveResource(tile.getResourceProduced(), 1);
+                    resourcePanes.get(color).addCard(tile.getResourceProduced());
+                }
+            }
+        } else if (fields[0].equals("R")) {
+            color = fields[2];
+            board.addRoad(loc, color);
+            boardPane.addRoad(loc, color);
+            players.get(color).placeRoad();
+        } else if (fields[0].equals("C")) {
+            color = board.getCorner(loc).getSettlementColor();
+            board.upgradeSettlement(loc);
+            boardPane.addCity(loc);
+            players.get(color).placeCity();
+        } else if (fields[0].equals("B")) {
+            color = GameController.PLAYER_COLORS[0];
+            board.moveRobber(loc);
+            boardPane.moveRobber(loc);
+        } else {
+            throw new IllegalArgumentException("Unknown placement: " + placement);
+        }
+        Player player = players.get(color);
+        infoPanels.get(color).setCounts(player.getNumRemainingRoads(), player.getNumRemainingSettlements(), player.getNumRemainingCities(),
+                player.getSumResourceCards(), player.getSumDevCards(), player.getNumKnightCardsPlayed());
+        return color;
+    }
+
+    /**
+     * Renders the board, every PlayerInfoPanel, the PlayerPanel and the hands
+     * of the specified player into their offscreen images.
+     * @param color the color of the player whose hands are rendered
+     * @return the number of components that were rendered
+     */
+    private int renderFrame(String color) {
+        int numComponents = render(boardPane);
+        for (String playerColor : GameController.PLAYER_COLORS) {
+            numComponents += render(infoPanels.get(playerColor));
+        }
+        numComponents += render(playerPanel);
+        numComponents += render(resourcePanes.get(color));
+        numComponents += render(devCardPanes.get(color));
+        return numComponents;
+    }
+
+    /**
+     * Lays out the specified component (if its preferred size changed) and
+     * paints it into its offscreen image.
+     * @param component the component to render
+     * @return the number of components painted (the component and every
+     * component inside of it)
+     */
+    private int render(JComponent component) {
+        Dimension size = component.getPreferredSize();
+        size = new Dimension(Math.max(1, size.width), Math.max(1, size.height));
+        BufferedImage image = images.get(component);
+        if (image == null || image.getWidth() != size.width || image.getHeight() != size.height) {
+            component.setSize(size);
+            layOut(component);
+            image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+            images.put(component, image);
+        } else if (!component.isValid()) {
+            layOut(component);
+        }
+        Graphics2D g = image.createGraphics();
+        try {
+            component.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return countComponents(component);
+    }
+
+    /**
+     * Lays out the specified container and every container inside of it.
+     * (Components that are not shown on screen are never validated by Swing.)
+     * @param container the container to lay out
+     */
+    private static void layOut(Container container) {
+        container.doLayout();
+        for (Component child : container.getComponents()) {
+            if (child instanceof Container) {
+                layOut((Container) child);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of components in the specified component (including
+     * the component itself).
+     * @param component the component
+     * @return the number of components in the specified component
+     */
+    private static int countComponents(Component component) {
+        int count = 1;
+        if (component instanceof Container) {
+            for (Component child : ((Container) component).getComponents()) {
+                count += countComponents(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes the calling thread has allocated, or -1 if
+     * the JVM cannot measure it.
+     * @return the number of bytes the calling thread has allocated (or -1)
+     */
+    private long getAllocatedBytes() {
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the specified percentile of the specified sorted values.
+     * @param sorted  the values, sorted from smallest to largest
+     * @param percent the percentile
+     * @return the specified percentile of the values (or 0 if there are none)
+     */
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (sorted.length * percent) / 100)];
+    }
+
+    /**
+     * Reads the recorded game in the specified file, skipping blank lines.
+     * @param fileName the name of the file
+     * @return the placements in the file
+     * @throws IOException if the file cannot be read
+     */
+    private static String[] readGame(String fileName) throws IOException {
+        ArrayList<String> game = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    game.add(line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return game.toArray(new String[game.size()]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        final String[] game = args.length > 0 ? readGame(args[0]) : RECORDED_GAME;
+        SwingUtilities.invokeAndWait(new Runnable() {//Swing components are only used on the event dispatch thread
+            @Override
+            public void run() {
+                new RenderBenchmark().run(game);
+            }
+        });
+        System.exit(0);
+    }
+}
@@ -0,0 +1,61 @@
+import soc.base.ai.GreedyBot;
+import soc.base.model.BoardGenerator;
+import soc.base.net.GameRoom;
+import soc.base.net.RoomScheduler;
+import soc.base.sim.Bot;
+
+import java.util.Random;
+
+/**
+ * Opens many bot rooms on a RoomScheduler, lets them play while the
+ * scheduler rebalances them between its loops, and closes half of them in the
+ * middle of it. Prints the number of rooms in the directory next to the
+ * number pinned to the loops (they should match), and, once every game is
+ * over, how many idle rooms still report a load (there should be none). At
+ * the end every room is closed, which should leave no room pinned.
+ * <p>
+ * Usage: java RoomSchedulerBenchmark [number of rooms] [seconds to play]
+ * @author Connor Barnes
+ */
+public class RoomSchedulerBenchmark {
+    private static final int DEFAULT_NUM_ROOMS = 200;
+    private static final int DEFAULT_SECONDS = 8;
+    private static final int NUM_LOOPS = 4;
+    private static final long MOVE_DELAY_MILLIS = 1;
+    private static final long SETTLE_MILLIS = 2500;//Longer than a load window, so idle rooms lose their load
+
+    public static void main(String[] args) throws InterruptedException {
+        int numRooms = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_ROOMS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        RoomScheduler scheduler = new RoomScheduler(NUM_LOOPS);
+        scheduler.start();
+        Bot.Factory[] seats = {GreedyBot.FACTORY, GreedyBot.FACTORY, GreedyBot.FACTORY, GreedyBot.FACTORY};
+        for (int i = 0; i < numRooms; i++) {
+            //Later rooms make their moves more slowly, so the loops end up unevenly loaded
+            scheduler.openBotRoom(BoardGenerator.randomLayout(new Random(i)), seats, i, MOVE_DELAY_MILLIS + i % 3, null);
+        }
+        Thread.sleep(seconds * 500L);
+        for (String roomId : scheduler.getDirectory().keySet()) {
+            if (roomId.hashCode() % 2 == 0) {
+                scheduler.closeRoom(roomId);
+            }
+        }
+        Thread.sleep(seconds * 500L);
+        System.out.printf("%,d rooms in the directory, %,d pinned to the loops%n", scheduler.getDirectory().size(),
+                scheduler.getNumPinnedRooms());
+        Thread.sleep(SETTLE_MILLIS);
+        int numLoaded = 0;
+        for (GameRoom room : scheduler.getDirectory().values()) {
+            if (room.getLoad() > 0) {
+                numLoaded++;
+            }
+        }
+        System.out.printf("%,d rooms still report a load %d ms after their games are over%n", numLoaded, SETTLE_MILLIS);
+        for (String roomId : scheduler.getDirectory().keySet()) {
+            scheduler.closeRoom(roomId);
+        }
+        Thread.sleep(SETTLE_MILLIS);
+        System.out.printf("%,d rooms pinned after closing every room%n", scheduler.getNumPinnedRooms());
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,92 @@
+import soc.base.ai.GreedyBot;
+import soc.base.model.BoardGenerator;
+import soc.base.net.GameRoom;
+import soc.base.net.PublicGameView;
+import soc.base.net.RoomScheduler;
+import soc.base.net.SpectatorHub;
+import soc.base.sim.Bot;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens many bot rooms on a RoomScheduler and has a spectator that takes each
+ * view right away watch each of them. The first room is also watched by a
+ * spectator that takes SLOW_VIEW_MILLIS per view, as if it were on a slow
+ * connection (it holds a writer thread while it does, so only one is used).
+ * Prints how many views each kind of spectator was sent and how many were
+ * skipped because the spectator fell behind, and counts every view that
+ * arrived out of order (there should be none).
+ * <p>
+ * Usage: java SpectatorBenchmark [number of rooms] [seconds to run]
+ * @author Connor Barnes
+ */
+public class SpectatorBenchmark {
+    private static final int DEFAULT_NUM_ROOMS = 50;
+    private static final int DEFAULT_SECONDS = 5;
+    private static final long MOVE_DELAY_MILLIS = 2;
+    private static final long SLOW_VIEW_MILLIS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        int numRooms = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_ROOMS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        final AtomicLong[] fastTotals = {new AtomicLong(), new AtomicLong()};//{views, skipped}
+        final AtomicLong[] slowTotals = {new AtomicLong(), new AtomicLong()};
+        final AtomicLong numOutOfOrder = new AtomicLong();
+        RoomScheduler scheduler = new RoomScheduler(2);
+        scheduler.start();
+        Bot.Factory[] seats = {GreedyBot.FACTORY, GreedyBot.FACTORY, GreedyBot.FACTORY, GreedyBot.FACTORY};
+        for (int i = 0; i < numRooms; i++) {
+            final boolean slow = i == 0;
+            scheduler.openBotRoom(BoardGenerator.randomLayout(new Random(i)), seats, i, MOVE_DELAY_MILLIS,
+                    new RoomScheduler.RoomListener() {
+                        @Override
+                        public void roomOpened(GameRoom room) {
+                            room.getSpectators().addSpectator(createSpectator(0, fastTotals, numOutOfOrder));
+                            if (slow) {
+                                room.getSpectators().addSpectator(createSpectator(SLOW_VIEW_MILLIS, slowTotals, numOutOfOrder));
+                            }
+                        }
+                    });
+        }
+        Thread.sleep(seconds * 1000L);
+        scheduler.shutdown();
+        System.out.printf("%,d rooms for %d s%n", numRooms, seconds);
+        System.out.printf("Fast spectators: %,d views, %,d skipped%n", fastTotals[0].get(), fastTotals[1].get());
+        System.out.printf("Slow spectators: %,d views, %,d skipped%n", slowTotals[0].get(), slowTotals[1].get());
+        System.out.printf("%,d views out of order%n", numOutOfOrder.get());
+    }
+
+    /**
+     * Creates a spectator that takes the specified time to receive each view.
+     * @param viewMillis    the number of milliseconds each view takes
+     * @param totals        the views received and skipped by spectators of
+     *                      this kind
+     * @param numOutOfOrder the number of views that were older than the view
+     *                      before them
+     * @return the spectator
+     */
+    private static SpectatorHub.SpectatorListener createSpectator(final long viewMillis, final AtomicLong[] totals,
+                                                                  final AtomicLong numOutOfOrder) {
+        return new SpectatorHub.SpectatorListener() {
+            private long lastVersion = -1;
+
+            @Override
+            public void viewUpdated(PublicGameView view, long numCoalesced) {
+                if (view.getVersion() <= lastVersion) {
+                    numOutOfOrder.incrementAndGet();
+                }
+                lastVersion = view.getVersion();
+                totals[0].incrementAndGet();
+                totals[1].addAndGet(numCoalesced);
+                if (viewMillis > 0) {
+                    try {
+                        Thread.sleep(viewMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+import soc.base.ai.GreedyBot;
+import soc.base.ai.RandomBot;
+import soc.base.sim.EloRatings;
+import soc.base.sim.GameStatistics;
+import soc.base.sim.TournamentRunner;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Plays a tournament between the GreedyBot and the RandomBot on every
+ * processor, writes the result of each game to a CSV file, and prints how
+ * many games were played per minute along with the rating of each bot.
+ * <p>
+ * Usage: java TournamentBenchmark [number of boards] [CSV file]
+ * @author Connor Barnes
+ */
+public class TournamentBenchmark {
+    private static final int DEFAULT_NUM_BOARDS = 2000;
+    private static final String DEFAULT_CSV_FILE = "tournament.csv";
+
+    public static void main(String[] args) throws IOException {
+        int numBoards = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_BOARDS;
+        String csvFile = args.length > 1 ? args[1] : DEFAULT_CSV_FILE;
+        String[] names = {"Greedy", "Random"};
+        TournamentRunner runner = new TournamentRunner(0L, Runtime.getRuntime().availableProcessors());
+        runner.addBot(names[0], GreedyBot.FACTORY);
+        runner.addBot(names[1], RandomBot.FACTORY);
+        Writer csv = new BufferedWriter(new FileWriter(csvFile));
+        long startTime = System.nanoTime();
+        EloRatings ratings;
+        try {
+            ratings = runner.run(numBoards, csv);
+        } finally {
+            csv.close();
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("%,d games in %.2f s (%,.0f games/min on %d processors), %,d draws%n", ratings.getNumGames(),
+                seconds, ratings.getNumGames() * 60 / seconds, Runtime.getRuntime().availableProcessors(), ratings.getNumDraws());
+        System.out.println("Bot     Win rate  Elo     Performance");
+        for (int bot = 0; bot < names.length; bot++) {
+            System.out.printf("%-7s %7.1f%%  %6.0f  %6.0f +/- %.0f%n", names[bot], ratings.getWinRate(bot) * 100, ratings.getRating(bot),
+                    ratings.getPerformanceRating(bot), ratings.getConfidenceInterval(bot));
+        }
+        GameStatistics statistics = runner.getStatistics();
+        System.out.print("Seat win rates:");
+        for (int seat = 0; seat < 4; seat++) {
+            System.out.printf(" %.1f%%", statistics.getSeatWinRate(seat) * 100);
+        }
+        System.out.printf("%nGame length: mean %.1f, median %d, 90th percentile %d turns%n", statistics.getMeanGameLength(),
+                statistics.getGameLengthQuantile(0.5), statistics.getGameLengthQuantile(0.9));
+        System.out.println("Share of setup pips  Players  Win rate");
+        for (int bucket = 0; bucket < GameStatistics.NUM_PIP_SHARE_BUCKETS; bucket++) {
+            if (statistics.getNumPipShareGames(bucket) > 0) {
+                System.out.printf("%3d%% - %3d%%          %7d  %7.1f%%%n", bucket * 100 / GameStatistics.NUM_PIP_SHARE_BUCKETS,
+                        (bucket + 1) * 100 / GameStatistics.NUM_PIP_SHARE_BUCKETS, statistics.getNumPipShareGames(bucket),
+                        statistics.getPipShareWinRate(bucket) * 100);
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+import soc.base.ai.GreedyBot;
+import soc.base.ai.RandomBot;
+import soc.base.model.Board;
+import soc.base.model.BoardGenerator;
+import soc.base.model.IncomeTracker;
+import soc.base.model.Player;
+import soc.base.sim.Bot;
+import soc.base.sim.GameAction;
+import soc.base.sim.HeadlessGame;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Tests the undo() and redo() methods in the HeadlessGame class by playing
+ * games in which the first seat takes random actions through step() (most of
+ * them allowed, some of them not) and the other seats are GreedyBots and
+ * RandomBots. Each action from the first seat is checked against a model of
+ * what can be undone: an action that is rejected must change nothing, undo()
+ * and redo() must restore exactly the state before and after the action, and
+ * nothing taken up to a development card being bought, a Knight being played
+ * or a card being stolen can be undone. After each bot's turn, every action
+ * the bot took is undone and redone and the states are compared the same
+ * way. The state compared covers the cards, pieces, awards and development
+ * cards of every player, the board and its income, the robber, the deck and
+ * the phase.
+ * <p>
+ * Prints the number of actions checked and any mismatches found, and exits
+ * with status 1 if there were any.
+ * <p>
+ * Usage: java UndoFuzzTest [number of games]
+ * @author Connor Barnes
+ */
+public class UndoFuzzTest {
+    private static final int DEFAULT_NUM_GAMES = 300;
+    private static final int MAX_PRINTED_FAILURES = 10;
+
+    private static int numChecked, numUndone, numFailed;
+
+    public static void main(String[] args) {
+        int numGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_GAMES;
+        for (int seed = 0; seed < numGames; seed++) {
+            playGame(seed);
+        }
+        System.out.printf("%,d actions from the first seat checked and %,d bot actions undone and redone in %,d games, %d mismatches%n",
+                numChecked, numUndone, numGames, numFailed);
+        if (numFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a game with random actions from the first seat, checking every
+     * action from the first seat and every bot's turn.
+     * @param seed the seed of the game, its board and the random actions
+     */
+    private static void playGame(int seed) {
+        Bot[] bots = new Bot[HeadlessGame.NUM_PLAYERS];
+        for (int seat = 1; seat < bots.length; seat++) {
+            bots[seat] = new CheckedBot(seat % 2 == 0 ? GreedyBot.FACTORY.createBot() : RandomBot.FACTORY.createBot());
+        }
+        HeadlessGame game = new HeadlessGame(BoardGenerator.randomLayout(new Random(seed)), bots, seed);
+        Random random = new Random(seed);
+        ArrayList<String> undoStates = new ArrayList<String>();//The state before each action that can be undone
+        ArrayList<String> redoStates = new ArrayList<String>();//The state after each action that can be redone
+        String actionStart = null;//The state before an action that is waiting for the robber to be moved
+        int actionStartPhase = 0;
+        int actionStartType = 0;
+        while (!game.isOver()) {
+            if (!game.isAwaitingAction()) {
+                game.advance();
+                continue;
+            }
+            int action = chooseAction(game, random);
+            int type = GameAction.getType(action);
+            int phaseBefore = game.getPhase();
+            String before = getState(game);
+            boolean taken = game.step(action);
+            String after = getState(game);
+            int phase = game.getPhase();
+            numChecked++;
+            if (!taken) {
+                check(after.equals(before), "rejected " + GameAction.toString(action) + " changed the game");
+                if (type == GameAction.UNDO && isUndoablePhase(phase)) {
+                    check(undoStates.isEmpty(), "UNDO was rejected with an action to undo");
+                } else if (type == GameAction.REDO && isUndoablePhase(phase)) {
+                    check(redoStates.isEmpty(), "REDO was rejected with an action to redo");
+                }
+            } else if (type == GameAction.UNDO) {
+                check(!undoStates.isEmpty() && after.equals(undoStates.remove(undoStates.size() - 1)),
+                        "UNDO did not restore the state before the action");
+                redoStates.add(before);
+            } else if (type == GameAction.REDO) {
+                check(!redoStates.isEmpty() && after.equals(redoStates.remove(redoStates.size() - 1)),
+                        "REDO did not restore the state after the action");
+                undoStates.add(before);
+            } else if (phase == HeadlessGame.MOVE_ROBBER || phase == HeadlessGame.STEAL) {
+                if (actionStart == null) {
+                    actionStart = before;//The robber is moved as part of the same action
+                    actionStartPhase = phaseBefore;
+                    actionStartType = type;
+                }
+            } else {
+                if (actionStart != null) {
+                    before = actionStart;
+                    phaseBefore = actionStartPhase;
+                    type = actionStartType;
+                    actionStart = null;
+                }
+                redoStates.clear();
+                if (!isUndoablePhase(phaseBefore) || !isUndoablePhase(phase) || type == GameAction.BUY_DEV_CARD
+                        || type == GameAction.PLAY_KNIGHT || type == GameAction.STEAL) {
+                    undoStates.clear();//The turn started or ended, or the action revealed a card
+                } else {
+                    undoStates.add(before);
+                }
+            }
+            if (phase != HeadlessGame.MOVE_ROBBER && phase != HeadlessGame.STEAL) {
+                check(game.getNumUndoableActions() == undoStates.size(), "expected " + undoStates.size()
+                        + " actions to undo after " + GameAction.toString(action) + ", found " + game.getNumUndoableActions());
+            }
+        }
+    }
+
+    /**
+     * Returns true if actions taken in the specified phase can be undone.
+     * @param phase the phase
+     * @return true if the phase is MAIN or ROAD_BUILDING
+     */
+    private static boolean isUndoablePhase(int phase) {
+        return phase == HeadlessGame.MAIN || phase == HeadlessGame.ROAD_BUILDING;
+    }
+
+    /**
+     * Chooses a random action for the player the specified game is waiting
+     * for. In the main phase this is usually one that is allowed (a build at
+     * a valid location, a purchase, a development card, a trade, an undo or
+     * a redo), and sometimes any action at all; other phases are played as
+     * simply as possible.
+     * @param game   the game
+     * @param random chooses the action
+     * @return the action
+     */
+    private static int chooseAction(HeadlessGame game, Random random) {
+        int player = game.getActingPlayer();
+        int[] locs = new int[Math.max(HeadlessGame.NUM_CORNERS, HeadlessGame.NUM_ROADS)];
+        int numResources = HeadlessGame.NUM_RESOURCES;
+        if (game.getPhase() != HeadlessGame.MAIN && game.getPhase() != HeadlessGame.ROAD_BUILDING) {
+            if (random.nextInt(8) == 0) {
+                return GameAction.encode(random.nextInt(GameAction.REDO + 1), random.nextInt(HeadlessGame.NUM_ROADS), random.nextInt(3));
+            }
+            return GameSchedulerBenchmark.chooseAction(game);
+        }
+        int numLocs;
+        switch (random.nextInt(14)) {
+            case 0:
+                return GameAction.encode(GameAction.END_TURN);
+            case 1:
+            case 2:
+                return GameAction.encode(GameAction.UNDO);
+            case 3:
+                return GameAction.encode(GameAction.REDO);
+            case 4:
+                numLocs = game.getValidRoadLocs(player, locs);
+                return GameAction.encode(GameAction.BUILD_ROAD, numLocs == 0 ? 0 : locs[random.nextInt(numLocs)]);
+            case 5:
+                numLocs = game.getValidSettlementLocs(player, false, locs);
+                return GameAction.encode(GameAction.BUILD_SETTLEMENT, numLocs == 0 ? 0 : locs[random.nextInt(numLocs)]);
+            case 6:
+                numLocs = game.getValidCityLocs(player, locs);
+                return GameAction.encode(GameAction.BUILD_CITY, numLocs == 0 ? 0 : locs[random.nextInt(numLocs)]);
+            case 7:
+                return GameAction.encode(GameAction.BUY_DEV_CARD);
+            case 8:
+                return GameAction.encode(GameAction.PLAY_KNIGHT);
+            case 9:
+                return GameAction.encode(GameAction.PLAY_ROAD_BUILDING);
+            case 10:
+                return GameAction.encode(GameAction.PLAY_YEAR_OF_PLENTY, random.nextInt(numResources), random.nextInt(numResources));
+            case 11:
+                return GameAction.encode(GameAction.PLAY_MONOPOLY, random.nextInt(numResources));
+            case 12:
+                return GameAction.encode(GameAction.TRADE, random.nextInt(numResources), random.nextInt(numResources));
+            default:
+                return GameAction.encode(random.nextInt(GameAction.REDO + 1), random.nextInt(HeadlessGame.NUM_ROADS), random.nextInt(3));
+        }
+    }
+
+    /**
+     * Returns a description of everything in the specified game that an
+     * action can change.
+     * @param game the game
+     * @return the state of the game
+     */
+    private static String getState(HeadlessGame game) {
+        StringBuilder state = new StringBuilder();
+        Board board = game.getBoard();
+        for (int index = 0; index < HeadlessGame.NUM_PLAYERS; index++) {
+            Player player = game.getPlayer(index);
+            for (int resource = 0; resource < HeadlessGame.NUM_RESOURCES; resource++) {
+                state.append(game.getNumCards(index, resource)).append(',');
+            }
+            state.append(player.getNumVictoryPoints()).append(',').append(player.getNumRemainingRoads()).append(',')
+                    .append(player.getNumRemainingSettlements()).append(',').append(player.getNumRemainingCities()).append(',')
+                    .append(player.getLongestRoadLength()).append(player.hasLongestRoad()).append(player.hasLargestArmy())
+                    .append(player.getNumKnightCardsPlayed()).append(',').append(player.getHarborMask()).append(',')
+                    .append(player.getSumDevCards()).append(',');
+            for (int type = 0; type < 9; type++) {
+                state.append(game.getNumDevCards(index, type));
+            }
+            IncomeTracker.Income income = board.getIncomeTracker().getIncome(player.getColor());
+            for (int resource = 0; resource < HeadlessGame.NUM_RESOURCES; resource++) {
+                state.append(income.getPips(resource)).append(':');
+            }
+            state.append(board.getSettlementLocs(player.getColor())).append(board.getRoadLocs(player.getColor())).append('|');
+        }
+        for (int cornerLoc = 0; cornerLoc < HeadlessGame.NUM_CORNERS; cornerLoc++) {
+            state.append(game.getCornerOwner(cornerLoc)).append(game.isCity(cornerLoc) ? 'c' : 's')
+                    .append(board.getCorner(cornerLoc).hasCity() ? 'C' : '-');
+        }
+        for (int roadLoc = 0; roadLoc < HeadlessGame.NUM_ROADS; roadLoc++) {
+            state.append(game.getRoadOwner(roadLoc));
+        }
+        for (int tileLoc = 0; tileLoc < HeadlessGame.NUM_TILES; tileLoc++) {
+            state.append(board.getTile(tileLoc).getSettlementLocs().size());
+        }
+        state.append('|').append(game.getPhase()).append(',').append(board.getRobberLoc()).append(',')
+                .append(game.getNumDevCardsLeft()).append(',').append(game.getWinner()).append(',').append(game.getNumFreeRoads());
+        for (int type = 0; type < 4; type++) {
+            state.append(game.canPlayDevCard(type));
+        }
+        return state.toString();
+    }
+
+    /**
+     * Counts a check, printing the message if it failed.
+     * @param passed  whether the check passed
+     * @param message what went wrong
+     */
+    private static void check(boolean passed, String message) {
+        if (!passed && ++numFailed <= MAX_PRINTED_FAILURES) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * A bot that lets another bot make every decision and, after each of its
+     * turns, undoes every action that can be undone and redoes them, checking
+     * that the states match the ones seen on the way back.
+     */
+    private static class CheckedBot implements Bot {
+        private final Bot bot;
+
+        /**
+         * Constructs a bot that checks the turns of the specified bot.
+         * @param bot the bot that makes the decisions
+         */
+        public CheckedBot(Bot bot) {
+            this.bot = bot;
+        }
+
+        @Override
+        public int placeSetupSettlement(HeadlessGame game, int player) {
+            return bot.placeSetupSettlement(game, player);
+        }
+
+        @Override
+        public int placeSetupRoad(HeadlessGame game, int player, int settlementLoc) {
+            return bot.placeSetupRoad(game, player, settlementLoc);
+        }
+
+        @Override
+        public void discard(HeadlessGame game, int player, int numCards, int[] discarded) {
+            bot.discard(game, player, numCards, discarded);
+        }
+
+        @Override
+        public int moveRobber(HeadlessGame game, int player) {
+            return bot.moveRobber(game, player);
+        }
+
+        @Override
+        public int chooseVictim(HeadlessGame game, int player, int tileLoc) {
+            return bot.chooseVictim(game, player, tileLoc);
+        }
+
+        @Override
+        public int getEstimatedBytes() {
+            return bot.getEstimatedBytes();
+        }
+
+        @Override
+        public void playTurn(HeadlessGame game, int player) {
+            bot.playTurn(game, player);
+            String after = getState(game);
+            int numActions = game.getNumUndoableActions();
+            ArrayList<String> states = new ArrayList<String>();
+            while (game.getNumUndoableActions() > 0) {
+                states.add(getState(game));
+                check(game.undo(), "undo() was rejected with an action to undo");
+                numUndone++;
+            }
+            check(!game.undo(), "undo() was allowed with no action to undo");
+            for (int i = states.size() - 1; i >= 0; i--) {
+                check(game.redo(), "redo() was rejected with an action to redo");
+                check(getState(game).equals(states.get(i)), "redo() did not restore the state after a bot's action");
+            }
+            check(getState(game).equals(after) && game.getNumUndoableActions() == numActions,
+                    "undoing and redoing a bot's turn changed the game");
+        }
+    }
+}